@@ -0,0 +1,118 @@
+package es.ubu.inf.tfg.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.ubu.inf.tfg.doc.Documento;
+import es.ubu.inf.tfg.doc.Problema;
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+import es.ubu.inf.tfg.regex.datos.Generador;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
+
+/**
+ * Mide la exportación de un documento completo. El documento alterna problemas
+ * de Aho-Sethi-Ullman y de construcción de subconjuntos en todas sus
+ * modalidades, a partir de expresiones obtenidas de una semilla fija.
+ * <p>
+ * La exportación a Moodle XML dibuja los árboles y autómatas como imágenes,
+ * por lo que necesita un entorno gráfico.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ExportacionBenchmark {
+
+	@Param({ "3", "4" })
+	public int profundidad;
+
+	@Param({ "2", "4", "6" })
+	public int simbolos;
+
+	@Param({ "6", "24" })
+	public int problemas;
+
+	@Param({ "1" })
+	public long semilla;
+
+	private Documento documento;
+	private File fichero;
+
+	@Setup(Level.Trial)
+	public void prepara() throws IOException {
+		Generador generador = new Generador(this.simbolos, false, true,
+				new SplittableRandom(this.semilla));
+		this.documento = new Documento();
+
+		int numero = 1;
+		while (numero <= this.problemas) {
+			ExpresionRegular expresion = generador.arbol(this.profundidad);
+			AhoSethiUllman asu = new AhoSethiUllman(expresion);
+			ConstruccionSubconjuntos cs = new ConstruccionSubconjuntos(
+					expresion);
+			switch (numero % 6) {
+			case 0:
+				this.documento.añadirProblema(Problema.asuConstruccion(asu,
+						numero));
+				break;
+			case 1:
+				this.documento.añadirProblema(Problema.asuEtiquetado(asu,
+						numero));
+				break;
+			case 2:
+				this.documento.añadirProblema(Problema.asuTablas(asu, numero));
+				break;
+			case 3:
+				this.documento.añadirProblema(Problema.CSConstruccion(cs,
+						numero));
+				break;
+			case 4:
+				this.documento.añadirProblema(Problema.CSExpresion(cs,
+						numero));
+				break;
+			default:
+				this.documento.añadirProblema(Problema.CSAutomata(cs,
+						numero));
+			}
+			numero++;
+		}
+
+		this.fichero = File.createTempFile("plquiz-benchmark", "");
+	}
+
+	@TearDown(Level.Trial)
+	public void limpia() {
+		new File(this.fichero + ".xml").delete();
+		new File(this.fichero + ".tex").delete();
+		this.fichero.delete();
+	}
+
+	@Benchmark
+	public void exportaXML() throws IOException {
+		this.documento.exportaXML(this.fichero);
+	}
+
+	@Benchmark
+	public void exportaTikZLatex() throws IOException {
+		this.documento.exportaTikZLatex(this.fichero);
+	}
+}
@@ -0,0 +1,48 @@
+package es.ubu.inf.tfg.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+import es.ubu.inf.tfg.regex.parser.ExpresionRegularParser;
+import es.ubu.inf.tfg.regex.parser.JavaCharStream;
+import es.ubu.inf.tfg.regex.parser.ParseException;
+
+/**
+ * Mide el análisis sintáctico de expresiones regulares y la generación y
+ * mutación de árboles aleatorios.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpresionRegularBenchmark {
+
+	@Benchmark
+	public ExpresionRegular parser(Expresiones expresiones)
+			throws ParseException {
+		String cadena = expresiones.cadenas[expresiones.siguiente()] + '\n';
+		return new ExpresionRegularParser(new JavaCharStream(new StringReader(
+				cadena))).expresion();
+	}
+
+	@Benchmark
+	public ExpresionRegular arbol(Expresiones expresiones) {
+		return expresiones.generador.arbol(expresiones.profundidad);
+	}
+
+	@Benchmark
+	public ExpresionRegular mutacion(Expresiones expresiones) {
+		return expresiones.generador
+				.mutacion(expresiones.arboles[expresiones.siguiente()]);
+	}
+}
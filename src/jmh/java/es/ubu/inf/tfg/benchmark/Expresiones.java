@@ -0,0 +1,72 @@
+package es.ubu.inf.tfg.benchmark;
+
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+import es.ubu.inf.tfg.regex.datos.Generador;
+
+/**
+ * Estado compartido por los benchmarks que trabajan sobre expresiones
+ * regulares. Prepara un conjunto fijo de expresiones de la profundidad y el
+ * número de símbolos dados, que los benchmarks recorren de forma circular para
+ * no medir siempre la misma entrada. Las expresiones se obtienen de una
+ * semilla fija, de modo que todas las ejecuciones miden las mismas entradas.
+ */
+@State(Scope.Thread)
+public class Expresiones {
+
+	private static final int N = 64;
+
+	@Param({ "3", "5", "7" })
+	public int profundidad;
+
+	@Param({ "2", "4", "6" })
+	public int simbolos;
+
+	@Param({ "1" })
+	public long semilla;
+
+	public Generador generador;
+	public ExpresionRegular[] arboles;
+	public String[] cadenas;
+
+	private int siguiente;
+
+	@Setup(Level.Trial)
+	public void prepara() {
+		this.generador = new Generador(this.simbolos, false, true,
+				new SplittableRandom(this.semilla));
+		this.arboles = new ExpresionRegular[N];
+		this.cadenas = new String[N];
+
+		int i = 0;
+		while (i < N) {
+			ExpresionRegular arbol = this.generador.arbol(this.profundidad);
+			// Descarta los árboles demasiado pequeños para mutarlos.
+			long operadores = arbol.hijoIzquierdo().nodos().stream()
+					.filter(e -> !e.esSimbolo() && !e.esVacio()).count();
+			if (operadores > 1) {
+				this.arboles[i] = arbol;
+				this.cadenas[i] = arbol.hijoIzquierdo().toString();
+				i++;
+			}
+		}
+	}
+
+	/**
+	 * Devuelve el índice de la siguiente expresión a utilizar.
+	 * 
+	 * @return Índice de la expresión.
+	 */
+	public int siguiente() {
+		int actual = this.siguiente;
+		this.siguiente = (actual + 1) % N;
+		return actual;
+	}
+}
@@ -0,0 +1,66 @@
+package es.ubu.inf.tfg.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllmanGenerador;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntosGenerador;
+
+/**
+ * Mide la generación de problemas con un número de símbolos y de estados dado.
+ * Los generadores eligen por sí mismos la profundidad de las expresiones.
+ * Cada invocación utiliza un generador nuevo, cuya fuente aleatoria se divide de
+ * una semilla fija, de modo que todas las ejecuciones generan la misma
+ * secuencia de problemas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GeneracionBenchmark {
+
+	@Param({ "2", "4", "6" })
+	public int simbolos;
+
+	@Param({ "4", "8", "12" })
+	public int estados;
+
+	@Param({ "1" })
+	public long semilla;
+
+	private SplittableRandom random;
+
+	@Setup(Level.Trial)
+	public void prepara() {
+		this.random = new SplittableRandom(this.semilla);
+	}
+
+	@Benchmark
+	public AhoSethiUllman ahoSethiUllman() {
+		return new AhoSethiUllmanGenerador(this.random.split()).nuevo(
+				this.simbolos, this.estados, false);
+	}
+
+	@Benchmark
+	public ConstruccionSubconjuntos construccionSubconjuntos() {
+		return new ConstruccionSubconjuntosGenerador(this.random.split())
+				.nuevo(this.simbolos, this.estados, false);
+	}
+}
@@ -0,0 +1,38 @@
+package es.ubu.inf.tfg.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
+
+/**
+ * Mide la resolución completa de problemas a partir de su expresión regular en
+ * forma de cadena, incluyendo el análisis sintáctico.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolucionBenchmark {
+
+	@Benchmark
+	public AhoSethiUllman ahoSethiUllman(Expresiones expresiones) {
+		return new AhoSethiUllman(expresiones.cadenas[expresiones.siguiente()]);
+	}
+
+	@Benchmark
+	public ConstruccionSubconjuntos construccionSubconjuntos(
+			Expresiones expresiones) {
+		return new ConstruccionSubconjuntos(
+				expresiones.cadenas[expresiones.siguiente()]);
+	}
+}
@@ -0,0 +1,365 @@
+package es.ubu.inf.tfg.consola;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import es.ubu.inf.tfg.doc.Documento;
+import es.ubu.inf.tfg.doc.GeneradorBloque;
+import es.ubu.inf.tfg.doc.Problema;
+import es.ubu.inf.tfg.doc.ResolutorBloque;
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
+
+/**
+ * Consola implementa un punto de entrada por línea de comandos que genera un
+ * bloque de problemas y lo exporta a disco, sin interfaz gráfica. Los problemas
+ * se generan en paralelo y, al terminar, se informa del tiempo empleado en cada
+ * uno. Al bloque pueden añadirse también los problemas resueltos a partir de
+ * ficheros de expresiones regulares, una por línea.
+ * <p>
+ * Se ejecuta en modo headless, por lo que puede utilizarse en servidores sin
+ * entorno gráfico:
+ *
+ * <pre>
+ * java -cp PLQuiz.jar es.ubu.inf.tfg.consola.Consola --asu 20 --cs 20 --formato xml --salida banco
+ * </pre>
+ */
+public class Consola {
+
+	private static final Logger log = LoggerFactory.getLogger(Consola.class);
+
+	private static final String USO = "Uso: Consola --salida <fichero> [opciones]\n"
+			+ "  --asu <n>              Número de problemas Aho-Sethi-Ullman (0)\n"
+			+ "  --asu-simbolos <n>     Símbolos de los problemas Aho-Sethi-Ullman (3)\n"
+			+ "  --asu-estados <n>      Estados de los problemas Aho-Sethi-Ullman (5)\n"
+			+ "  --asu-vacio            Permite nodos vacíos en Aho-Sethi-Ullman\n"
+			+ "  --asu-modo <modo>      construccion | etiquetado | tablas (construccion)\n"
+			+ "  --asu-fichero <fich>   Resuelve como Aho-Sethi-Ullman las expresiones del fichero\n"
+			+ "  --cs <n>               Número de problemas de construcción de subconjuntos (0)\n"
+			+ "  --cs-simbolos <n>      Símbolos de construcción de subconjuntos (3)\n"
+			+ "  --cs-estados <n>       Estados de construcción de subconjuntos (5)\n"
+			+ "  --cs-vacio             Permite nodos vacíos en construcción de subconjuntos\n"
+			+ "  --cs-modo <modo>       construccion | expresion | automata (construccion)\n"
+			+ "  --cs-fichero <fich>    Resuelve como construcción de subconjuntos las expresiones del fichero\n"
+			+ "  --formato <formato>    xml | latex | tikz (xml)\n"
+			+ "  --hilos <n>            Hilos de generación (procesadores disponibles)\n"
+			+ "  --semilla <n>          Semilla para reproducir el bloque generado (aleatoria)\n"
+			+ "  --plazo <ms>           Tiempo máximo de búsqueda de cada problema, sin contar\n"
+			+ "                         su resolución final (sin límite)\n"
+			+ "  --indice <fichero>     Índice de problemas pregenerados (PLQuiz.idx si existe y\n"
+			+ "                         no se da --semilla)\n";
+
+	private int asuNum = 0;
+	private int asuSimbolos = 3;
+	private int asuEstados = 5;
+	private boolean asuVacio = false;
+	private String asuModo = "construccion";
+	private File asuFichero;
+
+	private int csNum = 0;
+	private int csSimbolos = 3;
+	private int csEstados = 5;
+	private boolean csVacio = false;
+	private String csModo = "construccion";
+	private File csFichero;
+
+	private String formato = "xml";
+	private int hilos = Runtime.getRuntime().availableProcessors();
+	private Integer semilla;
+	private Integer plazo;
+	private File indice;
+	private File salida;
+
+	/**
+	 * Punto de entrada de la aplicación en modo consola.
+	 *
+	 * @param args
+	 *            Argumentos de la línea de comandos.
+	 */
+	public static void main(String[] args) {
+		// Evita inicializar el entorno gráfico al dibujar imágenes.
+		System.setProperty("java.awt.headless", "true");
+
+		Consola consola = new Consola();
+		try {
+			consola.argumentos(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.print(USO);
+			System.exit(1);
+		}
+
+		// Con una semilla solo se usa un índice indicado expresamente, para
+		// que el bloque no dependa de los ficheros del directorio de trabajo.
+		if (consola.indice == null && consola.semilla == null)
+			IndiceProblemas.cargaPredeterminado();
+
+		try {
+			consola.ejecuta(System.out);
+		} catch (IOException | InterruptedException | RuntimeException e) {
+			// Los errores de generación o exportación se informan igual que
+			// los de escritura, sin dejar escapar la traza de la excepción.
+			log.error("Error generando el bloque de problemas.", e);
+			System.err.println("Error generando el bloque de problemas: "
+					+ e.getMessage());
+			System.exit(2);
+		}
+	}
+
+	/**
+	 * Interpreta los argumentos de la línea de comandos.
+	 *
+	 * @param args
+	 *            Argumentos de la línea de comandos.
+	 * @throws IllegalArgumentException
+	 *             Si algún argumento no es válido.
+	 */
+	void argumentos(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--asu":
+				asuNum = entero(args, ++i, 0);
+				break;
+			case "--asu-simbolos":
+				asuSimbolos = entero(args, ++i, 1);
+				break;
+			case "--asu-estados":
+				asuEstados = entero(args, ++i, 1);
+				break;
+			case "--asu-vacio":
+				asuVacio = true;
+				break;
+			case "--asu-modo":
+				asuModo = opcion(args, ++i, "construccion", "etiquetado",
+						"tablas");
+				break;
+			case "--asu-fichero":
+				asuFichero = new File(valor(args, ++i));
+				break;
+			case "--cs":
+				csNum = entero(args, ++i, 0);
+				break;
+			case "--cs-simbolos":
+				csSimbolos = entero(args, ++i, 1);
+				break;
+			case "--cs-estados":
+				csEstados = entero(args, ++i, 1);
+				break;
+			case "--cs-vacio":
+				csVacio = true;
+				break;
+			case "--cs-modo":
+				csModo = opcion(args, ++i, "construccion", "expresion",
+						"automata");
+				break;
+			case "--cs-fichero":
+				csFichero = new File(valor(args, ++i));
+				break;
+			case "--formato":
+				formato = opcion(args, ++i, "xml", "latex", "tikz");
+				break;
+			case "--hilos":
+				hilos = entero(args, ++i, 1);
+				break;
+			case "--semilla":
+				semilla = entero(args, ++i, Integer.MIN_VALUE);
+				break;
+			case "--plazo":
+				plazo = entero(args, ++i, 1);
+				break;
+			case "--indice":
+				indice = new File(valor(args, ++i));
+				break;
+			case "--salida":
+				salida = new File(valor(args, ++i));
+				break;
+			default:
+				throw new IllegalArgumentException("Argumento no reconocido: "
+						+ args[i]);
+			}
+		}
+
+		if (salida == null)
+			throw new IllegalArgumentException("Falta el fichero de salida.");
+	}
+
+	/**
+	 * Genera el bloque de problemas, lo exporta al fichero de salida e informa
+	 * de los tiempos empleados.
+	 *
+	 * @param out
+	 *            Flujo en el que escribir el informe de tiempos.
+	 * @throws IOException
+	 *             Indica un error durante la exportación.
+	 * @throws InterruptedException
+	 *             Si se interrumpe la generación.
+	 */
+	void ejecuta(PrintStream out) throws IOException, InterruptedException {
+		log.info(
+				"Generando desde consola {} problemas Aho-Sethi-Ullman y {} de construcción de subconjuntos con {} hilos.",
+				asuNum, csNum, hilos);
+
+		if (indice != null)
+			IndiceProblemas.instala(IndiceProblemas.abre(indice));
+
+		GeneradorBloque generador = semilla != null ? new GeneradorBloque(
+				hilos, semilla) : new GeneradorBloque(hilos);
+		Duration limite = plazo != null ? Duration.ofMillis(plazo) : null;
+		for (int i = 0; i < asuNum; i++)
+			generador.añadeAhoSethiUllman(asuSimbolos, asuEstados, asuVacio,
+					limite);
+		for (int i = 0; i < csNum; i++)
+			generador.añadeConstruccionSubconjuntos(csSimbolos, csEstados,
+					csVacio, limite);
+
+		long inicio = System.nanoTime();
+		List<Object> problemas = generador.genera(problema -> {
+		});
+		long generacion = System.nanoTime() - inicio;
+
+		Documento documento = semilla != null ? new Documento(semilla)
+				: new Documento();
+		int numero = 1;
+		for (Object problema : problemas)
+			documento.añadirProblema(problema(problema, numero++));
+
+		int[] resueltos = { numero };
+		if (asuFichero != null) {
+			ResolutorBloque resolutor = new ResolutorBloque(hilos);
+			resolutor.resuelveAhoSethiUllman(asuFichero,
+					problema -> documento.añadirProblema(problema(problema,
+							resueltos[0]++)));
+			errores(out, asuFichero, resolutor.errores());
+		}
+		if (csFichero != null) {
+			ResolutorBloque resolutor = new ResolutorBloque(hilos);
+			resolutor.resuelveConstruccionSubconjuntos(csFichero,
+					problema -> documento.añadirProblema(problema(problema,
+							resueltos[0]++)));
+			errores(out, csFichero, resolutor.errores());
+		}
+
+		inicio = System.nanoTime();
+		switch (formato) {
+		case "latex":
+			documento.exportaLatex(salida);
+			break;
+		case "tikz":
+			documento.exportaTikZLatex(salida);
+			break;
+		default:
+			documento.exportaXML(salida);
+		}
+		long exportacion = System.nanoTime() - inicio;
+
+		List<Long> tiempos = generador.tiempos();
+		out.println("Problema  Tipo  Símbolos  Estados  Tiempo (ms)");
+		for (int i = 0; i < problemas.size(); i++) {
+			Object problema = problemas.get(i);
+			if (problema instanceof AhoSethiUllman) {
+				AhoSethiUllman asu = (AhoSethiUllman) problema;
+				fila(out, i + 1, "ASU", asu.simbolos().size() - 1,
+						asu.nEstados(), tiempos.get(i));
+			} else {
+				ConstruccionSubconjuntos cs = (ConstruccionSubconjuntos) problema;
+				fila(out, i + 1, "CS", cs.simbolos().size(), cs.nEstados(),
+						tiempos.get(i));
+			}
+		}
+		out.println(String.format(Locale.ROOT,
+				"%d problemas generados en %.1f ms, exportados en %.1f ms.",
+				problemas.size(), generacion / 1e6, exportacion / 1e6));
+		if (asuFichero != null || csFichero != null)
+			out.println((resueltos[0] - numero)
+					+ " problemas resueltos desde fichero.");
+	}
+
+	/**
+	 * Informa de los errores encontrados al resolver un fichero de expresiones.
+	 */
+	private static void errores(PrintStream out, File fichero,
+			Map<Integer, String> errores) {
+		for (Map.Entry<Integer, String> error : errores.entrySet())
+			out.println(fichero.getName() + ":" + error.getKey() + ": "
+					+ error.getValue());
+	}
+
+	/**
+	 * Envuelve un problema generado según el modo pedido para su tipo.
+	 *
+	 * @param problema
+	 *            Problema generado.
+	 * @param numero
+	 *            Número del problema dentro del documento.
+	 * @return Problema listo para añadir al documento.
+	 */
+	private Problema<?> problema(Object problema, int numero) {
+		if (problema instanceof AhoSethiUllman) {
+			AhoSethiUllman asu = (AhoSethiUllman) problema;
+			switch (asuModo) {
+			case "etiquetado":
+				return Problema.asuEtiquetado(asu, numero);
+			case "tablas":
+				return Problema.asuTablas(asu, numero);
+			default:
+				return Problema.asuConstruccion(asu, numero);
+			}
+		} else {
+			ConstruccionSubconjuntos cs = (ConstruccionSubconjuntos) problema;
+			switch (csModo) {
+			case "expresion":
+				return Problema.CSExpresion(cs, numero);
+			case "automata":
+				return Problema.CSAutomata(cs, numero);
+			default:
+				return Problema.CSConstruccion(cs, numero);
+			}
+		}
+	}
+
+	private static void fila(PrintStream out, int numero, String tipo,
+			int simbolos, int estados, long tiempo) {
+		out.println(String.format(Locale.ROOT, "%8d  %-4s  %8d  %7d  %11.1f",
+				numero, tipo, simbolos, estados, tiempo / 1e6));
+	}
+
+	static String valor(String[] args, int i) {
+		if (i >= args.length)
+			throw new IllegalArgumentException("Falta el valor del argumento "
+					+ args[i - 1]);
+		return args[i];
+	}
+
+	static int entero(String[] args, int i, int minimo) {
+		String valor = valor(args, i);
+		int entero;
+		try {
+			entero = Integer.parseInt(valor);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Valor no numérico para "
+					+ args[i - 1] + ": " + valor);
+		}
+		if (entero < minimo)
+			throw new IllegalArgumentException("Valor demasiado pequeño para "
+					+ args[i - 1] + ": " + valor);
+		return entero;
+	}
+
+	private static String opcion(String[] args, int i, String... opciones) {
+		String valor = valor(args, i);
+		for (String opcion : opciones)
+			if (opcion.equals(valor))
+				return valor;
+		throw new IllegalArgumentException("Valor no válido para "
+				+ args[i - 1] + ": " + valor);
+	}
+}
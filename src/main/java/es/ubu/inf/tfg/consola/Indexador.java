@@ -0,0 +1,192 @@
+package es.ubu.inf.tfg.consola;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllmanEvaluador;
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+import es.ubu.inf.tfg.regex.datos.Generador;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas.Tipo;
+import es.ubu.inf.tfg.regex.parser.ExpresionRegularParserRapido;
+import es.ubu.inf.tfg.regex.parser.ParseException;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntosEvaluador;
+
+/**
+ * Indexador implementa un punto de entrada por línea de comandos que genera de
+ * forma masiva expresiones regulares aleatorias, las resuelve como problemas
+ * de Aho-Sethi-Ullman y de construcción de subconjuntos, y guarda en un
+ * {@link IndiceProblemas} las que se ajustan a los márgenes pedidos.
+ * <p>
+ * Cada expresión se clasifica a partir de su forma escrita, volviendo a
+ * analizarla, de modo que el problema que se construya después desde el
+ * índice coincide exactamente con el de su cubeta:
+ *
+ * <pre>
+ * java -cp PLQuiz.jar es.ubu.inf.tfg.consola.Indexador --salida PLQuiz.idx
+ * </pre>
+ */
+public class Indexador {
+
+	private static final Logger log = LoggerFactory.getLogger(Indexador.class);
+
+	private static final String USO = "Uso: Indexador --salida <fichero> [opciones]\n"
+			+ "  --expresiones <n>      Expresiones generadas por tipo de problema (100000)\n"
+			+ "  --max-simbolos <n>     Número máximo de símbolos (6)\n"
+			+ "  --max-estados <n>      Número máximo de estados (15)\n"
+			+ "  --por-cubeta <n>       Expresiones por combinación de parámetros (64)\n"
+			+ "  --semilla <n>          Semilla para reproducir el índice (aleatoria)\n";
+
+	private static final int MIN_PROFUNDIDAD = 2;
+	private static final int MAX_PROFUNDIDAD = 6;
+
+	private int expresiones = 100000;
+	private int maxSimbolos = 6;
+	private int maxEstados = 15;
+	private int porCubeta = 64;
+	private Integer semilla;
+	private File salida;
+
+	/**
+	 * Punto de entrada del indexador.
+	 *
+	 * @param args
+	 *            Argumentos de la línea de comandos.
+	 */
+	public static void main(String[] args) {
+		Indexador indexador = new Indexador();
+		try {
+			indexador.argumentos(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.print(USO);
+			System.exit(1);
+		}
+
+		try {
+			indexador.ejecuta(System.out);
+		} catch (IOException e) {
+			log.error("Error escribiendo el índice.", e);
+			System.err.println("Error escribiendo el índice: "
+					+ e.getMessage());
+			System.exit(2);
+		}
+	}
+
+	/**
+	 * Interpreta los argumentos de la línea de comandos.
+	 *
+	 * @param args
+	 *            Argumentos de la línea de comandos.
+	 * @throws IllegalArgumentException
+	 *             Si algún argumento no es válido.
+	 */
+	void argumentos(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--expresiones":
+				expresiones = Consola.entero(args, ++i, 1);
+				break;
+			case "--max-simbolos":
+				maxSimbolos = Consola.entero(args, ++i, 1);
+				break;
+			case "--max-estados":
+				maxEstados = Consola.entero(args, ++i, 1);
+				break;
+			case "--por-cubeta":
+				porCubeta = Consola.entero(args, ++i, 1);
+				break;
+			case "--semilla":
+				semilla = Consola.entero(args, ++i, Integer.MIN_VALUE);
+				break;
+			case "--salida":
+				salida = new File(Consola.valor(args, ++i));
+				break;
+			default:
+				throw new IllegalArgumentException("Argumento no reconocido: "
+						+ args[i]);
+			}
+		}
+
+		if (salida == null)
+			throw new IllegalArgumentException("Falta el fichero de salida.");
+	}
+
+	/**
+	 * Genera las expresiones, las clasifica y escribe el índice.
+	 *
+	 * @param out
+	 *            Flujo en el que informar del resultado.
+	 * @throws IOException
+	 *             Indica un error al escribir el índice.
+	 */
+	void ejecuta(PrintStream out) throws IOException {
+		log.info("Indexando {} expresiones por tipo de problema.", expresiones);
+
+		SplittableRandom random = semilla != null ? new SplittableRandom(
+				semilla) : new SplittableRandom();
+		IndiceProblemas.Escritor escritor = new IndiceProblemas.Escritor(
+				porCubeta);
+
+		long inicio = System.nanoTime();
+		for (Tipo tipo : Tipo.values())
+			for (boolean usaVacio : new boolean[] { false, true })
+				indexa(tipo, usaVacio, random.split(), escritor);
+		escritor.escribe(salida);
+
+		out.println(String.format(Locale.ROOT,
+				"%d expresiones indexadas en %.1f s.", escritor.tamaño(),
+				(System.nanoTime() - inicio) / 1e9));
+	}
+
+	/**
+	 * Genera la mitad de las expresiones de un tipo de problema, con o sin
+	 * nodos vacíos, y las añade a su cubeta.
+	 */
+	private void indexa(Tipo tipo, boolean usaVacio, SplittableRandom random,
+			IndiceProblemas.Escritor escritor) {
+		Generador[] generadores = new Generador[maxSimbolos];
+		for (int i = 0; i < maxSimbolos; i++)
+			generadores[i] = new Generador(i + 1, usaVacio, true,
+					random.split());
+
+		for (int i = 0; i < expresiones / 2; i++) {
+			int profundidad = MIN_PROFUNDIDAD
+					+ random.nextInt(MAX_PROFUNDIDAD - MIN_PROFUNDIDAD + 1);
+			ExpresionRegular arbol = generadores[random.nextInt(maxSimbolos)]
+					.arbol(profundidad);
+			String texto = arbol.hijoIzquierdo().toString();
+
+			ExpresionRegular expresion;
+			try {
+				expresion = ExpresionRegularParserRapido.analiza(texto);
+			} catch (ParseException e) {
+				log.warn("Descartada expresión no válida {}.", texto, e);
+				continue;
+			}
+
+			int nSimbolos, nEstados;
+			if (tipo == Tipo.AHO_SETHI_ULLMAN) {
+				AhoSethiUllmanEvaluador evaluador = new AhoSethiUllmanEvaluador(
+						expresion);
+				nSimbolos = evaluador.nSimbolos();
+				nEstados = evaluador.nEstados(maxEstados);
+			} else {
+				ConstruccionSubconjuntosEvaluador evaluador = new ConstruccionSubconjuntosEvaluador(
+						expresion);
+				nSimbolos = evaluador.nSimbolos();
+				nEstados = evaluador.nEstados(maxEstados);
+			}
+
+			if (nEstados <= maxEstados)
+				escritor.añade(tipo, nSimbolos, nEstados, expresion.nodos()
+						.stream().anyMatch(ExpresionRegular::esVacio), texto);
+		}
+	}
+}
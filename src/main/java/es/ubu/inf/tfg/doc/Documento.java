@@ -7,9 +7,13 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 import javax.imageio.ImageIO;
 
@@ -51,12 +55,27 @@ public class Documento {
 	private static final Logger log = LoggerFactory.getLogger(Documento.class);
 
 	private List<Problema<?>> problemas;
+	private final Long semilla;
 
 	/**
 	 * Crea un nuevo documento vacío.
 	 */
 	public Documento() {
 		this.problemas = new ArrayList<>();
+		this.semilla = null;
+	}
+
+	/**
+	 * Crea un nuevo documento vacío cuyas exportaciones a Moodle XML mezclan
+	 * las opciones de respuesta a partir de la semilla dada, de modo que
+	 * exportar los mismos problemas produce siempre el mismo documento.
+	 * 
+	 * @param semilla
+	 *            Semilla de los valores aleatorios de la exportación.
+	 */
+	public Documento(long semilla) {
+		this.problemas = new ArrayList<>();
+		this.semilla = semilla;
 	}
 
 	/**
@@ -105,7 +124,8 @@ public class Documento {
 	
 			return traductor.traduceProblema(plantilla, problema.getNumero());
 		} else {
-			return traductor.documento(new ArrayList<>());
+			// Documento vacío, con la misma cabecera y pie que la exportación.
+			return new Documento().traduce(traductor);
 		}
 	}
 	
@@ -178,7 +198,21 @@ public class Documento {
 		if (!ruta.toLowerCase().endsWith(".xml"))
 			ruta += ".xml";
 
-		guardar(ruta, traduce(new TraductorMoodleXML()));
+		guardar(ruta, traductorMoodleXML());
+	}
+
+	/**
+	 * Exporta el documento en formato XML al flujo de salida especificado,
+	 * escribiendo cada problema según se traduce. El flujo no se cierra.
+	 * 
+	 * @param salida
+	 *            Flujo de salida.
+	 * @throws IOException
+	 *             Indica un error durante la exportación.
+	 */
+	public void exportaXML(Writer salida) throws IOException {
+		log.info("Exportando documento como Moodle XML a flujo de salida");
+		traduce(traductorMoodleXML(), salida);
 	}
 
 	/**
@@ -196,31 +230,33 @@ public class Documento {
 		if (!ruta.toLowerCase().endsWith(".tex"))
 			ruta += ".tex";
 
-		List<BufferedImage> imagenes = new ArrayList<>();
+		// Las imágenes se nombran como las referencia el traductor, a partir de
+		// las expresiones y no de los objetos imagen, que pueden regenerarse.
+		Map<String, BufferedImage> imagenes = new LinkedHashMap<>();
 
 		for (Problema<?> problema : problemas) {
 			if (problema.getTipo().equals("ConstruccionSubconjuntosConstruccion")) {
 				ConstruccionSubconjuntos p = (ConstruccionSubconjuntos) problema.getProblema();
-				imagenes.add(p.automata());
+				imagenes.put(p.nombreAutomata(), p.automata());
 			} else if (problema.getTipo().equals("ConstruccionSubconjuntosAutomata")) {
 				ConstruccionSubconjuntos p = (ConstruccionSubconjuntos) problema.getProblema();
-				imagenes.add(p.automata());
+				imagenes.put(p.nombreAutomata(), p.automata());
 			} else if (problema.getTipo().equals("ConstruccionSubconjuntosExpresion")) {
 				ConstruccionSubconjuntos p = (ConstruccionSubconjuntos) problema.getProblema();
-				imagenes.add(p.automata());
+				imagenes.put(p.nombreAutomata(), p.automata());
 			} else if (problema.getTipo().equals("AhoSethiUllmanEtiquetado")) {
 				AhoSethiUllman p = (AhoSethiUllman) problema.getProblema();
-				imagenes.add(p.arbolVacio());
+				imagenes.put(p.nombreArbolVacio(), p.arbolVacio());
 			} else if (problema.getTipo().equals("AhoSethiUllmanConstruccion")) {
 				AhoSethiUllman p = (AhoSethiUllman) problema.getProblema();
-				imagenes.add(p.alternativas().get(0));
+				imagenes.put(p.nombresAlternativas().get(0), p.alternativas().get(0));
 			} else if (problema.getTipo().equals("AhoSethiUllmanTablas")) {
 				AhoSethiUllman p = (AhoSethiUllman) problema.getProblema();
-				imagenes.add(p.alternativas().get(0));
+				imagenes.put(p.nombresAlternativas().get(0), p.alternativas().get(0));
 			} 
 		}
 
-		guardar(ruta, traduce(new TraductorLatex()));
+		guardar(ruta, new TraductorLatex());
 		guardar(ruta, imagenes);
 	}
 
@@ -247,35 +283,35 @@ public class Documento {
 					"ConstruccionSubconjuntosConstruccion")) {
 				ConstruccionSubconjuntos p = (ConstruccionSubconjuntos) problema
 						.getProblema();
-				guardar(carpeta + Math.abs(p.automata().hashCode()) + ".gv",
+				guardar(carpeta + p.nombreAutomata() + ".gv",
 						p.automataDot());
 			} else if (problema.getTipo().equals(
 					"ConstruccionSubconjuntosAutomata")) {
 				ConstruccionSubconjuntos p = (ConstruccionSubconjuntos) problema
 						.getProblema();
-				guardar(carpeta + Math.abs(p.automata().hashCode()) + ".gv",
+				guardar(carpeta + p.nombreAutomata() + ".gv",
 						p.automataDot());
 			} else if (problema.getTipo().equals("ConstruccionSubconjuntosExpresion")) {
 				ConstruccionSubconjuntos p = (ConstruccionSubconjuntos) problema
 						.getProblema();
-				guardar(carpeta + Math.abs(p.automata().hashCode()) + ".gv",
+				guardar(carpeta + p.nombreAutomata() + ".gv",
 						p.automataDot());
 			} else if (problema.getTipo().equals("AhoSethiUllmanEtiquetado")) {
 				AhoSethiUllman p = (AhoSethiUllman) problema.getProblema();
-				guardar(carpeta + Math.abs(p.arbolVacio().hashCode()) + ".gv",
+				guardar(carpeta + p.nombreArbolVacio() + ".gv",
 						p.arbolVacioDot());
 			} else if (problema.getTipo().equals("AhoSethiUllmanConstruccion")) {
 				AhoSethiUllman p = (AhoSethiUllman) problema.getProblema();
-				guardar(carpeta + Math.abs(p.alternativas().get(0).hashCode())  // FIXME ¿p.alternativas().get(0)==p.automata()?
+				guardar(carpeta + p.nombresAlternativas().get(0)
 						+ ".gv", p.alternativasDot().get(0));
 			} else if (problema.getTipo().equals("AhoSethiUllmanTablas")) {
 				AhoSethiUllman p = (AhoSethiUllman) problema.getProblema();
-				guardar(carpeta + Math.abs(p.alternativas().get(0).hashCode()) // FIXME  ¿p.alternativas().get(0)==p.automata()?
+				guardar(carpeta + p.nombresAlternativas().get(0)
 						+ ".gv", p.alternativasDot().get(0));
 			}
 		}
 
-		guardar(ruta, traduce(new TraductorLatex()));
+		guardar(ruta, new TraductorLatex());
 	}
 
 	/**
@@ -333,7 +369,7 @@ public class Documento {
 			}
 		}
 
-		guardar(ruta, traduce(new TraductorLatexSVG()));
+		guardar(ruta, new TraductorLatexSVG());
 	}
 	
 	
@@ -363,36 +399,36 @@ public class Documento {
 					"ConstruccionSubconjuntosConstruccion")) {
 				ConstruccionSubconjuntos p = (ConstruccionSubconjuntos) problema
 						.getProblema();
-				guardarPDF(carpeta + Math.abs(p.automata().hashCode()) + ".pdf",
+				guardarPDF(carpeta + p.nombreAutomata() + ".pdf",
 						p.automataSvgSolucion());
 			} else if (problema.getTipo().equals(
 					"ConstruccionSubconjuntosAutomata")) {
 				ConstruccionSubconjuntos p = (ConstruccionSubconjuntos) problema
 						.getProblema();
-				guardarPDF(carpeta + Math.abs(p.automata().hashCode()) + ".pdf",
+				guardarPDF(carpeta + p.nombreAutomata() + ".pdf",
 						p.automataSvg());
 			} else if (problema.getTipo().equals(
 					"ConstruccionSubconjuntosExpresion")) {
 				ConstruccionSubconjuntos p = (ConstruccionSubconjuntos) problema
 						.getProblema();
-				guardarPDF(carpeta + Math.abs(p.automata().hashCode()) + ".pdf",
+				guardarPDF(carpeta + p.nombreAutomata() + ".pdf",
 						p.automataSvgSolucion());
 			} else if (problema.getTipo().equals("AhoSethiUllmanEtiquetado")) {
 				AhoSethiUllman p = (AhoSethiUllman) problema.getProblema();
-				guardarPDF(carpeta + Math.abs(p.arbolVacio().hashCode()) + ".pdf",
+				guardarPDF(carpeta + p.nombreArbolVacio() + ".pdf",
 						p.arbolVacioSvg());
 			} else if (problema.getTipo().equals("AhoSethiUllmanConstruccion")) {
 				AhoSethiUllman p = (AhoSethiUllman) problema.getProblema();
-				guardarPDF(carpeta + Math.abs(p.alternativas().get(0).hashCode())
+				guardarPDF(carpeta + p.nombresAlternativas().get(0)
 						+ ".pdf", p.svgSolucion());
 			} else if (problema.getTipo().equals("AhoSethiUllmanTablas")) {
 				AhoSethiUllman p = (AhoSethiUllman) problema.getProblema();
-				guardarPDF(carpeta + Math.abs(p.alternativas().get(0).hashCode())
+				guardarPDF(carpeta + p.nombresAlternativas().get(0)
 						+ ".pdf", p.svgSolucion());
 			}
 		}
 
-		guardar(ruta, traduce(new TraductorLatex()));
+		guardar(ruta, new TraductorLatex());
 	}
 	
 	
@@ -414,7 +450,22 @@ public class Documento {
 		if (!ruta.toLowerCase().endsWith(".tex"))
 			ruta += ".tex";
 		
-		guardar(ruta, traduce(new TraductorLatexTikZ()));
+		guardar(ruta, new TraductorLatexTikZ());
+	}
+
+	/**
+	 * Exporta el documento en formato LaTeX, con las imágenes en formato TikZ,
+	 * al flujo de salida especificado, escribiendo cada problema según se
+	 * traduce. El flujo no se cierra.
+	 * 
+	 * @param salida
+	 *            Flujo de salida.
+	 * @throws IOException
+	 *             Indica un error durante la exportación.
+	 */
+	public void exportaTikZLatex(Writer salida) throws IOException {
+		log.info("Exportando documento como Latex con imágenes TikZ a flujo de salida");
+		traduce(new TraductorLatexTikZ(), salida);
 	}
 	
 	
@@ -427,50 +478,110 @@ public class Documento {
 	 * @return Documento traducido como cadena de caracteres.
 	 */
 	private String traduce(Traductor traductor) {
-		List<Plantilla> problemas = new ArrayList<>();
+		StringWriter documento = new StringWriter();
+		try {
+			traduce(traductor, documento);
+		} catch (IOException e) {
+			// StringWriter no produce errores de escritura.
+			throw new IllegalStateException(e);
+		}
+		return documento.toString();
+	}
 
+	/**
+	 * Traduce el documento al formato dado por un traductor especifico,
+	 * escribiendo cada problema en la salida según se traduce. Solo se mantiene
+	 * en memoria la traducción del problema en curso, independientemente del
+	 * tamaño del documento.
+	 * 
+	 * @param traductor
+	 *            Traductor a utilizar.
+	 * @param salida
+	 *            Flujo en el que escribir el documento.
+	 * @throws IOException
+	 *             Indica un error durante la escritura.
+	 */
+	private void traduce(Traductor traductor, Writer salida)
+			throws IOException {
+		log.info("Traduciendo documento de {} problemas.",
+				this.problemas.size());
+
+		traductor.escribeCabecera(salida);
+
+		int n = 1;
 		for (Problema<?> problema : this.problemas) {
+			Plantilla plantilla;
 			switch (problema.getTipo()) {
 			case "AhoSethiUllmanConstruccion":
 				AhoSethiUllman asuProblemaConstruccion = (AhoSethiUllman) problema
 						.getProblema();
-				problemas.add(traductor
-						.traduceASUConstruccion(asuProblemaConstruccion));
+				plantilla = traductor
+						.traduceASUConstruccion(asuProblemaConstruccion);
 				break;
 			case "AhoSethiUllmanEtiquetado":
 				AhoSethiUllman asuProblemaEtiquetado = (AhoSethiUllman) problema
 						.getProblema();
-				problemas.add(traductor
-						.traduceASUEtiquetado(asuProblemaEtiquetado));
+				plantilla = traductor
+						.traduceASUEtiquetado(asuProblemaEtiquetado);
 				break;
 			case "AhoSethiUllmanTablas":
 				AhoSethiUllman asuProblemaTablas = (AhoSethiUllman) problema
 						.getProblema();
-				problemas.add(traductor.traduceASUTablas(asuProblemaTablas));
+				plantilla = traductor.traduceASUTablas(asuProblemaTablas);
 				break;
 			case "ConstruccionSubconjuntosConstruccion":
 				ConstruccionSubconjuntos csConstruccion = (ConstruccionSubconjuntos) problema
 						.getProblema();
-				problemas.add(traductor.traduceCSConstruccion(csConstruccion));
+				plantilla = traductor.traduceCSConstruccion(csConstruccion);
 				break;
 			case "ConstruccionSubconjuntosExpresion":
 				ConstruccionSubconjuntos csProblemaExpresion = (ConstruccionSubconjuntos) problema
 						.getProblema();
-				problemas
-						.add(traductor.traduceCSExpresion(csProblemaExpresion));
+				plantilla = traductor.traduceCSExpresion(csProblemaExpresion);
 				break;
 			case "ConstruccionSubconjuntosAutomata":
 				ConstruccionSubconjuntos csProblemaAutomata = (ConstruccionSubconjuntos) problema
 						.getProblema();
-				problemas.add(traductor.traduceCSAutomata(csProblemaAutomata));
+				plantilla = traductor.traduceCSAutomata(csProblemaAutomata);
 				break;
 			default:
 				throw new UnsupportedOperationException(
 						"Argumento tipo no soportado.");
 			}
+			traductor.escribeProblema(plantilla, n++, salida);
 		}
 
-		return traductor.documento(problemas);
+		traductor.escribePie(salida);
+	}
+
+	/**
+	 * Construye el traductor a Moodle XML, utilizando la semilla del documento
+	 * si se ha especificado.
+	 * 
+	 * @return Traductor a Moodle XML.
+	 */
+	private TraductorMoodleXML traductorMoodleXML() {
+		if (this.semilla == null)
+			return new TraductorMoodleXML();
+		return new TraductorMoodleXML(new SplittableRandom(this.semilla));
+	}
+
+	/**
+	 * Crea o sobreescribe un documento en la ruta dada, traduciéndolo con el
+	 * traductor dado y escribiendo los problemas según se traducen.
+	 * 
+	 * @param ruta
+	 *            Ruta en la que guardar el documento.
+	 * @param traductor
+	 *            Traductor a utilizar.
+	 * @throws IOException
+	 *             Indica un error durante el guardado.
+	 */
+	private void guardar(String ruta, Traductor traductor) throws IOException {
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(ruta), "UTF8"))) {
+			traduce(traductor, writer);
+		}
 	}
 
 	/**
@@ -541,18 +652,19 @@ public class Documento {
 	 * @param ruta
 	 *            Ruta en la que guardar las imágenes.
 	 * @param imagenes
-	 *            Imágenes que guardar en disco.
+	 *            Imágenes que guardar en disco, por nombre de fichero sin
+	 *            extensión.
 	 */
-	private void guardar(String ruta, List<BufferedImage> imagenes) {
+	private void guardar(String ruta, Map<String, BufferedImage> imagenes) {
 		log.info("Guardando {} imágenes", imagenes.size());
 
 		try {
 			File parent = new File(ruta);
-			for (BufferedImage imagen : imagenes) {
-				String nombre = Math.abs(imagen.hashCode()) + ".jpg";
+			for (Map.Entry<String, BufferedImage> imagen : imagenes.entrySet()) {
+				String nombre = imagen.getKey() + ".jpg";
 				File salida = new File(parent.getParent() + File.separator
 						+ nombre);
-				ImageIO.write(imagen, "jpg", salida);
+				ImageIO.write(imagen.getValue(), "jpg", salida);
 			}
 		} catch (IOException e) {
 			log.error("Encontrado error durante el guardado de imágenes", e);
@@ -0,0 +1,335 @@
+package es.ubu.inf.tfg.doc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllmanGenerador;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas.Tipo;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntosGenerador;
+
+/**
+ * GeneradorBloque implementa la generación en paralelo de un bloque de
+ * problemas. Cada problema pedido se genera como una tarea independiente sobre
+ * un ejecutor, y los resultados se entregan siempre en el mismo orden en que se
+ * pidieron, según van estando disponibles.
+ * <p>
+ * La generación puede cancelarse en cualquier momento: las tareas que aún no
+ * han comenzado se descartan, y las que están en curso devuelven el mejor
+ * problema encontrado hasta el momento.
+ * <p>
+ * Cada problema se genera con su propia fuente de valores aleatorios, derivada
+ * de la del bloque en el orden en que se añaden los problemas. Así, un bloque
+ * construido con una semilla dada genera siempre los mismos problemas,
+ * independientemente del número de hilos y del orden en que estos terminen.
+ * <p>
+ * Si hay un {@link IndiceProblemas índice} instalado, antes de comenzar la
+ * generación se reservan sus expresiones para los problemas en el orden en que
+ * se añadieron, con una fuente de valores aleatorios propia del bloque. Así el
+ * reparto de expresiones del índice tampoco depende de los hilos, siempre que
+ * el índice se abra de nuevo para cada bloque que se quiera reproducir.
+ */
+public class GeneradorBloque {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(GeneradorBloque.class);
+
+	private final ExecutorService executor;
+	private final boolean propio;
+	private final SplittableRandom random;
+	private final SplittableRandom sorteo;
+
+	private final List<Pedido> pedidos = new ArrayList<>();
+	private final AtomicBoolean cancelar = new AtomicBoolean();
+	private final List<Long> tiempos = new ArrayList<>();
+
+	/**
+	 * Construye un generador de bloques que utiliza tantos hilos como
+	 * procesadores disponibles.
+	 */
+	public GeneradorBloque() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Construye un generador de bloques con su propio ejecutor de un número de
+	 * hilos dado. El ejecutor se detiene al terminar la generación.
+	 *
+	 * @param hilos
+	 *            Número de hilos con los que generar los problemas.
+	 */
+	public GeneradorBloque(int hilos) {
+		this(Executors.newFixedThreadPool(hilos), true, new SplittableRandom());
+	}
+
+	/**
+	 * Construye un generador de bloques reproducible con su propio ejecutor de
+	 * un número de hilos dado. El ejecutor se detiene al terminar la
+	 * generación.
+	 *
+	 * @param hilos
+	 *            Número de hilos con los que generar los problemas.
+	 * @param semilla
+	 *            Semilla de la que se derivan los valores aleatorios de todos
+	 *            los problemas.
+	 */
+	public GeneradorBloque(int hilos, long semilla) {
+		this(Executors.newFixedThreadPool(hilos), true, new SplittableRandom(
+				semilla));
+	}
+
+	/**
+	 * Construye un generador de bloques sobre un ejecutor externo. El ejecutor
+	 * no se detiene al terminar la generación.
+	 *
+	 * @param executor
+	 *            Ejecutor sobre el que generar los problemas.
+	 */
+	public GeneradorBloque(ExecutorService executor) {
+		this(executor, false, new SplittableRandom());
+	}
+
+	/**
+	 * Construye un generador de bloques reproducible sobre un ejecutor
+	 * externo. El ejecutor no se detiene al terminar la generación.
+	 *
+	 * @param executor
+	 *            Ejecutor sobre el que generar los problemas.
+	 * @param semilla
+	 *            Semilla de la que se derivan los valores aleatorios de todos
+	 *            los problemas.
+	 */
+	public GeneradorBloque(ExecutorService executor, long semilla) {
+		this(executor, false, new SplittableRandom(semilla));
+	}
+
+	private GeneradorBloque(ExecutorService executor, boolean propio,
+			SplittableRandom random) {
+		this.executor = executor;
+		this.propio = propio;
+		this.random = random;
+		this.sorteo = random.split();
+	}
+
+	/**
+	 * Añade al bloque un problema de tipo Aho-Sethi-Ullman.
+	 *
+	 * @param nSimbolos
+	 *            Número de símbolos que se quiere que el problema utilice.
+	 * @param nEstados
+	 *            Número de estados que se quiere que contenga la tabla de
+	 *            transición del problema.
+	 * @param usaVacio
+	 *            Si queremos que el problema genere nodos vacíos.
+	 */
+	public void añadeAhoSethiUllman(int nSimbolos, int nEstados,
+			boolean usaVacio) {
+		añadeAhoSethiUllman(nSimbolos, nEstados, usaVacio, null);
+	}
+
+	/**
+	 * Añade al bloque un problema de tipo Aho-Sethi-Ullman, cuya búsqueda se
+	 * limita a un plazo dado. Al agotarse el plazo se entrega el mejor problema
+	 * encontrado.
+	 *
+	 * @param nSimbolos
+	 *            Número de símbolos que se quiere que el problema utilice.
+	 * @param nEstados
+	 *            Número de estados que se quiere que contenga la tabla de
+	 *            transición del problema.
+	 * @param usaVacio
+	 *            Si queremos que el problema genere nodos vacíos.
+	 * @param plazo
+	 *            Tiempo máximo de búsqueda del problema, o <code>null</code>
+	 *            para no limitarlo.
+	 */
+	public void añadeAhoSethiUllman(int nSimbolos, int nEstados,
+			boolean usaVacio, Duration plazo) {
+		AhoSethiUllmanGenerador generador = new AhoSethiUllmanGenerador(
+				this.random.split());
+		this.pedidos.add(new Pedido(Tipo.AHO_SETHI_ULLMAN, nSimbolos,
+				nEstados, usaVacio, () -> generador.nuevo(nSimbolos, nEstados,
+						usaVacio, plazo, this.cancelar), AhoSethiUllman::new));
+	}
+
+	/**
+	 * Añade al bloque un problema de tipo construcción de subconjuntos.
+	 *
+	 * @param nSimbolos
+	 *            Número de símbolos que se quiere que el problema utilice.
+	 * @param nEstados
+	 *            Número de estados que se quiere que contenga la tabla de
+	 *            transición del problema.
+	 * @param usaVacio
+	 *            Si queremos que el problema genere nodos vacíos.
+	 */
+	public void añadeConstruccionSubconjuntos(int nSimbolos, int nEstados,
+			boolean usaVacio) {
+		añadeConstruccionSubconjuntos(nSimbolos, nEstados, usaVacio, null);
+	}
+
+	/**
+	 * Añade al bloque un problema de tipo construcción de subconjuntos, cuya
+	 * búsqueda se limita a un plazo dado. Al agotarse el plazo se entrega el
+	 * mejor problema encontrado.
+	 *
+	 * @param nSimbolos
+	 *            Número de símbolos que se quiere que el problema utilice.
+	 * @param nEstados
+	 *            Número de estados que se quiere que contenga la tabla de
+	 *            transición del problema.
+	 * @param usaVacio
+	 *            Si queremos que el problema genere nodos vacíos.
+	 * @param plazo
+	 *            Tiempo máximo de búsqueda del problema, o <code>null</code>
+	 *            para no limitarlo.
+	 */
+	public void añadeConstruccionSubconjuntos(int nSimbolos, int nEstados,
+			boolean usaVacio, Duration plazo) {
+		ConstruccionSubconjuntosGenerador generador = new ConstruccionSubconjuntosGenerador(
+				this.random.split());
+		this.pedidos.add(new Pedido(Tipo.CONSTRUCCION_SUBCONJUNTOS, nSimbolos,
+				nEstados, usaVacio, () -> generador.nuevo(nSimbolos, nEstados,
+						usaVacio, plazo, this.cancelar),
+				ConstruccionSubconjuntos::new));
+	}
+
+	/**
+	 * Genera todos los problemas del bloque. Cada problema se entrega al
+	 * receptor en cuanto él y todos los anteriores están disponibles, de modo
+	 * que el orden de entrega coincide con el orden en que se añadieron. Los
+	 * problemas descartados por una cancelación no se entregan, y si el bloque
+	 * se canceló antes de llamar a este método no se lanza ninguna tarea ni se
+	 * reserva ninguna expresión del índice.
+	 *
+	 * @param receptor
+	 *            Receptor al que se entregan los problemas según se generan.
+	 * @return Lista de problemas generados, en orden.
+	 * @throws InterruptedException
+	 *             Si el hilo se interrumpe mientras espera a los problemas.
+	 */
+	public List<Object> genera(Consumer<Object> receptor)
+			throws InterruptedException {
+		if (this.cancelar.get()) {
+			log.info("Bloque cancelado antes de comenzar la generación.");
+			if (this.propio)
+				this.executor.shutdown();
+			return new ArrayList<>();
+		}
+
+		log.info("Generando bloque de {} problemas.", this.pedidos.size());
+
+		// Las expresiones del índice se reservan antes de lanzar las tareas,
+		// en el orden de los pedidos.
+		IndiceProblemas indice = IndiceProblemas.actual();
+		List<Callable<Object>> tareas = new ArrayList<>();
+		for (Pedido pedido : this.pedidos) {
+			String indexada = indice == null ? null : indice.extrae(
+					pedido.tipo, pedido.nSimbolos, pedido.nEstados,
+					pedido.usaVacio, this.sorteo);
+			if (indexada == null) {
+				tareas.add(pedido.busqueda);
+			} else {
+				log.info("Problema reservado del índice: {}.", indexada);
+				tareas.add(() -> pedido.resuelve.apply(indexada));
+			}
+		}
+
+		List<Object> problemas = new ArrayList<>();
+		long[] duraciones = new long[tareas.size()];
+		try {
+			List<Future<Object>> futuros = new ArrayList<>();
+			for (int i = 0; i < tareas.size(); i++) {
+				Callable<Object> tarea = tareas.get(i);
+				int orden = i;
+				futuros.add(this.executor.submit(() -> {
+					if (this.cancelar.get())
+						return null;
+					long inicio = System.nanoTime();
+					Object problema = tarea.call();
+					duraciones[orden] = System.nanoTime() - inicio;
+					return problema;
+				}));
+			}
+
+			for (int i = 0; i < futuros.size(); i++) {
+				try {
+					Object problema = futuros.get(i).get();
+					// Las tareas que comienzan tras cancelar no generan nada.
+					if (problema != null) {
+						problemas.add(problema);
+						this.tiempos.add(duraciones[i]);
+						receptor.accept(problema);
+					}
+				} catch (ExecutionException e) {
+					log.error("Error generando problema del bloque.",
+							e.getCause());
+				}
+			}
+		} finally {
+			if (this.propio)
+				this.executor.shutdown();
+		}
+
+		return problemas;
+	}
+
+	/**
+	 * Devuelve el tiempo empleado en generar cada uno de los problemas
+	 * entregados, en nanosegundos y en el mismo orden en que se entregaron.
+	 *
+	 * @return Tiempos de generación de los problemas.
+	 */
+	public List<Long> tiempos() {
+		return this.tiempos;
+	}
+
+	/**
+	 * Cancela la generación del bloque. Las tareas pendientes se descartan y
+	 * las que están en curso terminan con el mejor resultado obtenido.
+	 */
+	public void cancelar() {
+		log.info("Cancelando generación de bloque.");
+		// Los generadores en curso comparten el indicador de cancelación.
+		this.cancelar.set(true);
+	}
+
+	/**
+	 * Problema pedido al bloque: sus parámetros, la búsqueda que lo genera y
+	 * cómo resolverlo si se obtiene su expresión del índice.
+	 */
+	private static class Pedido {
+		private final Tipo tipo;
+		private final int nSimbolos;
+		private final int nEstados;
+		private final boolean usaVacio;
+		private final Callable<Object> busqueda;
+		private final Function<String, Object> resuelve;
+
+		private Pedido(Tipo tipo, int nSimbolos, int nEstados,
+				boolean usaVacio, Callable<Object> busqueda,
+				Function<String, Object> resuelve) {
+			this.tipo = tipo;
+			this.nSimbolos = nSimbolos;
+			this.nEstados = nEstados;
+			this.usaVacio = usaVacio;
+			this.busqueda = busqueda;
+			this.resuelve = resuelve;
+		}
+	}
+}
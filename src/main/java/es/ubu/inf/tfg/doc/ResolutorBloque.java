@@ -0,0 +1,206 @@
+package es.ubu.inf.tfg.doc;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
+
+/**
+ * ResolutorBloque implementa la resolución en paralelo de un fichero de
+ * expresiones regulares, una por línea. Las líneas se leen según se van
+ * resolviendo, cada expresión se resuelve como una tarea independiente sobre un
+ * ejecutor, y los problemas se entregan siempre en el mismo orden en que
+ * aparecen en el fichero. Las líneas en blanco se ignoran.
+ * <p>
+ * Una expresión no válida no detiene la resolución: el error se registra junto
+ * a su número de línea y se continúa con el resto del fichero.
+ * <p>
+ * Los problemas solo se entregan al receptor, sin acumularse, de modo que
+ * pueden resolverse ficheros de cualquier tamaño con memoria acotada. Un mismo
+ * resolutor puede utilizarse para varios ficheros, uno tras otro.
+ */
+public class ResolutorBloque {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(ResolutorBloque.class);
+
+	private final ExecutorService executor;
+	private final int hilos;
+	private final int pendientes;
+
+	private final Map<Integer, String> errores = new LinkedHashMap<>();
+
+	/**
+	 * Construye un resolutor que utiliza tantos hilos como procesadores
+	 * disponibles.
+	 */
+	public ResolutorBloque() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Construye un resolutor que crea su propio ejecutor de un número de hilos
+	 * dado para cada resolución, y lo detiene al terminarla.
+	 *
+	 * @param hilos
+	 *            Número de hilos con los que resolver los problemas.
+	 */
+	public ResolutorBloque(int hilos) {
+		this(null, hilos);
+	}
+
+	/**
+	 * Construye un resolutor sobre un ejecutor externo. El ejecutor no se
+	 * detiene al terminar la resolución.
+	 *
+	 * @param executor
+	 *            Ejecutor sobre el que resolver los problemas.
+	 */
+	public ResolutorBloque(ExecutorService executor) {
+		this(executor, Runtime.getRuntime().availableProcessors());
+	}
+
+	private ResolutorBloque(ExecutorService executor, int hilos) {
+		if (hilos < 1)
+			throw new IllegalArgumentException(
+					"El número de hilos debe ser positivo.");
+
+		this.executor = executor;
+		this.hilos = hilos;
+		// Limita las líneas leídas y aún no entregadas.
+		this.pendientes = 4 * hilos;
+	}
+
+	/**
+	 * Resuelve cada expresión del fichero como un problema de tipo
+	 * Aho-Sethi-Ullman.
+	 *
+	 * @param fichero
+	 *            Fichero de expresiones regulares, una por línea.
+	 * @param receptor
+	 *            Receptor al que se entregan los problemas según se resuelven,
+	 *            en el orden del fichero.
+	 * @return Número de problemas resueltos.
+	 * @throws IOException
+	 *             Indica un error al leer el fichero.
+	 * @throws InterruptedException
+	 *             Si el hilo se interrumpe mientras espera a los problemas.
+	 */
+	public int resuelveAhoSethiUllman(File fichero,
+			Consumer<AhoSethiUllman> receptor) throws IOException,
+			InterruptedException {
+		return resuelve(fichero, AhoSethiUllman::new, receptor);
+	}
+
+	/**
+	 * Resuelve cada expresión del fichero como un problema de construcción de
+	 * subconjuntos.
+	 *
+	 * @param fichero
+	 *            Fichero de expresiones regulares, una por línea.
+	 * @param receptor
+	 *            Receptor al que se entregan los problemas según se resuelven,
+	 *            en el orden del fichero.
+	 * @return Número de problemas resueltos.
+	 * @throws IOException
+	 *             Indica un error al leer el fichero.
+	 * @throws InterruptedException
+	 *             Si el hilo se interrumpe mientras espera a los problemas.
+	 */
+	public int resuelveConstruccionSubconjuntos(
+			File fichero, Consumer<ConstruccionSubconjuntos> receptor)
+			throws IOException, InterruptedException {
+		return resuelve(fichero, ConstruccionSubconjuntos::new, receptor);
+	}
+
+	/**
+	 * Devuelve los errores encontrados en la última resolución, asociando cada
+	 * número de línea, empezando en 1, a la descripción del error.
+	 *
+	 * @return Errores por línea, en el orden del fichero.
+	 */
+	public Map<Integer, String> errores() {
+		return this.errores;
+	}
+
+	private <T> int resuelve(File fichero, Function<String, T> resolutor,
+			Consumer<T> receptor) throws IOException, InterruptedException {
+		log.info("Resolviendo expresiones del fichero {}.", fichero);
+
+		this.errores.clear();
+		ExecutorService ejecutor = this.executor != null ? this.executor
+				: Executors.newFixedThreadPool(this.hilos);
+		int[] resueltos = { 0 };
+		Deque<Future<T>> futuros = new ArrayDeque<>();
+		Deque<Integer> lineas = new ArrayDeque<>();
+
+		try (BufferedReader entrada = Files.newBufferedReader(
+				fichero.toPath(), StandardCharsets.UTF_8)) {
+			String linea;
+			int numero = 0;
+			while ((linea = entrada.readLine()) != null) {
+				numero++;
+				String expresion = linea.trim();
+				if (expresion.isEmpty())
+					continue;
+
+				futuros.add(ejecutor.submit(() -> resolutor.apply(expresion)));
+				lineas.add(numero);
+
+				if (futuros.size() >= this.pendientes)
+					entrega(futuros, lineas, resueltos, receptor);
+			}
+
+			while (!futuros.isEmpty())
+				entrega(futuros, lineas, resueltos, receptor);
+		} finally {
+			for (Future<T> futuro : futuros)
+				futuro.cancel(true);
+			if (this.executor == null)
+				ejecutor.shutdown();
+		}
+
+		log.info("Resueltos {} problemas, {} líneas con errores.",
+				resueltos[0], this.errores.size());
+		return resueltos[0];
+	}
+
+	/**
+	 * Espera al problema más antiguo pendiente y lo entrega, o registra su
+	 * error si no ha podido resolverse.
+	 */
+	private <T> void entrega(Deque<Future<T>> futuros, Deque<Integer> lineas,
+			int[] resueltos, Consumer<T> receptor)
+			throws InterruptedException {
+		Future<T> futuro = futuros.poll();
+		int linea = lineas.poll();
+
+		try {
+			T problema = futuro.get();
+			resueltos[0]++;
+			receptor.accept(problema);
+		} catch (ExecutionException e) {
+			Throwable causa = e.getCause();
+			log.debug("Error en la línea {}.", linea, causa);
+			this.errores.put(linea, causa.getMessage() != null ? causa
+					.getMessage() : causa.toString());
+		}
+	}
+}
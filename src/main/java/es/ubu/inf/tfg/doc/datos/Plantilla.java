@@ -4,22 +4,39 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Plantilla implementa una plantilla de texto con atributos de la forma
+ * <code>{atributo}</code>, que se sustituyen por su valor al generar el
+ * documento.
+ * <p>
+ * Cada fichero de plantilla se lee y se analiza una única vez, dividiéndolo en
+ * una lista de fragmentos de texto literal y atributos que se comparte entre
+ * todas las plantillas construidas a partir del mismo fichero. Los valores de
+ * los atributos se guardan aparte y solo se combinan con el texto al generar la
+ * salida, que se escribe de una vez en un único buffer o directamente en un
+ * flujo.
+ */
 public class Plantilla {
 
 	private static final Logger log = LoggerFactory.getLogger(Plantilla.class);
 
-	String plantilla;
+	private static final Map<String, Compilada> compiladas = new ConcurrentHashMap<>();
+
+	private final Compilada compilada;
+	private final String[] valores;
 
 
 	public Plantilla(String fichero) {
-		StringBuilder contenido;
-		String linea;
 		String languageFolder = Messages.getString("Plantilla.lang");  // to be ready for full internationalization //$NON-NLS-1$
 		String langfichero = languageFolder + fichero; //$NON-NLS-1$
 
@@ -30,7 +47,89 @@ public class Plantilla {
 		System.out.println("\u001B[0;1mPlantilla: langfichero:\u001B[0m " + langfichero);
 		*/
 		
-		try (InputStream entrada = getClass().getResourceAsStream(langfichero);
+		this.compilada = compiladas.computeIfAbsent(langfichero,
+				f -> new Compilada(lee(f)));
+		this.valores = new String[this.compilada.atributos.length];
+	}
+
+
+	/**
+	 * Asigna un valor a todas las apariciones de un atributo en la plantilla.
+	 * Un atributo al que ya se ha asignado valor no se modifica.
+	 * 
+	 * @param atributo
+	 *            Nombre del atributo, sin llaves.
+	 * @param valor
+	 *            Valor del atributo.
+	 */
+	public void set(String atributo, String valor) {
+		for (int i = 0; i < this.valores.length; i++)
+			if (this.valores[i] == null
+					&& this.compilada.atributos[i].equals(atributo))
+				this.valores[i] = valor;
+	}
+
+
+	/**
+	 * Escribe la plantilla en un flujo de salida, sustituyendo los atributos
+	 * por sus valores sin construir el texto completo en memoria.
+	 * 
+	 * @param salida
+	 *            Flujo en el que escribir.
+	 * @throws IOException
+	 *             Indica un error durante la escritura.
+	 */
+	public void escribe(Writer salida) throws IOException {
+		String[] literales = this.compilada.literales;
+		for (int i = 0; i < this.valores.length; i++) {
+			salida.write(literales[i]);
+			salida.write(valor(i));
+		}
+		salida.write(literales[this.valores.length]);
+	}
+
+
+	@Override
+	public String toString() {
+		String[] literales = this.compilada.literales;
+
+		int longitud = this.compilada.longitud;
+		for (int i = 0; i < this.valores.length; i++)
+			longitud += valor(i).length();
+
+		StringBuilder texto = new StringBuilder(longitud);
+		for (int i = 0; i < this.valores.length; i++)
+			texto.append(literales[i]).append(valor(i));
+		return texto.append(literales[this.valores.length]).toString();
+	}
+
+
+	/**
+	 * Devuelve el texto con el que se escribe un atributo: su valor si se ha
+	 * asignado, o el propio atributo entre llaves si no.
+	 * 
+	 * @param i
+	 *            Índice del atributo.
+	 * @return Texto del atributo.
+	 */
+	private String valor(int i) {
+		return this.valores[i] != null ? this.valores[i]
+				: "{" + this.compilada.atributos[i] + "}"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+
+	/**
+	 * Lee el contenido de un fichero de plantilla.
+	 * 
+	 * @param fichero
+	 *            Ruta del recurso.
+	 * @return Contenido de la plantilla.
+	 */
+	private static String lee(String fichero) {
+		StringBuilder contenido;
+		String linea;
+
+		try (InputStream entrada = Plantilla.class.getResourceAsStream(fichero);
 				BufferedReader lector = new BufferedReader(
 						new InputStreamReader(entrada, "UTF8"))) { //$NON-NLS-1$
 			contenido = new StringBuilder();
@@ -42,21 +141,56 @@ public class Plantilla {
 					contenido.append("\n"); //$NON-NLS-1$
 			}
 
-			plantilla = contenido.toString();
+			return contenido.toString();
 		} catch (IOException e) {
-			log.error("Error al recuperar la plantilla {}", plantilla); //$NON-NLS-1$
+			log.error("Error al recuperar la plantilla {}", fichero); //$NON-NLS-1$
+			return ""; //$NON-NLS-1$
 		}
 	}
 
 
-	public void set(String atributo, String valor) {
-		plantilla = plantilla.replace("{" + atributo + "}", valor); //$NON-NLS-1$ //$NON-NLS-2$
-	}
+	/**
+	 * Plantilla ya analizada, dividida en fragmentos de texto literal
+	 * intercalados con atributos: literales[0], atributos[0], literales[1],
+	 * ..., literales[n]. Es inmutable y se comparte entre hilos.
+	 */
+	private static class Compilada {
+		private final String[] literales;
+		private final String[] atributos;
+		private final int longitud;
+
+		private Compilada(String plantilla) {
+			List<String> literales = new ArrayList<>();
+			List<String> atributos = new ArrayList<>();
+
+			int inicio = 0;
+			int llave = plantilla.indexOf('{');
+			while (llave >= 0) {
+				int fin = llave + 1;
+				while (fin < plantilla.length()
+						&& Character.isLetterOrDigit(plantilla.charAt(fin)))
+					fin++;
+
+				if (fin > llave + 1 && fin < plantilla.length()
+						&& plantilla.charAt(fin) == '}') {
+					literales.add(plantilla.substring(inicio, llave));
+					atributos.add(plantilla.substring(llave + 1, fin));
+					inicio = fin + 1;
+					llave = plantilla.indexOf('{', inicio);
+				} else {
+					llave = plantilla.indexOf('{', llave + 1);
+				}
+			}
+			literales.add(plantilla.substring(inicio));
 
+			this.literales = literales.toArray(new String[0]);
+			this.atributos = atributos.toArray(new String[0]);
 
-	@Override
-	public String toString() {
-		return plantilla;
+			int longitud = 0;
+			for (String literal : this.literales)
+				longitud += literal.length();
+			this.longitud = longitud;
+		}
 	}
 
 
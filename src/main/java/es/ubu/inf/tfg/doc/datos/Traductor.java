@@ -1,6 +1,7 @@
 package es.ubu.inf.tfg.doc.datos;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.Writer;
 
 import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
 import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
@@ -15,15 +16,92 @@ import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
  */
 public abstract class Traductor {
 
+	private static final String MARCA_DOCUMENTO = "{documento}"; //$NON-NLS-1$
+
+	private String cabecera;
+	private String pie;
+
 	/**
-	 * Genera un documento de un formato concreto a partir de una lista de
-	 * problemas ya traducidos.
+	 * Devuelve el nombre del fichero de plantilla con el que se envuelven los
+	 * problemas para formar un documento completo.
 	 * 
-	 * @param problemas
-	 *            Lista de problemas traducidos.
-	 * @return Documento completo.
+	 * @return Nombre de la plantilla de documento.
+	 */
+	protected abstract String plantillaDocumento();
+
+	/**
+	 * Escribe en la salida la parte de la plantilla de documento que precede a
+	 * los problemas. Junto con {@link #escribeProblema(Plantilla, int, Writer)}
+	 * y {@link #escribePie(Writer)} permite generar el documento de forma
+	 * incremental, sin mantener en memoria más de un problema a la vez.
+	 * 
+	 * @param salida
+	 *            Flujo en el que escribir.
+	 * @throws IOException
+	 *             Indica un error durante la escritura.
+	 * @throws IllegalStateException
+	 *             Si la plantilla de documento no contiene la marca en la que
+	 *             se insertan los problemas.
+	 */
+	public void escribeCabecera(Writer salida) throws IOException {
+		divideDocumento();
+		salida.write(this.cabecera);
+	}
+
+	/**
+	 * Escribe en la salida un problema ya traducido, numerándolo.
+	 * 
+	 * @param problema
+	 *            Problema traducido.
+	 * @param num
+	 *            Número del problema.
+	 * @param salida
+	 *            Flujo en el que escribir.
+	 * @throws IOException
+	 *             Indica un error durante la escritura.
+	 */
+	public void escribeProblema(Plantilla problema, int num, Writer salida)
+			throws IOException {
+		problema.set("numero", "" + num); //$NON-NLS-1$ //$NON-NLS-2$
+		problema.escribe(salida);
+	}
+
+	/**
+	 * Escribe en la salida la parte de la plantilla de documento que sigue a
+	 * los problemas.
+	 * 
+	 * @param salida
+	 *            Flujo en el que escribir.
+	 * @throws IOException
+	 *             Indica un error durante la escritura.
+	 * @throws IllegalStateException
+	 *             Si la plantilla de documento no contiene la marca en la que
+	 *             se insertan los problemas.
+	 */
+	public void escribePie(Writer salida) throws IOException {
+		divideDocumento();
+		salida.write(this.pie);
+	}
+
+	/**
+	 * Separa la plantilla de documento en cabecera y pie en torno a la marca en
+	 * la que se insertan los problemas. La división se hace una sola vez por
+	 * traductor.
 	 */
-	public abstract String documento(List<Plantilla> problemas);
+	private void divideDocumento() {
+		if (this.cabecera != null)
+			return;
+
+		String plantilla = new Plantilla(plantillaDocumento()).toString();
+		int marca = plantilla.indexOf(MARCA_DOCUMENTO);
+		if (marca < 0)
+			throw new IllegalStateException(
+					"Plantilla de documento sin marca de problemas: " //$NON-NLS-1$
+							+ plantillaDocumento());
+
+		this.cabecera = plantilla.substring(0, marca);
+		this.pie = plantilla.substring(marca + MARCA_DOCUMENTO.length());
+	}
 
 	/**
 	 * Genera un documento de un formato concreto a partir de un único problema
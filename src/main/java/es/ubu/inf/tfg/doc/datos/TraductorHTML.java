@@ -1,6 +1,5 @@
 package es.ubu.inf.tfg.doc.datos;
 
-import java.awt.image.BufferedImage;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -23,34 +22,6 @@ public class TraductorHTML extends Traductor {
 			.getLogger(TraductorHTML.class);
 
 
-	/**
-	 * Genera un documento HTML a partir de una lista de problemas ya
-	 * traducidos.
-	 * 
-	 * @param problemas
-	 *            Lista de problemas traducidos.
-	 * @return Documento HTML completo.
-	 */
-	@Override
-	public String documento(List<Plantilla> problemas) {
-		log.info("Generando documento HTML a partir de {} problemas.",
-				problemas.size());
-
-		StringBuilder documento = new StringBuilder();
-
-		int n = 1;
-		for (Plantilla problema : problemas) {
-			problema.set("numero", "" + n++); //$NON-NLS-1$ //$NON-NLS-2$
-			documento.append(problema.toString());
-		}
-
-		Plantilla plantilla = new Plantilla("plantilla.html"); //$NON-NLS-1$
-		plantilla.set("documento", documento.toString()); //$NON-NLS-1$
-
-		return plantilla.toString();
-	}
-
-
 	/**
 	 * Genera un documento HTML a partir de un único problema ya traducido.
 	 * 
@@ -71,6 +42,17 @@ public class TraductorHTML extends Traductor {
 	}
 
 
+	/**
+	 * Devuelve la plantilla de documento HTML.
+	 * 
+	 * @return Nombre de la plantilla de documento.
+	 */
+	@Override
+	protected String plantillaDocumento() {
+		return "plantilla.html"; //$NON-NLS-1$
+	}
+
+
 	/**
 	 * Traduce un problema de tipo AhoSethiUllman subtipo construcción a formato
 	 * HTML.
@@ -87,13 +69,13 @@ public class TraductorHTML extends Traductor {
 
 		Plantilla plantilla = new Plantilla("plantillaASUConstruccion.html"); //$NON-NLS-1$
 		String[] imagenes = new String[4];
-		List<BufferedImage> alternativas = problema.alternativas();
+		List<String> alternativas = problema.nombresAlternativas();
 		// CGO added this
-		BufferedImage solutionImage = alternativas.get(0);  // I need to get the solution before the shuffle
+		String solutionImage = alternativas.get(0);  // I need to get the solution before the shuffle
 		Collections.shuffle(alternativas);
 		
 		for (int i = 0; i < 4; i++)
-			imagenes[i] = "http:\\" + Math.abs(alternativas.get(i).hashCode()) + ".jpg"; //$NON-NLS-1$ //$NON-NLS-2$
+			imagenes[i] = "http:\\" + alternativas.get(i) + ".jpg"; //$NON-NLS-1$ //$NON-NLS-2$
 
 		// CGO commented this
 		//int index = alternativas.indexOf(problema.alternativas().get(0)); // XXX after shuffling the solution was not the first one any more
@@ -126,7 +108,7 @@ public class TraductorHTML extends Traductor {
 				"Traduciendo a HTML problema tipo Aho-Sethi-Ullman con expresión {}, formato etiquetado",
 				problema.problema());
 
-		String url = "http:\\" + Math.abs(problema.arbolVacio().hashCode()) + ".jpg"; //$NON-NLS-1$ //$NON-NLS-2$
+		String url = "http:\\" + problema.nombreArbolVacio() + ".jpg"; //$NON-NLS-1$ //$NON-NLS-2$
 		Plantilla plantilla = new Plantilla("plantillaASUEtiquetado.html"); //$NON-NLS-1$
 		StringBuilder soluciones = new StringBuilder();
 
@@ -207,7 +189,7 @@ public class TraductorHTML extends Traductor {
 				fTrans.append("<th>" + simbolo + "</th>"); //$NON-NLS-1$ //$NON-NLS-2$
 		fTrans.append("<th></th></tr>"); //$NON-NLS-1$
 
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				fTrans.append("<tr><td>(" + estado + ")</td>"); //$NON-NLS-1$ //$NON-NLS-2$
 			else
@@ -249,13 +231,13 @@ public class TraductorHTML extends Traductor {
 		Plantilla plantilla = new Plantilla("plantillaCSConstruccion.html"); //$NON-NLS-1$
 		
 		String[] imagenes = new String[4];
-		List<BufferedImage> alternativas = problema.alternativas();
+		List<String> alternativas = problema.nombresAlternativas();
 		// CGO added this
-		BufferedImage solutionImage = alternativas.get(0);
+		String solutionImage = alternativas.get(0);
 		Collections.shuffle(alternativas);
 
 		for (int i = 0; i < 4; i++)
-			imagenes[i] = "http:\\" + Math.abs(alternativas.get(i).hashCode()) + ".jpg"; //$NON-NLS-1$ //$NON-NLS-2$
+			imagenes[i] = "http:\\" + alternativas.get(i) + ".jpg"; //$NON-NLS-1$ //$NON-NLS-2$
 
 		// CGO commented this
 		//int index = alternativas.indexOf(problema.alternativas().get(0)); // XXX after shuffling the solution was not the first one any more
@@ -299,7 +281,7 @@ public class TraductorHTML extends Traductor {
 				fTrans.append("<th>" + simbolo + "</th>"); //$NON-NLS-1$ //$NON-NLS-2$
 		fTrans.append("<th></th></tr>"); //$NON-NLS-1$
 
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				fTrans.append("<tr><td>(" + estado + ")</td>"); //$NON-NLS-1$ //$NON-NLS-2$
 			else
@@ -336,7 +318,7 @@ public class TraductorHTML extends Traductor {
 				"Traduciendo a HTML problema tipo construcción de subconjuntos con expresión {}, formato autómata",
 				problema.problema());
 
-		String url = "http:\\" + Math.abs(problema.automata().hashCode()) + ".jpg"; //$NON-NLS-1$ //$NON-NLS-2$
+		String url = "http:\\" + problema.nombreAutomata() + ".jpg"; //$NON-NLS-1$ //$NON-NLS-2$
 		StringBuilder fTrans = new StringBuilder();
 
 		Plantilla plantilla = new Plantilla("plantillaCSAutomata.html"); //$NON-NLS-1$
@@ -348,7 +330,7 @@ public class TraductorHTML extends Traductor {
 				fTrans.append("<th>" + simbolo + "</th>"); //$NON-NLS-1$ //$NON-NLS-2$
 		fTrans.append("<th></th></tr>"); //$NON-NLS-1$
 
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				fTrans.append("<tr><td>(" + estado + ")</td>"); //$NON-NLS-1$ //$NON-NLS-2$
 			else
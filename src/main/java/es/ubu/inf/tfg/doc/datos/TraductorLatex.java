@@ -1,6 +1,5 @@
 package es.ubu.inf.tfg.doc.datos;
 
-import java.util.List;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -21,34 +20,6 @@ public class TraductorLatex extends Traductor {
 			.getLogger(TraductorLatex.class);
 
 
-	/**
-	 * Genera un documento Latex a partir de una lista de problemas ya
-	 * traducidos.
-	 * 
-	 * @param problemas
-	 *            Lista de problemas traducidos.
-	 * @return Documento Latex completo.
-	 */
-	@Override
-	public String documento(List<Plantilla> problemas) {
-		log.info("Generando documento Latex a partir de {} problemas.", //$NON-NLS-1$
-				problemas.size());
-
-		StringBuilder documento = new StringBuilder();
-
-		int n = 1;
-		for (Plantilla problema : problemas) {
-			problema.set("numero", "" + n++); //$NON-NLS-1$
-			documento.append(problema.toString());
-		}
-
-		Plantilla plantilla = new Plantilla("plantilla.tex"); //$NON-NLS-1$
-		plantilla.set("documento", documento.toString()); //$NON-NLS-1$
-
-		return plantilla.toString();
-	}
-
-
 	/**
 	 * Genera un documento Latex a partir de un único problema ya traducido.
 	 * 
@@ -69,6 +40,17 @@ public class TraductorLatex extends Traductor {
 	}
 
 
+	/**
+	 * Devuelve la plantilla de documento Latex.
+	 * 
+	 * @return Nombre de la plantilla de documento.
+	 */
+	@Override
+	protected String plantillaDocumento() {
+		return "plantilla.tex"; //$NON-NLS-1$
+	}
+
+
 	/**
 	 * Traduce un problema de tipo AhoSethiUllman subtipo construcción a formato
 	 * Latex. En latex el problema de construcción consiste en dibujar el árbol,
@@ -85,7 +67,7 @@ public class TraductorLatex extends Traductor {
 				problema.problema());
 
 		Plantilla plantilla = new Plantilla("plantillaASUConstruccion.tex"); //$NON-NLS-1$
-		String imagen = Math.abs(problema.alternativas().get(0).hashCode()) + ""; //$NON-NLS-1$
+		String imagen = problema.nombresAlternativas().get(0);
 
 		String expresion = problema.problema();
 		expresion = expresion.replace("\u2027", "\\cdot ").replace("·", "\\cdot ").replace(".", "\\cdot "); //$NON-NLS-1$
@@ -115,7 +97,7 @@ public class TraductorLatex extends Traductor {
 				"Traduciendo a Latex problema tipo Aho-Sethi-Ullman con expresión {}, formato etiquetado", //$NON-NLS-1$
 				problema.problema());
 
-		String imagen = "" + Math.abs(problema.arbolVacio().hashCode()); //$NON-NLS-1$
+		String imagen = problema.nombreArbolVacio();
 		Plantilla plantilla = new Plantilla("plantillaASUEtiquetado.tex"); //$NON-NLS-1$
 		StringBuilder soluciones = new StringBuilder();
 		
@@ -182,7 +164,7 @@ public class TraductorLatex extends Traductor {
 		StringBuilder fTrans = new StringBuilder();
 
 		Plantilla plantilla = new Plantilla("plantillaASUTablas.tex"); //$NON-NLS-1$
-		String imagen = Math.abs(problema.alternativas().get(0).hashCode()) + ""; //$NON-NLS-1$
+		String imagen = problema.nombresAlternativas().get(0);
 
 		// siguiente-pos
 		stePos.append("\\rowcolors{2}{gray!25}{white}\n"); //$NON-NLS-1$
@@ -211,7 +193,7 @@ public class TraductorLatex extends Traductor {
 		fTrans.append("\\emph{"); //$NON-NLS-1$
 		fTrans.append(Messages.getString("TraductorLatex.positions")); //$NON-NLS-1$
 		fTrans.append("}\\\\ \n\\midrule %-------------------------------\n"); //$NON-NLS-1$
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				fTrans.append("\\h{(" + estado + ")} & "); //$NON-NLS-1$
 			else
@@ -264,7 +246,7 @@ public class TraductorLatex extends Traductor {
 				problema.problema());
 
 		Plantilla plantilla = new Plantilla("plantillaCSConstruccion.tex"); //$NON-NLS-1$
-		String imagen = Math.abs(problema.automata().hashCode()) + ""; //$NON-NLS-1$
+		String imagen = problema.nombreAutomata();
 		
 		String expresion = problema.problema();
 		expresion = expresion.replace("\u2027", "\\cdot ").replace("·", "\\cdot ").replace(".", "\\cdot "); //$NON-NLS-1$
@@ -297,7 +279,7 @@ public class TraductorLatex extends Traductor {
 		StringBuilder fTrans = new StringBuilder();
 
 		Plantilla plantilla = new Plantilla("plantillaCSExpresion.tex"); //$NON-NLS-1$
-		String imagen = Math.abs(problema.automata().hashCode()) + ""; //$NON-NLS-1$
+		String imagen = problema.nombreAutomata();
 
 		// Función de transición
 		fTrans.append("\\rowcolors{2}{gray!25}{white}\n"); //$NON-NLS-1$
@@ -313,7 +295,7 @@ public class TraductorLatex extends Traductor {
 		fTrans.append(Messages.getString("TraductorLatex.NFAStates")); //$NON-NLS-1$
 		fTrans.append("}\\\\\n"); //$NON-NLS-1$
 		fTrans.append("\\midrule %-------------------------------\n"); //$NON-NLS-1$
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				fTrans.append("\\h{(" + estado + ")} & "); //$NON-NLS-1$
 			else
@@ -358,7 +340,7 @@ public class TraductorLatex extends Traductor {
 				"Traduciendo a Latex problema tipo construcción de subconjuntos con expresión {}, formato autómata", //$NON-NLS-1$
 				problema.problema());
 
-		String imagen = "" + Math.abs(problema.automata().hashCode()); //$NON-NLS-1$
+		String imagen = problema.nombreAutomata();
 		StringBuilder fTrans = new StringBuilder();
 
 		Plantilla plantilla = new Plantilla("plantillaCSAutomata.tex"); //$NON-NLS-1$
@@ -378,7 +360,7 @@ public class TraductorLatex extends Traductor {
 		fTrans.append("}\\\\\n"); //$NON-NLS-1$
 		fTrans.append("\\midrule %-------------------------------\n"); //$NON-NLS-1$
 
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				fTrans.append("\\h{(" + estado + ")} & "); //$NON-NLS-1$
 			else
@@ -1,6 +1,5 @@
 package es.ubu.inf.tfg.doc.datos;
 
-import java.util.List;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -21,34 +20,6 @@ public class TraductorLatexSVG extends Traductor {
 			.getLogger(TraductorLatexSVG.class);
 
 
-	/**
-	 * Genera un documento Latex a partir de una lista de problemas ya
-	 * traducidos.
-	 * 
-	 * @param problemas
-	 *            Lista de problemas traducidos.
-	 * @return Documento Latex completo.
-	 */
-	@Override
-	public String documento(List<Plantilla> problemas) {
-		log.info("Generando documento Latex a partir de {} problemas.", //$NON-NLS-1$
-				problemas.size());
-
-		StringBuilder documento = new StringBuilder();
-
-		int n = 1;
-		for (Plantilla problema : problemas) {
-			problema.set("numero", "" + n++); //$NON-NLS-1$
-			documento.append(problema.toString());
-		}
-
-		Plantilla plantilla = new Plantilla("plantillaSVG.tex"); //$NON-NLS-1$
-		plantilla.set("documento", documento.toString()); //$NON-NLS-1$
-
-		return plantilla.toString();
-	}
-
-
 	/**
 	 * Genera un documento Latex a partir de un único problema ya traducido.
 	 * 
@@ -69,6 +40,17 @@ public class TraductorLatexSVG extends Traductor {
 	}
 
 
+	/**
+	 * Devuelve la plantilla de documento Latex.
+	 * 
+	 * @return Nombre de la plantilla de documento.
+	 */
+	@Override
+	protected String plantillaDocumento() {
+		return "plantillaSVG.tex"; //$NON-NLS-1$
+	}
+
+
 	/**
 	 * Traduce un problema de tipo AhoSethiUllman subtipo construcción a formato
 	 * Latex. En latex el problema de construcción consiste en dibujar el árbol,
@@ -211,7 +193,7 @@ public class TraductorLatexSVG extends Traductor {
 		fTrans.append("\\emph{"); //$NON-NLS-1$
 		fTrans.append(Messages.getString("TraductorLatex.positions")); //$NON-NLS-1$
 		fTrans.append("}\\\\ \n\\midrule %-------------------------------\n"); //$NON-NLS-1$
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				fTrans.append("\\h{(" + estado + ")} & "); //$NON-NLS-1$
 			else
@@ -313,7 +295,7 @@ public class TraductorLatexSVG extends Traductor {
 		fTrans.append(Messages.getString("TraductorLatex.NFAStates")); //$NON-NLS-1$
 		fTrans.append("}\\\\\n"); //$NON-NLS-1$
 		fTrans.append("\\midrule %-------------------------------\n"); //$NON-NLS-1$
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				fTrans.append("\\h{(" + estado + ")} & "); //$NON-NLS-1$
 			else
@@ -378,7 +360,7 @@ public class TraductorLatexSVG extends Traductor {
 		fTrans.append("}\\\\\n"); //$NON-NLS-1$
 		fTrans.append("\\midrule %-------------------------------\n"); //$NON-NLS-1$
 
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				fTrans.append("\\h{(" + estado + ")} & "); //$NON-NLS-1$
 			else
@@ -1,6 +1,5 @@
 package es.ubu.inf.tfg.doc.datos;
 
-import java.util.List;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -21,34 +20,6 @@ public class TraductorLatexTikZ extends Traductor {
 			.getLogger(TraductorLatexTikZ.class);
 
 
-	/**
-	 * Genera un documento Latex a partir de una lista de problemas ya
-	 * traducidos.
-	 * 
-	 * @param problemas
-	 *            Lista de problemas traducidos.
-	 * @return Documento Latex completo.
-	 */
-	@Override
-	public String documento(List<Plantilla> problemas) {
-		log.info("Generando documento Latex a partir de {} problemas.", //$NON-NLS-1$
-				problemas.size());
-
-		StringBuilder documento = new StringBuilder();
-
-		int n = 1;
-		for (Plantilla problema : problemas) {
-			problema.set("numero", "" + n++); //$NON-NLS-1$
-			documento.append(problema.toString());
-		}
-
-		Plantilla plantilla = new Plantilla("plantillaTikZ.tex"); //$NON-NLS-1$
-		plantilla.set("documento", documento.toString()); //$NON-NLS-1$
-
-		return plantilla.toString();
-	}
-
-
 	/**
 	 * Genera un documento Latex a partir de un único problema ya traducido.
 	 * 
@@ -69,6 +40,17 @@ public class TraductorLatexTikZ extends Traductor {
 	}
 
 
+	/**
+	 * Devuelve la plantilla de documento Latex.
+	 * 
+	 * @return Nombre de la plantilla de documento.
+	 */
+	@Override
+	protected String plantillaDocumento() {
+		return "plantillaTikZ.tex"; //$NON-NLS-1$
+	}
+
+
 	/**
 	 * Traduce un problema de tipo AhoSethiUllman subtipo construcción a formato
 	 * Latex. En latex el problema de construcción consiste en dibujar el árbol,
@@ -210,7 +192,7 @@ public class TraductorLatexTikZ extends Traductor {
 		fTrans.append("\\emph{"); //$NON-NLS-1$
 		fTrans.append(Messages.getString("TraductorLatex.positions")); //$NON-NLS-1$
 		fTrans.append("}\\\\ \n\\midrule %-------------------------------\n"); //$NON-NLS-1$
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				fTrans.append("\\h{(" + estado + ")} & "); //$NON-NLS-1$
 			else
@@ -314,7 +296,7 @@ public class TraductorLatexTikZ extends Traductor {
 		fTrans.append(Messages.getString("TraductorLatex.NFAStates")); //$NON-NLS-1$
 		fTrans.append("}\\\\\n"); //$NON-NLS-1$
 		fTrans.append("\\midrule %-------------------------------\n"); //$NON-NLS-1$
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				fTrans.append("\\h{(" + estado + ")} & "); //$NON-NLS-1$
 			else
@@ -379,7 +361,7 @@ public class TraductorLatexTikZ extends Traductor {
 		fTrans.append("}\\\\\n"); //$NON-NLS-1$
 		fTrans.append("\\midrule %-------------------------------\n"); //$NON-NLS-1$
 
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				fTrans.append("\\h{(" + estado + ")} & "); //$NON-NLS-1$
 			else
@@ -4,13 +4,12 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.Set;
-import java.util.TreeSet;
 
 import javax.imageio.ImageIO;
 
@@ -23,6 +22,10 @@ import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
 
 /**
  * Implementa un traductor al formato propietario Moodle XML.
+ * <p>
+ * Las opciones de respuesta se mezclan con la fuente de valores aleatorios del
+ * traductor, de modo que un traductor construido con la misma semilla exporta
+ * siempre el mismo documento.
  * 
  * @author Roberto Izquierdo Amo
  * 
@@ -31,8 +34,37 @@ public class TraductorMoodleXML extends Traductor {
 
 	private static final Logger log = LoggerFactory
 			.getLogger(TraductorMoodleXML.class);
-	private static final Random random = new Random(new Date().getTime());
+	private final SplittableRandom random;
 
+	/**
+	 * Construye un traductor con su propia fuente de valores aleatorios.
+	 */
+	public TraductorMoodleXML() {
+		this(new SplittableRandom());
+	}
+
+	/**
+	 * Construye un traductor que obtiene sus valores aleatorios de la fuente
+	 * especificada.
+	 * 
+	 * @param random
+	 *            Fuente de valores aleatorios, de uso exclusivo del traductor.
+	 */
+	public TraductorMoodleXML(SplittableRandom random) {
+		this.random = random;
+	}
+
+	/**
+	 * Mezcla los elementos de una lista con la fuente de valores aleatorios del
+	 * traductor.
+	 * 
+	 * @param lista
+	 *            Lista a mezclar.
+	 */
+	private void mezcla(List<?> lista) {
+		for (int i = lista.size() - 1; i > 0; i--)
+			Collections.swap(lista, i, this.random.nextInt(i + 1));
+	}
 
 	// Método privado que mezcla las opciones de respuesta
 	private String shuffleChoices(String question) {
@@ -58,40 +90,13 @@ public class TraductorMoodleXML extends Traductor {
 		Collections.addAll(optionsList, options);
 
 		// Mezcla las opciones
-		Collections.shuffle(optionsList);
+		mezcla(optionsList);
 
 		// Reconstruye la pregunta
 		String shuffledOptions = String.join("~", optionsList); //$NON-NLS-1$ 
 		return prefix + shuffledOptions + suffix;
 	}
 
-	/**
-	 * Genera un documento en formato Moodle XML a partir de una lista de
-	 * problemas ya traducidos.
-	 * 
-	 * @param problemas
-	 *            Lista de problemas traducidos.
-	 * @return Documento Moodle XML completo.
-	 */
-	@Override
-	public String documento(List<Plantilla> problemas) {
-		log.info("Generando documento Moodle XML a partir de {} problemas.", //$NON-NLS-1$
-				problemas.size());
-
-		StringBuilder documento = new StringBuilder();
-
-		int n = 1;
-		for (Plantilla problema : problemas) {
-			problema.set("numero", "" + n++); //$NON-NLS-1$
-			documento.append(problema.toString());
-		}
-
-		Plantilla plantilla = new Plantilla("plantilla.xml"); //$NON-NLS-1$
-		plantilla.set("documento", documento.toString()); //$NON-NLS-1$
-
-		return plantilla.toString();
-	}
-	
 	/**
 	 * Genera un documento Moodle XML a partir de un único problema ya traducido.
 	 * 
@@ -111,6 +116,17 @@ public class TraductorMoodleXML extends Traductor {
 		return plantilla.toString();
 	}
 
+	/**
+	 * Devuelve la plantilla de documento Moodle XML.
+	 * 
+	 * @return Nombre de la plantilla de documento.
+	 */
+	@Override
+	protected String plantillaDocumento() {
+		return "plantilla.xml"; //$NON-NLS-1$
+	}
+
+
 	/**
 	 * Traduce un problema de tipo AhoSethiUllman subtipo construcción a formato
 	 * Moodle XML.
@@ -127,28 +143,23 @@ public class TraductorMoodleXML extends Traductor {
 
 		Plantilla plantilla = new Plantilla("plantillaASUConstruccion.xml"); //$NON-NLS-1$
 		String[] imagenes = new String[4];
+		List<String> nombres = problema.nombresAlternativas();
 		List<BufferedImage> alternativas = problema.alternativas();
-		// CGO added this
-		BufferedImage solutionImage = alternativas.get(0);  // I need to get the solution before the shuffle
-		Collections.shuffle(alternativas);
+		// Se mezcla el orden, y no las imágenes, para que cada imagen conserve
+		// su nombre. La solución es la alternativa 0.
+		List<Integer> orden = new ArrayList<>(Arrays.asList(0, 1, 2, 3));
+		mezcla(orden);
 		String[] alternativasBase64 = new String[4];
 
 		for (int i = 0; i < 4; i++) {
-			imagenes[i] = Math.abs(alternativas.get(i).hashCode()) + ".jpg"; //$NON-NLS-1$
-			alternativasBase64[i] = imageToBase64(alternativas.get(i));
+			imagenes[i] = nombres.get(orden.get(i)) + ".jpg"; //$NON-NLS-1$
+			alternativasBase64[i] = imageToBase64(alternativas.get(orden.get(i)));
 		}
 		
-		// CGO commented this
-		//int index = alternativas.indexOf(problema.alternativas().get(0)); // XXX after shuffling the solution was not the first one any more
-		// CGO added this
-		int index = alternativas.indexOf(solutionImage);
+		int index = orden.indexOf(0);
 		char solucion = (char) ('a' + index); //$NON-NLS-1$
 
-		Set<Character> opciones = new HashSet<>();
-		opciones.add('a');
-		opciones.add('b');
-		opciones.add('c');
-		opciones.add('d');
+		List<String> opciones = Arrays.asList("a", "b", "c", "d"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 
 		plantilla.set("expresion", problema.problema()); //$NON-NLS-1$
 		plantilla.set("urlA", imagenes[0]); //$NON-NLS-1$
@@ -159,7 +170,7 @@ public class TraductorMoodleXML extends Traductor {
 		plantilla.set("imagenB", alternativasBase64[1]); //$NON-NLS-1$
 		plantilla.set("imagenC", alternativasBase64[2]); //$NON-NLS-1$
 		plantilla.set("imagenD", alternativasBase64[3]); //$NON-NLS-1$
-		plantilla.set("solucion", opcionesTransicion(solucion, opciones)); //$NON-NLS-1$
+		plantilla.set("solucion", opcionesTransicion(String.valueOf(solucion), opciones)); //$NON-NLS-1$
 
 		return plantilla;
 	}
@@ -179,7 +190,7 @@ public class TraductorMoodleXML extends Traductor {
 				"Traduciendo a Moodle XML problema tipo Aho-Sethi-Ullman con expresión {}, formato etiquetado", //$NON-NLS-1$
 				problema.problema());
 
-		String url = Math.abs(problema.arbolVacio().hashCode()) + ".jpg"; //$NON-NLS-1$
+		String url = problema.nombreArbolVacio() + ".jpg"; //$NON-NLS-1$
 		Plantilla plantilla = new Plantilla("plantillaASUEtiquetado.xml"); //$NON-NLS-1$
 		StringBuilder soluciones = new StringBuilder();
 
@@ -254,7 +265,7 @@ public class TraductorMoodleXML extends Traductor {
 				fTrans.append("\n\t<th scope=\"col\">" + simbolo + "</th>"); //$NON-NLS-1$
 		fTrans.append("\n\t<th scope=\"col\"> </th>\n\t</tr>"); //$NON-NLS-1$
 
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			fTrans.append("\n\t<tr>\n\t<td>" + estado + "</td>"); //$NON-NLS-1$
 			for (char simbolo : problema.simbolos()) {
 				if (simbolo != '$') {
@@ -271,8 +282,8 @@ public class TraductorMoodleXML extends Traductor {
 		}
 
 		// Estados finales
-		Set<Character> finales = new TreeSet<>();
-		for (char estado : problema.estados()) {
+		List<String> finales = new ArrayList<>();
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				finales.add(estado);
 		}
@@ -303,27 +314,22 @@ public class TraductorMoodleXML extends Traductor {
 		Plantilla plantilla = new Plantilla("plantillaCSConstruccion.xml"); //$NON-NLS-1$
 
 		String[] imagenes = new String[4];
+		List<String> nombres = problema.nombresAlternativas();
 		List<BufferedImage> alternativas = problema.alternativas();
-		// CGO added this
-		BufferedImage solutionImage = alternativas.get(0);  // I need to get the solution before the shuffle
-		Collections.shuffle(alternativas);
+		// Se mezcla el orden, y no las imágenes, para que cada imagen conserve
+		// su nombre. La solución es la alternativa 0.
+		List<Integer> orden = new ArrayList<>(Arrays.asList(0, 1, 2, 3));
+		mezcla(orden);
 		String[] alternativasBase64 = new String[4];
 
 		for (int i = 0; i < 4; i++) {
-			imagenes[i] = Math.abs(alternativas.get(i).hashCode()) + ".jpg"; //$NON-NLS-1$
-			alternativasBase64[i] = imageToBase64(alternativas.get(i));
+			imagenes[i] = nombres.get(orden.get(i)) + ".jpg"; //$NON-NLS-1$
+			alternativasBase64[i] = imageToBase64(alternativas.get(orden.get(i)));
 		}
 
-		// CGO commented this
-		//char solucion = (char) ('a' + alternativas.indexOf(problema.alternativas().get(0))); // XXX after shuffling the solution was not the first one any more
-		// CGO added these two lines
-		int index = alternativas.indexOf(solutionImage);
+		int index = orden.indexOf(0);
 		char solucion = (char) ('a' + index);
-		Set<Character> opciones = new HashSet<>();
-		opciones.add('a');
-		opciones.add('b');
-		opciones.add('c');
-		opciones.add('d');
+		List<String> opciones = Arrays.asList("a", "b", "c", "d"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 
 		plantilla.set("expresion", problema.problema()); //$NON-NLS-1$
 		plantilla.set("urlA", imagenes[0]); //$NON-NLS-1$
@@ -334,7 +340,7 @@ public class TraductorMoodleXML extends Traductor {
 		plantilla.set("imagenB", alternativasBase64[1]); //$NON-NLS-1$
 		plantilla.set("imagenC", alternativasBase64[2]); //$NON-NLS-1$
 		plantilla.set("imagenD", alternativasBase64[3]); //$NON-NLS-1$
-		plantilla.set("solucion", opcionesTransicion(solucion, opciones)); //$NON-NLS-1$
+		plantilla.set("solucion", opcionesTransicion(String.valueOf(solucion), opciones)); //$NON-NLS-1$
 
 		return plantilla;
 	}
@@ -365,7 +371,7 @@ public class TraductorMoodleXML extends Traductor {
 				fTrans.append("\n\t<th scope=\"col\">" + simbolo + "</th>"); //$NON-NLS-1$
 		fTrans.append("\n\t<th scope=\"col\"> </th>\n\t</tr>"); //$NON-NLS-1$
 
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			fTrans.append("\n\t<tr>\n\t<td>" + estado + "</td>"); //$NON-NLS-1$
 			for (char simbolo : problema.simbolos()) {
 				if (simbolo != '$') {
@@ -382,8 +388,8 @@ public class TraductorMoodleXML extends Traductor {
 		}
 
 		// Estados finales
-		Set<Character> finales = new TreeSet<>();
-		for (char estado : problema.estados()) {
+		List<String> finales = new ArrayList<>();
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				finales.add(estado);
 		}
@@ -410,7 +416,7 @@ public class TraductorMoodleXML extends Traductor {
 				"Traduciendo a Moodle XML problema tipo construcción de subconjuntos con expresión {}, formato autómata", //$NON-NLS-1$
 				problema.problema());
 
-		String url = Math.abs(problema.automata().hashCode()) + ".jpg"; //$NON-NLS-1$
+		String url = problema.nombreAutomata() + ".jpg"; //$NON-NLS-1$
 		StringBuilder fTrans = new StringBuilder();
 		StringBuilder eFinales = new StringBuilder();
 
@@ -423,7 +429,7 @@ public class TraductorMoodleXML extends Traductor {
 				fTrans.append("\n\t<th scope=\"col\">" + simbolo + "</th>"); //$NON-NLS-1$
 		fTrans.append("\n\t<th scope=\"col\"> </th>\n\t</tr>"); //$NON-NLS-1$
 
-		for (char estado : problema.estados()) {
+		for (String estado : problema.estados()) {
 			fTrans.append("\n\t<tr>\n\t<td>" + estado + "</td>"); //$NON-NLS-1$
 			for (char simbolo : problema.simbolos()) {
 				if (simbolo != '$') {
@@ -440,8 +446,8 @@ public class TraductorMoodleXML extends Traductor {
 		}
 
 		// Estados finales
-		Set<Character> finales = new TreeSet<>();
-		for (char estado : problema.estados()) {
+		List<String> finales = new ArrayList<>();
+		for (String estado : problema.estados()) {
 			if (problema.esFinal(estado))
 				finales.add(estado);
 		}
@@ -470,20 +476,22 @@ public class TraductorMoodleXML extends Traductor {
 	 * @return Cadena de caracteres en formato Moodle XML representando las
 	 *         opciones.
 	 */
-	private String opcionesTransicion(char solucion, Set<Character> estados) {
+	private String opcionesTransicion(String solucion, List<String> estados) {
 		log.debug(
 				"Generando opciones para transición a estado {} con estados {}", //$NON-NLS-1$
 				solucion, estados);
 
-		estados.remove(solucion);
-
-		List<Character> similares = new ArrayList<>();
-		for (char estado : estados) {
-			if (Math.abs(estado - solucion) <= 2)
-				similares.add(estado);
+		int indice = estados.indexOf(solucion);
+		List<String> similares = new ArrayList<>();
+		List<String> diferentes = new ArrayList<>();
+		for (int i = 0; i < estados.size(); i++) {
+			if (i == indice)
+				continue;
+			if (Math.abs(i - indice) <= 2)
+				similares.add(estados.get(i));
+			else
+				diferentes.add(estados.get(i));
 		}
-		List<Character> diferentes = new ArrayList<>(estados);
-		diferentes.removeAll(similares);
 
 		StringBuilder opciones = new StringBuilder();
 		opciones.append("{1:MULTICHOICE:%100%"); //$NON-NLS-1$
@@ -537,8 +545,8 @@ public class TraductorMoodleXML extends Traductor {
 	 * @return Cadena de caracteres en formato Moodle XML representando las
 	 *         opciones.
 	 */
-	private String opcionesFinales(Set<Character> solucion,
-			Set<Character> estados) {
+	private String opcionesFinales(List<String> solucion,
+			List<String> estados) {
 		log.debug(
 				"Generando opciones para estados finales con finales {} y estados {}", //$NON-NLS-1$
 				solucion, estados);
@@ -547,9 +555,9 @@ public class TraductorMoodleXML extends Traductor {
 		opciones.append("{1:MULTICHOICE:%100%"); //$NON-NLS-1$
 		opciones.append(listToString(new ArrayList<>(solucion)));
 
-		List<Character> complementarios = new ArrayList<>(estados);
+		List<String> complementarios = new ArrayList<>(estados);
 		complementarios.removeAll(solucion);
-		List<Character> conjunto;
+		List<String> conjunto;
 		int index;
 		// Opción similar 1 (eliminamos un estado)
 		conjunto = new ArrayList<>(solucion);
@@ -1,26 +1,26 @@
 package es.ubu.inf.tfg.regex.asu;
 
 import java.awt.image.BufferedImage;
-import java.io.StringReader;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.SplittableRandom;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import es.ubu.inf.tfg.regex.asu.datos.MapaPosiciones;
 import es.ubu.inf.tfg.regex.asu.datos.Nodo;
+import es.ubu.inf.tfg.regex.datos.CacheAlternativas;
 import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
 import es.ubu.inf.tfg.regex.datos.Generador;
+import es.ubu.inf.tfg.regex.datos.ImagenExpresion;
 import es.ubu.inf.tfg.regex.datos.MapaEstados;
-import es.ubu.inf.tfg.regex.parser.CharStream;
-import es.ubu.inf.tfg.regex.parser.ExpresionRegularParser;
-import es.ubu.inf.tfg.regex.parser.JavaCharStream;
+import es.ubu.inf.tfg.regex.parser.ExpresionRegularParserRapido;
 import es.ubu.inf.tfg.regex.parser.ParseException;
-import es.ubu.inf.tfg.regex.parser.TokenMgrError;
 
 /**
  * AhoSethiUllman implementa la solución a un problema de construcción de un AFD
@@ -42,10 +42,12 @@ public class AhoSethiUllman {
 	private String problema;
 	private ExpresionRegular expresion;
 	private Nodo solucion;
-	private MapaPosiciones<Character> estados;
+	private MapaPosiciones<Character> simbolos;
+	private MapaPosiciones<Integer> siguientePos;
+	private List<BitSet> estados;
+	private Map<BitSet, Integer> indiceEstados;
 	private MapaEstados transiciones;
-	private List<BufferedImage> alternativas;
-	private List<String> alternativasDot;
+	private List<ExpresionRegular> expresionesAlternativas;
 
 	/**
 	 * Resuelve un problema de construcción de AFD a partir de una expresión
@@ -56,52 +58,33 @@ public class AhoSethiUllman {
 	 *            resolver.
 	 * @throws UnsupportedOperationException
 	 *             Error del parser o del token manager. Indica que la expresión
-	 *             no es válida o que contiene caracteres no reconocidos.
+	 *             no es válida o que contiene caracteres no reconocidos, y
+	 *             conserva el mensaje del parser con la columna del error.
 	 */
 	public AhoSethiUllman(String problema) throws UnsupportedOperationException {
-		if (problema.charAt(problema.length() - 1) != '\n')
-			problema += '\n';
-
-		this.problema = problema.substring(0, problema.length() - 1);
-
-		CharStream input = new JavaCharStream(new StringReader(problema));
-		ExpresionRegularParser parser = new ExpresionRegularParser(input);
+		this.problema = problema.endsWith("\n") ? problema.substring(0,
+				problema.length() - 1) : problema;
 
 		try {
-			this.expresion = parser.expresion();
-		} catch (ParseException | TokenMgrError e) {
-			throw new UnsupportedOperationException("Expresión no válida.");
+			this.expresion = ExpresionRegularParserRapido.analiza(problema);
+		} catch (ParseException e) {
+			throw new UnsupportedOperationException("Expresión no válida: "
+					+ e.getMessage(), e);
 		}
 
 		this.solucion = new Nodo(this.expresion);
+		this.simbolos = this.solucion.simbolos();
+		this.siguientePos = this.solucion.siguientePos();
 
-		// calculo estados
-		this.estados = new MapaPosiciones<>();
-		this.transiciones = new MapaEstados();
-
-		this.estados.add('A', primeraPos());
-		char estadoActual = 'A';
-
-		// Mientras queden estados por rellenar
-		while (estados.keys().contains(estadoActual)) {
-			// Para cada símbolo no final
-			for (char simbolo : simbolos()) {
-				if (simbolo != '$') {
-					// Calculamos y almacenamos la transición
-					char destino = transicion(estadoActual, simbolo);
-					this.transiciones.add(estadoActual, simbolo, destino);
-				}
-			}
-			// Pasamos al siguiente estado, alfabéticamente
-			estadoActual++;
-		}
+		calculaEstados();
 	}
 
 	/**
 	 * Resuelve un problema de construcción de AFD a partir de una expresión
 	 * regular en forma ExpresionRegular utilizando el algoritmo de
 	 * Aho-Sethi-Ullman. Se considera que la expresión recibida ya ha sido
-	 * aumentada.
+	 * aumentada. Sus símbolos se numeran de izquierda a derecha si no lo
+	 * estaban ya.
 	 * 
 	 * @param expresion
 	 *            ExpresionRegular conteniendo la expresión regular a resolver.
@@ -109,29 +92,40 @@ public class AhoSethiUllman {
 	public AhoSethiUllman(ExpresionRegular expresion) {
 		// Expresión sin aumentar.
 		this.problema = expresion.hijoIzquierdo().toString();
-		this.expresion = expresion;
+		this.expresion = expresion.numera();
 
 		this.solucion = new Nodo(this.expresion);
+		this.simbolos = this.solucion.simbolos();
+		this.siguientePos = this.solucion.siguientePos();
 
-		// Calculo estados
-		this.estados = new MapaPosiciones<>();
-		this.transiciones = new MapaEstados();
+		calculaEstados();
+	}
+
+	/**
+	 * Construye la tabla de transición del AFD. Los estados se numeran en el
+	 * orden en que se descubren, partiendo de primera-pos de la raíz.
+	 */
+	private void calculaEstados() {
+		// Alfabeto sin el símbolo final
+		Set<Character> simbolos = simbolos();
+		char[] alfabeto = new char[simbolos.size() - 1];
+		int i = 0;
+		for (char simbolo : simbolos)
+			if (simbolo != '$')
+				alfabeto[i++] = simbolo;
 
-		this.estados.add('A', primeraPos());
-		char estadoActual = 'A';
+		this.estados = new ArrayList<>();
+		this.indiceEstados = new HashMap<>();
+		this.transiciones = new MapaEstados(alfabeto);
+
+		nuevoEstado(MapaPosiciones.bits(primeraPos()));
 
 		// Mientras queden estados por rellenar
-		while (estados.keys().contains(estadoActual)) {
-			// Para cada símbolo no final
-			for (char simbolo : simbolos()) {
-				if (simbolo != '$') {
-					// Calculamos y almacenamos la transición
-					char destino = transicion(estadoActual, simbolo);
-					this.transiciones.add(estadoActual, simbolo, destino);
-				}
+		for (int estado = 0; estado < this.estados.size(); estado++) {
+			for (int columna = 0; columna < alfabeto.length; columna++) {
+				int destino = transicion(estado, alfabeto[columna]);
+				this.transiciones.add(estado, columna, destino);
 			}
-			// Pasamos al siguiente estado, alfabéticamente
-			estadoActual++;
 		}
 	}
 
@@ -145,23 +139,38 @@ public class AhoSethiUllman {
 	 *            Símbolo de transición.
 	 * @return Estado de destino.
 	 */
-	private char transicion(char estado, char simbolo) {
-		Set<Integer> posiciones = new TreeSet<>();
+	private int transicion(int estado, char simbolo) {
+		// Posiciones del estado de origen etiquetadas con el símbolo.
+		BitSet origen = (BitSet) this.simbolos.posiciones(simbolo).clone();
+		origen.and(this.estados.get(estado));
 
-		for (int pos : posiciones(simbolo)) {
-			if (this.estados.get(estado).contains(pos))
-				posiciones.addAll(siguientePos(pos));
-		}
+		BitSet posiciones = new BitSet();
+		for (int pos = origen.nextSetBit(0); pos >= 0; pos = origen
+				.nextSetBit(pos + 1))
+			posiciones.or(this.siguientePos.posiciones(pos));
 
 		// Comprobar si existe el estado o crear uno nuevo.
-		for (char est : estados()) {
-			if (estado(est).equals(posiciones)) {
-				return est;
-			}
-		}
+		Integer est = this.indiceEstados.get(posiciones);
+		if (est != null)
+			return est;
+
+		return nuevoEstado(posiciones);
+	}
 
-		char est = (char) (this.estados.size() + 'A');
-		this.estados.add(est, posiciones);
+	/**
+	 * Registra un nuevo estado en la tabla de transición, asociado al conjunto
+	 * de posiciones dado, y lo indexa por dicho conjunto para que las búsquedas
+	 * posteriores se resuelvan en tiempo constante.
+	 * 
+	 * @param posiciones
+	 *            Conjunto de posiciones del nuevo estado. No debe modificarse
+	 *            una vez registrado.
+	 * @return Estado creado.
+	 */
+	private int nuevoEstado(BitSet posiciones) {
+		int est = this.transiciones.nuevoEstado();
+		this.estados.add(posiciones);
+		this.indiceEstados.put(posiciones, est);
 		return est;
 	}
 
@@ -199,7 +208,7 @@ public class AhoSethiUllman {
 	 * @return Símbolos que utiliza la expresión regular.
 	 */
 	public Set<Character> simbolos() {
-		return this.solucion.simbolos().keys();
+		return this.simbolos.keys();
 	}
 
 	/**
@@ -211,7 +220,7 @@ public class AhoSethiUllman {
 	 * @return Conjunto de posiciones en las que encontramos el símbolo.
 	 */
 	public Set<Integer> posiciones(char simbolo) {
-		return this.solucion.simbolos().get(simbolo);
+		return this.simbolos.get(simbolo);
 	}
 
 	/**
@@ -221,7 +230,7 @@ public class AhoSethiUllman {
 	 * @return Conjunto de posiciones en la expresión regular.
 	 */
 	public Set<Integer> posiciones() {
-		return this.solucion.siguientePos().keys();
+		return this.siguientePos.keys();
 	}
 
 	/**
@@ -232,17 +241,26 @@ public class AhoSethiUllman {
 	 * @return Resultado de la función siguiente-pos para la posición dada.
 	 */
 	public Set<Integer> siguientePos(int n) {
-		return this.solucion.siguientePos().get(n);
+		return this.siguientePos.get(n);
+	}
+
+	/**
+	 * Devuelve una lista con las etiquetas de los estados existentes en la
+	 * tabla de transición, en el orden en que se crearon.
+	 * 
+	 * @return Lista de estados en la tabla de transición.
+	 */
+	public List<String> estados() {
+		return this.transiciones.estados();
 	}
 
 	/**
-	 * Devuelve un conjunto de caracteres representando los estados existentes
-	 * en la tabla de transición.
+	 * Devuelve el número de estados existentes en la tabla de transición.
 	 * 
-	 * @return Conjunto de estados en la tabla de transición.
+	 * @return Número de estados en la tabla de transición.
 	 */
-	public Set<Character> estados() {
-		return this.estados.keys();
+	public int nEstados() {
+		return this.estados.size();
 	}
 
 	/**
@@ -253,8 +271,9 @@ public class AhoSethiUllman {
 	 *            Estado del que queremos calcular posiciones.
 	 * @return Conjunto de posiciones asociadas al estado.
 	 */
-	public Set<Integer> estado(char key) {
-		return this.estados.get(key);
+	public Set<Integer> estado(String key) {
+		return MapaPosiciones.conjunto(this.estados.get(MapaEstados
+				.indice(key)));
 	}
 
 	/**
@@ -267,10 +286,25 @@ public class AhoSethiUllman {
 	 *            Símbolo de transición.
 	 * @return Estado de destino.
 	 */
-	public char mueve(char estado, char simbolo) {
+	public String mueve(String estado, char simbolo) {
 		return this.transiciones.get(estado, simbolo);
 	}
 
+	/**
+	 * Calcula el estado de destino para un estado de origen, dado por su
+	 * identificador numérico, y un símbolo de transición.
+	 * 
+	 * @param estado
+	 *            Identificador del estado de origen.
+	 * @param simbolo
+	 *            Símbolo de transición.
+	 * @return Identificador del estado de destino.
+	 */
+	public int mueve(int estado, char simbolo) {
+		return this.transiciones.get(estado,
+				this.transiciones.columna(simbolo));
+	}
+
 	/**
 	 * Comprueba si un estado es final, es decir, si contiene el símbolo
 	 * aumentado ('$'). Devuelve <code>true</code> si el estado es final,
@@ -281,10 +315,22 @@ public class AhoSethiUllman {
 	 * @return <code>true</code> si el estado es final, <code>false</code> si
 	 *         no.
 	 */
-	public boolean esFinal(char estado) {
+	public boolean esFinal(String estado) {
+		return esFinal(MapaEstados.indice(estado));
+	}
+
+	/**
+	 * Comprueba si un estado, dado por su identificador numérico, es final.
+	 * 
+	 * @param estado
+	 *            Identificador del estado a comprobar.
+	 * @return <code>true</code> si el estado es final, <code>false</code> si
+	 *         no.
+	 */
+	public boolean esFinal(int estado) {
 		// Solo hay una posición final por expresión.
-		int posicionfinal = posiciones('$').iterator().next();
-		return this.estados.get(estado).contains(posicionfinal);
+		int posicionfinal = this.simbolos.posiciones('$').nextSetBit(0);
+		return this.estados.get(estado).get(posicionfinal);
 	}
 
 	/**
@@ -336,6 +382,17 @@ public class AhoSethiUllman {
 		return this.solucion.imagen();
 	}
 
+	/**
+	 * Devuelve el nombre con el que se exporta la imagen del árbol vacío. Es
+	 * el mismo para todos sus formatos y no depende de la imagen, que puede
+	 * volver a dibujarse.
+	 * 
+	 * @return Nombre de la imagen del árbol vacío.
+	 */
+	public String nombreArbolVacio() {
+		return ImagenExpresion.nombre("vacio", this.expresion);
+	}
+
 	/**
 	 * Devuelve una programa en formato DOT para generar la imagen representando
 	 * el árbol de expresión regular asociado a este problema, sin completar y
@@ -384,19 +441,36 @@ public class AhoSethiUllman {
 	 * Genera una serie de cuatro imágenes correspondientes la expresión regular
 	 * original del problema y tres mutaciones de la misma, como alternativas
 	 * en un problema de construcción de árbol.
+	 * <p>
+	 * Las imágenes se guardan en {@link CacheAlternativas} con independencia
+	 * del resto de formatos, por lo que su cálculo no adelanta el de estos.
 	 * 
 	 * @return Array de cuatro imágenes representando árboles de expresión
 	 *         regular, una correspondiente al del problema y tres alternativas.
 	 */
 	public List<BufferedImage> alternativas() {
-		if (this.alternativas == null) {
-			alternativas = new ArrayList<>();
-			
+		return new ArrayList<>(CacheAlternativas.obtiene(this, "imagen", () -> {
+			List<BufferedImage> alternativas = new ArrayList<>();
 			for (ExpresionRegular expresion : expresionesAlternativas())
-				alternativas.add(expresion.imagen());
-		}
+				alternativas.add(ImagenExpresion.imagen(expresion));
+			return alternativas;
+		}));
+	}
 
-		return new ArrayList<>(alternativas);
+	/**
+	 * Devuelve los nombres con los que se exportan las imágenes de las
+	 * alternativas, en el mismo orden que {@link #alternativas()}. Son los
+	 * mismos para todos sus formatos y no dependen de las imágenes, que
+	 * pueden volver a dibujarse si salen de {@link CacheAlternativas}.
+	 * 
+	 * @return Nombres de las imágenes de la expresión del problema y de sus
+	 *         alternativas.
+	 */
+	public List<String> nombresAlternativas() {
+		List<String> nombres = new ArrayList<>();
+		for (ExpresionRegular expresion : expresionesAlternativas())
+			nombres.add(ImagenExpresion.nombre("arbol", expresion));
+		return nombres;
 	}
 
 	/**
@@ -404,22 +478,21 @@ public class AhoSethiUllman {
 	 * correspondientes la expresión regular original del problema y tres
 	 * mutaciones de la misma, como alternativas en un problema de construcción
 	 * de árbol.
+	 * <p>
+	 * Los programas se guardan en {@link CacheAlternativas} con independencia
+	 * del resto de formatos, por lo que su cálculo no adelanta el de estos.
 	 * 
 	 * @return Array de cuatro cadenas de caracteres conteniendo programas DOT
 	 *         representando árboles de expresión regular, una correspondiente
 	 *         al del problema y tres alternativas.
 	 */
 	public List<String> alternativasDot() {
-		if (this.alternativasDot == null) {
-			alternativasDot = new ArrayList<>();
-			Nodo nodo;
-			for (ExpresionRegular expresion : expresionesAlternativas()) {
-				nodo = new Nodo(expresion);
-				alternativasDot.add(nodo.imagenDot());
-			}
-		}
-
-		return new ArrayList<>(alternativasDot);
+		return new ArrayList<>(CacheAlternativas.obtiene(this, "dot", () -> {
+			List<String> alternativasDot = new ArrayList<>();
+			for (ExpresionRegular expresion : expresionesAlternativas())
+				alternativasDot.add(new Nodo(expresion).imagenDot());
+			return alternativasDot;
+		}));
 	}
 	
 	/**
@@ -462,14 +535,20 @@ public class AhoSethiUllman {
 	 * 
 	 * @return LIST completo de alternativas. // antes era un SET
 	 */
-	public List<ExpresionRegular> expresionesAlternativas() {
+	public synchronized List<ExpresionRegular> expresionesAlternativas() {
+		if (this.expresionesAlternativas != null)
+			return new ArrayList<>(this.expresionesAlternativas);
+
 		log.info("Generando imágenes alternativas");
 
 		int nSimbolos = simbolos().size();
 		boolean usaVacio = simbolos().contains('\u0000');
 		if (usaVacio)
 			nSimbolos--;
-		Generador generador = new Generador(nSimbolos, usaVacio, true);
+		// La semilla se obtiene de la expresión, de modo que un mismo problema
+		// tiene siempre las mismas alternativas.
+		Generador generador = new Generador(nSimbolos, usaVacio, true,
+				new SplittableRandom(this.expresion.hashCode()));
 
 		// CGO commented this
 		//Set<ExpresionRegular> expresiones = new HashSet<>();
@@ -487,6 +566,7 @@ public class AhoSethiUllman {
 			}
 		}
 
-		return expresiones;
+		this.expresionesAlternativas = expresiones;
+		return new ArrayList<>(expresiones);
 	}
 }
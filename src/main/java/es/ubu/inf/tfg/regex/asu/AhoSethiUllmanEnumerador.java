@@ -0,0 +1,281 @@
+package es.ubu.inf.tfg.regex.asu;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+
+/**
+ * AhoSethiUllmanEnumerador implementa una búsqueda exhaustiva de problemas de
+ * tipo AhoSethiUllman con un número exacto de símbolos y de estados. Recorre
+ * los árboles de expresión regular por número creciente de hojas, por lo que
+ * la primera expresión encontrada es también una de las más pequeñas, y el
+ * resultado es siempre el mismo para los mismos parámetros.
+ * <p>
+ * Para reducir el espacio de búsqueda solo se construye un representante de
+ * cada familia de árboles que producen el mismo AFD:
+ * <ul>
+ * <li>Las concatenaciones y uniones se asocian siempre por la izquierda, como
+ * al leer la expresión, de modo que se escriben sin paréntesis
+ * (<code>a·b·c</code>).
+ * <li>Los operandos de una unión aparecen en el orden en que se enumeran, sin
+ * repetirse, de modo que <code>b|a</code> no se construye si ya se ha
+ * construido <code>a|b</code>.
+ * <li>No se aplica el cierre sobre un cierre o un nodo vacío, ni se concatena
+ * un nodo vacío.
+ * <li>Los símbolos aparecen por primera vez en orden alfabético, leyendo la
+ * expresión de izquierda a derecha.
+ * </ul>
+ * Además, se descartan los tamaños cuyas posiciones no bastan para alcanzar los
+ * estados pedidos, y los subárboles cuyas hojas restantes no alcanzan para
+ * utilizar todos los símbolos.
+ * <p>
+ * El enumerador está pensado para objetivos pequeños, ya que el número de
+ * árboles crece de forma exponencial con el número de hojas. Solo forma parte
+ * de la API, a través de {@link AhoSethiUllmanGenerador#exacto(int, int,
+ * boolean)}: ni la interfaz gráfica ni la consola lo utilizan.
+ */
+public class AhoSethiUllmanEnumerador {
+
+	private final int nSimbolos;
+	private final int nEstados;
+	private final boolean usaVacio;
+	private final int maxHojas;
+	private final int completo;
+
+	private final List<List<Forma>> formas = new ArrayList<>();
+	private int orden;
+	private int evaluaciones;
+
+	/**
+	 * Prepara la búsqueda de problemas con los parámetros dados.
+	 *
+	 * @param nSimbolos
+	 *            Número de símbolos que debe utilizar el problema, empezando
+	 *            por la 'a'.
+	 * @param nEstados
+	 *            Número de estados que debe tener el problema.
+	 * @param usaVacio
+	 *            Si las expresiones pueden contener nodos vacíos.
+	 * @param maxHojas
+	 *            Número máximo de hojas de los árboles enumerados.
+	 */
+	public AhoSethiUllmanEnumerador(int nSimbolos, int nEstados,
+			boolean usaVacio, int maxHojas) {
+		if (nSimbolos < 1 || nSimbolos > 26)
+			throw new IllegalArgumentException(
+					"El número de símbolos debe estar entre 1 y 26.");
+		if (nEstados < 1)
+			throw new IllegalArgumentException(
+					"El número de estados debe ser positivo.");
+
+		this.nSimbolos = nSimbolos;
+		this.nEstados = nEstados;
+		this.usaVacio = usaVacio;
+		this.maxHojas = maxHojas;
+		this.completo = (1 << nSimbolos) - 1;
+
+		this.formas.add(new ArrayList<>());
+	}
+
+	/**
+	 * Busca la primera expresión, en orden de enumeración, cuyo problema tiene
+	 * exactamente los símbolos y estados pedidos. Los árboles ya construidos
+	 * se conservan, por lo que una búsqueda detenida puede reanudarse.
+	 *
+	 * @param detener
+	 *            Condición comprobada periódicamente para abandonar la
+	 *            búsqueda.
+	 * @return Expresión aumentada y numerada que cumple los parámetros, o
+	 *         <code>null</code> si no se encuentra ninguna.
+	 */
+	public ExpresionRegular busca(BooleanSupplier detener) {
+		while (this.formas.size() <= this.maxHojas) {
+			int hojas = this.formas.size();
+			List<Forma> nivel = new ArrayList<>();
+
+			Forma encontrada = nivel(hojas, nivel, hojas >= this.nSimbolos,
+					detener);
+			if (encontrada != null)
+				return ExpresionRegular.nodoConcat(encontrada.expresion,
+						ExpresionRegular.nodoAumentado(0)).numera();
+			if (detener.getAsBoolean())
+				return null;
+			this.formas.add(nivel);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Devuelve el número de expresiones evaluadas hasta el momento.
+	 *
+	 * @return Número de evaluaciones.
+	 */
+	public int evaluaciones() {
+		return this.evaluaciones;
+	}
+
+	/**
+	 * Construye todos los árboles canónicos con el número de hojas dado,
+	 * evaluando cada uno a medida que se construye si así se pide.
+	 *
+	 * @return El primer árbol que cumple los parámetros, o <code>null</code>.
+	 */
+	private Forma nivel(int hojas, List<Forma> nivel, boolean evalua,
+			BooleanSupplier detener) {
+		if (hojas == 1) {
+			if (this.usaVacio) {
+				Forma vacio = añade(nivel, new Forma(
+						ExpresionRegular.nodoVacio(), 0, 0));
+				if (evalua && evalua(vacio))
+					return vacio;
+			}
+			for (int i = 0; i < this.nSimbolos; i++) {
+				Forma simbolo = añade(nivel, new Forma(
+						ExpresionRegular.nodoSimbolo(0, (char) ('a' + i)),
+						1 << i, 1));
+				if (evalua && evalua(simbolo))
+					return simbolo;
+				Forma cierre = cierre(nivel, simbolo);
+				if (evalua && evalua(cierre))
+					return cierre;
+			}
+			return null;
+		}
+
+		for (int izquierdo = 1; izquierdo < hojas; izquierdo++) {
+			if (detener.getAsBoolean())
+				return null;
+
+			int derecho = hojas - izquierdo;
+			for (Forma i : this.formas.get(izquierdo)) {
+				for (Forma d : this.formas.get(derecho)) {
+					int simbolos = i.simbolos | d.simbolos;
+					if (!alcanza(simbolos, this.maxHojas - hojas))
+						continue;
+
+					// Concatenación asociada por la izquierda y sin vacíos.
+					if (!d.expresion.esConcat() && !i.expresion.esVacio()
+							&& !d.expresion.esVacio()) {
+						Forma concat = añade(nivel, new Forma(
+								ExpresionRegular.nodoConcat(i.expresion,
+										d.expresion), simbolos, i.posiciones
+										+ d.posiciones));
+						if (evalua && evalua(concat))
+							return concat;
+						Forma cierre = cierre(nivel, concat);
+						if (evalua && evalua(cierre))
+							return cierre;
+					}
+
+					// Unión asociada por la izquierda y con operandos ordenados.
+					Forma ultimo = i.expresion.esUnion() ? i.ultimo : i;
+					if (!d.expresion.esUnion() && ultimo.orden < d.orden) {
+						Forma union = new Forma(ExpresionRegular.nodoUnion(
+								i.expresion, d.expresion), simbolos,
+								i.posiciones + d.posiciones);
+						union.ultimo = d;
+						añade(nivel, union);
+						if (evalua && evalua(union))
+							return union;
+						Forma cierre = cierre(nivel, union);
+						if (evalua && evalua(cierre))
+							return cierre;
+					}
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Comprueba si a un subárbol con los símbolos dados le bastan las hojas
+	 * restantes para completar todos los símbolos.
+	 */
+	private boolean alcanza(int simbolos, int restantes) {
+		return Integer.bitCount(this.completo & ~simbolos) <= restantes;
+	}
+
+	private Forma cierre(List<Forma> nivel, Forma hijo) {
+		return añade(nivel, new Forma(
+				ExpresionRegular.nodoCierre(hijo.expresion), hijo.simbolos,
+				hijo.posiciones));
+	}
+
+	private Forma añade(List<Forma> nivel, Forma forma) {
+		forma.orden = this.orden++;
+		nivel.add(forma);
+		return forma;
+	}
+
+	/**
+	 * Evalúa un árbol completo, comprobando antes las condiciones que no
+	 * requieren construir el AFD.
+	 */
+	private boolean evalua(Forma forma) {
+		// Con p posiciones y '$' no pueden alcanzarse más de 2^(p+1) estados,
+		// contando el estado vacío.
+		if (forma.simbolos != this.completo
+				|| (forma.posiciones < 30 && 1 << forma.posiciones + 1 < this.nEstados)
+				|| !ordenado(forma.expresion))
+			return false;
+
+		this.evaluaciones++;
+		AhoSethiUllmanEvaluador evaluador = new AhoSethiUllmanEvaluador(
+				ExpresionRegular.nodoConcat(forma.expresion,
+						ExpresionRegular.nodoAumentado(0)));
+		return evaluador.nEstados(this.nEstados) == this.nEstados;
+	}
+
+	/**
+	 * Comprueba que los símbolos aparecen por primera vez en orden alfabético,
+	 * leyendo la expresión de izquierda a derecha, ya que renombrarlos no
+	 * cambia el problema.
+	 */
+	private static boolean ordenado(ExpresionRegular expresion) {
+		return ordenado(expresion, 'a') >= 0;
+	}
+
+	/**
+	 * Recorre un subárbol de izquierda a derecha a partir del siguiente
+	 * símbolo esperado.
+	 *
+	 * @return Siguiente símbolo esperado tras el subárbol, o -1 si aparece un
+	 *         símbolo antes de tiempo.
+	 */
+	private static int ordenado(ExpresionRegular nodo, int siguiente) {
+		if (nodo.esVacio())
+			return siguiente;
+		if (nodo.esSimbolo()) {
+			if (nodo.simbolo() > siguiente)
+				return -1;
+			return nodo.simbolo() == siguiente ? siguiente + 1 : siguiente;
+		}
+
+		siguiente = ordenado(nodo.hijoIzquierdo(), siguiente);
+		if (siguiente >= 0 && !nodo.esCierre())
+			siguiente = ordenado(nodo.hijoDerecho(), siguiente);
+		return siguiente;
+	}
+
+	/**
+	 * Árbol enumerado, junto con los datos necesarios para combinarlo sin
+	 * recorrerlo de nuevo.
+	 */
+	private static class Forma {
+		private final ExpresionRegular expresion;
+		private final int simbolos;
+		private final int posiciones;
+		private int orden;
+		private Forma ultimo;
+
+		private Forma(ExpresionRegular expresion, int simbolos, int posiciones) {
+			this.expresion = expresion;
+			this.simbolos = simbolos;
+			this.posiciones = posiciones;
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package es.ubu.inf.tfg.regex.asu;
+
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+import es.ubu.inf.tfg.regex.datos.TablaEstados;
+
+/**
+ * AhoSethiUllmanEvaluador calcula únicamente el número de estados y de
+ * símbolos del AFD que produciría el método de Aho-Sethi-Ullman, sin construir
+ * el problema completo. Está pensado para evaluar candidatos durante la
+ * generación de problemas, donde solo el ganador necesita resolverse.
+ * <p>
+ * Las posiciones de los símbolos se numeran de nuevo de izquierda a derecha,
+ * por lo que los resultados coinciden con los de AhoSethiUllman siempre que la
+ * expresión no repita posiciones. Los conjuntos de posiciones se representan
+ * como bits sobre arrays de <code>long</code>.
+ */
+public class AhoSethiUllmanEvaluador {
+
+	private final int palabras;
+	private final char[] simbolos;
+	private final long[][] siguientePos;
+	private final long[] primeraPos;
+	private final char[] alfabeto;
+
+	private int hojas;
+
+	/**
+	 * Prepara la evaluación de una expresión regular aumentada, calculando sus
+	 * posiciones y la función siguiente-pos.
+	 *
+	 * @param expresion
+	 *            Expresión regular aumentada a evaluar.
+	 */
+	public AhoSethiUllmanEvaluador(ExpresionRegular expresion) {
+		int n = cuentaHojas(expresion);
+		this.palabras = Math.max(1, (n + 63) >>> 6);
+		this.simbolos = new char[n];
+		this.siguientePos = new long[n][this.palabras];
+
+		this.primeraPos = calcula(expresion).primeraPos;
+
+		StringBuilder alfabeto = new StringBuilder();
+		for (char simbolo : this.simbolos)
+			if (simbolo != '$' && alfabeto.indexOf(String.valueOf(simbolo)) < 0)
+				alfabeto.append(simbolo);
+		this.alfabeto = alfabeto.toString().toCharArray();
+	}
+
+	/**
+	 * Devuelve el número de símbolos distintos que utiliza la expresión, sin
+	 * contar el símbolo final.
+	 *
+	 * @return Número de símbolos de la expresión.
+	 */
+	public int nSimbolos() {
+		return this.alfabeto.length;
+	}
+
+	/**
+	 * Cuenta los estados del AFD, incluido el estado vacío si se alcanza. La
+	 * construcción se detiene en cuanto se supera el límite dado.
+	 *
+	 * @param limite
+	 *            Número de estados a partir del cual deja de contarse.
+	 * @return Número de estados del AFD, o <code>limite + 1</code> si lo
+	 *         supera.
+	 */
+	public int nEstados(int limite) {
+		TablaEstados estados = new TablaEstados(this.palabras);
+		long[] destino = new long[this.palabras];
+
+		estados.añade(this.primeraPos);
+		for (int estado = 0; estado < estados.tamaño(); estado++) {
+			for (char simbolo : this.alfabeto) {
+				for (int i = 0; i < this.palabras; i++)
+					destino[i] = 0;
+
+				for (int pos = estados.siguiente(estado, 0); pos >= 0; pos = estados
+						.siguiente(estado, pos + 1)) {
+					if (this.simbolos[pos] == simbolo) {
+						long[] siguientes = this.siguientePos[pos];
+						for (int i = 0; i < this.palabras; i++)
+							destino[i] |= siguientes[i];
+					}
+				}
+
+				estados.añade(destino);
+				if (estados.tamaño() > limite)
+					return limite + 1;
+			}
+		}
+
+		return estados.tamaño();
+	}
+
+	/**
+	 * Cuenta los estados del AFD sin límite.
+	 *
+	 * @return Número de estados del AFD.
+	 */
+	public int nEstados() {
+		return nEstados(Integer.MAX_VALUE - 1);
+	}
+
+	private static int cuentaHojas(ExpresionRegular expresion) {
+		if (expresion.esSimbolo())
+			return 1;
+		if (expresion.esVacio())
+			return 0;
+		if (expresion.esCierre())
+			return cuentaHojas(expresion.hijoIzquierdo());
+		return cuentaHojas(expresion.hijoIzquierdo())
+				+ cuentaHojas(expresion.hijoDerecho());
+	}
+
+	/**
+	 * Calcula anulable, primera-pos y última-pos de un subárbol, completando
+	 * siguiente-pos a medida que se recorre. Los conjuntos de los hijos se
+	 * reutilizan para el padre, ya que no vuelven a consultarse.
+	 */
+	private Posiciones calcula(ExpresionRegular expresion) {
+		Posiciones posiciones = new Posiciones();
+
+		if (expresion.esVacio()) {
+			posiciones.anulable = true;
+			posiciones.primeraPos = new long[this.palabras];
+			posiciones.ultimaPos = new long[this.palabras];
+		} else if (expresion.esSimbolo()) {
+			posiciones.primeraPos = new long[this.palabras];
+			posiciones.ultimaPos = new long[this.palabras];
+			int pos = this.hojas++;
+			this.simbolos[pos] = expresion.simbolo();
+			posiciones.primeraPos[pos >>> 6] |= 1L << pos;
+			posiciones.ultimaPos[pos >>> 6] |= 1L << pos;
+		} else if (expresion.esCierre()) {
+			Posiciones hijo = calcula(expresion.hijoIzquierdo());
+			siguientes(hijo.ultimaPos, hijo.primeraPos);
+
+			posiciones.anulable = true;
+			posiciones.primeraPos = hijo.primeraPos;
+			posiciones.ultimaPos = hijo.ultimaPos;
+		} else if (expresion.esConcat()) {
+			Posiciones izquierdo = calcula(expresion.hijoIzquierdo());
+			Posiciones derecho = calcula(expresion.hijoDerecho());
+			siguientes(izquierdo.ultimaPos, derecho.primeraPos);
+
+			posiciones.anulable = izquierdo.anulable && derecho.anulable;
+			posiciones.primeraPos = izquierdo.primeraPos;
+			if (izquierdo.anulable)
+				o(posiciones.primeraPos, derecho.primeraPos);
+			posiciones.ultimaPos = derecho.ultimaPos;
+			if (derecho.anulable)
+				o(posiciones.ultimaPos, izquierdo.ultimaPos);
+		} else if (expresion.esUnion()) {
+			Posiciones izquierdo = calcula(expresion.hijoIzquierdo());
+			Posiciones derecho = calcula(expresion.hijoDerecho());
+
+			posiciones.anulable = izquierdo.anulable || derecho.anulable;
+			posiciones.primeraPos = izquierdo.primeraPos;
+			o(posiciones.primeraPos, derecho.primeraPos);
+			posiciones.ultimaPos = izquierdo.ultimaPos;
+			o(posiciones.ultimaPos, derecho.ultimaPos);
+		} else {
+			throw new IllegalArgumentException(
+					"Expresión regular de tipo desconocido.");
+		}
+
+		return posiciones;
+	}
+
+	/**
+	 * Añade el conjunto de destino a siguiente-pos de cada posición del origen.
+	 */
+	private void siguientes(long[] origen, long[] destino) {
+		for (int i = 0; i < this.palabras; i++) {
+			for (long bits = origen[i]; bits != 0; bits &= bits - 1)
+				o(this.siguientePos[(i << 6)
+						+ Long.numberOfTrailingZeros(bits)], destino);
+		}
+	}
+
+	private static void o(long[] destino, long[] origen) {
+		for (int i = 0; i < destino.length; i++)
+			destino[i] |= origen[i];
+	}
+
+	private static class Posiciones {
+		private boolean anulable;
+		private long[] primeraPos;
+		private long[] ultimaPos;
+	}
+}
@@ -1,12 +1,17 @@
 package es.ubu.inf.tfg.regex.asu;
 
+import java.time.Duration;
+import java.util.SplittableRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import es.ubu.inf.tfg.regex.datos.EstadisticasGeneracion;
 import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
 import es.ubu.inf.tfg.regex.datos.Generador;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas.Tipo;
 
 /**
  * AhoSethiUllmanGenerador implementa una clase encargada de generar problemas
@@ -14,7 +19,11 @@ import es.ubu.inf.tfg.regex.datos.Generador;
  * algoritmo de búsqueda aleatoria.
  * <p>
  * El generador no garantiza que los resultados se adapten perfectamente a los
- * parámetros de entrada.
+ * parámetros de entrada. Para objetivos pequeños dispone además de un modo
+ * exacto, {@link #exacto(int, int, boolean) exacto}, que recorre de forma
+ * sistemática los árboles de expresión y devuelve siempre el mismo problema
+ * para los mismos parámetros. Si hay un {@link IndiceProblemas} instalado con
+ * algún problema exacto disponible, se sirve este sin realizar la búsqueda.
  * 
  * @author Roberto Izquierdo Amo
  * 
@@ -27,9 +36,37 @@ public class AhoSethiUllmanGenerador {
 	private static final int MAX_ITERACIONES = 3000;
 	private static final int MAX_PROFUNDIDAD = 6;
 	private static final int MIN_PROFUNDIDAD = 3;
+	// Los candidatos con más de LIMITE_ESTADOS veces los estados pedidos
+	// dejan de contarse.
+	private static final int LIMITE_ESTADOS = 2;
+	// Límites de los árboles recorridos en el modo exacto.
+	private static final int MAX_HOJAS = 7;
+	private static final int MAX_SIMBOLOS_EXACTO = 4;
 
 	private Generador generador;
 	private AtomicBoolean cancelar = new AtomicBoolean();
+	private final SplittableRandom random;
+	private volatile EstadisticasGeneracion estadisticas;
+
+	/**
+	 * Construye un generador con su propia fuente de valores aleatorios.
+	 */
+	public AhoSethiUllmanGenerador() {
+		this(new SplittableRandom());
+	}
+
+	/**
+	 * Construye un generador que obtiene sus valores aleatorios de la fuente
+	 * especificada. Cada problema generado utiliza una fuente independiente
+	 * derivada de esta, de modo que una misma semilla produce siempre la misma
+	 * secuencia de problemas.
+	 * 
+	 * @param random
+	 *            Fuente de valores aleatorios, de uso exclusivo del generador.
+	 */
+	public AhoSethiUllmanGenerador(SplittableRandom random) {
+		this.random = random;
+	}
 
 	/**
 	 * Genera un nuevo problema de tipo AhoSethiUllman. Intentará acercarse lo
@@ -46,46 +83,168 @@ public class AhoSethiUllmanGenerador {
 	 * @return Un nuevo problema de tipo AhoSethiUllman.
 	 */
 	public AhoSethiUllman nuevo(int nSimbolos, int nEstados, boolean usaVacio) {
+		return nuevo(nSimbolos, nEstados, usaVacio, null, null);
+	}
+
+	/**
+	 * Genera un nuevo problema de tipo AhoSethiUllman dentro de un plazo dado.
+	 * En lugar de limitar el número de iteraciones, la búsqueda continúa hasta
+	 * encontrar una solución exacta, agotar el plazo o ser cancelada, y
+	 * devuelve el mejor problema encontrado hasta ese momento.
+	 * <p>
+	 * El plazo acota solo la búsqueda: la resolución completa del problema
+	 * elegido se realiza después y no se cuenta en él, ni en el tiempo de
+	 * {@link #estadisticas()}.
+	 * 
+	 * @param nSimbolos
+	 *            Número de símbolos que se quiere que el problema utilice.
+	 * @param nEstados
+	 *            Número de estados que se quiere que contenga la tabla de
+	 *            transición del problema.
+	 * @param usaVacio
+	 *            Si queremos que el problema genere nodos vacíos. Su aparición
+	 *            no se garantiza.
+	 * @param plazo
+	 *            Tiempo máximo de búsqueda, o <code>null</code> para limitar en
+	 *            su lugar el número de iteraciones.
+	 * @param cancelacion
+	 *            Indicador externo de cancelación, o <code>null</code> si solo
+	 *            se cancela mediante {@link #cancelar()}.
+	 * @return Un nuevo problema de tipo AhoSethiUllman.
+	 */
+	public AhoSethiUllman nuevo(int nSimbolos, int nEstados, boolean usaVacio,
+			Duration plazo, AtomicBoolean cancelacion) {
+		cancelar.set(false);
+		return genera(nSimbolos, nEstados, usaVacio, plazo, cancelacion);
+	}
+
+	private AhoSethiUllman genera(int nSimbolos, int nEstados,
+			boolean usaVacio, Duration plazo, AtomicBoolean cancelacion) {
 		log.info(
-				"Generando problema de Aho-Sethi-Ullman con {} símbolos y {} estados, vacíos = {}.",
-				nSimbolos, nEstados, usaVacio);
+				"Generando problema de Aho-Sethi-Ullman con {} símbolos y {} estados, vacíos = {}, plazo = {}.",
+				nSimbolos, nEstados, usaVacio, plazo);
+
+		long inicio = System.nanoTime();
 
-		AhoSethiUllman candidato = null, actual = null;
+		// Un problema exacto del índice evita la búsqueda
+		IndiceProblemas indice = IndiceProblemas.actual();
+		if (indice != null) {
+			String indexada = indice.extrae(Tipo.AHO_SETHI_ULLMAN, nSimbolos,
+					nEstados, usaVacio, random);
+			if (indexada != null) {
+				this.estadisticas = new EstadisticasGeneracion(0,
+						System.nanoTime() - inicio, 0);
+				log.info("Problema obtenido del índice: {}.", indexada);
+				return new AhoSethiUllman(indexada);
+			}
+		}
+
+		ExpresionRegular candidato = null, expresion;
 		int evaluaCandidato = 0, evaluaActual;
-		ExpresionRegular expresion;
 
 		int iteraciones = 0;
 		int profundidad = MIN_PROFUNDIDAD;
+		long limite = plazo != null ? inicio + plazo.toNanos() : 0;
 
 		// Inicializa variables
-		generador = new Generador(nSimbolos, usaVacio, true);
+		generador = new Generador(nSimbolos, usaVacio, true, random.split());
 
 		do {
 			expresion = generador.arbol(profundidad);
-			actual = new AhoSethiUllman(expresion);
-			
-			evaluaActual = evalua(actual, nEstados, nSimbolos);
-			
-			if (candidato == null
-					||  (evaluaActual < evaluaCandidato)) {
-				candidato = actual;
+			AhoSethiUllmanEvaluador actual = new AhoSethiUllmanEvaluador(
+					expresion);
+			int estados = actual.nEstados(LIMITE_ESTADOS * nEstados);
+
+			evaluaActual = evalua(estados, actual.nSimbolos(), nEstados,
+					nSimbolos);
+
+			if (candidato == null || (evaluaActual < evaluaCandidato)) {
+				candidato = expresion;
 				evaluaCandidato = evaluaActual;
 			}
 
 			// Modifica la profundidad
-			int dif = nEstados - actual.estados().size();
+			int dif = nEstados - estados;
 			if (dif > 1 && profundidad < MAX_PROFUNDIDAD)
 				profundidad++;
 			else if (dif < 1 && profundidad > MIN_PROFUNDIDAD)
 				profundidad--;
 
 			iteraciones++;
-		} while (evalua(candidato, nEstados, nSimbolos) != 0
-				&& iteraciones < MAX_ITERACIONES);
+		} while (evaluaCandidato != 0
+				&& (plazo == null ? iteraciones < MAX_ITERACIONES : System
+						.nanoTime() - limite < 0) && !cancelar.get()
+				&& (cancelacion == null || !cancelacion.get()));
+
+		this.estadisticas = new EstadisticasGeneracion(iteraciones,
+				System.nanoTime() - inicio, evaluaCandidato);
+		log.info("Solución encontrada: {}.", this.estadisticas);
+
+		// Solo se resuelve el problema elegido
+		return new AhoSethiUllman(candidato);
+	}
+
+	/**
+	 * Genera un problema de tipo AhoSethiUllman mediante una búsqueda
+	 * exhaustiva, recorriendo los árboles de expresión por número creciente de
+	 * hojas hasta dar con uno que tenga exactamente los símbolos y estados
+	 * pedidos. El resultado es siempre el mismo para los mismos parámetros.
+	 * <p>
+	 * Está pensado para objetivos pequeños, de dos o tres símbolos y pocos
+	 * estados. Si se piden más de {@value #MAX_SIMBOLOS_EXACTO} símbolos, no
+	 * existe ninguna expresión de hasta {@value #MAX_HOJAS} hojas que cumpla
+	 * los parámetros, o se cancela la búsqueda, recurre a
+	 * {@link #nuevo(int, int, boolean) nuevo}.
+	 * <p>
+	 * Este modo solo se ofrece como API; la interfaz gráfica y la consola
+	 * generan siempre mediante la búsqueda aleatoria.
+	 * 
+	 * @param nSimbolos
+	 *            Número de símbolos que debe utilizar el problema.
+	 * @param nEstados
+	 *            Número de estados que debe contener la tabla de transición
+	 *            del problema.
+	 * @param usaVacio
+	 *            Si el problema puede contener nodos vacíos.
+	 * @return Un nuevo problema de tipo AhoSethiUllman.
+	 */
+	public AhoSethiUllman exacto(int nSimbolos, int nEstados, boolean usaVacio) {
+		cancelar.set(false);
+		if (nSimbolos > MAX_SIMBOLOS_EXACTO)
+			return genera(nSimbolos, nEstados, usaVacio, null, null);
+
+		log.info(
+				"Buscando problema exacto de Aho-Sethi-Ullman con {} símbolos y {} estados, vacíos = {}.",
+				nSimbolos, nEstados, usaVacio);
+
+		long inicio = System.nanoTime();
+		AhoSethiUllmanEnumerador enumerador = new AhoSethiUllmanEnumerador(
+				nSimbolos, nEstados, usaVacio, MAX_HOJAS);
+		ExpresionRegular expresion = enumerador.busca(cancelar::get);
 
-		log.info("Solución encontrada en {} iteraciones.", iteraciones);
+		if (expresion == null) {
+			log.info(
+					"Sin problema exacto tras {} evaluaciones, se recurre a la búsqueda aleatoria.",
+					enumerador.evaluaciones());
+			return genera(nSimbolos, nEstados, usaVacio, null, null);
+		}
 
-		return candidato;
+		this.estadisticas = new EstadisticasGeneracion(
+				enumerador.evaluaciones(), System.nanoTime() - inicio, 0);
+		log.info("Solución exacta encontrada: {}.", this.estadisticas);
+
+		return new AhoSethiUllman(expresion);
+	}
+
+	/**
+	 * Devuelve las estadísticas de la última generación completada: número de
+	 * iteraciones, tiempo empleado y evaluación del problema devuelto.
+	 * 
+	 * @return Estadísticas de la última generación, o <code>null</code> si aún
+	 *         no se ha generado ningún problema.
+	 */
+	public EstadisticasGeneracion estadisticas() {
+		return this.estadisticas;
 	}
 
 	/**
@@ -96,23 +255,28 @@ public class AhoSethiUllmanGenerador {
 	 * Cuanto más cerca este del cero, más cerca esta el problema de la
 	 * solución.
 	 * 
-	 * @param problema
-	 *            Problema a evaluar.
+	 * @param estados
+	 *            Número de estados del problema a evaluar.
+	 * @param simbolos
+	 *            Número de símbolos del problema a evaluar, sin contar el
+	 *            símbolo final.
 	 * @param nEstados
 	 *            Número de estados en el problema pedido.
+	 * @param nSimbolos
+	 *            Número de símbolos en el problema pedido.
 	 * @return Función de evaluación del problema.
 	 */
-	private int evalua(AhoSethiUllman problema, int nEstados, int nSimbolos) {
-		int diferenciaEstados = Math.abs(problema.estados().size() - nEstados);
-		int diferenciaSimbolos = Math.abs(problema.simbolos().size() - 1
-				- nSimbolos);
+	private int evalua(int estados, int simbolos, int nEstados, int nSimbolos) {
+		int diferenciaEstados = Math.abs(estados - nEstados);
+		int diferenciaSimbolos = Math.abs(simbolos - nSimbolos);
 
 		return diferenciaEstados + diferenciaSimbolos;
 	}
 
 	/**
-	 * Cancela la generación del problema, devolviendo el resultado de la
-	 * iteración actual.
+	 * Cancela la generación del problema en curso, devolviendo el resultado de
+	 * la iteración actual. La cancelación no afecta a las generaciones
+	 * posteriores.
 	 */
 	public void cancelar() {
 		log.info("Cancelando generación de problema.");
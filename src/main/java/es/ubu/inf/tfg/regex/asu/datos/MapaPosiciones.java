@@ -1,5 +1,6 @@
 package es.ubu.inf.tfg.regex.asu.datos;
 
+import java.util.BitSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -20,6 +21,12 @@ import java.util.TreeSet;
  * <p>
  * La clase provee métodos estáticos que permiten realizar operaciones de unión
  * y copia sobre instancias de esta clase.
+ * <p>
+ * Internamente cada conjunto de posiciones se almacena como un
+ * <code>BitSet</code> indexado por posición, de forma que las uniones y
+ * comparaciones se resuelven a nivel de palabra sin reservar un objeto por
+ * posición. Los conjuntos <code>Set&lt;Integer&gt;</code> de la interfaz
+ * pública solo se construyen cuando se solicitan.
  * 
  * @author Roberto Izquierdo Amo
  * 
@@ -29,7 +36,7 @@ import java.util.TreeSet;
  *            (diccionario de símbolos).
  */
 public class MapaPosiciones<E> {
-	private Map<E, Set<Integer>> mapaPosiciones;
+	private Map<E, BitSet> mapaPosiciones;
 
 	/**
 	 * Construye un mapa que asigna un conjunto de posiciones a una clave de un
@@ -48,7 +55,7 @@ public class MapaPosiciones<E> {
 	 */
 	public void add(E n) {
 		if (!this.mapaPosiciones.containsKey(n))
-			this.mapaPosiciones.put(n, new TreeSet<Integer>());
+			this.mapaPosiciones.put(n, new BitSet());
 	}
 
 	/**
@@ -61,13 +68,13 @@ public class MapaPosiciones<E> {
 	 *            Posición a añadir.
 	 */
 	public void add(E n, int posicion) {
-		if (this.mapaPosiciones.containsKey(n)) {
-			this.mapaPosiciones.get(n).add(posicion);
-		} else {
-			Set<Integer> posiciones = new TreeSet<>();
-			posiciones.add(posicion);
+		BitSet posiciones = this.mapaPosiciones.get(n);
+
+		if (posiciones == null) {
+			posiciones = new BitSet();
 			this.mapaPosiciones.put(n, posiciones);
 		}
+		posiciones.set(posicion);
 	}
 
 	/**
@@ -81,10 +88,27 @@ public class MapaPosiciones<E> {
 	 *            Posiciones a añadir.
 	 */
 	public void add(E n, Set<Integer> posiciones) {
-		if (this.mapaPosiciones.containsKey(n))
-			this.mapaPosiciones.get(n).addAll(posiciones);
+		add(n, bits(posiciones));
+	}
+
+	/**
+	 * Añade un conjunto de posiciones en forma de <code>BitSet</code> al
+	 * conjunto de posiciones de una clave dada. Si la clave ya existe en el
+	 * mapa, las posiciones se añaden al conjunto existente. El conjunto
+	 * recibido no se modifica ni queda referenciado por el mapa.
+	 * 
+	 * @param n
+	 *            Clave del conjunto.
+	 * @param posiciones
+	 *            Posiciones a añadir.
+	 */
+	public void add(E n, BitSet posiciones) {
+		BitSet actuales = this.mapaPosiciones.get(n);
+
+		if (actuales == null)
+			this.mapaPosiciones.put(n, (BitSet) posiciones.clone());
 		else
-			this.mapaPosiciones.put(n, new TreeSet<>(posiciones));
+			actuales.or(posiciones);
 	}
 
 	/**
@@ -120,10 +144,36 @@ public class MapaPosiciones<E> {
 	 * @return Conjunto de posiciones asociado.
 	 */
 	public Set<Integer> get(E key) {
-		if (this.mapaPosiciones.containsKey(key))
-			return new TreeSet<Integer>(this.mapaPosiciones.get(key));
-		else
-			return new TreeSet<Integer>();
+		return conjunto(posiciones(key));
+	}
+
+	/**
+	 * Devuelve el conjunto de posiciones asociado a una determinada clave en su
+	 * representación interna. A diferencia de {@link #get(Object) get}, el
+	 * resultado es una referencia directa al conjunto almacenado y no debe
+	 * modificarse; está pensado para los cálculos internos de los algoritmos,
+	 * que lo consultan repetidas veces. Si la clave no existe, se devuelve un
+	 * conjunto vacío.
+	 * 
+	 * @param key
+	 *            Clave que buscar.
+	 * @return Conjunto de posiciones asociado, sin copiar.
+	 */
+	public BitSet posiciones(E key) {
+		BitSet posiciones = this.mapaPosiciones.get(key);
+		return posiciones != null ? posiciones : new BitSet();
+	}
+
+	/**
+	 * Comprueba si el mapa contiene una clave dada, sin copiar el conjunto de
+	 * claves.
+	 * 
+	 * @param key
+	 *            Clave que buscar.
+	 * @return <code>true</code> si la clave existe, <code>false</code> si no.
+	 */
+	public boolean contiene(E key) {
+		return this.mapaPosiciones.containsKey(key);
 	}
 
 	/**
@@ -151,10 +201,10 @@ public class MapaPosiciones<E> {
 			MapaPosiciones<E> b) {
 		MapaPosiciones<E> resultado = new MapaPosiciones<>();
 
-		for (Entry<E, Set<Integer>> e : a.mapaPosiciones.entrySet())
+		for (Entry<E, BitSet> e : a.mapaPosiciones.entrySet())
 			resultado.add(e.getKey(), e.getValue());
 
-		for (Entry<E, Set<Integer>> e : b.mapaPosiciones.entrySet())
+		for (Entry<E, BitSet> e : b.mapaPosiciones.entrySet())
 			resultado.add(e.getKey(), e.getValue());
 
 		return resultado;
@@ -172,12 +222,46 @@ public class MapaPosiciones<E> {
 	public static <E> MapaPosiciones<E> copia(MapaPosiciones<E> original) {
 		MapaPosiciones<E> resultado = new MapaPosiciones<>();
 
-		for (Entry<E, Set<Integer>> e : original.mapaPosiciones.entrySet())
+		for (Entry<E, BitSet> e : original.mapaPosiciones.entrySet())
 			resultado.add(e.getKey(), e.getValue());
 
 		return resultado;
 	}
 
+	/**
+	 * Construye un conjunto ordenado de posiciones a partir de su
+	 * representación como <code>BitSet</code>.
+	 * 
+	 * @param bits
+	 *            Posiciones en forma de <code>BitSet</code>.
+	 * @return Conjunto de posiciones equivalente.
+	 */
+	public static Set<Integer> conjunto(BitSet bits) {
+		Set<Integer> conjunto = new TreeSet<>();
+
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+			conjunto.add(i);
+
+		return conjunto;
+	}
+
+	/**
+	 * Construye la representación como <code>BitSet</code> de un conjunto de
+	 * posiciones.
+	 * 
+	 * @param posiciones
+	 *            Conjunto de posiciones.
+	 * @return <code>BitSet</code> con las posiciones dadas activas.
+	 */
+	public static BitSet bits(Set<Integer> posiciones) {
+		BitSet bits = new BitSet();
+
+		for (int posicion : posiciones)
+			bits.set(posicion);
+
+		return bits;
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public boolean equals(Object o) {
@@ -191,8 +275,9 @@ public class MapaPosiciones<E> {
 		if (size() != ((MapaPosiciones<E>) o).size())
 			return false;
 
-		for (Entry<E, Set<Integer>> e : this.mapaPosiciones.entrySet()) {
-			if (!(e.getValue().equals(((MapaPosiciones<E>) o).get(e.getKey()))))
+		for (Entry<E, BitSet> e : this.mapaPosiciones.entrySet()) {
+			if (!(e.getValue().equals(((MapaPosiciones<E>) o).posiciones(e
+					.getKey()))))
 				return false;
 		}
 
@@ -3,24 +3,24 @@ package es.ubu.inf.tfg.regex.asu.datos;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.TreeSet;
 
 import javax.swing.SwingConstants;
 
 import com.mxgraph.layout.mxParallelEdgeLayout;
 import com.mxgraph.layout.hierarchical.mxHierarchicalLayout;
-import com.mxgraph.swing.mxGraphComponent;
 import com.mxgraph.util.mxCellRenderer;
 import com.mxgraph.util.mxXmlUtils;
 import com.mxgraph.view.mxGraph;
 
 import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+import es.ubu.inf.tfg.regex.datos.MapaEstados;
 
 /**
  * Nodo implementa la información calculada sobre un nodo ExpresionRegular. El
@@ -46,9 +46,9 @@ public class Nodo {
 	private final Nodo hijoDerecho;
 
 	private boolean esAnulable;
-	private Set<Integer> primeraPos;
+	private BitSet primeraPos;
 	private Map<Character, Set<Integer>> primerasPos;
-	private Set<Integer> ultimaPos;
+	private BitSet ultimaPos;
 	private Map<Character, Set<Integer>> ultimasPos;
 	// private Map<Character, String> tipos;
 	private Map<Character, Boolean> anulables;
@@ -56,6 +56,7 @@ public class Nodo {
 	private MapaPosiciones<Character> simbolos;
 	private MapaPosiciones<Integer> siguientePos;
 
+	private mxGraph grafo;
 	private BufferedImage imagen;
 	private String imagenDot;
 	private String imagenSvg;	//JBA
@@ -63,11 +64,6 @@ public class Nodo {
 	//TikZ
 	private String tipo;
 	private char simb;
-	public static int letra = 0;
-	public static int pos = 0;
-	public static Map<String, Integer> leavePos = new HashMap<String, Integer>();
-	public static Map<String, String> annotationsPripos = new HashMap<String, String>();
-	public static Map<String, String> annotationsUltpos = new HashMap<String, String>();
 
 	/**
 	 * Calcula los atributos de un nodo ExpresionRegular a partir de los de sus
@@ -87,8 +83,8 @@ public class Nodo {
 			this.hijoDerecho = null;
 
 			this.esAnulable = true;
-			this.primeraPos = new TreeSet<Integer>();
-			this.ultimaPos = new TreeSet<Integer>();
+			this.primeraPos = new BitSet();
+			this.ultimaPos = new BitSet();
 			this.simbolos = new MapaPosiciones<>();
 			this.siguientePos = new MapaPosiciones<>();
 			
@@ -101,9 +97,9 @@ public class Nodo {
 			this.hijoDerecho = null;
 
 			this.esAnulable = false;
-			this.primeraPos = new TreeSet<Integer>();
-			this.primeraPos.add(expresion.posicion());
-			this.ultimaPos = new TreeSet<Integer>(this.primeraPos);
+			this.primeraPos = new BitSet();
+			this.primeraPos.set(expresion.posicion());
+			this.ultimaPos = (BitSet) this.primeraPos.clone();
 			this.simbolos = new MapaPosiciones<>();
 			this.simbolos.add(expresion.simbolo(), expresion.posicion());
 			this.siguientePos = new MapaPosiciones<>();
@@ -119,11 +115,12 @@ public class Nodo {
 			this.hijoDerecho = null;
 
 			this.esAnulable = true;
-			this.primeraPos = this.hijoIzquierdo.primeraPos();
-			this.ultimaPos = this.hijoIzquierdo.ultimaPos();
+			this.primeraPos = (BitSet) this.hijoIzquierdo.primeraPos.clone();
+			this.ultimaPos = (BitSet) this.hijoIzquierdo.ultimaPos.clone();
 			this.simbolos = this.hijoIzquierdo.simbolos();
 			this.siguientePos = this.hijoIzquierdo.siguientePos();
-			this.siguientePos.add(this.hijoIzquierdo.ultimaPos(), this.hijoIzquierdo.primeraPos());
+			añadeSiguientePos(this.hijoIzquierdo.ultimaPos,
+					this.hijoIzquierdo.primeraPos);
 			
 			//TikZ
 			this.tipo = "AST";
@@ -134,19 +131,19 @@ public class Nodo {
 
 			this.esAnulable = this.hijoIzquierdo.esAnulable()
 					&& this.hijoDerecho.esAnulable();
-			this.primeraPos = this.hijoIzquierdo.primeraPos();
+			this.primeraPos = (BitSet) this.hijoIzquierdo.primeraPos.clone();
 			if (this.hijoIzquierdo.esAnulable())
-				this.primeraPos.addAll(this.hijoDerecho.primeraPos());
-			this.ultimaPos = this.hijoDerecho.ultimaPos();
+				this.primeraPos.or(this.hijoDerecho.primeraPos);
+			this.ultimaPos = (BitSet) this.hijoDerecho.ultimaPos.clone();
 			if (this.hijoDerecho.esAnulable())
-				this.ultimaPos.addAll(this.hijoIzquierdo.ultimaPos());
-			this.simbolos = MapaPosiciones.union(this.hijoIzquierdo.simbolos(),
-					this.hijoDerecho.simbolos());
+				this.ultimaPos.or(this.hijoIzquierdo.ultimaPos);
+			this.simbolos = MapaPosiciones.union(this.hijoIzquierdo.simbolos,
+					this.hijoDerecho.simbolos);
 			this.siguientePos = MapaPosiciones.union(
-					this.hijoDerecho.siguientePos(),
-					this.hijoIzquierdo.siguientePos());
-			this.siguientePos.add(this.hijoIzquierdo.ultimaPos(),
-					this.hijoDerecho.primeraPos());
+					this.hijoDerecho.siguientePos,
+					this.hijoIzquierdo.siguientePos);
+			añadeSiguientePos(this.hijoIzquierdo.ultimaPos,
+					this.hijoDerecho.primeraPos);
 			
 			//TikZ
 			this.tipo = "CAT";
@@ -157,15 +154,15 @@ public class Nodo {
 
 			this.esAnulable = this.hijoIzquierdo.esAnulable()
 					|| this.hijoDerecho.esAnulable();
-			this.primeraPos = this.hijoDerecho.primeraPos();
-			this.primeraPos.addAll(this.hijoIzquierdo.primeraPos());
-			this.ultimaPos = this.hijoDerecho.ultimaPos();
-			this.ultimaPos.addAll(this.hijoIzquierdo.ultimaPos());
-			this.simbolos = MapaPosiciones.union(this.hijoIzquierdo.simbolos(),
-					this.hijoDerecho.simbolos());
+			this.primeraPos = (BitSet) this.hijoDerecho.primeraPos.clone();
+			this.primeraPos.or(this.hijoIzquierdo.primeraPos);
+			this.ultimaPos = (BitSet) this.hijoDerecho.ultimaPos.clone();
+			this.ultimaPos.or(this.hijoIzquierdo.ultimaPos);
+			this.simbolos = MapaPosiciones.union(this.hijoIzquierdo.simbolos,
+					this.hijoDerecho.simbolos);
 			this.siguientePos = MapaPosiciones.union(
-					this.hijoDerecho.siguientePos(),
-					this.hijoIzquierdo.siguientePos());
+					this.hijoDerecho.siguientePos,
+					this.hijoIzquierdo.siguientePos);
 			
 			//TikZ
 			this.tipo = "SEL";
@@ -244,19 +241,21 @@ public class Nodo {
 	 * @return primera-pos del nodo.
 	 */
 	public Set<Integer> primeraPos() {
-		return new TreeSet<>(this.primeraPos);
+		return MapaPosiciones.conjunto(this.primeraPos);
 	}
 
 	/**
 	 * Obtiene el conjunto de posiciones que definen la primera-pos de uno de
 	 * los nodos hijos del árbol, definidos con un carácter comenzando por 'A',
-	 * y etiquetando cada nivel de izquierda a derecha.
+	 * y etiquetando cada nivel de izquierda a derecha. Las etiquetas se asignan
+	 * al construir el grafo del árbol, que se construye si aún no existe.
 	 * 
 	 * @param simbolo
 	 *            Etiqueta del nodo.
 	 * @return primera-pos del nodo.
 	 */
-	public Set<Integer> primeraPos(char simbolo) {
+	public synchronized Set<Integer> primeraPos(char simbolo) {
+		grafo();
 		return primerasPos.get(simbolo);
 	}
 
@@ -266,7 +265,7 @@ public class Nodo {
 	 * @return última-pos del nodo.
 	 */
 	public Set<Integer> ultimaPos() {
-		return new TreeSet<>(this.ultimaPos);
+		return MapaPosiciones.conjunto(this.ultimaPos);
 	}
 
 	/**
@@ -278,7 +277,8 @@ public class Nodo {
 	 *            Etiqueta del nodo.
 	 * @return última-pos del nodo.
 	 */
-	public Set<Integer> ultimaPos(char simbolo) {
+	public synchronized Set<Integer> ultimaPos(char simbolo) {
+		grafo();
 		return ultimasPos.get(simbolo);
 	}
 
@@ -291,7 +291,8 @@ public class Nodo {
 	 *            Etiqueta del nodo.
 	 * @return <code>true</code> si es anulable, <code>false</code> si no.
 	 */
-	public boolean esAnulable(char simbolo) {
+	public synchronized boolean esAnulable(char simbolo) {
+		grafo();
 		return anulables.get(simbolo);
 	}
 
@@ -314,6 +315,20 @@ public class Nodo {
 		return MapaPosiciones.copia(this.siguientePos);
 	}
 
+	/**
+	 * Añade a la función siguiente-pos de este nodo las posiciones dadas como
+	 * destino para cada una de las posiciones de origen.
+	 * 
+	 * @param origen
+	 *            Posiciones cuya siguiente-pos se amplía.
+	 * @param destino
+	 *            Posiciones a añadir.
+	 */
+	private void añadeSiguientePos(BitSet origen, BitSet destino) {
+		for (int i = origen.nextSetBit(0); i >= 0; i = origen.nextSetBit(i + 1))
+			this.siguientePos.add(i, destino);
+	}
+
 	/**
 	 * Genera una imagen representando la estructura del árbol de la expresión,
 	 * con los nodos marcados pero vacíos. La imagen generada se cachea al ser
@@ -322,8 +337,24 @@ public class Nodo {
 	 * 
 	 * @return Imagen conteniendo el árbol que representa a la expresión.
 	 */
-	public BufferedImage imagen() {
-		if (this.imagen == null) {
+	public synchronized BufferedImage imagen() {
+		if (this.imagen == null)
+			this.imagen = mxCellRenderer.createBufferedImage(grafo(), null, 1,
+					Color.WHITE, true, null);
+
+		return this.imagen;
+	}
+
+	/**
+	 * Construye y distribuye el grafo que representa la estructura del árbol
+	 * de la expresión, con los nodos marcados pero vacíos. El grafo se cachea
+	 * una vez distribuido, de modo que la imagen y el SVG se obtienen de la
+	 * misma distribución.
+	 * 
+	 * @return Grafo distribuido del árbol.
+	 */
+	private mxGraph grafo() {
+		if (this.grafo == null) {
 			mxGraph graph = new mxGraph();
 			Object parent = graph.getDefaultParent();
 			Map<Nodo, Object> gNodos = new HashMap<>();
@@ -403,20 +434,16 @@ public class Nodo {
 			} finally {
 				graph.getModel().endUpdate();
 
-				mxGraphComponent graphComponent = new mxGraphComponent(graph);
 
 				new mxHierarchicalLayout(graph, SwingConstants.NORTH)
 						.execute(parent);
 				new mxParallelEdgeLayout(graph).execute(parent);
 
-				this.imagen = mxCellRenderer.createBufferedImage(graph, null,
-						1, Color.WHITE, graphComponent.isAntiAlias(), null,
-						graphComponent.getCanvas());
-				
+				this.grafo = graph;
 			}
 		}
 
-		return this.imagen;
+		return this.grafo;
 	}
 
 	/**
@@ -432,9 +459,9 @@ public class Nodo {
 			List<Nodo> siguientes = new ArrayList<>();
 			Nodo actual;
 			boolean tieneHijoIzquierdo, tieneHijoDerecho;
-			char actualLetra = 'A';
-			char preLetra, nuevaLetra;
-			Map<Nodo, Character> nodos = new HashMap<>();
+			int actualLetra = 0;
+			String preLetra, nuevaLetra;
+			Map<Nodo, String> nodos = new HashMap<>();
 
 			this.imagenDot = "digraph {";
 
@@ -448,17 +475,16 @@ public class Nodo {
 						&& !actual.expresion().esCierre();
 
 				if (!nodos.containsKey(actual)) {
-					preLetra = actualLetra;
-					imagenDot += "\n\t" + actualLetra + " [label=\""
-							 + actualLetra + "\n" + tipo(actual.tipo()) +"\"];";
-					nodos.put(actual, actualLetra);
-					actualLetra++;
+					preLetra = MapaEstados.etiqueta(actualLetra++);
+					imagenDot += "\n\t" + preLetra + " [label=\""
+							 + preLetra + "\n" + tipo(actual.tipo()) +"\"];";
+					nodos.put(actual, preLetra);
 				} else {
 					preLetra = nodos.get(actual);
 				}
 
 				if (tieneHijoIzquierdo) {
-					nuevaLetra = (char) (actualLetra++);
+					nuevaLetra = MapaEstados.etiqueta(actualLetra++);
 					siguientes.add(actual.hijoIzquierdo());
 					nodos.put(actual.hijoIzquierdo(), nuevaLetra);
 					imagenDot += "\n\t" + preLetra + " -> " + nuevaLetra;
@@ -467,7 +493,7 @@ public class Nodo {
 				}
 
 				if (tieneHijoDerecho) {
-					nuevaLetra = (char) (actualLetra++);
+					nuevaLetra = MapaEstados.etiqueta(actualLetra++);
 					siguientes.add(actual.hijoDerecho());
 					nodos.put(actual.hijoDerecho(), nuevaLetra);
 					imagenDot += "\n\t" + preLetra + " -> " + nuevaLetra;
@@ -493,99 +519,10 @@ public class Nodo {
 	 * 
 	 * @return Imagen conteniendo el ï¿½rbol que representa a la expresiï¿½n.
 	 */
-	public String imagenSvg() {
-		if (this.imagenSvg == null) {
-			mxGraph graph = new mxGraph();
-			Object parent = graph.getDefaultParent();
-			Map<Nodo, Object> gNodos = new HashMap<>();
-			Nodo actual;
-			Object gNodo, gActual;
-			List<Nodo> siguientes = new ArrayList<>();
-			boolean tieneHijoIzquierdo, tieneHijoDerecho;
-			char actualLetra = 'A';
-
-			String estiloVertex = "shape=ellipse;fillColor=white;strokeColor=black;fontColor=black;";
-			String estiloEdge = "strokeColor=black;fontColor=black;labelBackgroundColor=white;endArrow=open;";
-
-			graph.getModel().beginUpdate();
-			siguientes.add(this);
-			try {
-
-				while (!siguientes.isEmpty()) {
-					actual = siguientes.get(0);
-
-					if (!gNodos.containsKey(actual)) {
-						gActual = graph.insertVertex(parent, null,
-								actualLetra++ + "\n" + tipoSVG(actual.tipo()), 0, 0, 30,
-								30, estiloVertex);
-						gNodos.put(actual, gActual);
-
-						primerasPos.put((char) (actualLetra - 1),
-								actual.primeraPos());
-						ultimasPos.put((char) (actualLetra - 1),
-								actual.ultimaPos());
-						anulables.put((char) (actualLetra - 1),
-								actual.esAnulable());
-					} else {
-						gActual = gNodos.get(actual);
-					}
-
-					tieneHijoIzquierdo = !actual.expresion().esSimbolo()
-							&& !actual.expresion().esVacio();
-					tieneHijoDerecho = tieneHijoIzquierdo
-							&& !actual.expresion().esCierre();
-
-					if (tieneHijoIzquierdo) {
-						siguientes.add(actual.hijoIzquierdo());
-						gNodo = graph.insertVertex(parent, null, actualLetra++
-								+ " \n" + tipoSVG(actual.hijoIzquierdo().tipo()), 0, 0,
-								30, 30, estiloVertex);
-						graph.insertEdge(parent, null, "", gActual, gNodo,
-								estiloEdge);
-						gNodos.put(actual.hijoIzquierdo(), gNodo);
-
-						primerasPos.put((char) (actualLetra - 1), actual
-								.hijoIzquierdo().primeraPos());
-						ultimasPos.put((char) (actualLetra - 1), actual
-								.hijoIzquierdo().ultimaPos());
-						anulables.put((char) (actualLetra - 1), actual
-								.hijoIzquierdo().esAnulable());
-					}
-
-					if (tieneHijoDerecho) {
-						siguientes.add(actual.hijoDerecho());
-						gNodo = graph.insertVertex(parent, null, actualLetra++
-								+ "\n" + tipoSVG(actual.hijoDerecho().tipo()), 0, 0, 30,
-								30, estiloVertex);
-						graph.insertEdge(parent, null, "", gActual, gNodo,
-								estiloEdge);
-						gNodos.put(actual.hijoDerecho(), gNodo);
-
-						primerasPos.put((char) (actualLetra - 1), actual
-								.hijoDerecho().primeraPos());
-						ultimasPos.put((char) (actualLetra - 1), actual
-								.hijoDerecho().ultimaPos());
-						anulables.put((char) (actualLetra - 1), actual
-								.hijoDerecho().esAnulable());
-					}
-
-					siguientes.remove(actual);
-				}
-			} finally {
-				graph.getModel().endUpdate();
-				
-				new mxHierarchicalLayout(graph, SwingConstants.NORTH)
-						.execute(parent);
-				new mxParallelEdgeLayout(graph).execute(parent);
-				
-				
-				this.imagenSvg = mxXmlUtils.getXml(mxCellRenderer.createSvgDocument(graph, null,
-						1, Color.WHITE, null));
-				
-				this.imagenSvg = fixXMLSVG(this.imagenSvg);
-				
-			}
-		}
+	public synchronized String imagenSvg() {
+		if (this.imagenSvg == null)
+			this.imagenSvg = fixXMLSVG(mxXmlUtils.getXml(mxCellRenderer
+					.createSvgDocument(grafo(), null, 1, Color.WHITE, null)));
 
 		return this.imagenSvg;
 	}
@@ -611,12 +548,13 @@ public class Nodo {
 				"    ]\n" + 
 				"\\tikzset{edge from parent/.append style={thick}}\n" + 
 				"\\Tree";
-		out += dibujaImagenTikZ();
+		ContextoTikZ contexto = new ContextoTikZ();
+		out += dibujaImagenTikZ(contexto);
 		
 		out += "\n\\iflabeled\n";
 	    out += "% ===================================================\n";
 	    out += "% VALUES OF THE POSITIONS FOR LEAVE NODES WITH SYMBOL\n";
-	    for ( Map.Entry<String, Integer> entry : leavePos.entrySet() ) {
+	    for ( Map.Entry<String, Integer> entry : contexto.leavePos.entrySet() ) {
 	        String l = entry.getKey();
 	        int lPos = entry.getValue();
 	        
@@ -626,10 +564,10 @@ public class Nodo {
 	    
 	    out += "% ANNOTATIONS AT EACH NODE\n";
 	    
-	    for ( Entry<String, String> entry : annotationsPripos.entrySet() ) {
+	    for ( Entry<String, String> entry : contexto.annotationsPripos.entrySet() ) {
 	    	String k = entry.getKey();
 	        String pripos = entry.getValue();
-	        String ultpos = annotationsUltpos.get(k);
+	        String ultpos = contexto.annotationsUltpos.get(k);
 	        
 	        out += String.format("\\node[left=\\sep of %s,align=right]{\\{%s\\}};\n", k, pripos);
 	        out += String.format("\\node[right=\\sep of %s,align=left]{\\{%s\\}};\n", k, ultpos);
@@ -640,18 +578,10 @@ public class Nodo {
 		out += "\n\\end{tikzpicture}";
 		out += "\n\\end{adjustbox}";
 		
-		// Reset
-		letra = 0;
-		pos = 0;
-		leavePos = new HashMap<String, Integer>();
-		annotationsPripos = new HashMap<String, String>();
-		annotationsUltpos = new HashMap<String, String>();
-		
 		return out;
 	}
 	
-	public String dibujaImagenTikZ() {
-		String letras = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+	private String dibujaImagenTikZ(ContextoTikZ contexto) {
 		String out = "";
 		HashMap<String, String>  op =  new HashMap<String, String>();
 		op.put("CAT", "\\cat");
@@ -659,21 +589,20 @@ public class Nodo {
 		op.put("AST", "\\ast"); 
 		
 		if (this.tipo == "EPS" || this.tipo == "SYMB") {
-			String l = Character.toString(letras.charAt(letra));
-			letra ++;
+			String l = contexto.siguienteLetra();
 			
 			if (this.esAnulable()) {
 				out += String.format("\n\\node[nullable] (%s) {%s\\nodepart{lower}\\eps};", l, l);
-				annotationsPripos.put(l, "\\empty");
-				annotationsUltpos.put(l, "\\empty");
+				contexto.annotationsPripos.put(l, "\\empty");
+				contexto.annotationsUltpos.put(l, "\\empty");
 			} else {
-				pos ++;
+				contexto.pos ++;
 				String s = Character.toString(this.simb);
 				s = s.equals("$") ? "\\$" : s;
 				out += String.format("\n\\node[normal] (%s) {%s\\nodepart{lower}\\term{%s}};", l, l, s);
-				annotationsPripos.put(l, Integer.toString(pos));
-				annotationsUltpos.put(l, Integer.toString(pos));
-				leavePos.put(l, pos);
+				contexto.annotationsPripos.put(l, Integer.toString(contexto.pos));
+				contexto.annotationsUltpos.put(l, Integer.toString(contexto.pos));
+				contexto.leavePos.put(l, contexto.pos);
 			}
 			return out;
 		}
@@ -682,19 +611,18 @@ public class Nodo {
 		String hijoD = "";
 		
 		if(this.hijoIzquierdo != null)
-			hijoI = this.hijoIzquierdo().dibujaImagenTikZ();
+			hijoI = this.hijoIzquierdo().dibujaImagenTikZ(contexto);
 		
 		if(this.hijoDerecho != null) 
-			hijoD = this.hijoDerecho().dibujaImagenTikZ();
+			hijoD = this.hijoDerecho().dibujaImagenTikZ(contexto);
 		
-		String l = Character.toString(letras.charAt(letra));
-		letra ++;
+		String l = contexto.siguienteLetra();
 		
-		String pripos = this.primeraPos.toString().replace("[", "{").replace("]", "}");
-		String ultpos = this.ultimaPos.toString().replace("[", "{").replace("]", "}");
+		String pripos = primeraPos().toString().replace("[", "{").replace("]", "}");
+		String ultpos = ultimaPos().toString().replace("[", "{").replace("]", "}");
 		
-		annotationsPripos.put(l, pripos);
-		annotationsUltpos.put(l, ultpos);
+		contexto.annotationsPripos.put(l, pripos);
+		contexto.annotationsUltpos.put(l, ultpos);
 		
 		String nodeType = this.esAnulable() ? "nullable" : "normal";
 		
@@ -726,24 +654,6 @@ public class Nodo {
 		}
 	}
 	
-	/**
-	 * Convierte una cadena al formato compatible con SVG.
-	 * 
-	 * @param string
-	 *            Cadena original.
-	 * @return Cadena en formato compatible.
-	 */
-	private String tipoSVG(String tipo) {
-		switch (tipo) {
-		case "\u03B5":
-			return "&#949;";
-		case "\u2027":
-			return "&#8226;";
-		default:
-			return tipo;
-		}
-	}
-
 	/**
 	 * Devuelve una cadena describiendo el tipo del nodo de la expresión regular
 	 * asociada a este nodo.
@@ -765,13 +675,32 @@ public class Nodo {
 	}
 	
 	/**
-	 * Soluciona problemas de encodificación de ciertos caracteres.
+	 * Soluciona problemas de encodificación de ciertos caracteres, escribiendo
+	 * como entidades los símbolos de vacío y concatenación de las etiquetas.
 	 * 
 	 * @param imagenSgv
 	 */
 	private String fixXMLSVG(String imagenSvg) {
 				
-		return imagenSvg.replace("&amp;#949;", "&#949;").replace("&amp;#8226;", "&#8226;");
+		return imagenSvg.replace("\u03B5", "&#949;").replace("\u2027", "&#8226;");
 		
 	}
+
+	/**
+	 * Estado del dibujo TikZ de un árbol: etiquetas asignadas a los nodos,
+	 * posiciones de las hojas y anotaciones de primera-pos y última-pos. Cada
+	 * dibujo utiliza su propio contexto, de modo que varios árboles pueden
+	 * dibujarse en paralelo.
+	 */
+	private static class ContextoTikZ {
+		private int letra = 0;
+		private int pos = 0;
+		private Map<String, Integer> leavePos = new HashMap<String, Integer>();
+		private Map<String, String> annotationsPripos = new HashMap<String, String>();
+		private Map<String, String> annotationsUltpos = new HashMap<String, String>();
+
+		private String siguienteLetra() {
+			return MapaEstados.etiqueta(letra++);
+		}
+	}
 }
@@ -0,0 +1,102 @@
+package es.ubu.inf.tfg.regex.datos;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * CacheAlternativas mantiene las representaciones gráficas de las alternativas
+ * de los problemas (imágenes, programas DOT, ...), compartidas entre todas las
+ * exportaciones y vistas que soliciten un mismo formato.
+ * <p>
+ * Es una caché de resultados por formato: cada representación se calcula y se
+ * guarda por separado, sin compartir con los demás formatos ninguna
+ * distribución ni cálculo intermedio. Si varios formatos deben partir de una
+ * misma construcción, el problema ha de guardar esta como un formato más.
+ * <p>
+ * Cada problema guarda sus propias expresiones alternativas, de modo que la
+ * caché solo contiene resultados que pueden volver a calcularse de forma
+ * idéntica. Para limitar la memoria ocupada se mantienen las representaciones
+ * de un número máximo de problemas, descartando las del problema utilizado
+ * hace más tiempo cuando se supera dicho número.
+ */
+public class CacheAlternativas {
+
+	/**
+	 * Número máximo de problemas cuyas representaciones se mantienen.
+	 */
+	public static final int CAPACIDAD = 64;
+
+	private static final Map<Object, Map<String, List<?>>> cache = new LinkedHashMap<Object, Map<String, List<?>>>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<Object, Map<String, List<?>>> eldest) {
+			return size() > CAPACIDAD;
+		}
+	};
+
+	private CacheAlternativas() {
+	}
+
+	/**
+	 * Devuelve la representación de las alternativas de un problema en un
+	 * formato dado, calculándola si no se encuentra en la caché. El cálculo se
+	 * realiza fuera de la sección crítica, de modo que problemas distintos
+	 * pueden dibujarse en paralelo.
+	 *
+	 * @param problema
+	 *            Problema al que pertenecen las alternativas.
+	 * @param formato
+	 *            Nombre del formato de la representación.
+	 * @param dibujo
+	 *            Cálculo de la representación, en caso de no estar en caché.
+	 * @return Lista inmutable con la representación de cada alternativa.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> List<T> obtiene(Object problema, String formato,
+			Supplier<List<T>> dibujo) {
+		synchronized (cache) {
+			Map<String, List<?>> formatos = cache.get(problema);
+			if (formatos != null && formatos.containsKey(formato))
+				return (List<T>) formatos.get(formato);
+		}
+
+		List<T> representacion = Collections.unmodifiableList(dibujo.get());
+
+		synchronized (cache) {
+			Map<String, List<?>> formatos = cache.get(problema);
+			if (formatos == null) {
+				formatos = new HashMap<>();
+				cache.put(problema, formatos);
+			}
+			List<?> previa = formatos.putIfAbsent(formato, representacion);
+			return previa != null ? (List<T>) previa : representacion;
+		}
+	}
+
+	/**
+	 * Devuelve el número de problemas cuyas representaciones están en caché.
+	 *
+	 * @return Número de problemas en caché.
+	 */
+	public static int tamaño() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	/**
+	 * Descarta todas las representaciones almacenadas.
+	 */
+	public static void vacia() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+}
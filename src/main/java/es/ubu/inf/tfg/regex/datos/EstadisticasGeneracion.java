@@ -0,0 +1,76 @@
+package es.ubu.inf.tfg.regex.datos;
+
+import java.util.Locale;
+
+/**
+ * EstadisticasGeneracion resume una ejecución de un generador de problemas: el
+ * número de iteraciones realizadas, el tiempo empleado y la evaluación del
+ * mejor candidato encontrado, siendo cero una solución exacta.
+ */
+public class EstadisticasGeneracion {
+
+	private final int iteraciones;
+	private final long tiempo;
+	private final int evaluacion;
+
+	/**
+	 * Construye las estadísticas de una generación.
+	 *
+	 * @param iteraciones
+	 *            Número de iteraciones realizadas.
+	 * @param tiempo
+	 *            Tiempo empleado, en nanosegundos.
+	 * @param evaluacion
+	 *            Evaluación del mejor candidato encontrado.
+	 */
+	public EstadisticasGeneracion(int iteraciones, long tiempo, int evaluacion) {
+		this.iteraciones = iteraciones;
+		this.tiempo = tiempo;
+		this.evaluacion = evaluacion;
+	}
+
+	/**
+	 * Devuelve el número de iteraciones realizadas.
+	 *
+	 * @return Número de iteraciones.
+	 */
+	public int iteraciones() {
+		return this.iteraciones;
+	}
+
+	/**
+	 * Devuelve el tiempo empleado en la generación.
+	 *
+	 * @return Tiempo empleado, en nanosegundos.
+	 */
+	public long tiempo() {
+		return this.tiempo;
+	}
+
+	/**
+	 * Devuelve la evaluación del mejor candidato encontrado. Cuanto más cerca
+	 * del cero, más se acerca el problema a los parámetros pedidos.
+	 *
+	 * @return Evaluación del mejor candidato.
+	 */
+	public int evaluacion() {
+		return this.evaluacion;
+	}
+
+	/**
+	 * Devuelve el número de iteraciones realizadas por segundo.
+	 *
+	 * @return Iteraciones por segundo.
+	 */
+	public double iteracionesPorSegundo() {
+		return this.tiempo > 0 ? this.iteraciones * 1e9 / this.tiempo : 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT,
+				"%d iteraciones en %.1f ms (%.0f/s), evaluación %d",
+				this.iteraciones, this.tiempo / 1e6,
+				iteracionesPorSegundo(), this.evaluacion);
+	}
+}
@@ -1,20 +1,13 @@
 package es.ubu.inf.tfg.regex.datos;
 
-import java.awt.Color;
-import java.awt.image.BufferedImage;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
-
-import javax.swing.SwingConstants;
-
-import com.mxgraph.layout.mxParallelEdgeLayout;
-import com.mxgraph.layout.hierarchical.mxHierarchicalLayout;
-import com.mxgraph.swing.mxGraphComponent;
-import com.mxgraph.util.mxCellRenderer;
-import com.mxgraph.view.mxGraph;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ExpresionRegular implementa un nodo de una expresión regular en forma de
@@ -33,6 +26,14 @@ import com.mxgraph.view.mxGraph;
  * ExpresionRegular proporciona métodos estáticos builder que se encargan de la
  * creación de cada tipo de nodo. Incluye un método extra para construir el nodo
  * con el que se aumenta una expresión, que se trata de un nodo símbolo '$'.
+ * <p>
+ * Los nodos son inmutables y se internan: los métodos builder devuelven siempre
+ * el mismo nodo para el mismo tipo, símbolo, posición e hijos, de modo que los
+ * subárboles comunes se comparten entre expresiones. Cada nodo guarda además
+ * una referencia a su forma, el nodo interno que representa su estructura sin
+ * tener en cuenta las posiciones, y su código hash, por lo que comparar dos
+ * expresiones no requiere recorrerlas. Por el mismo motivo cada nodo conoce la
+ * profundidad y el número de operadores de su subárbol.
  * 
  * @author Roberto Izquierdo Amo
  * 
@@ -43,23 +44,147 @@ public class ExpresionRegular {
 		SIMBOLO, VACIO, CONCAT, UNION, CIERRE
 	}
 
+	private static final Map<Clave, Referencia> nodos = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<ExpresionRegular> liberados = new ReferenceQueue<>();
+
 	public final Tipo tipo;
 	private final int posicion;
 	private final char simbolo;
 
-	public ExpresionRegular hijoIzquierdo;
-	public ExpresionRegular hijoDerecho;
+	public final ExpresionRegular hijoIzquierdo;
+	public final ExpresionRegular hijoDerecho;
+
+	private final ExpresionRegular forma;
+	private final int hash;
+	private final int profundidad;
+	private final int operadores;
 
-	private BufferedImage imagen;
 
 	private ExpresionRegular(Tipo tipo, int posicion, char simbolo,
-			ExpresionRegular hijoIzquierdo, ExpresionRegular hijoDerecho) {
+			ExpresionRegular hijoIzquierdo, ExpresionRegular hijoDerecho,
+			ExpresionRegular forma) {
 		this.tipo = tipo;
 		this.posicion = posicion;
 		this.simbolo = simbolo;
 
 		this.hijoIzquierdo = hijoIzquierdo;
 		this.hijoDerecho = hijoDerecho;
+
+		this.forma = forma != null ? forma : this;
+		this.hash = hash(tipo, simbolo, hijoIzquierdo, hijoDerecho);
+
+		if (hijoIzquierdo == null) {
+			this.profundidad = 0;
+			this.operadores = 0;
+		} else if (hijoDerecho == null) {
+			this.profundidad = hijoIzquierdo.profundidad + 1;
+			this.operadores = hijoIzquierdo.operadores + 1;
+		} else {
+			this.profundidad = Math.max(hijoIzquierdo.profundidad,
+					hijoDerecho.profundidad) + 1;
+			this.operadores = hijoIzquierdo.operadores
+					+ hijoDerecho.operadores + 1;
+		}
+	}
+
+	/**
+	 * Devuelve el nodo interno con los atributos dados, construyéndolo si no
+	 * existe ninguno. Los nodos internos se mantienen mediante referencias
+	 * débiles, y se descartan cuando ninguna expresión los utiliza.
+	 * 
+	 * @param tipo
+	 *            Tipo del nodo.
+	 * @param posicion
+	 *            Posición del nodo, o <code>Integer.MIN_VALUE</code> si no
+	 *            tiene.
+	 * @param simbolo
+	 *            Símbolo del nodo, o el carácter nulo si no tiene.
+	 * @param hijoIzquierdo
+	 *            Hijo izquierdo del nodo, o <code>null</code> si no tiene.
+	 * @param hijoDerecho
+	 *            Hijo derecho del nodo, o <code>null</code> si no tiene.
+	 * @return Nodo interno.
+	 */
+	private static ExpresionRegular nodo(Tipo tipo, int posicion,
+			char simbolo, ExpresionRegular hijoIzquierdo,
+			ExpresionRegular hijoDerecho) {
+		purga();
+
+		Clave clave = new Clave(tipo, posicion, simbolo, hijoIzquierdo,
+				hijoDerecho);
+		Referencia referencia = nodos.get(clave);
+		ExpresionRegular nodo = referencia != null ? referencia.get() : null;
+		if (nodo != null)
+			return nodo;
+
+		// Un nodo sin posiciones cuyos hijos son formas es su propia forma.
+		ExpresionRegular forma = null;
+		if (posicion != Integer.MIN_VALUE
+				|| (hijoIzquierdo != null && hijoIzquierdo.forma != hijoIzquierdo)
+				|| (hijoDerecho != null && hijoDerecho.forma != hijoDerecho))
+			forma = nodo(tipo, Integer.MIN_VALUE, simbolo,
+					hijoIzquierdo != null ? hijoIzquierdo.forma : null,
+					hijoDerecho != null ? hijoDerecho.forma : null);
+		nodo = new ExpresionRegular(tipo, posicion, simbolo, hijoIzquierdo,
+				hijoDerecho, forma);
+
+		while (true) {
+			referencia = nodos.putIfAbsent(clave, new Referencia(nodo, clave));
+			if (referencia == null)
+				return nodo;
+
+			ExpresionRegular previo = referencia.get();
+			if (previo != null)
+				return previo;
+			nodos.remove(clave, referencia);
+		}
+	}
+
+	/**
+	 * Elimina de la tabla de nodos internos aquellos que ya han sido liberados.
+	 */
+	private static void purga() {
+		Reference<? extends ExpresionRegular> referencia;
+		while ((referencia = liberados.poll()) != null)
+			nodos.remove(((Referencia) referencia).clave, referencia);
+	}
+
+	/**
+	 * Calcula el código hash estructural de un nodo a partir del de sus hijos.
+	 * No tiene en cuenta la posición, al igual que {@link #equals(Object)
+	 * equals}.
+	 * 
+	 * @return Código hash del nodo.
+	 */
+	private static int hash(Tipo tipo, char simbolo,
+			ExpresionRegular hijoIzquierdo, ExpresionRegular hijoDerecho) {
+		int result = 17;
+
+		switch (tipo) {
+		case CIERRE:
+			result = result * 31;
+			break;
+		case CONCAT:
+			result = result * 31 + 1;
+			break;
+		case SIMBOLO:
+			result = result * 31 + 2;
+			break;
+		case UNION:
+			result = result * 31 + 3;
+			break;
+		case VACIO:
+			result = result * 31 + 4;
+			break;
+		}
+
+		result = result * 31 + simbolo;
+
+		result = result * 31
+				+ (hijoIzquierdo != null ? hijoIzquierdo.hash : 0);
+		result = result * 31 + (hijoDerecho != null ? hijoDerecho.hash : 0);
+
+		return result;
 	}
 
 	/**
@@ -73,7 +198,7 @@ public class ExpresionRegular {
 	 * @return Nodo símbolo.
 	 */
 	public static ExpresionRegular nodoSimbolo(int posicion, char simbolo) {
-		return new ExpresionRegular(Tipo.SIMBOLO, posicion, simbolo, null, null);
+		return nodo(Tipo.SIMBOLO, posicion, simbolo, null, null);
 	}
 
 	/**
@@ -82,8 +207,7 @@ public class ExpresionRegular {
 	 * @return Nodo vacío.
 	 */
 	public static ExpresionRegular nodoVacio() {
-		return new ExpresionRegular(Tipo.VACIO, Integer.MIN_VALUE, '\u0000',
-				null, null);
+		return nodo(Tipo.VACIO, Integer.MIN_VALUE, '\u0000', null, null);
 	}
 
 	/**
@@ -112,8 +236,8 @@ public class ExpresionRegular {
 	 */
 	public static ExpresionRegular nodoConcat(ExpresionRegular hijoIzquierdo,
 			ExpresionRegular hijoDerecho) {
-		return new ExpresionRegular(Tipo.CONCAT, Integer.MIN_VALUE, '\u0000',
-				hijoIzquierdo, hijoDerecho);
+		return nodo(Tipo.CONCAT, Integer.MIN_VALUE, '\u0000', hijoIzquierdo,
+				hijoDerecho);
 	}
 
 	/**
@@ -128,8 +252,8 @@ public class ExpresionRegular {
 	 */
 	public static ExpresionRegular nodoUnion(ExpresionRegular hijoIzquierdo,
 			ExpresionRegular hijoDerecho) {
-		return new ExpresionRegular(Tipo.UNION, Integer.MIN_VALUE, '\u0000',
-				hijoIzquierdo, hijoDerecho);
+		return nodo(Tipo.UNION, Integer.MIN_VALUE, '\u0000', hijoIzquierdo,
+				hijoDerecho);
 	}
 
 	/**
@@ -141,8 +265,7 @@ public class ExpresionRegular {
 	 * @return Nodo cierre.
 	 */
 	public static ExpresionRegular nodoCierre(ExpresionRegular hijo) {
-		return new ExpresionRegular(Tipo.CIERRE, Integer.MIN_VALUE, '\u0000',
-				hijo, null);
+		return nodo(Tipo.CIERRE, Integer.MIN_VALUE, '\u0000', hijo, null);
 	}
 
 	/**
@@ -293,90 +416,60 @@ public class ExpresionRegular {
 	 * @return Profundidad del nodo.
 	 */
 	public int profundidad() {
-		if (esSimbolo() || esVacio())
-			return 0;
-		else if (esCierre())
-			return this.hijoIzquierdo.profundidad() + 1;
-		else
-			return Math.max(this.hijoIzquierdo.profundidad() + 1,
-					this.hijoDerecho.profundidad() + 1);
+		return this.profundidad;
 	}
 
 	/**
-	 * Dibuja el árbol de la expresión regular como grafo.
+	 * Devuelve el número de nodos operador, es decir, de concatenación, unión o
+	 * cierre, que contiene el subárbol de este nodo, incluido él mismo.
 	 * 
-	 * @return Imagen representando el árbol de la expresión regular.
+	 * @return Número de operadores del subárbol.
 	 */
-	public BufferedImage imagen() {
-		if (this.imagen == null) {
-			mxGraph graph = new mxGraph();
-			Object parent = graph.getDefaultParent();
-			Map<ExpresionRegular, Object> gNodos = new HashMap<>();
-			ExpresionRegular actual;
-			Object gNodo, gActual;
-			List<ExpresionRegular> siguientes = new ArrayList<>();
-			boolean tieneHijoIzquierdo, tieneHijoDerecho;
-
-			String estiloVertex = "shape=ellipse;fillColor=white;strokeColor=black;fontColor=black;";
-			String estiloEdge = "strokeColor=black;fontColor=black;labelBackgroundColor=white;endArrow=open;";
-
-			graph.getModel().beginUpdate();
-			try {
-				siguientes.add(this);
-
-				while (!siguientes.isEmpty()) {
-					actual = siguientes.get(0);
-
-					if (!gNodos.containsKey(actual)) {
-						gActual = graph.insertVertex(parent, null,
-								actual.tipo(), 0, 0, 30, 30, estiloVertex);
-						gNodos.put(actual, gActual);
-					} else {
-						gActual = gNodos.get(actual);
-					}
-
-					tieneHijoIzquierdo = !actual.esSimbolo()
-							&& !actual.esVacio();
-					tieneHijoDerecho = tieneHijoIzquierdo && !actual.esCierre();
-
-					if (tieneHijoIzquierdo) {
-						siguientes.add(actual.hijoIzquierdo());
-						gNodo = graph.insertVertex(parent, null, actual
-								.hijoIzquierdo().tipo(), 0, 0, 30, 30,
-								estiloVertex);
-						graph.insertEdge(parent, null, "", gActual, gNodo,
-								estiloEdge);
-						gNodos.put(actual.hijoIzquierdo(), gNodo);
-					}
-
-					if (tieneHijoDerecho) {
-						siguientes.add(actual.hijoDerecho());
-						gNodo = graph.insertVertex(parent, null, actual
-								.hijoDerecho().tipo(), 0, 0, 30, 30,
-								estiloVertex);
-						graph.insertEdge(parent, null, "", gActual, gNodo,
-								estiloEdge);
-						gNodos.put(actual.hijoDerecho(), gNodo);
-					}
-
-					siguientes.remove(actual);
-				}
-			} finally {
-				graph.getModel().endUpdate();
-
-				mxGraphComponent graphComponent = new mxGraphComponent(graph);
-
-				new mxHierarchicalLayout(graph, SwingConstants.NORTH)
-						.execute(parent);
-				new mxParallelEdgeLayout(graph).execute(parent);
-
-				this.imagen = mxCellRenderer.createBufferedImage(graph, null,
-						1, Color.WHITE, graphComponent.isAntiAlias(), null,
-						graphComponent.getCanvas());
-			}
-		}
+	int operadores() {
+		return this.operadores;
+	}
+
+	/**
+	 * Devuelve la expresión con sus símbolos numerados de izquierda a derecha,
+	 * empezando por 1, tal y como los numera el parser. Los subárboles que ya
+	 * están numerados correctamente se comparten con la expresión original, y
+	 * si toda ella lo está se devuelve la misma expresión.
+	 * <p>
+	 * Permite numerar bajo demanda expresiones construidas combinando
+	 * subárboles de otras, como las que produce
+	 * {@link Generador#mutacion(ExpresionRegular) mutacion}.
+	 * 
+	 * @return Expresión numerada.
+	 */
+	public ExpresionRegular numera() {
+		return numera(this, new int[1]);
+	}
 
-		return this.imagen;
+	private static ExpresionRegular numera(ExpresionRegular expresion,
+			int[] posicion) {
+		switch (expresion.tipo) {
+		case SIMBOLO:
+			posicion[0]++;
+			if (expresion.posicion == posicion[0])
+				return expresion;
+			return nodoSimbolo(posicion[0], expresion.simbolo);
+		case VACIO:
+			return expresion;
+		case CIERRE:
+			ExpresionRegular hijo = numera(expresion.hijoIzquierdo, posicion);
+			if (hijo == expresion.hijoIzquierdo)
+				return expresion;
+			return nodoCierre(hijo);
+		default:
+			ExpresionRegular izquierdo = numera(expresion.hijoIzquierdo,
+					posicion);
+			ExpresionRegular derecho = numera(expresion.hijoDerecho, posicion);
+			if (izquierdo == expresion.hijoIzquierdo
+					&& derecho == expresion.hijoDerecho)
+				return expresion;
+			return nodo(expresion.tipo, Integer.MIN_VALUE, '\u0000',
+					izquierdo, derecho);
+		}
 	}
 
 	/**
@@ -384,7 +477,7 @@ public class ExpresionRegular {
 	 * 
 	 * @return Representación del nodo en caracteres.
 	 */
-	private String tipo() {
+	String tipo() {
 		switch (this.tipo) {
 		case SIMBOLO:
 			return simbolo() + "";
@@ -561,50 +654,81 @@ public class ExpresionRegular {
 
 	@Override
 	public boolean equals(Object o) {
-		if (o == null)
-			return false;
 		if (o == this)
 			return true;
 		if (!(o instanceof ExpresionRegular))
 			return false;
 
-		// Consideramos dos expresiones iguales si las escribimos igual.
-		if (!(o.toString().equals(toString())))
-			return false;
-
-		return true;
+		// Consideramos dos expresiones iguales si las escribimos igual, es
+		// decir, si tienen la misma forma independientemente de sus
+		// posiciones.
+		return ((ExpresionRegular) o).forma == this.forma;
 	}
 
 	@Override
 	public int hashCode() {
-		int result = 17;
+		return this.hash;
+	}
 
-		switch (tipo) {
-		case CIERRE:
-			result = result * 31;
-			break;
-		case CONCAT:
-			result = result * 31 + 1;
-			break;
-		case SIMBOLO:
-			result = result * 31 + 2;
-			break;
-		case UNION:
-			result = result * 31 + 3;
-			break;
-		case VACIO:
-			result = result * 31 + 4;
-			break;
+	/**
+	 * Clave con la que se localizan los nodos internos. Compara los hijos por
+	 * referencia, ya que estos también son nodos internos.
+	 */
+	private static final class Clave {
+		private final Tipo tipo;
+		private final int posicion;
+		private final char simbolo;
+		private final ExpresionRegular hijoIzquierdo;
+		private final ExpresionRegular hijoDerecho;
+		private final int hash;
+
+		private Clave(Tipo tipo, int posicion, char simbolo,
+				ExpresionRegular hijoIzquierdo, ExpresionRegular hijoDerecho) {
+			this.tipo = tipo;
+			this.posicion = posicion;
+			this.simbolo = simbolo;
+			this.hijoIzquierdo = hijoIzquierdo;
+			this.hijoDerecho = hijoDerecho;
+
+			int result = tipo.ordinal();
+			result = result * 31 + posicion;
+			result = result * 31 + simbolo;
+			result = result * 31 + System.identityHashCode(hijoIzquierdo);
+			result = result * 31 + System.identityHashCode(hijoDerecho);
+			this.hash = result;
 		}
 
-//		result = result * 31 + posicion;
-		result = result * 31 + simbolo;
+		@Override
+		public boolean equals(Object o) {
+			if (o == this)
+				return true;
+			if (!(o instanceof Clave))
+				return false;
+
+			Clave clave = (Clave) o;
+			return this.tipo == clave.tipo && this.posicion == clave.posicion
+					&& this.simbolo == clave.simbolo
+					&& this.hijoIzquierdo == clave.hijoIzquierdo
+					&& this.hijoDerecho == clave.hijoDerecho;
+		}
 
-		result = result * 31
-				+ (hijoIzquierdo != null ? hijoIzquierdo.hashCode() : 0);
-		result = result * 31
-				+ (hijoDerecho != null ? hijoDerecho.hashCode() : 0);
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+	}
 
-		return result;
+	/**
+	 * Referencia débil a un nodo interno, que recuerda su clave para poder
+	 * eliminarlo de la tabla una vez liberado.
+	 */
+	private static final class Referencia extends
+			WeakReference<ExpresionRegular> {
+		private final Clave clave;
+
+		private Referencia(ExpresionRegular nodo, Clave clave) {
+			super(nodo, liberados);
+			this.clave = clave;
+		}
 	}
 }
@@ -1,11 +1,9 @@
 package es.ubu.inf.tfg.regex.datos;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.SplittableRandom;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +16,11 @@ import org.slf4j.LoggerFactory;
  * Permite también realizar mutaciones aleatorias sobre dichos árboles, en las
  * cuales un subárbol de la expresión se intercambia por uno nuevo generado
  * aleatoriamente.
+ * <p>
+ * Cada generador utiliza su propia fuente de números aleatorios, por lo que
+ * generadores distintos pueden trabajar en paralelo sin compartir estado, y un
+ * generador construido con la misma semilla produce siempre las mismas
+ * expresiones.
  * 
  * @author Roberto Izquierdo Amo.
  * 
@@ -26,7 +29,7 @@ public class Generador {
 
 	private static final Logger log = LoggerFactory.getLogger(Generador.class);
 
-	private static final Random random = new Random(new Date().getTime());
+	private final SplittableRandom random;
 
 	private List<Character> simbolos;
 	private List<Character> simbolosRepetidos;
@@ -75,6 +78,29 @@ public class Generador {
 	 *            aumentadas (<code>true</code>), o no (<code>false</code>).
 	 */
 	public Generador(int nSimbolos, boolean usaVacio, boolean esAumentada) {
+		this(nSimbolos, usaVacio, esAumentada, new SplittableRandom());
+	}
+
+	/**
+	 * Constructor. Prepara un generador para expresiones con unas
+	 * características dadas, que obtiene sus valores aleatorios de la fuente
+	 * especificada.
+	 * 
+	 * @param nSimbolos
+	 *            Número de símbolos a utilizar en la expresión, empezando por
+	 *            la 'a'.
+	 * @param usaVacio
+	 *            <code>true</code> en caso de que la expresión contenga nodos
+	 *            vacíos, <code>false</code> en caso contrario.
+	 * @param esAumentada
+	 *            Especifica si el algoritmo trabajará con expresiones
+	 *            aumentadas (<code>true</code>), o no (<code>false</code>).
+	 * @param random
+	 *            Fuente de valores aleatorios, de uso exclusivo del generador.
+	 */
+	public Generador(int nSimbolos, boolean usaVacio, boolean esAumentada,
+			SplittableRandom random) {
+		this.random = random;
 		this.nSimbolos = nSimbolos;
 		this.usaVacio = usaVacio;
 		this.esAumentada = esAumentada;
@@ -105,7 +131,11 @@ public class Generador {
 	 * mutada será también una expresión aumentada válida.
 	 * <p>
 	 * Toda modificación realizada afecta a una copia de la expresión original,
-	 * no a la propia expresión.
+	 * no a la propia expresión. Solo se construyen de nuevo los nodos en el
+	 * camino desde la raíz hasta el subárbol reemplazado; el resto se comparten
+	 * con la expresión original, y conservan sus posiciones. Las posiciones de
+	 * la expresión mutada pueden por tanto repetirse, y deben numerarse
+	 * mediante {@link ExpresionRegular#numera() numera} antes de utilizarse.
 	 * 
 	 * @param expresion
 	 *            Expresión a partir de la cual obtenemos la mutación.
@@ -117,33 +147,49 @@ public class Generador {
 				&& expresion.hijoDerecho().simbolo() == '$';
 
 		// Trabaja con la expresión sin aumentar.
-		if (esAumentada)
-			expresion = expresion.hijoIzquierdo();
-
-		List<ExpresionRegular> nodos = expresion.nodos().stream()
-				.filter(e -> !e.esSimbolo() && !e.esVacio())
-				// .filter(e -> e.profundidad() < 2)
-				.collect(Collectors.toList());
-		ExpresionRegular nodo;
-		if (nodos.size() > 1)
-			nodo = nodos.get(random.nextInt(nodos.size()));
-		else
+		ExpresionRegular raiz = esAumentada ? expresion.hijoIzquierdo()
+				: expresion;
+		if (raiz.operadores() < 2)
 			throw new UnsupportedOperationException(
-					"Imposible aplicar operación de mutación sobre expresión de profundidad " + expresion.profundidad());
+					"Imposible aplicar operación de mutación sobre expresión de profundidad "
+							+ raiz.profundidad());
+
+		// Localiza el operador elegido por su índice en preorden, guardando el
+		// camino desde la raíz.
+		int indice = random.nextInt(raiz.operadores());
+		ExpresionRegular[] camino = new ExpresionRegular[raiz.profundidad()];
+		boolean[] derecha = new boolean[raiz.profundidad()];
+		int longitud = 0;
+		ExpresionRegular nodo = raiz;
+		while (indice > 0) {
+			indice--;
+			camino[longitud] = nodo;
+			derecha[longitud] = indice >= nodo.hijoIzquierdo().operadores();
+			if (derecha[longitud]) {
+				indice -= nodo.hijoIzquierdo().operadores();
+				nodo = nodo.hijoDerecho();
+			} else {
+				nodo = nodo.hijoIzquierdo();
+			}
+			longitud++;
+		}
 		log.debug("Nodo: {}", nodo);
-		// ExpresionRegular nuevo = arbol(nodo.profundidad());
+
 		this.esAumentada = false;
-		ExpresionRegular nuevo = arbol(nodo.profundidad() + random.nextInt(3)
+		ExpresionRegular mutante = arbol(nodo.profundidad() + random.nextInt(3)
 				- 1);
 		this.esAumentada = esAumentada;
 
-		posicion = 0;
-		ExpresionRegular mutante = sustituir(expresion, nodo, nuevo);
+		// Copia el camino de abajo a arriba.
+		while (longitud > 0) {
+			longitud--;
+			mutante = sustituir(camino[longitud], derecha[longitud], mutante);
+		}
 
 		// Vuelve a aumentar la expresión.
 		if (esAumentada)
 			mutante = ExpresionRegular.nodoConcat(mutante,
-					ExpresionRegular.nodoAumentado(posicion++));
+					expresion.hijoDerecho());
 
 		log.debug("Mutación de {} -> {}", expresion, mutante);
 
@@ -151,61 +197,34 @@ public class Generador {
 	}
 
 	/**
-	 * Sustituye un subárbol en un nodo dado de una expresión regular existente,
-	 * sin modificar la expresión original. Los nodos se numeran correctamente,
-	 * incluyendo el nuevo subárbol.
-	 * <p>
-	 * Construye la expresión de manera recursiva.
+	 * Construye una copia de un nodo en la que uno de sus hijos se sustituye
+	 * por otro, compartiendo el hijo restante.
 	 * 
 	 * @param original
-	 *            Expresión regular original.
-	 * @param nodo
-	 *            Nodo en el que realizar la sustitución. Será reemplazado por
-	 *            la raíz del subárbol.
-	 * @param nuevo
-	 *            Subárbol a introducir en la expresión.
-	 * @return Nueva expresión regular con la sustitución realizada.
+	 *            Nodo original.
+	 * @param derecho
+	 *            <code>true</code> si se sustituye el hijo derecho,
+	 *            <code>false</code> si se sustituye el izquierdo.
+	 * @param hijo
+	 *            Nuevo hijo.
+	 * @return Copia del nodo con el hijo sustituido.
 	 */
 	private ExpresionRegular sustituir(ExpresionRegular original,
-			ExpresionRegular nodo, ExpresionRegular nuevo) {
-		ExpresionRegular hijoDerecho;
-		ExpresionRegular hijoIzquierdo;
-
-		if (original.esVacio())
-			return original;
-		else if (original.esSimbolo())
-			return ExpresionRegular.nodoSimbolo(++posicion, original.simbolo());
-		else if (original.esCierre()) {
-			if (original.hijoIzquierdo().equals(nodo))
-				hijoIzquierdo = nuevo;
-			else
-				hijoIzquierdo = sustituir(original.hijoIzquierdo(), nodo, nuevo);
-			return ExpresionRegular.nodoCierre(hijoIzquierdo);
-		} else if (original.esConcat()) {
-			if (original.hijoDerecho().equals(nodo))
-				hijoDerecho = nuevo;
-			else
-				hijoDerecho = sustituir(original.hijoDerecho(), nodo, nuevo);
-			if (original.hijoIzquierdo().equals(nodo))
-				hijoIzquierdo = nuevo;
-			else
-				hijoIzquierdo = sustituir(original.hijoIzquierdo(), nodo, nuevo);
-			return ExpresionRegular.nodoConcat(hijoIzquierdo, hijoDerecho);
-		} else if (original.esUnion()) {
-			if (original.hijoDerecho().equals(nodo))
-				hijoDerecho = nuevo;
-			else
-				hijoDerecho = sustituir(original.hijoDerecho(), nodo, nuevo);
-			if (original.hijoIzquierdo().equals(nodo))
-				hijoIzquierdo = nuevo;
-			else
-				hijoIzquierdo = sustituir(original.hijoIzquierdo(), nodo, nuevo);
-			return ExpresionRegular.nodoUnion(hijoIzquierdo, hijoDerecho);
-		}
+			boolean derecho, ExpresionRegular hijo) {
+		if (original.esCierre())
+			return ExpresionRegular.nodoCierre(hijo);
+		else if (original.esConcat())
+			return derecho ? ExpresionRegular.nodoConcat(
+					original.hijoIzquierdo(), hijo) : ExpresionRegular
+					.nodoConcat(hijo, original.hijoDerecho());
+		else if (original.esUnion())
+			return derecho ? ExpresionRegular.nodoUnion(
+					original.hijoIzquierdo(), hijo) : ExpresionRegular
+					.nodoUnion(hijo, original.hijoDerecho());
 
 		log.error(
-				"Encontrado nodo de tipo no válido al sustituir subárbol, en expresión {}, nodo {}, subárbol {}",
-				original, nodo, nuevo);
+				"Encontrado nodo de tipo no válido al sustituir subárbol, en nodo {}, subárbol {}",
+				original, hijo);
 		throw new UnsupportedOperationException("Nodo de tipo no válido.");
 	}
 
@@ -247,7 +266,7 @@ public class Generador {
 				hijoIzquierdo = subArbol(profundidad, Operador.COMPLETO);
 				return ExpresionRegular
 						.nodoConcat(hijoIzquierdo,
-								ExpresionRegular.nodoAumentado(posicion));
+								ExpresionRegular.nodoAumentado(++posicion));
 			} else {
 				operadores = Operador.COMPLETO;
 			}
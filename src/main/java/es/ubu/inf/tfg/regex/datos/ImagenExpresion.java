@@ -0,0 +1,175 @@
+package es.ubu.inf.tfg.regex.datos;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.swing.SwingConstants;
+
+import com.mxgraph.layout.mxParallelEdgeLayout;
+import com.mxgraph.layout.hierarchical.mxHierarchicalLayout;
+import com.mxgraph.util.mxCellRenderer;
+import com.mxgraph.view.mxGraph;
+
+/**
+ * ImagenExpresion dibuja el árbol de una expresión regular como grafo. Las
+ * imágenes se guardan fuera de la propia expresión, de modo que los nodos
+ * ExpresionRegular no mantienen ningún estado de dibujo.
+ * <p>
+ * La caché de imágenes referencia las expresiones de forma débil, por lo que
+ * una imagen se descarta en cuanto su expresión deja de utilizarse. Además
+ * mantiene un número máximo de imágenes, descartando la más antigua cuando se
+ * supera. Como la imagen no depende de las posiciones de los símbolos, dos
+ * expresiones iguales comparten imagen.
+ */
+public class ImagenExpresion {
+
+	/**
+	 * Número máximo de imágenes que se mantienen en caché.
+	 */
+	public static final int CAPACIDAD = 32;
+
+	private static final Map<ExpresionRegular, BufferedImage> cache = new WeakHashMap<>();
+	private static final Deque<WeakReference<ExpresionRegular>> orden = new ArrayDeque<>();
+
+	private ImagenExpresion() {
+	}
+
+	/**
+	 * Devuelve la imagen del árbol de una expresión regular, dibujándola si no
+	 * se encuentra en la caché. El dibujo se realiza fuera de la sección
+	 * crítica, de modo que expresiones distintas pueden dibujarse en paralelo.
+	 *
+	 * @param expresion
+	 *            Expresión regular a dibujar.
+	 * @return Imagen representando el árbol de la expresión regular.
+	 */
+	public static BufferedImage imagen(ExpresionRegular expresion) {
+		synchronized (cache) {
+			BufferedImage imagen = cache.get(expresion);
+			if (imagen != null)
+				return imagen;
+		}
+
+		BufferedImage imagen = dibuja(expresion);
+
+		synchronized (cache) {
+			BufferedImage previa = cache.putIfAbsent(expresion, imagen);
+			if (previa != null)
+				return previa;
+
+			orden.add(new WeakReference<>(expresion));
+			while (cache.size() > CAPACIDAD && !orden.isEmpty()) {
+				ExpresionRegular antigua = orden.poll().get();
+				if (antigua != null)
+					cache.remove(antigua);
+			}
+			// Las referencias liberadas ya no tienen entrada en la caché.
+			orden.removeIf(referencia -> referencia.get() == null);
+			return imagen;
+		}
+	}
+
+	/**
+	 * Devuelve el nombre con el que se identifica un dibujo de una expresión
+	 * regular fuera de la aplicación, por ejemplo como nombre de fichero al
+	 * exportarlo. El nombre solo depende del tipo de dibujo y de la forma de
+	 * la expresión, de modo que no cambia aunque el dibujo se descarte de la
+	 * caché y se vuelva a generar.
+	 *
+	 * @param dibujo
+	 *            Tipo de dibujo, para distinguir dibujos distintos de una
+	 *            misma expresión.
+	 * @param expresion
+	 *            Expresión regular dibujada.
+	 * @return Nombre del dibujo.
+	 */
+	public static String nombre(String dibujo, ExpresionRegular expresion) {
+		return Integer.toUnsignedString((dibujo + expresion).hashCode());
+	}
+
+	/**
+	 * Devuelve el número de imágenes en caché.
+	 *
+	 * @return Número de imágenes en caché.
+	 */
+	public static int tamaño() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	/**
+	 * Descarta todas las imágenes almacenadas.
+	 */
+	public static void vacia() {
+		synchronized (cache) {
+			cache.clear();
+			orden.clear();
+		}
+	}
+
+	/**
+	 * Dibuja el árbol de la expresión regular como grafo, recorriéndolo en
+	 * anchura.
+	 *
+	 * @param expresion
+	 *            Expresión regular a dibujar.
+	 * @return Imagen representando el árbol de la expresión regular.
+	 */
+	private static BufferedImage dibuja(ExpresionRegular expresion) {
+		mxGraph graph = new mxGraph();
+		Object parent = graph.getDefaultParent();
+		Deque<ExpresionRegular> siguientes = new ArrayDeque<>();
+		Deque<Object> gSiguientes = new ArrayDeque<>();
+		ExpresionRegular actual;
+		Object gActual;
+
+		String estiloVertex = "shape=ellipse;fillColor=white;strokeColor=black;fontColor=black;";
+		String estiloEdge = "strokeColor=black;fontColor=black;labelBackgroundColor=white;endArrow=open;";
+
+		graph.getModel().beginUpdate();
+		try {
+			siguientes.add(expresion);
+			gSiguientes.add(graph.insertVertex(parent, null, expresion.tipo(),
+					0, 0, 30, 30, estiloVertex));
+
+			while (!siguientes.isEmpty()) {
+				actual = siguientes.poll();
+				gActual = gSiguientes.poll();
+
+				if (!actual.esSimbolo() && !actual.esVacio()) {
+					hijo(graph, gActual, actual.hijoIzquierdo(), siguientes,
+							gSiguientes, estiloVertex, estiloEdge);
+					if (!actual.esCierre())
+						hijo(graph, gActual, actual.hijoDerecho(), siguientes,
+								gSiguientes, estiloVertex, estiloEdge);
+				}
+			}
+		} finally {
+			graph.getModel().endUpdate();
+		}
+
+		new mxHierarchicalLayout(graph, SwingConstants.NORTH).execute(parent);
+		new mxParallelEdgeLayout(graph).execute(parent);
+
+		return mxCellRenderer.createBufferedImage(graph, null, 1, Color.WHITE,
+				true, null);
+	}
+
+	private static void hijo(mxGraph graph, Object gPadre,
+			ExpresionRegular hijo, Deque<ExpresionRegular> siguientes,
+			Deque<Object> gSiguientes, String estiloVertex, String estiloEdge) {
+		Object parent = graph.getDefaultParent();
+		Object gHijo = graph.insertVertex(parent, null, hijo.tipo(), 0, 0, 30,
+				30, estiloVertex);
+		graph.insertEdge(parent, null, "", gPadre, gHijo, estiloEdge);
+
+		siguientes.add(hijo);
+		gSiguientes.add(gHijo);
+	}
+}
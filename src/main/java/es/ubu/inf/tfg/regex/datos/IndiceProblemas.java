@@ -0,0 +1,401 @@
+package es.ubu.inf.tfg.regex.datos;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * IndiceProblemas da acceso a un fichero de expresiones regulares generadas y
+ * resueltas de antemano, agrupadas en cubetas según el tipo de problema, el
+ * número exacto de símbolos y de estados, y si contienen nodos vacíos. Permite
+ * a los generadores servir al instante un problema que se ajuste exactamente a
+ * los parámetros pedidos, recurriendo a la búsqueda solo cuando la cubeta
+ * correspondiente está vacía.
+ * <p>
+ * El fichero se proyecta en memoria al abrirse, de modo que solo se lee el
+ * texto de las expresiones que llegan a utilizarse. Las expresiones de cada cubeta se
+ * extraen sin reemplazamiento: una vez servida, una expresión no vuelve a
+ * servirse mientras el índice permanezca abierto. Por ello la expresión que
+ * recibe cada problema depende del orden de las extracciones: los generadores
+ * que consultan el índice desde varios hilos a la vez no son reproducibles,
+ * aunque partan de una semilla, salvo que las extracciones se reserven de
+ * antemano en un orden fijo, como hace {@code GeneradorBloque}.
+ * <p>
+ * El fichero comienza con una cabecera (número mágico, versión y número de
+ * cubetas), seguida del directorio de cubetas (clave, posición de su tabla y
+ * número de expresiones). La tabla de cada cubeta contiene la posición de cada
+ * una de sus expresiones, guardadas en UTF-8 precedidas de su longitud. Al
+ * abrir el fichero se comprueba que todas estas posiciones y longitudes caen
+ * dentro de él, de modo que un fichero corrupto o truncado se rechaza entonces
+ * y no al extraer una expresión.
+ * <p>
+ * Los índices se construyen mediante un {@link Escritor}.
+ */
+public class IndiceProblemas {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(IndiceProblemas.class);
+
+	/**
+	 * Fichero de índice que se carga al iniciar la aplicación, salvo que la
+	 * propiedad <code>plquiz.indice</code> indique otro.
+	 */
+	public static final String FICHERO = "PLQuiz.idx";
+
+	private static final int MAGIA = 0x504C5149; // "PLQI"
+	private static final int VERSION = 1;
+
+	/**
+	 * Tipos de problema que puede contener el índice.
+	 */
+	public enum Tipo {
+		AHO_SETHI_ULLMAN, CONSTRUCCION_SUBCONJUNTOS
+	}
+
+	private static volatile IndiceProblemas actual;
+
+	private final ByteBuffer datos;
+	private final Map<Integer, Cubeta> cubetas = new HashMap<>();
+	private final int tamaño;
+
+	private IndiceProblemas(ByteBuffer datos) throws IOException {
+		this.datos = datos;
+
+		if (datos.limit() < 12 || datos.getInt(0) != MAGIA
+				|| datos.getInt(4) != VERSION)
+			throw new IOException("Fichero de índice no válido.");
+
+		int limite = datos.limit();
+		int nCubetas = datos.getInt(8);
+		if (nCubetas < 0 || 12 + 12L * nCubetas > limite)
+			throw new IOException("Fichero de índice corrupto o truncado.");
+
+		int total = 0;
+		for (int i = 0; i < nCubetas; i++) {
+			int entrada = 12 + 12 * i;
+			int tabla = datos.getInt(entrada + 4);
+			int cantidad = datos.getInt(entrada + 8);
+			if (tabla < 0 || cantidad < 0 || tabla + 4L * cantidad > limite)
+				throw new IOException("Fichero de índice corrupto o truncado.");
+
+			for (int j = 0; j < cantidad; j++) {
+				int posicion = datos.getInt(tabla + 4 * j);
+				if (posicion < 0
+						|| posicion + 2L > limite
+						|| posicion + 2L + (datos.getShort(posicion) & 0xFFFF) > limite)
+					throw new IOException(
+							"Fichero de índice corrupto o truncado.");
+			}
+
+			if (this.cubetas.put(datos.getInt(entrada), new Cubeta(tabla,
+					cantidad)) != null)
+				throw new IOException("Fichero de índice corrupto o truncado.");
+			total += cantidad;
+		}
+		this.tamaño = total;
+	}
+
+	/**
+	 * Abre un fichero de índice, proyectándolo en memoria.
+	 *
+	 * @param fichero
+	 *            Fichero de índice.
+	 * @return Índice abierto.
+	 * @throws IOException
+	 *             Si no puede leerse el fichero o no es un índice válido.
+	 */
+	public static IndiceProblemas abre(File fichero) throws IOException {
+		try (FileChannel canal = FileChannel.open(fichero.toPath(),
+				StandardOpenOption.READ)) {
+			// La proyección sigue siendo válida tras cerrar el canal.
+			MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY,
+					0, canal.size());
+			IndiceProblemas indice = new IndiceProblemas(datos);
+			log.info("Abierto índice {} con {} expresiones en {} cubetas.",
+					fichero, indice.tamaño, indice.cubetas.size());
+			return indice;
+		}
+	}
+
+	/**
+	 * Devuelve el índice que utilizan los generadores, si hay alguno.
+	 *
+	 * @return Índice instalado, o <code>null</code> si no hay ninguno.
+	 */
+	public static IndiceProblemas actual() {
+		return actual;
+	}
+
+	/**
+	 * Establece el índice que utilizan los generadores.
+	 *
+	 * @param indice
+	 *            Índice a utilizar, o <code>null</code> para generar siempre
+	 *            mediante búsqueda.
+	 */
+	public static void instala(IndiceProblemas indice) {
+		actual = indice;
+	}
+
+	/**
+	 * Abre e instala el índice predeterminado: el indicado por la propiedad
+	 * <code>plquiz.indice</code> o, en su defecto, {@value #FICHERO} en el
+	 * directorio de trabajo. Si el fichero no existe o no es válido se sigue
+	 * sin índice.
+	 */
+	public static void cargaPredeterminado() {
+		File fichero = new File(System.getProperty("plquiz.indice", FICHERO));
+		if (!fichero.isFile())
+			return;
+
+		try {
+			instala(abre(fichero));
+		} catch (IOException e) {
+			log.warn("No se ha podido abrir el índice {}.", fichero, e);
+		}
+	}
+
+	/**
+	 * Devuelve el número total de expresiones del índice.
+	 *
+	 * @return Número de expresiones.
+	 */
+	public int tamaño() {
+		return this.tamaño;
+	}
+
+	/**
+	 * Devuelve el número de expresiones que aún pueden extraerse de una
+	 * cubeta.
+	 *
+	 * @param tipo
+	 *            Tipo de problema.
+	 * @param nSimbolos
+	 *            Número de símbolos del problema.
+	 * @param nEstados
+	 *            Número de estados del problema.
+	 * @param vacio
+	 *            Si las expresiones contienen nodos vacíos.
+	 * @return Número de expresiones disponibles.
+	 */
+	public int disponibles(Tipo tipo, int nSimbolos, int nEstados,
+			boolean vacio) {
+		Cubeta cubeta = this.cubetas.get(clave(tipo, nSimbolos, nEstados,
+				vacio));
+		if (cubeta == null)
+			return 0;
+		synchronized (cubeta) {
+			return cubeta.restantes;
+		}
+	}
+
+	/**
+	 * Extrae al azar una expresión cuyo problema tenga exactamente los
+	 * parámetros pedidos. Si se permiten nodos vacíos se prefieren las
+	 * expresiones que los contienen, y si no quedan se utilizan las que no.
+	 *
+	 * @param tipo
+	 *            Tipo de problema.
+	 * @param nSimbolos
+	 *            Número de símbolos del problema.
+	 * @param nEstados
+	 *            Número de estados del problema.
+	 * @param usaVacio
+	 *            Si el problema puede contener nodos vacíos.
+	 * @param random
+	 *            Fuente de valores aleatorios con la que elegir la expresión.
+	 * @return Expresión regular, sin aumentar, o <code>null</code> si no
+	 *         queda ninguna disponible.
+	 */
+	public String extrae(Tipo tipo, int nSimbolos, int nEstados,
+			boolean usaVacio, SplittableRandom random) {
+		String expresion = null;
+		if (usaVacio)
+			expresion = extrae(clave(tipo, nSimbolos, nEstados, true), random);
+		if (expresion == null)
+			expresion = extrae(clave(tipo, nSimbolos, nEstados, false), random);
+		return expresion;
+	}
+
+	private String extrae(int clave, SplittableRandom random) {
+		Cubeta cubeta = this.cubetas.get(clave);
+		if (cubeta == null)
+			return null;
+
+		int elegida;
+		synchronized (cubeta) {
+			if (cubeta.restantes == 0)
+				return null;
+
+			// Paso de Fisher-Yates: las elegidas quedan al final del orden.
+			int i = random.nextInt(cubeta.restantes);
+			int ultima = --cubeta.restantes;
+			elegida = cubeta.orden[i];
+			cubeta.orden[i] = cubeta.orden[ultima];
+			cubeta.orden[ultima] = elegida;
+		}
+
+		int posicion = this.datos.getInt(cubeta.tabla + 4 * elegida);
+		byte[] texto = new byte[this.datos.getShort(posicion) & 0xFFFF];
+		ByteBuffer lector = this.datos.duplicate();
+		lector.position(posicion + 2);
+		lector.get(texto);
+		return new String(texto, StandardCharsets.UTF_8);
+	}
+
+	private static int clave(Tipo tipo, int nSimbolos, int nEstados,
+			boolean vacio) {
+		return tipo.ordinal() << 24 | (vacio ? 1 << 23 : 0)
+				| (nSimbolos & 0x7F) << 16 | (nEstados & 0xFFFF);
+	}
+
+	private static class Cubeta {
+		private final int tabla;
+		private final int[] orden;
+		private int restantes;
+
+		private Cubeta(int tabla, int cantidad) {
+			this.tabla = tabla;
+			this.orden = new int[cantidad];
+			for (int i = 0; i < cantidad; i++)
+				this.orden[i] = i;
+			this.restantes = cantidad;
+		}
+	}
+
+	/**
+	 * Escritor acumula expresiones ya resueltas, clasificadas en cubetas, y las
+	 * escribe en un fichero de índice. Cada cubeta guarda un número máximo de
+	 * expresiones distintas.
+	 */
+	public static class Escritor {
+
+		private final int capacidad;
+		private final Map<Integer, Set<String>> cubetas = new TreeMap<>();
+		private int tamaño;
+
+		/**
+		 * Construye un escritor vacío.
+		 *
+		 * @param capacidad
+		 *            Número máximo de expresiones por cubeta.
+		 */
+		public Escritor(int capacidad) {
+			this.capacidad = capacidad;
+		}
+
+		/**
+		 * Añade una expresión a su cubeta, si no está ya en ella y la cubeta
+		 * no está llena.
+		 *
+		 * @param tipo
+		 *            Tipo de problema.
+		 * @param nSimbolos
+		 *            Número de símbolos del problema.
+		 * @param nEstados
+		 *            Número de estados del problema.
+		 * @param vacio
+		 *            Si la expresión contiene nodos vacíos.
+		 * @param expresion
+		 *            Expresión regular, sin aumentar.
+		 * @return <code>true</code> si la expresión se ha añadido.
+		 * @throws IllegalArgumentException
+		 *             Si la expresión es demasiado larga para el formato del
+		 *             índice.
+		 */
+		public boolean añade(Tipo tipo, int nSimbolos, int nEstados,
+				boolean vacio, String expresion) {
+			if (expresion.getBytes(StandardCharsets.UTF_8).length > 0xFFFF)
+				throw new IllegalArgumentException(
+						"Expresión demasiado larga para el índice.");
+
+			Set<String> cubeta = this.cubetas.computeIfAbsent(
+					clave(tipo, nSimbolos, nEstados, vacio),
+					clave -> new LinkedHashSet<>());
+			if (cubeta.size() >= this.capacidad || !cubeta.add(expresion))
+				return false;
+
+			this.tamaño++;
+			return true;
+		}
+
+		/**
+		 * Devuelve el número de expresiones añadidas.
+		 *
+		 * @return Número de expresiones.
+		 */
+		public int tamaño() {
+			return this.tamaño;
+		}
+
+		/**
+		 * Escribe el índice en un fichero, sustituyendo su contenido.
+		 *
+		 * @param fichero
+		 *            Fichero de destino.
+		 * @throws IOException
+		 *             Indica un error al escribir el fichero.
+		 */
+		public void escribe(File fichero) throws IOException {
+			List<byte[]> textos = new ArrayList<>();
+			int longitud = 12 + 12 * this.cubetas.size();
+			for (Set<String> cubeta : this.cubetas.values()) {
+				longitud += 4 * cubeta.size();
+				for (String expresion : cubeta) {
+					byte[] texto = expresion.getBytes(StandardCharsets.UTF_8);
+					textos.add(texto);
+					longitud += 2 + texto.length;
+				}
+			}
+
+			ByteBuffer datos = ByteBuffer.allocate(longitud);
+			datos.putInt(MAGIA).putInt(VERSION).putInt(this.cubetas.size());
+
+			int directorio = 12;
+			int siguiente = 0;
+			datos.position(12 + 12 * this.cubetas.size());
+			for (Map.Entry<Integer, Set<String>> cubeta : this.cubetas
+					.entrySet()) {
+				int cantidad = cubeta.getValue().size();
+				int tabla = datos.position();
+				datos.putInt(directorio, cubeta.getKey());
+				datos.putInt(directorio + 4, tabla);
+				datos.putInt(directorio + 8, cantidad);
+				directorio += 12;
+
+				datos.position(tabla + 4 * cantidad);
+				for (int i = 0; i < cantidad; i++) {
+					byte[] texto = textos.get(siguiente++);
+					datos.putInt(tabla + 4 * i, datos.position());
+					datos.putShort((short) texto.length).put(texto);
+				}
+			}
+
+			datos.flip();
+			try (FileChannel canal = FileChannel.open(fichero.toPath(),
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				while (datos.hasRemaining())
+					canal.write(datos);
+			}
+
+			log.info("Escrito índice {} con {} expresiones en {} cubetas.",
+					fichero, this.tamaño, this.cubetas.size());
+		}
+	}
+}
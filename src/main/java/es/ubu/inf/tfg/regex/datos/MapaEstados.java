@@ -1,31 +1,133 @@
 package es.ubu.inf.tfg.regex.datos;
 
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
- * MapaEstados implementa una interfaz simple para trabajar con un mapa de mapas
- * que almacena una tabla de transición. Permite obtener tanto una lista de
- * estados existentes, como el resultado de una operación mueve, tal que
- * mueve(estado, símbolo) -> destino.
- * 
+ * MapaEstados implementa una interfaz simple para trabajar con una tabla de
+ * transición. Permite obtener tanto una lista de estados existentes, como el
+ * resultado de una operación mueve, tal que mueve(estado, símbolo) -> destino.
+ * <p>
+ * Internamente los estados se identifican mediante enteros consecutivos
+ * comenzando en 0, y los símbolos mediante el índice de columna que ocupan en
+ * la tabla, de modo que las transiciones se almacenan en una matriz densa
+ * <code>int[estado][columna]</code>. Las etiquetas en forma de letra ("A", "B",
+ * ..., "Z", "AA", "AB", ...) son solo una vista para la presentación de los
+ * problemas.
+ *
  * @author Roberto Izquierdo Amo
- * 
+ *
  */
 public class MapaEstados {
-	private Map<Character, Map<Character, Character>> mapaEstados;
+	/**
+	 * Valor almacenado en la tabla para las transiciones no definidas.
+	 */
+	public static final int SIN_TRANSICION = -1;
+
+	private static final int LETRAS = 'Z' - 'A' + 1;
+
+	private char[] simbolos;
+	private int nSimbolos;
+	private int[][] tabla;
+	private int nEstados;
 
 	/**
-	 * Construye un nuevo mapa de estados.
+	 * Construye un nuevo mapa de estados vacío, cuyas columnas se irán creando
+	 * según aparezcan nuevos símbolos.
 	 */
 	public MapaEstados() {
-		this.mapaEstados = new TreeMap<>();
+		this(new char[0]);
+	}
+
+	/**
+	 * Construye un nuevo mapa de estados con un alfabeto conocido. Cada símbolo
+	 * ocupa la columna correspondiente a su índice en el array.
+	 *
+	 * @param simbolos
+	 *            Alfabeto de la tabla de transición.
+	 */
+	public MapaEstados(char[] simbolos) {
+		this.simbolos = Arrays.copyOf(simbolos, Math.max(simbolos.length, 2));
+		this.nSimbolos = simbolos.length;
+		this.tabla = new int[8][];
+		this.nEstados = 0;
+	}
+
+	/**
+	 * Añade un nuevo estado a la tabla, sin transiciones definidas.
+	 *
+	 * @return Identificador del nuevo estado.
+	 */
+	public int nuevoEstado() {
+		if (this.nEstados == this.tabla.length)
+			this.tabla = Arrays.copyOf(this.tabla, this.nEstados * 2);
+
+		int[] fila = new int[this.simbolos.length];
+		Arrays.fill(fila, SIN_TRANSICION);
+		this.tabla[this.nEstados] = fila;
+
+		return this.nEstados++;
 	}
 
 	/**
 	 * Añade una nueva transición al mapa de estados.
-	 * 
+	 *
+	 * @param estado
+	 *            Identificador del estado de origen.
+	 * @param columna
+	 *            Columna del símbolo con el que realizamos la transición.
+	 * @param destino
+	 *            Identificador del estado de destino.
+	 */
+	public void add(int estado, int columna, int destino) {
+		this.tabla[estado][columna] = destino;
+	}
+
+	/**
+	 * Obtiene el estado de destino para una combinación de estado de origen y
+	 * columna de símbolo.
+	 *
+	 * @param estado
+	 *            Identificador del estado de origen.
+	 * @param columna
+	 *            Columna del símbolo con el que realizamos la transición.
+	 * @return Identificador del estado de destino, o {@link #SIN_TRANSICION} si
+	 *         la transición no está definida.
+	 */
+	public int get(int estado, int columna) {
+		int[] fila = this.tabla[estado];
+		return columna < fila.length ? fila[columna] : SIN_TRANSICION;
+	}
+
+	/**
+	 * Devuelve el número de estados existentes en la tabla.
+	 *
+	 * @return Número de estados.
+	 */
+	public int nEstados() {
+		return this.nEstados;
+	}
+
+	/**
+	 * Devuelve la columna que ocupa un símbolo en la tabla, o -1 si el símbolo
+	 * no forma parte del alfabeto.
+	 *
+	 * @param simbolo
+	 *            Símbolo a buscar.
+	 * @return Columna del símbolo.
+	 */
+	public int columna(char simbolo) {
+		for (int i = 0; i < this.nSimbolos; i++)
+			if (this.simbolos[i] == simbolo)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Añade una nueva transición al mapa de estados, identificando los estados
+	 * por su etiqueta. Los estados y símbolos que no existan se crean.
+	 *
 	 * @param estado
 	 *            Estado de origen.
 	 * @param simbolo
@@ -33,41 +135,123 @@ public class MapaEstados {
 	 * @param destino
 	 *            Estado de destino.
 	 */
-	public void add(char estado, char simbolo, char destino) {
-		Map<Character, Character> transicion;
-
-		if (!(this.mapaEstados.containsKey(estado))) {
-			transicion = new TreeMap<>();
-			transicion.put(simbolo, destino);
-			this.mapaEstados.put(estado, transicion);
-		} else {
-			transicion = this.mapaEstados.get(estado);
-			transicion.put(simbolo, destino);
-		}
+	public void add(String estado, char simbolo, String destino) {
+		int origen = indice(estado);
+		int fin = indice(destino);
+
+		while (this.nEstados <= Math.max(origen, fin))
+			nuevoEstado();
+
+		add(origen, nuevaColumna(simbolo), fin);
 	}
 
 	/**
 	 * Obtiene un estado de destino para una combinación de estado de origen y
-	 * símbolo de transición.
-	 * 
+	 * símbolo de transición, identificando los estados por su etiqueta.
+	 *
 	 * @param estado
 	 *            Estado de origen.
 	 * @param simbolo
 	 *            Símbolo con el que realizamos la transición.
 	 * @return Estado de destino.
+	 * @throws IllegalArgumentException
+	 *             Si la transición no existe.
 	 */
-	public char get(char estado, char simbolo) {
-		Map<Character, Character> transicion = this.mapaEstados.get(estado);
-		return transicion.get(simbolo);
+	public String get(String estado, char simbolo) {
+		int origen = indice(estado);
+		int columna = columna(simbolo);
+
+		if (origen >= this.nEstados || columna < 0
+				|| get(origen, columna) == SIN_TRANSICION)
+			throw new IllegalArgumentException("Transición no definida: "
+					+ estado + ", " + simbolo);
+
+		return etiqueta(get(origen, columna));
 	}
 
 	/**
-	 * Obtiene una lista de todos los estados existentes en la tabla, que se
-	 * corresponden con las claves del mapa externo.
-	 * 
+	 * Obtiene una lista de todos los estados existentes en la tabla,
+	 * etiquetados con letras y ordenados por su identificador.
+	 *
 	 * @return Lista de estados en la tabla.
 	 */
-	public Set<Character> estados() {
-		return this.mapaEstados.keySet();
+	public List<String> estados() {
+		List<String> estados = new ArrayList<>(this.nEstados);
+		for (int i = 0; i < this.nEstados; i++)
+			estados.add(etiqueta(i));
+		return estados;
+	}
+
+	/**
+	 * Devuelve la etiqueta con la que se presenta un estado: "A" para el
+	 * estado 0, "B" para el 1, y así sucesivamente hasta "Z", continuando con
+	 * "AA", "AB", ...
+	 *
+	 * @param estado
+	 *            Identificador del estado.
+	 * @return Etiqueta del estado.
+	 * @throws IllegalArgumentException
+	 *             Si el identificador es negativo.
+	 */
+	public static String etiqueta(int estado) {
+		if (estado < 0)
+			throw new IllegalArgumentException("Estado no válido: " + estado);
+
+		String etiqueta = ""; //$NON-NLS-1$
+		for (int n = estado; n >= 0; n = n / LETRAS - 1)
+			etiqueta = (char) ('A' + n % LETRAS) + etiqueta;
+		return etiqueta;
+	}
+
+	/**
+	 * Devuelve el identificador de un estado a partir de su etiqueta.
+	 *
+	 * @param etiqueta
+	 *            Etiqueta del estado.
+	 * @return Identificador del estado.
+	 * @throws IllegalArgumentException
+	 *             Si la etiqueta no es una etiqueta de estado válida.
+	 */
+	public static int indice(String etiqueta) {
+		if (etiqueta.isEmpty())
+			throw new IllegalArgumentException("Etiqueta de estado no válida: "
+					+ etiqueta);
+
+		int indice = 0;
+		for (int i = 0; i < etiqueta.length(); i++) {
+			char letra = etiqueta.charAt(i);
+			if (letra < 'A' || letra > 'Z')
+				throw new IllegalArgumentException(
+						"Etiqueta de estado no válida: " + etiqueta);
+			indice = indice * LETRAS + (letra - 'A' + 1);
+		}
+		return indice - 1;
+	}
+
+	/**
+	 * Devuelve la columna de un símbolo, añadiéndola a la tabla si no existe.
+	 *
+	 * @param simbolo
+	 *            Símbolo a buscar.
+	 * @return Columna del símbolo.
+	 */
+	private int nuevaColumna(char simbolo) {
+		int columna = columna(simbolo);
+		if (columna >= 0)
+			return columna;
+
+		if (this.nSimbolos == this.simbolos.length) {
+			this.simbolos = Arrays.copyOf(this.simbolos, this.nSimbolos * 2);
+			for (int i = 0; i < this.nEstados; i++) {
+				int anterior = this.tabla[i].length;
+				this.tabla[i] = Arrays.copyOf(this.tabla[i],
+						this.simbolos.length);
+				Arrays.fill(this.tabla[i], anterior, this.simbolos.length,
+						SIN_TRANSICION);
+			}
+		}
+
+		this.simbolos[this.nSimbolos] = simbolo;
+		return this.nSimbolos++;
 	}
 }
@@ -0,0 +1,148 @@
+package es.ubu.inf.tfg.regex.datos;
+
+import java.util.Arrays;
+
+/**
+ * TablaEstados almacena los estados de un AFD en construcción, cada uno
+ * representado como un conjunto de posiciones en forma de bits sobre un número
+ * fijo de palabras <code>long</code>. Todos los estados se guardan en un único
+ * array, y se indexan mediante una tabla hash de direccionamiento abierto, de
+ * modo que buscar o añadir un estado no crea ningún objeto.
+ * <p>
+ * Los estados se numeran en el orden en que se añaden, empezando en 0.
+ */
+public class TablaEstados {
+
+	private final int palabras;
+	private long[] filas;
+	private int[] hashes;
+	private int[] indice;
+	private int tamaño;
+
+	/**
+	 * Construye una tabla vacía para conjuntos de posiciones del tamaño dado.
+	 *
+	 * @param palabras
+	 *            Número de palabras <code>long</code> de cada conjunto.
+	 */
+	public TablaEstados(int palabras) {
+		this.palabras = palabras;
+		this.filas = new long[16 * palabras];
+		this.hashes = new int[16];
+		this.indice = new int[32];
+	}
+
+	/**
+	 * Devuelve el número de estados de la tabla.
+	 *
+	 * @return Número de estados.
+	 */
+	public int tamaño() {
+		return this.tamaño;
+	}
+
+	/**
+	 * Busca un conjunto de posiciones en la tabla, añadiéndolo como nuevo
+	 * estado si no se encuentra. El conjunto se copia, por lo que puede
+	 * reutilizarse tras la llamada.
+	 *
+	 * @param conjunto
+	 *            Conjunto de posiciones, de tantas palabras como la tabla.
+	 * @return Estado asociado al conjunto.
+	 */
+	public int añade(long[] conjunto) {
+		int hash = Arrays.hashCode(conjunto);
+		int mascara = this.indice.length - 1;
+
+		for (int i = mezcla(hash) & mascara;; i = (i + 1) & mascara) {
+			int estado = this.indice[i] - 1;
+			if (estado < 0) {
+				estado = nuevo(conjunto, hash);
+				if (2 * this.tamaño > this.indice.length)
+					reindexa();
+				else
+					this.indice[i] = estado + 1;
+				return estado;
+			}
+			if (this.hashes[estado] == hash && igual(estado, conjunto))
+				return estado;
+		}
+	}
+
+	/**
+	 * Devuelve la primera posición del estado igual o posterior a la dada, al
+	 * estilo de {@link java.util.BitSet#nextSetBit(int) nextSetBit}.
+	 *
+	 * @param estado
+	 *            Estado a recorrer.
+	 * @param desde
+	 *            Posición desde la que buscar.
+	 * @return Siguiente posición del estado, o -1 si no quedan.
+	 */
+	public int siguiente(int estado, int desde) {
+		int palabra = desde >>> 6;
+		if (palabra >= this.palabras)
+			return -1;
+
+		int base = estado * this.palabras;
+		long bits = this.filas[base + palabra] & (-1L << desde);
+		while (true) {
+			if (bits != 0)
+				return (palabra << 6) + Long.numberOfTrailingZeros(bits);
+			if (++palabra == this.palabras)
+				return -1;
+			bits = this.filas[base + palabra];
+		}
+	}
+
+	/**
+	 * Copia el conjunto de posiciones de un estado en el array dado.
+	 *
+	 * @param estado
+	 *            Estado a copiar.
+	 * @param conjunto
+	 *            Array de tantas palabras como la tabla en el que se escribe
+	 *            el conjunto.
+	 */
+	public void copia(int estado, long[] conjunto) {
+		System.arraycopy(this.filas, estado * this.palabras, conjunto, 0,
+				this.palabras);
+	}
+
+	private int nuevo(long[] conjunto, int hash) {
+		if (this.tamaño == this.hashes.length) {
+			this.hashes = Arrays.copyOf(this.hashes, 2 * this.tamaño);
+			this.filas = Arrays.copyOf(this.filas, 2 * this.tamaño
+					* this.palabras);
+		}
+
+		System.arraycopy(conjunto, 0, this.filas, this.tamaño * this.palabras,
+				this.palabras);
+		this.hashes[this.tamaño] = hash;
+		return this.tamaño++;
+	}
+
+	private boolean igual(int estado, long[] conjunto) {
+		int base = estado * this.palabras;
+		for (int i = 0; i < this.palabras; i++)
+			if (this.filas[base + i] != conjunto[i])
+				return false;
+		return true;
+	}
+
+	private void reindexa() {
+		this.indice = new int[2 * this.indice.length];
+		int mascara = this.indice.length - 1;
+
+		for (int estado = 0; estado < this.tamaño; estado++) {
+			int i = mezcla(this.hashes[estado]) & mascara;
+			while (this.indice[i] != 0)
+				i = (i + 1) & mascara;
+			this.indice[i] = estado + 1;
+		}
+	}
+
+	private static int mezcla(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+}
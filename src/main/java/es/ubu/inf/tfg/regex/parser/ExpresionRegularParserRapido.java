@@ -0,0 +1,242 @@
+package es.ubu.inf.tfg.regex.parser;
+
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+
+/**
+ * ExpresionRegularParserRapido implementa un analizador descendente recursivo
+ * escrito a mano para la misma gramática que ExpresionRegular.jj, trabajando
+ * directamente sobre una secuencia de caracteres. Está pensado para resolver
+ * grandes cantidades de expresiones, evitando crear por cada una el flujo de
+ * caracteres, el gestor de tokens y el analizador generados por JavaCC.
+ * <p>
+ * Produce los mismos árboles que ExpresionRegularParser: la expresión se
+ * devuelve aumentada y sus símbolos se numeran de izquierda a derecha
+ * empezando en 1. El final de la secuencia equivale al token de fin de línea,
+ * y lo que siga a un primer salto de línea se ignora. Las secuencias de escape
+ * unicode se interpretan igual que en el flujo de caracteres de JavaCC.
+ * <p>
+ * Cada analizador guarda el estado del análisis en curso, por lo que no debe
+ * compartirse entre hilos. {@link #analiza(CharSequence)} reutiliza un único
+ * analizador por hilo.
+ *
+ * <pre>
+ * &lt;expresion&gt; :- &lt;operacion&gt; &lt;eof&gt;
+ * &lt;operacion&gt; :- &lt;termino&gt; ('|' &lt;termino&gt;)*
+ * &lt;termino&gt; :- &lt;unario&gt; ('.'? &lt;unario&gt;)*
+ * &lt;unario&gt; :- &lt;factor&gt; '*'*
+ * &lt;factor&gt; :- &lt;simbolo&gt; | &lt;epsilon&gt; | '(' &lt;operacion&gt; ')'
+ * </pre>
+ */
+public class ExpresionRegularParserRapido implements
+		ExpresionRegularParserConstants {
+
+	private static final ThreadLocal<ExpresionRegularParserRapido> parsers = ThreadLocal
+			.withInitial(ExpresionRegularParserRapido::new);
+
+	private CharSequence entrada;
+	private int indice;
+	private int posicion;
+
+	private int token;
+	private char imagen;
+	private int columna;
+
+	/**
+	 * Analiza una expresión regular utilizando el analizador del hilo actual.
+	 *
+	 * @param entrada
+	 *            Expresión regular a analizar.
+	 * @return Árbol de la expresión regular, aumentada.
+	 * @throws ParseException
+	 *             Si la expresión no es válida o contiene caracteres no
+	 *             reconocidos.
+	 */
+	public static ExpresionRegular analiza(CharSequence entrada)
+			throws ParseException {
+		return parsers.get().expresion(entrada);
+	}
+
+	/**
+	 * Analiza una expresión regular completa.
+	 *
+	 * @param entrada
+	 *            Expresión regular a analizar.
+	 * @return Árbol de la expresión regular, aumentada.
+	 * @throws ParseException
+	 *             Si la expresión no es válida o contiene caracteres no
+	 *             reconocidos.
+	 */
+	public ExpresionRegular expresion(CharSequence entrada)
+			throws ParseException {
+		this.entrada = entrada;
+		this.indice = 0;
+		this.posicion = 1;
+
+		try {
+			siguiente();
+			ExpresionRegular expreg = operacion();
+			consume(END);
+
+			// Aumentamos la expresión regular
+			return ExpresionRegular.nodoConcat(expreg,
+					ExpresionRegular.nodoAumentado(this.posicion));
+		} finally {
+			this.entrada = null;
+		}
+	}
+
+	private ExpresionRegular operacion() throws ParseException {
+		ExpresionRegular expregIzda = termino();
+
+		while (this.token == UNION) {
+			siguiente();
+			expregIzda = ExpresionRegular.nodoUnion(expregIzda, termino());
+		}
+
+		return expregIzda;
+	}
+
+	private ExpresionRegular termino() throws ParseException {
+		ExpresionRegular expregIzda = unario();
+
+		// El operador concatenación es opcional
+		while (this.token == CONCAT || this.token == SYMBOL
+				|| this.token == EPSILON || this.token == OPEN_PAREN) {
+			if (this.token == CONCAT)
+				siguiente();
+			expregIzda = ExpresionRegular.nodoConcat(expregIzda, unario());
+		}
+
+		return expregIzda;
+	}
+
+	private ExpresionRegular unario() throws ParseException {
+		ExpresionRegular expreg = factor();
+
+		// El cierre es idempotente
+		if (this.token == KLEENE) {
+			while (this.token == KLEENE)
+				siguiente();
+			expreg = ExpresionRegular.nodoCierre(expreg);
+		}
+
+		return expreg;
+	}
+
+	private ExpresionRegular factor() throws ParseException {
+		ExpresionRegular expreg;
+
+		switch (this.token) {
+		case SYMBOL:
+			expreg = ExpresionRegular.nodoSimbolo(this.posicion++, this.imagen);
+			siguiente();
+			return expreg;
+		case EPSILON:
+			siguiente();
+			return ExpresionRegular.nodoVacio();
+		case OPEN_PAREN:
+			siguiente();
+			expreg = operacion();
+			consume(CLOSE_PAREN);
+			return expreg;
+		default:
+			throw error();
+		}
+	}
+
+	/**
+	 * Comprueba que el token actual es del tipo esperado y avanza al siguiente.
+	 *
+	 * @param tipo
+	 *            Tipo de token esperado.
+	 * @throws ParseException
+	 *             Si el token actual es de otro tipo.
+	 */
+	private void consume(int tipo) throws ParseException {
+		if (this.token != tipo)
+			throw error();
+		if (tipo != END)
+			siguiente();
+	}
+
+	/**
+	 * Lee el siguiente token de la entrada, ignorando los espacios y
+	 * tabuladores.
+	 *
+	 * @throws ParseException
+	 *             Si la entrada contiene un carácter no reconocido.
+	 */
+	private void siguiente() throws ParseException {
+		char c;
+		do {
+			this.columna = this.indice + 1;
+			if (this.indice >= this.entrada.length()) {
+				this.token = END;
+				return;
+			}
+			c = caracter();
+		} while (c == ' ' || c == '\r' || c == '\t');
+
+		this.imagen = c;
+		if ((c >= 'a' && c <= 'z') || c == '$')
+			this.token = SYMBOL;
+		else if (c == 'E' || c == '\u03B5')
+			this.token = EPSILON;
+		// La gramática de JavaCC también acepta el carácter de reemplazo, que
+		// es como quedó codificado en ella el punto medio
+		else if (c == '.' || c == '\u00B7' || c == '\u2027' || c == '\uFFFD')
+			this.token = CONCAT;
+		else if (c == '*')
+			this.token = KLEENE;
+		else if (c == '|')
+			this.token = UNION;
+		else if (c == '(')
+			this.token = OPEN_PAREN;
+		else if (c == ')')
+			this.token = CLOSE_PAREN;
+		else if (c == '\n')
+			this.token = END;
+		else
+			throw new ParseException("Carácter no reconocido '" + c
+					+ "' en la columna " + this.columna + ".");
+	}
+
+	/**
+	 * Lee el siguiente carácter de la entrada, interpretando las secuencias de
+	 * escape unicode.
+	 *
+	 * @return Carácter leído.
+	 * @throws ParseException
+	 *             Si la secuencia de escape está incompleta.
+	 */
+	private char caracter() throws ParseException {
+		char c = this.entrada.charAt(this.indice++);
+		if (c != '\\' || this.indice >= this.entrada.length()
+				|| this.entrada.charAt(this.indice) != 'u')
+			return c;
+
+		while (this.indice < this.entrada.length()
+				&& this.entrada.charAt(this.indice) == 'u')
+			this.indice++;
+
+		if (this.indice + 4 > this.entrada.length())
+			throw new ParseException("Secuencia de escape incompleta en la columna "
+					+ this.columna + ".");
+
+		int valor = 0;
+		for (int i = 0; i < 4; i++) {
+			int digito = Character.digit(this.entrada.charAt(this.indice++), 16);
+			if (digito < 0)
+				throw new ParseException("Secuencia de escape no válida en la columna "
+						+ this.columna + ".");
+			valor = valor * 16 + digito;
+		}
+		return (char) valor;
+	}
+
+	private ParseException error() {
+		return new ParseException("Token inesperado "
+				+ (this.token == END ? "<END>" : "'" + this.imagen + "'")
+				+ " en la columna " + this.columna + ".");
+	}
+}
@@ -4,13 +4,11 @@ import java.awt.image.BufferedImage;
 //import java.io.File;   // commented as now it not used
 //import java.io.InputStream;   // commented as now it not used
 //import java.io.OutputStream;   // commented as now it not used
-import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.SplittableRandom;
 import java.util.TreeSet;
 
 //import org.apache.batik.transcoder.Transcoder;   // commented as now it not used
@@ -22,16 +20,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 //import org.w3c.dom.Document;  // commented as now it not used
 
+import es.ubu.inf.tfg.regex.datos.CacheAlternativas;
 import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
 import es.ubu.inf.tfg.regex.datos.Generador;
+import es.ubu.inf.tfg.regex.datos.ImagenExpresion;
 import es.ubu.inf.tfg.regex.datos.MapaEstados;
-import es.ubu.inf.tfg.regex.parser.CharStream;
-import es.ubu.inf.tfg.regex.parser.ExpresionRegularParser;
-import es.ubu.inf.tfg.regex.parser.JavaCharStream;
+import es.ubu.inf.tfg.regex.datos.TablaEstados;
+import es.ubu.inf.tfg.regex.parser.ExpresionRegularParserRapido;
 import es.ubu.inf.tfg.regex.parser.ParseException;
-import es.ubu.inf.tfg.regex.parser.TokenMgrError;
 import es.ubu.inf.tfg.regex.thompson.datos.Automata;
-import es.ubu.inf.tfg.regex.thompson.datos.Nodo;
+import es.ubu.inf.tfg.regex.thompson.datos.AutomataCompacto;
 
 /**
  * * Resuelve un problema de construcción de subconjuntos a partir de un AFND,
@@ -42,6 +40,11 @@ import es.ubu.inf.tfg.regex.thompson.datos.Nodo;
  * Asimismo actúa como fachada del subsistema es.ubu.inf.tfg.regex.thompson,
  * evitando dependencias con los tipos de datos internos. Todas las salidas se
  * codifican en tipos de datos estándar.
+ * <p>
+ * La construcción de subconjuntos trabaja sobre un {@link AutomataCompacto},
+ * con los estados guardados como conjuntos de bits en una {@link TablaEstados}
+ * y las clausuras vacías calculadas una sola vez por nodo. El {@link Automata} de
+ * nodos solo se construye cuando se pide alguna de sus imágenes.
  * 
  * @author Roberto Izquierdo Amo
  * 
@@ -53,12 +56,12 @@ public class ConstruccionSubconjuntos {
 
 	private String problema;
 	private ExpresionRegular expresion;
+	private AutomataCompacto afnd;
 	private Automata automata;
-	private Map<Character, Set<Nodo>> estados;
+	private TablaEstados estados;
 
 	private MapaEstados transiciones;
-	private List<BufferedImage> alternativas;
-	private List<String> alternativasDot;
+	private List<ExpresionRegular> expresionesAlternativas;
 
 	/**
 	 * Resuelve un problema de construcción de subconjuntos a partir de una
@@ -70,43 +73,26 @@ public class ConstruccionSubconjuntos {
 	 *            resolver.
 	 * @throws UnsupportedOperationException
 	 *             Error del parser o del token manager. Indica que la expresión
-	 *             no es válida o que contiene caracteres no reconocidos.
+	 *             no es válida o que contiene caracteres no reconocidos, y
+	 *             conserva el mensaje del parser con la columna del error.
 	 */
 	public ConstruccionSubconjuntos(String problema)
 			throws UnsupportedOperationException {
-		if (problema.charAt(problema.length() - 1) != '\n')
-			problema += '\n';
-
-		this.problema = problema.substring(0, problema.length() - 1);
-
-		CharStream input = new JavaCharStream(new StringReader(problema));
-		ExpresionRegularParser parser = new ExpresionRegularParser(input);
+		this.problema = problema.endsWith("\n") ? problema.substring(0,
+				problema.length() - 1) : problema;
 
 		try {
-			this.expresion = parser.expresion();
+			this.expresion = ExpresionRegularParserRapido.analiza(problema);
 			// No utilizamos la expresión aumentada
 			this.expresion = this.expresion.hijoIzquierdo();
-		} catch (ParseException | TokenMgrError e) {
-			throw new UnsupportedOperationException("Expresión no válida.");
+		} catch (ParseException e) {
+			throw new UnsupportedOperationException("Expresión no válida: "
+					+ e.getMessage(), e);
 		}
 
-		this.automata = new Automata(this.expresion, 0);
-
-		// Calculo de estados
-		this.estados = new TreeMap<>();
-		this.transiciones = new MapaEstados();
-
-		char estadoActual = 'A';
-		Set<Nodo> posiciones = automata.transicionVacia(automata.nodoInicial());
-		estados.put(estadoActual, posiciones);
+		this.afnd = new AutomataCompacto(this.expresion);
 
-		while (estados.keySet().contains(estadoActual)) {
-			for (char simbolo : this.automata.simbolos()) {
-				char destino = transicion(estadoActual, simbolo);
-				this.transiciones.add(estadoActual, simbolo, destino);
-			}
-			estadoActual++;
-		}
+		calculaEstados();
 	}
 
 	/**
@@ -122,54 +108,67 @@ public class ConstruccionSubconjuntos {
 		this.expresion = expresion.hijoIzquierdo();
 		this.problema = this.expresion.toString();
 
-		this.automata = new Automata(this.expresion, 0);
+		this.afnd = new AutomataCompacto(this.expresion);
 
-		// Calculo de estados
-		this.estados = new TreeMap<>();
-		this.transiciones = new MapaEstados();
-
-		char estadoActual = 'A';
-		Set<Nodo> posiciones = automata.transicionVacia(automata.nodoInicial());
-		estados.put(estadoActual, posiciones);
+		calculaEstados();
+	}
 
-		while (estados.keySet().contains(estadoActual)) {
-			for (char simbolo : this.automata.simbolos()) {
-				char destino = transicion(estadoActual, simbolo);
-				this.transiciones.add(estadoActual, simbolo, destino);
+	/**
+	 * Construye la tabla de transición del AFD. Los estados se numeran en el
+	 * orden en que se descubren, partiendo de la clausura del nodo inicial.
+	 */
+	private void calculaEstados() {
+		char[] alfabeto = new char[this.afnd.nSimbolos()];
+		for (int i = 0; i < alfabeto.length; i++)
+			alfabeto[i] = this.afnd.simbolo(i);
+
+		this.estados = new TablaEstados(this.afnd.palabras());
+		this.transiciones = new MapaEstados(alfabeto);
+
+		long[] origen = new long[this.afnd.palabras()];
+		long[] destino = new long[this.afnd.palabras()];
+
+		this.afnd.uneClausura(this.afnd.nodoInicial(), destino);
+		estado(destino);
+
+		for (int estado = 0; estado < this.estados.tamaño(); estado++) {
+			this.estados.copia(estado, origen);
+			for (int columna = 0; columna < alfabeto.length; columna++) {
+				// Los estados ya están cerrados, basta con consumir el símbolo
+				this.afnd.mueve(origen, columna, destino);
+				this.transiciones.add(estado, columna, estado(destino));
 			}
-			estadoActual++;
 		}
 	}
 
 	/**
-	 * Calcula la transición a partir de un estado dado mediante un símbolo
-	 * concreto.
+	 * Busca el estado asociado a un conjunto de nodos, registrándolo como
+	 * nuevo estado si no existía.
 	 * 
-	 * @param estado
-	 *            Estado de origen.
-	 * @param simbolo
-	 *            Símbolo de transición.
-	 * @return Estado de destino.
+	 * @param posiciones
+	 *            Conjunto de nodos del estado.
+	 * @return Estado asociado al conjunto.
 	 */
-	private char transicion(char estado, char simbolo) {
-		Set<Nodo> posiciones = new TreeSet<>();
-
-		for (Nodo nodo : estados.get(estado)) {
-			if (this.estados.get(estado).contains(nodo))
-				posiciones.addAll(automata.transicion(nodo, simbolo));
-		}
-
-		for (char est : estados()) {
-			if (estados.get(est).equals(posiciones))
-				return est;
-		}
-
-		char est = (char) (this.estados.size() + 'A');
-		this.estados.put(est, posiciones);
-
+	private int estado(long[] posiciones) {
+		int tamaño = this.estados.tamaño();
+		int est = this.estados.añade(posiciones);
+		if (est == tamaño)
+			this.transiciones.nuevoEstado();
 		return est;
 	}
 
+	/**
+	 * Devuelve el autómata de nodos del problema, construyéndolo la primera vez
+	 * que se necesita. Solo se utiliza para dibujar el autómata.
+	 * 
+	 * @return Autómata del problema.
+	 */
+	private synchronized Automata grafo() {
+		if (this.automata == null)
+			this.automata = new Automata(this.expresion, 0);
+		return this.automata;
+	}
+
 	/**
 	 * Devuelve el problema original, la expresión regular. Puede contener
 	 * caracteres especiales.
@@ -186,17 +185,26 @@ public class ConstruccionSubconjuntos {
 	 * @return Símbolos que utiliza la expresión regular.
 	 */
 	public Set<Character> simbolos() {
-		return automata.simbolos();
+		return this.afnd.simbolos();
+	}
+
+	/**
+	 * Devuelve una lista con las etiquetas de los estados existentes en la
+	 * tabla de transición, en el orden en que se crearon.
+	 * 
+	 * @return Lista de estados en la tabla de transición.
+	 */
+	public List<String> estados() {
+		return this.transiciones.estados();
 	}
 
 	/**
-	 * Devuelve un conjunto de caracteres representando los estados existentes
-	 * en la tabla de transición.
+	 * Devuelve el número de estados existentes en la tabla de transición.
 	 * 
-	 * @return Conjunto de estados en la tabla de transición.
+	 * @return Número de estados en la tabla de transición.
 	 */
-	public Set<Character> estados() {
-		return new TreeSet<>(estados.keySet());
+	public int nEstados() {
+		return this.estados.tamaño();
 	}
 
 	/**
@@ -207,11 +215,13 @@ public class ConstruccionSubconjuntos {
 	 *            Estado del que queremos calcular posiciones.
 	 * @return Conjunto de posiciones asociadas al estado.
 	 */
-	public Set<Integer> posiciones(char estado) {
+	public Set<Integer> posiciones(String estado) {
 		Set<Integer> posiciones = new TreeSet<>();
 
-		for (Nodo nodo : this.estados.get(estado))
-			posiciones.add(nodo.posicion());
+		int est = MapaEstados.indice(estado);
+		for (int nodo = this.estados.siguiente(est, 0); nodo >= 0; nodo = this.estados
+				.siguiente(est, nodo + 1))
+			posiciones.add(nodo);
 
 		return posiciones;
 	}
@@ -224,8 +234,7 @@ public class ConstruccionSubconjuntos {
 	 */
 	public Set<Integer> posiciones() {
 		Set<Integer> posiciones = new TreeSet<Integer>();
-		for (int i = this.automata.nodoInicial().posicion(); i <= this.automata
-				.nodoFinal().posicion(); i++) {
+		for (int i = this.afnd.nodoInicial(); i <= this.afnd.nodoFinal(); i++) {
 			posiciones.add(i);
 		}
 		return posiciones;
@@ -241,10 +250,25 @@ public class ConstruccionSubconjuntos {
 	 *            Símbolo de transición.
 	 * @return Estado de destino.
 	 */
-	public char mueve(char estado, char simbolo) {
+	public String mueve(String estado, char simbolo) {
 		return this.transiciones.get(estado, simbolo);
 	}
 
+	/**
+	 * Calcula el estado de destino para un estado de origen, dado por su
+	 * identificador numérico, y un símbolo de transición.
+	 * 
+	 * @param estado
+	 *            Identificador del estado de origen.
+	 * @param simbolo
+	 *            Símbolo de transición.
+	 * @return Identificador del estado de destino.
+	 */
+	public int mueve(int estado, char simbolo) {
+		return this.transiciones.get(estado,
+				this.transiciones.columna(simbolo));
+	}
+
 	/**
 	 * Comprueba si un estado es final, es decir, si su conjunto de posiciones
 	 * contiene un nodo final. Devuelve <code>true</code> si el estado es final,
@@ -255,13 +279,21 @@ public class ConstruccionSubconjuntos {
 	 * @return <code>true</code> si el estado es final, <code>false</code> si
 	 *         no.
 	 */
-	public boolean esFinal(char estado) {
-		boolean esFinal = false;
-
-		for (Nodo nodo : this.estados.get(estado))
-			esFinal = esFinal || nodo.esFinal();
+	public boolean esFinal(String estado) {
+		return esFinal(MapaEstados.indice(estado));
+	}
 
-		return esFinal;
+	/**
+	 * Comprueba si un estado, dado por su identificador numérico, es final.
+	 * 
+	 * @param estado
+	 *            Identificador del estado a comprobar.
+	 * @return <code>true</code> si el estado es final, <code>false</code> si
+	 *         no.
+	 */
+	public boolean esFinal(int estado) {
+		int nodoFinal = this.afnd.nodoFinal();
+		return this.estados.siguiente(estado, nodoFinal) == nodoFinal;
 	}
 
 	/**
@@ -270,7 +302,18 @@ public class ConstruccionSubconjuntos {
 	 * @return Imagen del autómata.
 	 */
 	public BufferedImage automata() {
-		return automata.imagen();
+		return grafo().imagen();
+	}
+
+	/**
+	 * Devuelve el nombre con el que se exporta la imagen del autómata. Es el
+	 * mismo para todos sus formatos y no depende de la imagen, que puede
+	 * volver a dibujarse.
+	 * 
+	 * @return Nombre de la imagen del autómata.
+	 */
+	public String nombreAutomata() {
+		return ImagenExpresion.nombre("automata", this.expresion);
 	}
 
 	/**
@@ -280,7 +323,7 @@ public class ConstruccionSubconjuntos {
 	 * @return Programa formato dot para representar el autómata.
 	 */
 	public String automataDot() {
-		return automata.imagenDot();
+		return grafo().imagenDot();
 	}
 	
 	
@@ -291,7 +334,7 @@ public class ConstruccionSubconjuntos {
 	 * @return Programa formato dot para representar el autómata.
 	 */
 	public String automataTikZ() {			//TODO
-		return automata.imagenTikZ();
+		return grafo().imagenTikZ();
 	}
 	
 	
@@ -302,7 +345,7 @@ public class ConstruccionSubconjuntos {
 	 * @return Programa formato svg para representar el autómata.
 	 */
 	public String automataSvg() {
-		return automata.imagenSvg();
+		return grafo().imagenSvg();
 	}
 	
 	/**
@@ -312,7 +355,7 @@ public class ConstruccionSubconjuntos {
 	 * @return Programa formato svg para representar el autómata.
 	 */
 	public String automataSvgSolucion() {
-		String imagensvg = automata.imagenSvg();
+		String imagensvg = grafo().imagenSvg();
 		imagensvg = imagensvg.replace("stroke=\"black\"", "stroke=\"navy\"");
 		imagensvg = imagensvg.replace("fill=\"black\"", "fill=\"navy\"");
 		return imagensvg;
@@ -326,7 +369,7 @@ public class ConstruccionSubconjuntos {
 	 * @return Programa formato svg para representar el autómata.
 	 */
 	public String automataTikZSolucion() {			//TODO
-		String imagentikz = automata.imagenTikZ();
+		String imagentikz = grafo().imagenTikZ();
 		imagentikz = imagentikz.replace("stroke=\"black\"", "stroke=\"navy\"");
 		imagentikz = imagentikz.replace("fill=\"black\"", "fill=\"navy\"");
 		return imagentikz;
@@ -342,17 +385,26 @@ public class ConstruccionSubconjuntos {
 	 *         regular, una correspondiente al del problema y tres alternativas.
 	 */
 	public List<BufferedImage> alternativas() {
-		if (this.alternativas == null) {
-			alternativas = new ArrayList<>();
-
-			Automata automata;
-			for (ExpresionRegular expresion : expresionesAlternativas()) {
-				automata = new Automata(expresion, 0);
-				alternativas.add(automata.imagen());
-			}
-		}
+		List<BufferedImage> alternativas = new ArrayList<>();
+		for (Automata automata : automatasAlternativos())
+			alternativas.add(automata.imagen());
+		return alternativas;
+	}
 
-		return new ArrayList<>(alternativas);
+	/**
+	 * Devuelve los nombres con los que se exportan las imágenes de las
+	 * alternativas, en el mismo orden que {@link #alternativas()}. Son los
+	 * mismos para todos sus formatos y no dependen de las imágenes, que
+	 * pueden volver a dibujarse si salen de {@link CacheAlternativas}.
+	 * 
+	 * @return Nombres de las imágenes del autómata del problema y de sus
+	 *         alternativas.
+	 */
+	public List<String> nombresAlternativas() {
+		List<String> nombres = new ArrayList<>();
+		for (ExpresionRegular expresion : expresionesAlternativas())
+			nombres.add(ImagenExpresion.nombre("automata", expresion));
+		return nombres;
 	}
 
 	/**
@@ -366,16 +418,29 @@ public class ConstruccionSubconjuntos {
 	 *         al del problema y tres alternativas.
 	 */
 	public List<String> alternativasDot() {
-		if (this.alternativasDot == null) {
-			alternativasDot = new ArrayList<>();
-			Automata automata;
-			for (ExpresionRegular expresion : expresionesAlternativas()) {
-				automata = new Automata(expresion, 0);
-				alternativasDot.add(automata.imagenDot());
-			}
-		}
+		List<String> alternativasDot = new ArrayList<>();
+		for (Automata automata : automatasAlternativos())
+			alternativasDot.add(automata.imagenDot());
+		return alternativasDot;
+	}
 
-		return new ArrayList<>(alternativasDot);
+	/**
+	 * Devuelve los autómatas de las alternativas del problema. Cada autómata
+	 * guarda su grafo ya distribuido y las representaciones que se le hayan
+	 * pedido, de modo que todos los formatos se obtienen de la misma
+	 * construcción mientras el problema permanezca en la caché. Como
+	 * {@link CacheAlternativas} no comparte nada entre formatos, los autómatas
+	 * se guardan en ella como un formato propio.
+	 * 
+	 * @return Autómatas de la expresión del problema y de sus alternativas.
+	 */
+	private List<Automata> automatasAlternativos() {
+		return CacheAlternativas.obtiene(this, "automata", () -> {
+			List<Automata> automatas = new ArrayList<>();
+			for (ExpresionRegular expresion : expresionesAlternativas())
+				automatas.add(new Automata(expresion, 0));
+			return automatas;
+		});
 	}
 
 	/**
@@ -384,14 +449,20 @@ public class ConstruccionSubconjuntos {
 	 * 
 	 * @return LIST completo de alternativas. // antes era un SET
 	 */
-	public List<ExpresionRegular> expresionesAlternativas() {  // TODO: refactorizar esto y lo de AhoSethiUllman
+	public synchronized List<ExpresionRegular> expresionesAlternativas() {  // TODO: refactorizar esto y lo de AhoSethiUllman
+		if (this.expresionesAlternativas != null)
+			return new ArrayList<>(this.expresionesAlternativas);
+
 		log.info("Generando imágenes alternativas");
 
 		int nSimbolos = simbolos().size();
 		boolean usaVacio = simbolos().contains('\u0000');
 		if (usaVacio)
 			nSimbolos--;
-		Generador generador = new Generador(nSimbolos, usaVacio, true);
+		// La semilla se obtiene de la expresión, de modo que un mismo problema
+		// tiene siempre las mismas alternativas.
+		Generador generador = new Generador(nSimbolos, usaVacio, true,
+				new SplittableRandom(this.expresion.hashCode()));
 
 		// CGO commented this
 		//Set<ExpresionRegular> expresiones = new HashSet<>();
@@ -409,6 +480,7 @@ public class ConstruccionSubconjuntos {
 			}
 		}
 
-		return expresiones;
+		this.expresionesAlternativas = expresiones;
+		return new ArrayList<>(expresiones);
 	}
 }
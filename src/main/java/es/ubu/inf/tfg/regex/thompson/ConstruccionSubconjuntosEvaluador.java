@@ -0,0 +1,82 @@
+package es.ubu.inf.tfg.regex.thompson;
+
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+import es.ubu.inf.tfg.regex.datos.TablaEstados;
+import es.ubu.inf.tfg.regex.thompson.datos.AutomataCompacto;
+
+/**
+ * ConstruccionSubconjuntosEvaluador calcula únicamente el número de estados y
+ * de símbolos del AFD que produciría la construcción de subconjuntos, sin
+ * construir el problema completo. Está pensado para evaluar candidatos durante
+ * la generación de problemas, donde solo el ganador necesita resolverse.
+ * <p>
+ * Trabaja sobre el mismo {@link AutomataCompacto} que
+ * {@link ConstruccionSubconjuntos}, con sus clausuras vacías ya calculadas,
+ * pero sin guardar la tabla de transición.
+ */
+public class ConstruccionSubconjuntosEvaluador {
+
+	private final AutomataCompacto afnd;
+
+	/**
+	 * Prepara la evaluación de una expresión regular, construyendo su AFND y
+	 * las clausuras vacías de sus nodos. Recibe la expresión en la misma forma
+	 * que {@link ConstruccionSubconjuntos#ConstruccionSubconjuntos(ExpresionRegular)}
+	 * , de la que solo se utiliza el hijo izquierdo.
+	 *
+	 * @param expresion
+	 *            Expresión regular a evaluar.
+	 */
+	public ConstruccionSubconjuntosEvaluador(ExpresionRegular expresion) {
+		this.afnd = new AutomataCompacto(expresion.hijoIzquierdo());
+	}
+
+	/**
+	 * Devuelve el número de símbolos distintos que utiliza la expresión.
+	 *
+	 * @return Número de símbolos de la expresión.
+	 */
+	public int nSimbolos() {
+		return this.afnd.nSimbolos();
+	}
+
+	/**
+	 * Cuenta los estados del AFD, incluido el estado vacío si se alcanza. La
+	 * construcción se detiene en cuanto se supera el límite dado.
+	 *
+	 * @param limite
+	 *            Número de estados a partir del cual deja de contarse.
+	 * @return Número de estados del AFD, o <code>limite + 1</code> si lo
+	 *         supera.
+	 */
+	public int nEstados(int limite) {
+		TablaEstados estados = new TablaEstados(this.afnd.palabras());
+		long[] origen = new long[this.afnd.palabras()];
+		long[] destino = new long[this.afnd.palabras()];
+
+		this.afnd.uneClausura(this.afnd.nodoInicial(), destino);
+		estados.añade(destino);
+		for (int estado = 0; estado < estados.tamaño(); estado++) {
+			estados.copia(estado, origen);
+			for (int columna = 0; columna < this.afnd.nSimbolos(); columna++) {
+				// Los estados ya están cerrados, basta con consumir el símbolo
+				this.afnd.mueve(origen, columna, destino);
+
+				estados.añade(destino);
+				if (estados.tamaño() > limite)
+					return limite + 1;
+			}
+		}
+
+		return estados.tamaño();
+	}
+
+	/**
+	 * Cuenta los estados del AFD sin límite.
+	 *
+	 * @return Número de estados del AFD.
+	 */
+	public int nEstados() {
+		return nEstados(Integer.MAX_VALUE - 1);
+	}
+}
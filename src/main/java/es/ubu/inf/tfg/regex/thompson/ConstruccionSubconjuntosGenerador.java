@@ -1,18 +1,26 @@
 package es.ubu.inf.tfg.regex.thompson;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import es.ubu.inf.tfg.regex.datos.EstadisticasGeneracion;
 import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
 import es.ubu.inf.tfg.regex.datos.Generador;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas.Tipo;
 
 /**
  * ConstruccionSubconjuntosGenerador implementa una clase encargada de generar
@@ -21,7 +29,9 @@ import es.ubu.inf.tfg.regex.datos.Generador;
  * <p>
  * El generador no garantiza que los resultados se adapten perfectamente a los
  * parámetros de entrada, pero intenta que los resultados difieran como mucho en
- * uno de uno solo de los parámetros pedidos.
+ * uno de uno solo de los parámetros pedidos. Si hay un {@link IndiceProblemas}
+ * instalado con algún problema exacto disponible, se sirve este sin realizar la
+ * búsqueda.
  * 
  * @author Roberto Izquierdo Amo
  * 
@@ -31,18 +41,48 @@ public class ConstruccionSubconjuntosGenerador {
 	private static final Logger log = LoggerFactory
 			.getLogger(ConstruccionSubconjuntosGenerador.class);
 
-	private static final Random random = new Random(new Date().getTime());
-
 	private static final int MAX_ITERACIONES = 500; // Integer.MAX_VALUE;
 	private static final int MAX_PROFUNDIDAD = 5;
 	private static final int MIN_PROFUNDIDAD = 2;
+	// Los candidatos con más de LIMITE_ESTADOS veces los estados pedidos
+	// dejan de contarse.
+	private static final int LIMITE_ESTADOS = 2;
 
 	private static final int ELITISMO = 2;
 	private static final int MUTACION = 2;
 	private static final int NUEVOS = 4;
 
-	private Generador generador;
+	// Generaciones entre migraciones en la generación por islas, y entre
+	// comprobaciones del final de la búsqueda
+	private static final int EPOCA = 20;
+
+	// Evaluaciones guardadas por isla; al superarse se descartan las usadas
+	// hace más tiempo
+	static final int MAX_MEMORIA = 4096;
+
 	private AtomicBoolean cancelar = new AtomicBoolean();
+	private final SplittableRandom random;
+	private volatile EstadisticasGeneracion estadisticas;
+
+	/**
+	 * Construye un generador con su propia fuente de valores aleatorios.
+	 */
+	public ConstruccionSubconjuntosGenerador() {
+		this(new SplittableRandom());
+	}
+
+	/**
+	 * Construye un generador que obtiene sus valores aleatorios de la fuente
+	 * especificada. Cada problema generado utiliza una fuente independiente
+	 * derivada de esta, de modo que una misma semilla produce siempre la misma
+	 * secuencia de problemas.
+	 * 
+	 * @param random
+	 *            Fuente de valores aleatorios, de uso exclusivo del generador.
+	 */
+	public ConstruccionSubconjuntosGenerador(SplittableRandom random) {
+		this.random = random;
+	}
 
 	/**
 	 * Genera un nuevo problema de tipo ConstruccionSubconjuntos. Intentará
@@ -62,104 +102,381 @@ public class ConstruccionSubconjuntosGenerador {
 	 */
 	public ConstruccionSubconjuntos nuevo(int nSimbolos, int nEstados,
 			boolean usaVacio) {
+		return genera(nSimbolos, nEstados, usaVacio, 1, null, null);
+	}
+
+	/**
+	 * Genera un nuevo problema de tipo ConstruccionSubconjuntos dentro de un
+	 * plazo dado. En lugar de detenerse tras un número de iteraciones sin
+	 * mejora, la búsqueda continúa hasta encontrar una solución exacta, agotar
+	 * el plazo o ser cancelada, y devuelve el mejor problema encontrado hasta
+	 * ese momento.
+	 * <p>
+	 * El plazo acota solo la búsqueda: la resolución completa del problema
+	 * elegido se realiza después y no se cuenta en él, ni en el tiempo de
+	 * {@link #estadisticas()}.
+	 * 
+	 * @param nSimbolos
+	 *            Número de símbolos que se quiere que el problema utilice.
+	 * @param nEstados
+	 *            Número de estados que se quiere que contenga la tabla de
+	 *            transición del problema.
+	 * @param usaVacio
+	 *            Si queremos que el problema genere nodos vacíos. Su aparición
+	 *            no se garantiza.
+	 * @param plazo
+	 *            Tiempo máximo de búsqueda, o <code>null</code> para limitar en
+	 *            su lugar el número de iteraciones sin mejora.
+	 * @param cancelacion
+	 *            Indicador externo de cancelación, o <code>null</code> si solo
+	 *            se cancela mediante {@link #cancelar()}.
+	 * @return Un nuevo problema de tipo ConstruccionSubconjuntos.
+	 */
+	public ConstruccionSubconjuntos nuevo(int nSimbolos, int nEstados,
+			boolean usaVacio, Duration plazo, AtomicBoolean cancelacion) {
+		return genera(nSimbolos, nEstados, usaVacio, 1, plazo, cancelacion);
+	}
+
+	/**
+	 * Genera un nuevo problema de tipo ConstruccionSubconjuntos utilizando
+	 * varias poblaciones independientes, o islas, que evolucionan en paralelo
+	 * sobre el pool común de fork-join.
+	 * <p>
+	 * Cada {@value #EPOCA} generaciones las islas se sincronizan y cada una
+	 * recibe el mejor individuo de la anterior, en anillo. En cuanto una isla
+	 * encuentra una solución exacta se detienen todas. Como el momento en que
+	 * se detiene cada isla depende de la planificación de los hilos, el
+	 * resultado no es reproducible aunque se fije la semilla.
+	 * 
+	 * @param nSimbolos
+	 *            Número de símbolos que se quiere que el problema utilice.
+	 * @param nEstados
+	 *            Número de estados que se quiere que contenga la tabla de
+	 *            transición del problema.
+	 * @param usaVacio
+	 *            Si queremos que el problema genere nodos vacíos. Su aparición
+	 *            no se garantiza.
+	 * @param islas
+	 *            Número de poblaciones independientes.
+	 * @return Un nuevo problema de tipo ConstruccionSubconjuntos.
+	 */
+	public ConstruccionSubconjuntos nuevo(int nSimbolos, int nEstados,
+			boolean usaVacio, int islas) {
+		return nuevo(nSimbolos, nEstados, usaVacio, islas, null, null);
+	}
+
+	/**
+	 * Genera un nuevo problema de tipo ConstruccionSubconjuntos utilizando
+	 * varias islas en paralelo, dentro de un plazo dado. Como con una sola
+	 * isla, el plazo no incluye la resolución del problema elegido.
+	 * 
+	 * @param nSimbolos
+	 *            Número de símbolos que se quiere que el problema utilice.
+	 * @param nEstados
+	 *            Número de estados que se quiere que contenga la tabla de
+	 *            transición del problema.
+	 * @param usaVacio
+	 *            Si queremos que el problema genere nodos vacíos. Su aparición
+	 *            no se garantiza.
+	 * @param islas
+	 *            Número de poblaciones independientes.
+	 * @param plazo
+	 *            Tiempo máximo de búsqueda, o <code>null</code> para limitar en
+	 *            su lugar el número de iteraciones sin mejora.
+	 * @param cancelacion
+	 *            Indicador externo de cancelación, o <code>null</code> si solo
+	 *            se cancela mediante {@link #cancelar()}.
+	 * @return Un nuevo problema de tipo ConstruccionSubconjuntos.
+	 * @see #nuevo(int, int, boolean, int)
+	 */
+	public ConstruccionSubconjuntos nuevo(int nSimbolos, int nEstados,
+			boolean usaVacio, int islas, Duration plazo,
+			AtomicBoolean cancelacion) {
+		if (islas < 1)
+			throw new IllegalArgumentException(
+					"El número de islas debe ser positivo.");
+
+		return genera(nSimbolos, nEstados, usaVacio, islas, plazo, cancelacion);
+	}
+
+	/**
+	 * Devuelve las estadísticas de la última generación completada: número de
+	 * generaciones de todas las islas, tiempo empleado y evaluación del
+	 * problema devuelto.
+	 * 
+	 * @return Estadísticas de la última generación, o <code>null</code> si aún
+	 *         no se ha generado ningún problema.
+	 */
+	public EstadisticasGeneracion estadisticas() {
+		return this.estadisticas;
+	}
+
+	private ConstruccionSubconjuntos genera(int nSimbolos, int nEstados,
+			boolean usaVacio, int islas, Duration plazo,
+			AtomicBoolean cancelacion) {
 		log.info(
-				"Generando problema de construcción de subconjuntos con {} símbolos y {} estados, vacíos = {}.",
-				nSimbolos, nEstados, usaVacio);
-
-		List<ExpresionRegular> poblacion = new ArrayList<>();
-		List<ExpresionRegular> elite, mutacion, nuevos = new ArrayList<>();
-		ConstruccionSubconjuntos candidato = null;
-		ExpresionRegular candidatoExpresion = null;
-		int candidatoEvalua = 0;
-		generador = new Generador(nSimbolos, usaVacio, false);
-
-		int iteraciones = 0;
-		int profundidad;
-
-		Comparator<ExpresionRegular> evalua = Comparator.comparing(e -> evalua(
-				new ConstruccionSubconjuntos(e), nEstados, nSimbolos));
-
-		// inicializa población
-		for (int i = 0; i < (ELITISMO + MUTACION + NUEVOS); i++) {
-			profundidad = random.nextInt(MAX_PROFUNDIDAD - MIN_PROFUNDIDAD)
-					+ MIN_PROFUNDIDAD;
-			poblacion.add(generador.arbol(profundidad));
+				"Generando problema de construcción de subconjuntos con {} símbolos y {} estados, vacíos = {}, {} islas, plazo = {}.",
+				nSimbolos, nEstados, usaVacio, islas, plazo);
+
+		cancelar.set(false);
+		long inicio = System.nanoTime();
+
+		// Un problema exacto del índice evita la búsqueda
+		IndiceProblemas indice = IndiceProblemas.actual();
+		if (indice != null) {
+			String indexada = indice.extrae(Tipo.CONSTRUCCION_SUBCONJUNTOS,
+					nSimbolos, nEstados, usaVacio, random);
+			if (indexada != null) {
+				this.estadisticas = new EstadisticasGeneracion(0,
+						System.nanoTime() - inicio, 0);
+				log.info("Problema obtenido del índice: {}.", indexada);
+				return new ConstruccionSubconjuntos(indexada);
+			}
 		}
 
-		mutacion = new ArrayList<>();
+		long limite = plazo != null ? inicio + plazo.toNanos() : 0;
+		AtomicBoolean fin = new AtomicBoolean();
+		BooleanSupplier detener = () -> fin.get() || cancelar.get()
+				|| (cancelacion != null && cancelacion.get())
+				|| (plazo != null && System.nanoTime() - limite >= 0);
+
+		List<Isla> poblaciones = new ArrayList<>();
+		for (int i = 0; i < islas; i++)
+			poblaciones.add(new Isla(nSimbolos, nEstados, usaVacio,
+					plazo != null ? Integer.MAX_VALUE : MAX_ITERACIONES,
+					random.split()));
+
 		do {
-			poblacion.sort(evalua);
+			if (islas == 1)
+				poblaciones.get(0).evoluciona(EPOCA, fin, detener);
+			else
+				ForkJoinTask.invokeAll(poblaciones.stream()
+						.map(isla -> ForkJoinTask.adapt(() -> isla.evoluciona(
+								EPOCA, fin, detener)))
+						.collect(Collectors.toList()));
+
+			// Migración en anillo de los mejores individuos
+			if (islas > 1 && !fin.get()) {
+				List<ExpresionRegular> migrantes = poblaciones.stream()
+						.map(isla -> isla.candidato)
+						.collect(Collectors.toList());
+				for (int i = 0; i < islas; i++)
+					poblaciones.get(i).recibe(
+							migrantes.get((i + islas - 1) % islas));
+			}
+		} while (!detener.getAsBoolean()
+				&& !poblaciones.stream().allMatch(Isla::terminada));
+
+		Isla mejor = poblaciones.stream()
+				.min(Comparator.comparingInt(isla -> isla.candidatoEvalua))
+				.get();
+
+		this.estadisticas = new EstadisticasGeneracion(poblaciones.stream()
+				.mapToInt(isla -> isla.generaciones).sum(), System.nanoTime()
+				- inicio, mejor.candidatoEvalua);
+		log.info("Solución encontrada: {}.", this.estadisticas);
+		log.info("Evaluaciones: {} aciertos y {} fallos en caché.",
+				poblaciones.stream().mapToInt(isla -> isla.memoria.aciertos)
+						.sum(),
+				poblaciones.stream().mapToInt(isla -> isla.memoria.fallos)
+						.sum());
+
+		// Solo se resuelve el problema elegido
+		return new ConstruccionSubconjuntos(mejor.candidato);
+	}
+
+	/**
+	 * Evalúa un problema en función a como se adapta a los parámetros pedidos.
+	 * Tiene en cuenta tanto que el número de estados sea el pedido, como que
+	 * use todos los símbolos.
+	 * <p>
+	 * Cuanto más cerca este del número, más cerca esta el problema de la
+	 * solución. Es visible dentro del paquete para que las pruebas puedan
+	 * contar las evaluaciones.
+	 * 
+	 * @param expresion
+	 *            Expresión del problema a evaluar.
+	 * @param nEstados
+	 *            Número de estados en el problema pedido.
+	 * @param nSimbolos
+	 *            Número de símbolos en el problema pedido.
+	 * @return Función de evaluación del problema.
+	 */
+	int evalua(ExpresionRegular expresion, int nEstados, int nSimbolos) {
+		ConstruccionSubconjuntosEvaluador problema = new ConstruccionSubconjuntosEvaluador(
+				expresion);
+		int diferenciaEstados = Math.abs(problema
+				.nEstados(LIMITE_ESTADOS * nEstados) - nEstados);
+		int diferenciaSimbolos = Math.abs(problema.nSimbolos() - nSimbolos);
+
+		return diferenciaEstados + diferenciaSimbolos;
+	}
+
+	/**
+	 * Isla mantiene una población de expresiones y la hace evolucionar
+	 * generación a generación. Cada isla tiene su propio generador, su propia
+	 * fuente de valores aleatorios y su propia memoria de evaluaciones, por lo
+	 * que islas distintas pueden evolucionar en hilos distintos.
+	 */
+	private class Isla {
+		private final Generador generador;
+		private final SplittableRandom random;
+		private final Memoria memoria;
+		private final Comparator<ExpresionRegular> evalua;
+		private final List<ExpresionRegular> poblacion = new ArrayList<>();
+
+		private final int maxIteraciones;
+
+		private ExpresionRegular candidato;
+		private int candidatoEvalua;
+		private int iteraciones;
+		private int generaciones;
 
-			elite = poblacion.stream().limit(ELITISMO)
+		private Isla(int nSimbolos, int nEstados, boolean usaVacio,
+				int maxIteraciones, SplittableRandom random) {
+			this.maxIteraciones = maxIteraciones;
+			this.random = random;
+			this.generador = new Generador(nSimbolos, usaVacio, false,
+					random.split());
+
+			// Cada individuo se evalúa una sola vez durante toda la búsqueda
+			this.memoria = new Memoria(e -> evalua(e, nEstados, nSimbolos));
+			this.evalua = Comparator.comparingInt(this.memoria::evalua);
+
+			// inicializa población
+			for (int i = 0; i < (ELITISMO + MUTACION + NUEVOS); i++) {
+				int profundidad = random.nextInt(MAX_PROFUNDIDAD
+						- MIN_PROFUNDIDAD)
+						+ MIN_PROFUNDIDAD;
+				this.poblacion.add(this.generador.arbol(profundidad));
+			}
+		}
+
+		/**
+		 * Indica si la isla ha encontrado una solución exacta o ha agotado las
+		 * iteraciones sin mejorar su candidato.
+		 */
+		private boolean terminada() {
+			return this.candidato != null
+					&& (this.candidatoEvalua == 0 || this.iteraciones >= this.maxIteraciones);
+		}
+
+		/**
+		 * Hace evolucionar la población un número máximo de generaciones,
+		 * deteniéndose antes si la isla termina o si se cumple la condición de
+		 * parada: cancelación, fin del plazo, o que otra isla haya encontrado
+		 * una solución exacta. Siempre se completa al menos una generación, de
+		 * modo que la isla tenga candidato.
+		 */
+		private void evoluciona(int generaciones, AtomicBoolean fin,
+				BooleanSupplier detener) {
+			for (int i = 0; i < generaciones
+					&& (this.candidato == null || !terminada()
+							&& !detener.getAsBoolean()); i++)
+				generacion();
+
+			if (this.candidato != null && this.candidatoEvalua == 0)
+				fin.set(true);
+		}
+
+		private void generacion() {
+			List<ExpresionRegular> elite, mutacion, nuevos = new ArrayList<>();
+			int profundidad;
+
+			this.generaciones++;
+			this.poblacion.sort(this.evalua);
+
+			elite = this.poblacion.stream().limit(ELITISMO)
 					.collect(Collectors.toList());
-			mutacion = poblacion.stream()
+			mutacion = this.poblacion.stream()
 					// .skip(ELITISMO)
-					.limit(MUTACION).map(e -> generador.mutacion(e))
+					.limit(MUTACION).map(e -> this.generador.mutacion(e))
 					.collect(Collectors.toList());
 
-			nuevos.clear();
-
 			for (int i = 0; i < NUEVOS; i++) {
 				profundidad = elite.get(0).profundidad()
-						+ (random.nextInt(3) - 1);
+						+ (this.random.nextInt(3) - 1);
 				if (profundidad < MIN_PROFUNDIDAD)
 					profundidad = MIN_PROFUNDIDAD;
 				if (profundidad > MAX_PROFUNDIDAD)
 					profundidad = MAX_PROFUNDIDAD;
 
-				nuevos.add(generador.arbol(profundidad));
+				nuevos.add(this.generador.arbol(profundidad));
 			}
 
-			if (candidatoExpresion == null
-					|| !poblacion.get(0).equals(candidatoExpresion)) {
-				candidatoExpresion = poblacion.get(0);
-				candidato = new ConstruccionSubconjuntos(candidatoExpresion);
-				candidatoEvalua = evalua(candidato, nEstados, nSimbolos);
+			if (this.candidato == null
+					|| !this.poblacion.get(0).equals(this.candidato)) {
+				this.candidato = this.poblacion.get(0);
+				this.candidatoEvalua = this.memoria.evalua(this.candidato);
 
-				iteraciones = 0;
+				this.iteraciones = 0;
 			} else {
-				iteraciones++;
+				this.iteraciones++;
 			}
 
-			poblacion.clear();
-			poblacion.addAll(elite);
-			poblacion.addAll(mutacion);
-			poblacion.addAll(nuevos);
-		} while (candidatoEvalua != 0 && iteraciones < MAX_ITERACIONES
-				&& !cancelar.get());
-
-		log.info("Solución encontrada en {} iteraciones (fitness {}).", iteraciones,
-				candidatoEvalua);
+			this.poblacion.clear();
+			this.poblacion.addAll(elite);
+			this.poblacion.addAll(mutacion);
+			this.poblacion.addAll(nuevos);
+		}
 
-		return candidato;
+		/**
+		 * Introduce un individuo procedente de otra isla, en lugar del último
+		 * de la población.
+		 */
+		private void recibe(ExpresionRegular migrante) {
+			this.poblacion.set(this.poblacion.size() - 1, migrante);
+		}
 	}
 
 	/**
-	 * Evalúa un problema en función a como se adapta a los parámetros pedidos.
-	 * Tiene en cuenta tanto que el número de estados sea el pedido, como que
-	 * use todos los símbolos.
+	 * Memoria guarda la evaluación de cada expresión durante toda la búsqueda
+	 * de un problema. Las expresiones se comparan por su forma canónica, sin
+	 * tener en cuenta las posiciones de sus símbolos, que no afectan a la
+	 * evaluación.
 	 * <p>
-	 * Cuanto más cerca este del número, más cerca esta el problema de la
-	 * solución.
-	 * 
-	 * @param problema
-	 *            Problema a evaluar.
-	 * @param nEstados
-	 *            Número de estados en el problema pedido.
-	 * @return Función de evaluación del problema.
+	 * Guarda como mucho {@value #MAX_MEMORIA} evaluaciones, descartando las
+	 * usadas hace más tiempo, para que una búsqueda con plazo no acumule
+	 * expresiones sin límite. Los individuos de la población se consultan en
+	 * cada generación, por lo que nunca son los descartados.
 	 */
-	private int evalua(ConstruccionSubconjuntos problema, int nEstados,
-			int nSimbolos) {
-		int diferenciaEstados = Math.abs(problema.estados().size() - nEstados);
-		int diferenciaSimbolos = Math.abs(problema.simbolos().size()
-				- nSimbolos);
+	private static class Memoria {
+		private final Map<ExpresionRegular, Integer> evaluaciones = new LinkedHashMap<ExpresionRegular, Integer>(
+				16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
 
-		return diferenciaEstados + diferenciaSimbolos;
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<ExpresionRegular, Integer> eldest) {
+				return size() > MAX_MEMORIA;
+			}
+		};
+		private final ToIntFunction<ExpresionRegular> funcion;
+		private int aciertos;
+		private int fallos;
+
+		private Memoria(ToIntFunction<ExpresionRegular> funcion) {
+			this.funcion = funcion;
+		}
+
+		private int evalua(ExpresionRegular expresion) {
+			Integer evaluacion = this.evaluaciones.get(expresion);
+			if (evaluacion != null) {
+				this.aciertos++;
+				return evaluacion;
+			}
+
+			this.fallos++;
+			int nueva = this.funcion.applyAsInt(expresion);
+			this.evaluaciones.put(expresion, nueva);
+			return nueva;
+		}
 	}
 
 	/**
-	 * Cancela la generación del problema, devolviendo el resultado de la
-	 * iteración actual.
+	 * Cancela la generación del problema en curso, devolviendo el resultado de
+	 * la iteración actual. La cancelación no afecta a las generaciones
+	 * posteriores.
 	 */
 	public void cancelar() {
 		log.info("Cancelando generación de problema.");
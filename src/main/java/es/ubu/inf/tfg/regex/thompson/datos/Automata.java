@@ -20,7 +20,6 @@ import org.w3c.dom.Document;
 
 import com.mxgraph.layout.mxParallelEdgeLayout;
 import com.mxgraph.layout.hierarchical.mxHierarchicalLayout;
-import com.mxgraph.swing.mxGraphComponent;
 import com.mxgraph.util.mxCellRenderer;
 // import com.mxgraph.util.mxUtils; // commented as now it not used
 import com.mxgraph.util.mxXmlUtils;
@@ -42,6 +41,7 @@ public class Automata {
 	private Nodo nodoInicial;
 	private Nodo nodoFinal;
 	private Set<Character> simbolos;
+	private mxGraph grafo;
 	private BufferedImage imagen;
 	private String imagenDot;
 	private String imagenSvg;	// JBA
@@ -54,7 +54,6 @@ public class Automata {
 	private double finalStateCoordinatesX = (double) 0;
 	private double finalStateCoordinatesY = (double) 0;
 	private int biggestState = 0;
-	private static int newStateCounter = 0;
 	NodoTikZ nodoInicialTikZ;	// TODO getters
 	NodoTikZ nodoFinalTikZ;
 	public String tipo;
@@ -75,7 +74,24 @@ public class Automata {
 	 *            autómata.
 	 */
 	public Automata(ExpresionRegular expresion, int posicionInicial) {
-		
+		this(expresion, posicionInicial, new Contexto());
+	}
+
+	/**
+	 * Constructor recursivo. Todos los subautómatas de una misma construcción
+	 * comparten el contexto, de modo que construcciones independientes pueden
+	 * realizarse en paralelo.
+	 * 
+	 * @param expresion
+	 *            Árbol de expresión regular a partir del cual generar el
+	 *            autómata.
+	 * @param posicionInicial
+	 *            Posición del nodo inicial del autómata.
+	 * @param contexto
+	 *            Contexto de la construcción en curso.
+	 */
+	private Automata(ExpresionRegular expresion, int posicionInicial,
+			Contexto contexto) {
 
 		this.simbolos = new TreeSet<>();
 
@@ -93,10 +109,10 @@ public class Automata {
 			this.yNew = r;
 			this.texto = "&#917";
 			
-			this.nodoFinalTikZ = new NodoTikZ(-(newStateCounter+2), "FINAL");
-			this.nodoInicialTikZ = new NodoTikZ(-(newStateCounter+1), "SIMP");
+			this.nodoFinalTikZ = new NodoTikZ(-(contexto.nuevosEstados+2), "FINAL");
+			this.nodoInicialTikZ = new NodoTikZ(-(contexto.nuevosEstados+1), "SIMP");
 			this.nodoInicialTikZ.next = this.nodoFinalTikZ;
-			newStateCounter +=2;
+			contexto.nuevosEstados +=2;
 			
 			
 		} else if (expresion.esSimbolo()) {
@@ -114,16 +130,16 @@ public class Automata {
 			this.yNew = r;
 			this.texto = Character.toString(expresion.simbolo());
 			
-			this.nodoFinalTikZ = new NodoTikZ(-(newStateCounter+2), "FINAL");
-			this.nodoInicialTikZ = new NodoTikZ(-(newStateCounter+1), "SIMP");
+			this.nodoFinalTikZ = new NodoTikZ(-(contexto.nuevosEstados+2), "FINAL");
+			this.nodoInicialTikZ = new NodoTikZ(-(contexto.nuevosEstados+1), "SIMP");
 			this.nodoInicialTikZ.next = this.nodoFinalTikZ;
-			newStateCounter +=2;
+			contexto.nuevosEstados +=2;
 			
 		} else if (expresion.esCierre()) {
 			// Automata
 			this.nodoInicial = new Nodo(posicionInicial, false);
 			Automata hijo = new Automata(expresion.hijoIzquierdo(),
-					posicionInicial + 1);
+					posicionInicial + 1, contexto);
 			this.nodoFinal = new Nodo(hijo.nodoFinal().posicion() + 1, true);
 
 			this.nodoInicial.añadeTransicionVacia(hijo.nodoInicial());
@@ -156,13 +172,13 @@ public class Automata {
 			this.hijoI = hijo;
 			
 			
-			this.nodoFinalTikZ = new NodoTikZ(-(newStateCounter+2), "FINAL");
-			this.nodoInicialTikZ = new NodoTikZ(-(newStateCounter+1), "BSTAR");
+			this.nodoFinalTikZ = new NodoTikZ(-(contexto.nuevosEstados+2), "FINAL");
+			this.nodoInicialTikZ = new NodoTikZ(-(contexto.nuevosEstados+1), "BSTAR");
 			this.nodoInicialTikZ.next = this.nodoFinalTikZ;
 			this.nodoInicialTikZ.inside = hijo.nodoInicialTikZ;
 			
 
-			newStateCounter +=2;
+			contexto.nuevosEstados +=2;
 			
 			hijo.nodoFinalTikZ.tipo = "ESTAR";
 			hijo.nodoFinalTikZ.next = this.nodoFinalTikZ;
@@ -172,9 +188,9 @@ public class Automata {
 		} else if (expresion.esConcat()) {
 			// Automata
 			Automata hijoIzquierdo = new Automata(expresion.hijoIzquierdo(),
-					posicionInicial);
+					posicionInicial, contexto);
 			Automata hijoDerecho = new Automata(expresion.hijoDerecho(),
-					hijoIzquierdo.nodoFinal().posicion());
+					hijoIzquierdo.nodoFinal().posicion(), contexto);
 
 			hijoIzquierdo.nodoFinal().unir(hijoDerecho.nodoInicial());
 			this.nodoInicial = hijoIzquierdo.nodoInicial();
@@ -246,9 +262,9 @@ public class Automata {
 			this.nodoInicial = new Nodo(posicionInicial, false);
 
 			Automata hijoIzquierdo = new Automata(expresion.hijoIzquierdo(),
-					posicionInicial + 1);
+					posicionInicial + 1, contexto);
 			Automata hijoDerecho = new Automata(expresion.hijoDerecho(),
-					hijoIzquierdo.nodoFinal().posicion() + 1);
+					hijoIzquierdo.nodoFinal().posicion() + 1, contexto);
 
 			this.nodoFinal = new Nodo(hijoDerecho.nodoFinal().posicion() + 1,
 					true);
@@ -290,14 +306,14 @@ public class Automata {
 			this.hijoD = hijoDerecho;
 			
 			// New initial
-			newStateCounter += 1;
-			this.nodoInicialTikZ = new NodoTikZ(-newStateCounter, "SEL");
+			contexto.nuevosEstados += 1;
+			this.nodoInicialTikZ = new NodoTikZ(-contexto.nuevosEstados, "SEL");
 			this.nodoInicialTikZ.up = hijoIzquierdo.nodoInicialTikZ;
 			this.nodoInicialTikZ.down = hijoDerecho.nodoInicialTikZ;
 
 			// New final
-			newStateCounter += 1;
-			this.nodoFinalTikZ = new NodoTikZ(-newStateCounter, "FINAL");
+			contexto.nuevosEstados += 1;
+			this.nodoFinalTikZ = new NodoTikZ(-contexto.nuevosEstados, "FINAL");
 			
 			this.nodoInicialTikZ.pair = this.nodoFinalTikZ;
 			this.nodoFinalTikZ.invpair = this.nodoInicialTikZ;
@@ -412,8 +428,23 @@ public class Automata {
 	 * 
 	 * @return Imagen conteniendo el grafo que representa al autómata.
 	 */
-	public BufferedImage imagen() {
-		if (this.imagen == null) {
+	public synchronized BufferedImage imagen() {
+		if (this.imagen == null)
+			this.imagen = mxCellRenderer.createBufferedImage(grafo(), null, 1,
+					Color.WHITE, true, null);
+
+		return this.imagen;
+	}
+
+	/**
+	 * Construye y distribuye el grafo que representa al autómata. El grafo se
+	 * cachea una vez distribuido, de modo que la imagen y el SVG se obtienen de
+	 * la misma distribución.
+	 * 
+	 * @return Grafo distribuido del autómata.
+	 */
+	private mxGraph grafo() {
+		if (this.grafo == null) {
 			mxGraph graph = new mxGraph();
 			Object parent = graph.getDefaultParent();
 			Map<Integer, Object> gNodos = new HashMap<>();
@@ -473,19 +504,16 @@ public class Automata {
 			} finally {
 				graph.getModel().endUpdate();
 
-				mxGraphComponent graphComponent = new mxGraphComponent(graph);
 
 				new mxHierarchicalLayout(graph, SwingConstants.WEST)
 						.execute(parent);
 				new mxParallelEdgeLayout(graph).execute(parent);
 
-				this.imagen = mxCellRenderer.createBufferedImage(graph, null,
-						1, Color.WHITE, graphComponent.isAntiAlias(), null,
-						graphComponent.getCanvas());
+				this.grafo = graph;
 			}
 		}
 
-		return this.imagen;
+		return this.grafo;
 	}
 
 	/**
@@ -546,79 +574,14 @@ public class Automata {
 	 * 
 	 * @return Programa SVG conteniendo el autómata que genera la expresión.
 	 */
-	public String imagenSvg() {
+	public synchronized String imagenSvg() {
 		if (this.imagenSvg == null) {
-			mxGraph graph = new mxGraph();
-			Object parent = graph.getDefaultParent();
-			Map<Integer, Object> gNodos = new HashMap<>();
-			Object gNodo, gActual;
-			List<Nodo> pendientes = new ArrayList<>();
-			Map<Nodo, Character> siguientes;
-			Nodo actual;
-
-			String estiloVertex = "shape=ellipse;fillColor=white;strokeColor=black;fontColor=black;";
-			String estiloEdge = "strokeColor=black;fontColor=black;labelBackgroundColor=white;rounded=true;";
-
-			graph.getModel().beginUpdate();
-			try {
-				actual = nodoInicial;
-				do {
-					gActual = gNodos.get(actual.posicion());
-					if (gActual == null) { // Primer nodo
-						gActual = graph.insertVertex(parent, null,
-								actual.posicion(), 0, 0, 30, 30, estiloVertex);
-						gNodos.put(actual.posicion(), gActual);
-					}
-
-					// Calcula transiciones
-					siguientes = new HashMap<>();
-					for (Nodo nodo : actual.transicionVacia())
-						siguientes.put(nodo, null);
-					Nodo siguiente;
-					for (char simbolo : simbolos) {
-						siguiente = actual.transicion(simbolo);
-						if (siguiente != null)
-							siguientes.put(siguiente, simbolo);
-					}
-
-					pendientes.addAll(siguientes.keySet().stream()
-							.filter(n -> !gNodos.containsKey(n.posicion()))
-							.collect(Collectors.toList()));
-
-					for (Nodo nodo : siguientes.keySet()) {
-						if (!gNodos.containsKey(nodo.posicion())) { // Añade
-																	// nodo
-							gNodo = graph
-									.insertVertex(parent, null,
-											nodo.posicion(), 0, 0, 30, 30,
-											estiloVertex);
-							gNodos.put(nodo.posicion(), gNodo);
-						} else { // Recupera nodo
-							gNodo = gNodos.get(nodo.posicion());
-						}
-						// Añade transición
-						graph.insertEdge(parent, null, siguientes.get(nodo),
-								gActual, gNodo, estiloEdge);
-					}
-
-					actual = pendientes.isEmpty() ? null : pendientes.remove(0);
-				} while (actual != null);
-
-			} finally {
-				graph.getModel().endUpdate();
-
-				new mxHierarchicalLayout(graph, SwingConstants.WEST)
-						.execute(parent);
-				new mxParallelEdgeLayout(graph).execute(parent);
-
-				
-				Document document = mxCellRenderer.createSvgDocument(graph, null, 1, Color.WHITE, null);
-				imagenSvg = mxXmlUtils.getXml(document);
-				
-			}
+			Document document = mxCellRenderer.createSvgDocument(grafo(), null,
+					1, Color.WHITE, null);
+			this.imagenSvg = mxXmlUtils.getXml(document);
 		}
 
-		return imagenSvg;
+		return this.imagenSvg;
 	}
 	
 	
@@ -1005,4 +968,13 @@ public class Automata {
 		return stateId;
 	}
 
+
+	/**
+	 * Estado compartido durante la construcción de un autómata. Numera de
+	 * forma provisional los estados de la representación TikZ, que se
+	 * renumeran al dibujar el autómata.
+	 */
+	private static class Contexto {
+		private int nuevosEstados = 0;
+	}
 }
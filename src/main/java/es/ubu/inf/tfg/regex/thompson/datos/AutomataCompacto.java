@@ -0,0 +1,403 @@
+package es.ubu.inf.tfg.regex.thompson.datos;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+
+/**
+ * AutomataCompacto implementa el mismo autómata finito no determinista que
+ * {@link Automata}, construido con el método de McNaughton-Yamada-Thompson,
+ * pero sin crear un objeto por nodo. Los nodos se identifican por su posición,
+ * numerada igual que en Automata, y las transiciones de todos ellos se guardan
+ * en arrays compartidos: las de cada nodo ocupan el rango
+ * <code>[inicio, fin)</code> de los arrays de destinos.
+ * <p>
+ * Los símbolos se sustituyen por su índice en el alfabeto del autómata,
+ * ordenado igual que {@link Automata#simbolos()}, de modo que pueden usarse
+ * directamente como columnas de una tabla de transición.
+ * <p>
+ * Para la construcción de subconjuntos, los conjuntos de nodos se representan
+ * como bits sobre arrays de <code>long</code>. La clausura vacía de cada nodo
+ * se calcula una sola vez al construir el autómata, de modo que mover un
+ * conjunto de nodos con un símbolo se reduce a unir clausuras palabra a
+ * palabra.
+ */
+public class AutomataCompacto {
+
+	private final int nodos;
+	private final char[] alfabeto;
+
+	private final int[] inicioTransiciones;
+	private final int[] destinos;
+	private final int[] simbolos;
+
+	private final int[] inicioVacias;
+	private final int[] destinosVacias;
+
+	private final int palabras;
+	private final long[][] clausuras;
+	private final long[][] origenes;
+
+	/**
+	 * Constructor. Define un autómata finito no determinista a partir de un
+	 * árbol de expresión regular dado, con el nodo inicial en la posición 0.
+	 *
+	 * @param expresion
+	 *            Árbol de expresión regular a partir del cual generar el
+	 *            autómata.
+	 */
+	public AutomataCompacto(ExpresionRegular expresion) {
+		Aristas transiciones = new Aristas();
+		Aristas vacias = new Aristas();
+
+		this.nodos = construye(expresion, 0, transiciones, vacias) + 1;
+
+		char[] hojas = Arrays.copyOf(transiciones.simbolos,
+				transiciones.tamaño);
+		Arrays.sort(hojas);
+		int tamaño = 0;
+		for (int i = 0; i < hojas.length; i++)
+			if (i == 0 || hojas[i] != hojas[i - 1])
+				hojas[tamaño++] = hojas[i];
+		this.alfabeto = Arrays.copyOf(hojas, tamaño);
+
+		this.inicioTransiciones = new int[this.nodos + 1];
+		this.destinos = new int[transiciones.tamaño];
+		this.simbolos = new int[transiciones.tamaño];
+		int[] posiciones = transiciones.ordena(this.inicioTransiciones,
+				this.nodos);
+		for (int i = 0; i < transiciones.tamaño; i++) {
+			this.destinos[posiciones[i]] = transiciones.destinos[i];
+			this.simbolos[posiciones[i]] = Arrays.binarySearch(this.alfabeto,
+					transiciones.simbolos[i]);
+		}
+
+		this.inicioVacias = new int[this.nodos + 1];
+		this.destinosVacias = new int[vacias.tamaño];
+		posiciones = vacias.ordena(this.inicioVacias, this.nodos);
+		for (int i = 0; i < vacias.tamaño; i++)
+			this.destinosVacias[posiciones[i]] = vacias.destinos[i];
+
+		// Nodos con alguna transición por cada símbolo
+		this.palabras = (this.nodos + 63) >>> 6;
+		this.origenes = new long[this.alfabeto.length][this.palabras];
+		for (int nodo = 0; nodo < this.nodos; nodo++)
+			for (int i = inicioTransiciones(nodo); i < finTransiciones(nodo); i++)
+				this.origenes[this.simbolos[i]][nodo >>> 6] |= 1L << nodo;
+
+		int[] pila = new int[this.nodos];
+		this.clausuras = new long[this.nodos][];
+		for (int nodo = 0; nodo < this.nodos; nodo++)
+			this.clausuras[nodo] = clausura(nodo, pila);
+	}
+
+	/**
+	 * Devuelve el número de nodos del autómata.
+	 *
+	 * @return Número de nodos.
+	 */
+	public int nodos() {
+		return this.nodos;
+	}
+
+	/**
+	 * Nodo de entrada del autómata.
+	 *
+	 * @return Posición del nodo inicial.
+	 */
+	public int nodoInicial() {
+		return 0;
+	}
+
+	/**
+	 * Nodo final del autómata, el único nodo final que contiene.
+	 *
+	 * @return Posición del nodo final.
+	 */
+	public int nodoFinal() {
+		return this.nodos - 1;
+	}
+
+	/**
+	 * Devuelve el número de símbolos que el autómata utiliza en sus
+	 * transiciones.
+	 *
+	 * @return Tamaño del alfabeto.
+	 */
+	public int nSimbolos() {
+		return this.alfabeto.length;
+	}
+
+	/**
+	 * Devuelve el símbolo con el índice dado dentro del alfabeto.
+	 *
+	 * @param indice
+	 *            Índice del símbolo.
+	 * @return Símbolo correspondiente.
+	 */
+	public char simbolo(int indice) {
+		return this.alfabeto[indice];
+	}
+
+	/**
+	 * Devuelve el conjunto de símbolos que el autómata utiliza en sus
+	 * transiciones. No se incluye epsilon ni cualquier otro indicador de
+	 * transición vacía.
+	 *
+	 * @return Conjunto de símbolos del autómata.
+	 */
+	public Set<Character> simbolos() {
+		Set<Character> simbolos = new TreeSet<>();
+		for (char simbolo : this.alfabeto)
+			simbolos.add(simbolo);
+		return simbolos;
+	}
+
+	/**
+	 * Primera transición que consume entrada del nodo dado.
+	 *
+	 * @param nodo
+	 *            Posición del nodo.
+	 * @return Índice de la primera transición del nodo.
+	 */
+	public int inicioTransiciones(int nodo) {
+		return this.inicioTransiciones[nodo];
+	}
+
+	/**
+	 * Fin, no incluido, de las transiciones que consumen entrada del nodo dado.
+	 *
+	 * @param nodo
+	 *            Posición del nodo.
+	 * @return Índice siguiente a la última transición del nodo.
+	 */
+	public int finTransiciones(int nodo) {
+		return this.inicioTransiciones[nodo + 1];
+	}
+
+	/**
+	 * Nodo de destino de una transición que consume entrada.
+	 *
+	 * @param transicion
+	 *            Índice de la transición.
+	 * @return Posición del nodo de destino.
+	 */
+	public int destino(int transicion) {
+		return this.destinos[transicion];
+	}
+
+	/**
+	 * Símbolo que consume una transición, como índice dentro del alfabeto.
+	 *
+	 * @param transicion
+	 *            Índice de la transición.
+	 * @return Índice del símbolo consumido.
+	 */
+	public int columna(int transicion) {
+		return this.simbolos[transicion];
+	}
+
+	/**
+	 * Primera transición vacía del nodo dado.
+	 *
+	 * @param nodo
+	 *            Posición del nodo.
+	 * @return Índice de la primera transición vacía del nodo.
+	 */
+	public int inicioVacias(int nodo) {
+		return this.inicioVacias[nodo];
+	}
+
+	/**
+	 * Fin, no incluido, de las transiciones vacías del nodo dado.
+	 *
+	 * @param nodo
+	 *            Posición del nodo.
+	 * @return Índice siguiente a la última transición vacía del nodo.
+	 */
+	public int finVacias(int nodo) {
+		return this.inicioVacias[nodo + 1];
+	}
+
+	/**
+	 * Nodo de destino de una transición vacía.
+	 *
+	 * @param transicion
+	 *            Índice de la transición vacía.
+	 * @return Posición del nodo de destino.
+	 */
+	public int destinoVacia(int transicion) {
+		return this.destinosVacias[transicion];
+	}
+
+	/**
+	 * Devuelve el número de palabras <code>long</code> que ocupa un conjunto
+	 * de nodos del autómata.
+	 *
+	 * @return Número de palabras de un conjunto de nodos.
+	 */
+	public int palabras() {
+		return this.palabras;
+	}
+
+	/**
+	 * Añade a un conjunto los nodos alcanzables desde el nodo dado sin
+	 * consumir entrada, incluido él mismo.
+	 *
+	 * @param nodo
+	 *            Posición del nodo.
+	 * @param conjunto
+	 *            Conjunto de nodos, de {@link #palabras()} palabras.
+	 */
+	public void uneClausura(int nodo, long[] conjunto) {
+		long[] clausura = this.clausuras[nodo];
+		for (int i = 0; i < this.palabras; i++)
+			conjunto[i] |= clausura[i];
+	}
+
+	/**
+	 * Calcula los nodos alcanzables desde un conjunto consumiendo un símbolo,
+	 * seguido de cualquier número de transiciones vacías.
+	 *
+	 * @param origen
+	 *            Conjunto de nodos de partida.
+	 * @param columna
+	 *            Índice del símbolo a consumir dentro del alfabeto.
+	 * @param destino
+	 *            Conjunto en el que se escriben los nodos de llegada. Su
+	 *            contenido anterior se descarta.
+	 */
+	public void mueve(long[] origen, int columna, long[] destino) {
+		long[] conSimbolo = this.origenes[columna];
+		for (int i = 0; i < this.palabras; i++)
+			destino[i] = 0;
+
+		for (int palabra = 0; palabra < this.palabras; palabra++) {
+			long bits = origen[palabra] & conSimbolo[palabra];
+			while (bits != 0) {
+				int nodo = (palabra << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				for (int i = inicioTransiciones(nodo); i < finTransiciones(nodo); i++)
+					if (this.simbolos[i] == columna)
+						uneClausura(this.destinos[i], destino);
+			}
+		}
+	}
+
+	/**
+	 * Calcula los nodos alcanzables desde uno dado sin consumir ningún
+	 * símbolo, incluido él mismo.
+	 */
+	private long[] clausura(int nodo, int[] pila) {
+		long[] clausura = new long[this.palabras];
+		int cima = 0;
+
+		clausura[nodo >>> 6] |= 1L << nodo;
+		pila[cima++] = nodo;
+		while (cima > 0) {
+			int actual = pila[--cima];
+			for (int i = inicioVacias(actual); i < finVacias(actual); i++) {
+				int siguiente = this.destinosVacias[i];
+				if ((clausura[siguiente >>> 6] & (1L << siguiente)) == 0) {
+					clausura[siguiente >>> 6] |= 1L << siguiente;
+					pila[cima++] = siguiente;
+				}
+			}
+		}
+
+		return clausura;
+	}
+
+	/**
+	 * Construye el autómata de una expresión a partir de la posición dada,
+	 * numerando sus nodos igual que Automata. En la concatenación el nodo final
+	 * del hijo izquierdo y el inicial del derecho comparten posición, por lo que
+	 * basta con construir el derecho a partir de ella.
+	 *
+	 * @return Posición del nodo final del autómata.
+	 */
+	private static int construye(ExpresionRegular expresion, int inicial,
+			Aristas transiciones, Aristas vacias) {
+		if (expresion.esVacio()) {
+			vacias.añade(inicial, inicial + 1);
+			return inicial + 1;
+		} else if (expresion.esSimbolo()) {
+			transiciones.añade(inicial, inicial + 1, expresion.simbolo());
+			return inicial + 1;
+		} else if (expresion.esCierre()) {
+			int hijo = construye(expresion.hijoIzquierdo(), inicial + 1,
+					transiciones, vacias);
+			int fin = hijo + 1;
+			vacias.añade(inicial, inicial + 1);
+			vacias.añade(inicial, fin);
+			vacias.añade(hijo, inicial + 1);
+			vacias.añade(hijo, fin);
+			return fin;
+		} else if (expresion.esConcat()) {
+			int izquierdo = construye(expresion.hijoIzquierdo(), inicial,
+					transiciones, vacias);
+			return construye(expresion.hijoDerecho(), izquierdo, transiciones,
+					vacias);
+		} else if (expresion.esUnion()) {
+			int izquierdo = construye(expresion.hijoIzquierdo(), inicial + 1,
+					transiciones, vacias);
+			int derecho = construye(expresion.hijoDerecho(), izquierdo + 1,
+					transiciones, vacias);
+			int fin = derecho + 1;
+			vacias.añade(inicial, inicial + 1);
+			vacias.añade(inicial, izquierdo + 1);
+			vacias.añade(izquierdo, fin);
+			vacias.añade(derecho, fin);
+			return fin;
+		}
+
+		throw new IllegalArgumentException(
+				"Expresión regular de tipo desconocido.");
+	}
+
+	/**
+	 * Lista de aristas en el orden en que se crean, a partir de la cual se
+	 * construyen los arrays agrupados por nodo de origen.
+	 */
+	private static class Aristas {
+		private int[] origenes = new int[16];
+		private int[] destinos = new int[16];
+		private char[] simbolos = new char[16];
+		private int tamaño;
+
+		private void añade(int origen, int destino) {
+			añade(origen, destino, '\u0000');
+		}
+
+		private void añade(int origen, int destino, char simbolo) {
+			if (this.tamaño == this.origenes.length) {
+				this.origenes = Arrays.copyOf(this.origenes, 2 * this.tamaño);
+				this.destinos = Arrays.copyOf(this.destinos, 2 * this.tamaño);
+				this.simbolos = Arrays.copyOf(this.simbolos, 2 * this.tamaño);
+			}
+			this.origenes[this.tamaño] = origen;
+			this.destinos[this.tamaño] = destino;
+			this.simbolos[this.tamaño] = simbolo;
+			this.tamaño++;
+		}
+
+		/**
+		 * Agrupa las aristas por nodo de origen, rellenando el inicio del rango
+		 * de cada nodo y devolviendo la posición final de cada arista.
+		 */
+		private int[] ordena(int[] inicio, int nodos) {
+			for (int i = 0; i < this.tamaño; i++)
+				inicio[this.origenes[i] + 1]++;
+			for (int nodo = 0; nodo < nodos; nodo++)
+				inicio[nodo + 1] += inicio[nodo];
+
+			int[] siguiente = Arrays.copyOf(inicio, nodos);
+			int[] posiciones = new int[this.tamaño];
+			for (int i = 0; i < this.tamaño; i++)
+				posiciones[i] = siguiente[this.origenes[i]]++;
+			return posiciones;
+		}
+	}
+}
@@ -5,6 +5,7 @@ import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 
@@ -168,20 +169,20 @@ public class AhoSethiUllmanPanel extends ProblemaPanel<AhoSethiUllman> {
 	void problema(Problema<AhoSethiUllman> problema) {
 		if (problemaActual != null) {
 			if (!problema.getProblema().equals(problemaActual))
-				main.eliminaImagen(problemaActual.getProblema().arbolVacio());
+				eliminaImagenes(problemaActual.getProblema());
 		}
 
 		switch (problema.getTipo()) {
 		case "AhoSethiUllmanConstruccion": //$NON-NLS-1$
-			for (BufferedImage imagen : problema.getProblema().alternativas())
-				main.añadeImagen(imagen);
+			añadeAlternativas(problema.getProblema());
 			modoA.setSelected(true);
 			break;
 		case "AhoSethiUllmanTablas": //$NON-NLS-1$
 			modoB.setSelected(true);
 			break;
 		case "AhoSethiUllmanEtiquetado": //$NON-NLS-1$
-			main.añadeImagen(problema.getProblema().arbolVacio());
+			main.añadeImagen(problema.getProblema().nombreArbolVacio(),
+					problema.getProblema().arbolVacio());
 			modoC.setSelected(true);
 			break;
 		default:
@@ -194,6 +195,28 @@ public class AhoSethiUllmanPanel extends ProblemaPanel<AhoSethiUllman> {
 		expresionText.setText(problema.getProblema().problema());
 	}
 
+	/**
+	 * Añade a la vista previa las imágenes del problema, con los nombres con
+	 * los que las referencia su traducción a HTML.
+	 */
+	private void añadeImagenes(AhoSethiUllman problema) {
+		main.añadeImagen(problema.nombreArbolVacio(), problema.arbolVacio());
+		añadeAlternativas(problema);
+	}
+
+	private void añadeAlternativas(AhoSethiUllman problema) {
+		List<String> nombres = problema.nombresAlternativas();
+		List<BufferedImage> imagenes = problema.alternativas();
+		for (int i = 0; i < nombres.size(); i++)
+			main.añadeImagen(nombres.get(i), imagenes.get(i));
+	}
+
+	private void eliminaImagenes(AhoSethiUllman problema) {
+		main.eliminaImagen(problema.nombreArbolVacio());
+		for (String nombre : problema.nombresAlternativas())
+			main.eliminaImagen(nombre);
+	}
+
 	private class BotonGenerarActionListener implements ActionListener {
 		public void actionPerformed(ActionEvent event) {
 			if (!generando) {
@@ -226,14 +249,8 @@ public class AhoSethiUllmanPanel extends ProblemaPanel<AhoSethiUllman> {
 								asuProblema = Problema
 										.asuConstruccion(problema, numero);
 
-							main.eliminaImagen(problemaActual.getProblema()
-									.arbolVacio());
-							for (BufferedImage imagen : problemaActual
-									.getProblema().alternativas())
-								main.eliminaImagen(imagen);
-							main.añadeImagen(problema.arbolVacio());
-							for (BufferedImage imagen : problema.alternativas())
-								main.añadeImagen(imagen);
+							eliminaImagenes(problemaActual.getProblema());
+							añadeImagenes(problema);
 							problemaActual = asuProblema;
 						}
 					} else {
@@ -247,9 +264,7 @@ public class AhoSethiUllmanPanel extends ProblemaPanel<AhoSethiUllman> {
 						else
 							asuProblema = Problema.asuConstruccion(problema, numero);
 
-						main.añadeImagen(problema.arbolVacio());
-						for (BufferedImage imagen : problema.alternativas())
-							main.añadeImagen(imagen);
+						añadeImagenes(problema);
 						problemaActual = asuProblema;
 					}
 					mostrarVista();
@@ -305,17 +320,9 @@ public class AhoSethiUllmanPanel extends ProblemaPanel<AhoSethiUllman> {
 				else
 					asuProblema = Problema.asuConstruccion(problema, numero);
 
-				if (problemaActual != null) {
-					main.eliminaImagen(problemaActual.getProblema()
-							.arbolVacio());
-					for (BufferedImage imagen : problemaActual.getProblema()
-							.alternativas())
-						main.eliminaImagen(imagen);
-				}
-				main.añadeImagen(asuProblema.getProblema().arbolVacio());
-				for (BufferedImage imagen : asuProblema.getProblema()
-						.alternativas())
-					main.añadeImagen(imagen);
+				if (problemaActual != null)
+					eliminaImagenes(problemaActual.getProblema());
+				añadeImagenes(asuProblema.getProblema());
 
 				problemaActual = asuProblema;
 				expresionText.setText(problema.problema());
@@ -5,10 +5,8 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 
@@ -34,11 +32,10 @@ import javax.swing.border.TitledBorder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import es.ubu.inf.tfg.doc.GeneradorBloque;
 import es.ubu.inf.tfg.doc.Problema;
 import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
-import es.ubu.inf.tfg.regex.asu.AhoSethiUllmanGenerador;
 import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
-import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntosGenerador;
 import java.awt.FlowLayout;
 
 @SuppressWarnings("serial")
@@ -47,11 +44,12 @@ public class BloquePreguntas extends JDialog {
 	private static final Logger log = LoggerFactory
 			.getLogger(BloquePreguntas.class);
 
-	private static final Random random = new Random(new Date().getTime());
+	private final SplittableRandom random = new SplittableRandom();
 
 	private Main main;
+	// Solo se accede desde el hilo de eventos.
 	private boolean generando;
-	private SwingWorker<List<Object>, Void> worker;
+	private SwingWorker<Void, Object> worker;
 
 	private JPanel asuPanel;
 	private JPanel csPanel;
@@ -363,6 +361,10 @@ public class BloquePreguntas extends JDialog {
 	private class AñadeButtonActionListener implements ActionListener {
 		public void actionPerformed(ActionEvent e) {
 			if (!generando) {
+				generando = true;
+				añadeButton.setText(Messages.getString("BloquePreguntas.cancel")); //$NON-NLS-1$
+				progressBar.setVisible(true);
+
 				worker = new Worker();
 				worker.execute();
 			} else {
@@ -371,19 +373,20 @@ public class BloquePreguntas extends JDialog {
 		}
 	}
 
-	private class Worker extends SwingWorker<List<Object>, Void> {
+	/**
+	 * Genera el bloque en segundo plano. El generador se construye junto con
+	 * el worker, antes de que comience la generación, de modo que su estado de
+	 * cancelación existe desde el principio y una cancelación solicitada
+	 * mientras se preparan los parámetros no se pierde.
+	 */
+	private class Worker extends SwingWorker<Void, Object> {
 
-		private AhoSethiUllmanGenerador asuGenerador;
-		private ConstruccionSubconjuntosGenerador csGenerador;
+		private final GeneradorBloque bloque = new GeneradorBloque();
+		private Problema<?> ultimoProblema;
+		private int numero = 1;
 
 		@Override
-		protected List<Object> doInBackground() throws Exception {
-			generando = true;
-			añadeButton.setText(Messages.getString("BloquePreguntas.cancel")); //$NON-NLS-1$
-			progressBar.setVisible(true);
-
-			asuGenerador = new AhoSethiUllmanGenerador();
-			csGenerador = new ConstruccionSubconjuntosGenerador();
+		protected Void doInBackground() throws Exception {
 
 			Integer asuNum = (Integer) asuNumSpinner.getValue();
 			Integer asuEstados = (Integer) asuEstadosSpinner.getValue();
@@ -407,13 +410,11 @@ public class BloquePreguntas extends JDialog {
 					"Problemas Construcción de subconjuntos con {} ± {} estados y {} ± {} símbolos", //$NON-NLS-1$
 					csEstados, csEstadosVar, csSimbolos, csSimbolosVar);
 
-			List<Object> problemas = new ArrayList<>();
-			AhoSethiUllman asuProblema;
-			ConstruccionSubconjuntos csProblema;
 			int simbolos, estados;
 			boolean vacio = asuVacioCheck.isSelected();
 
-			for (int i = 0; i < asuNum && generando; i++) {
+			// Los parámetros se fijan en orden antes de repartir el trabajo.
+			for (int i = 0; i < asuNum; i++) {
 				simbolos = asuSimbolos
 						+ (random.nextInt((2 * asuSimbolosVar) + 1) - asuSimbolosVar);
 				estados = asuEstados
@@ -428,12 +429,11 @@ public class BloquePreguntas extends JDialog {
 				else if (estados > 15)
 					estados = 15;
 
-				asuProblema = asuGenerador.nuevo(simbolos, estados, vacio);
-				problemas.add(asuProblema);
+				bloque.añadeAhoSethiUllman(simbolos, estados, vacio);
 			}
 
 			vacio = csVacioCheck.isSelected();
-			for (int i = 0; i < csNum && generando; i++) {
+			for (int i = 0; i < csNum; i++) {
 				simbolos = csSimbolos
 						+ (random.nextInt((2 * csSimbolosVar) + 1) - csSimbolosVar);
 				estados = csEstados
@@ -448,52 +448,54 @@ public class BloquePreguntas extends JDialog {
 				else if (estados > 15)
 					estados = 15;
 
-				csProblema = csGenerador.nuevo(simbolos, estados, vacio);
-				problemas.add(csProblema);
+				bloque.añadeConstruccionSubconjuntos(simbolos, estados, vacio);
 			}
 
-			return problemas;
+			// No genera nada si se canceló mientras se preparaba el bloque.
+			bloque.genera(problema -> publish(problema));
+
+			return null;
+		}
+
+		@Override
+		protected void process(List<Object> problemas) {
+			for (Object problema : problemas) {
+				if (problema instanceof AhoSethiUllman) {
+					Problema<AhoSethiUllman> p;
+					if (asuModoTablasButton.isSelected())
+						p = Problema.asuTablas((AhoSethiUllman) problema, numero);
+					else if (asuModoEtiquetadoButton.isSelected())
+						p = Problema
+								.asuEtiquetado((AhoSethiUllman) problema, numero);
+					else
+						p = Problema
+								.asuConstruccion((AhoSethiUllman) problema, numero);
+					main.añadeAhoSethiUllman(p);
+					ultimoProblema = p;
+				} else if (problema instanceof ConstruccionSubconjuntos) {
+					Problema<ConstruccionSubconjuntos> p;
+					if (csModoConstruccionButton.isSelected())
+						p = Problema
+								.CSConstruccion((ConstruccionSubconjuntos) problema, numero);
+					else if (csModoExpresionButton.isSelected())
+						p = Problema
+								.CSExpresion((ConstruccionSubconjuntos) problema, numero);
+					else
+						p = Problema
+								.CSAutomata((ConstruccionSubconjuntos) problema, numero);
+					main.añadeConstruccionSubconjuntos(p);
+					ultimoProblema = p;
+				} else
+					log.error("Generado problema de tipo desconocido."); //$NON-NLS-1$
+				numero++;
+				main.actualizaVistaPrevia(ultimoProblema);
+			}
 		}
 
 		@Override
 		public void done() {
 			try {
-				List<Object> problemas = get();
-				Problema<?> ultimoProblema = null;
-				int numero = 1;
-
-				for (Object problema : problemas) {
-					if (problema instanceof AhoSethiUllman) {
-						Problema<AhoSethiUllman> p;
-						if (asuModoTablasButton.isSelected())
-							p = Problema.asuTablas((AhoSethiUllman) problema, numero);
-						else if (asuModoEtiquetadoButton.isSelected())
-							p = Problema
-									.asuEtiquetado((AhoSethiUllman) problema, numero);
-						else
-							p = Problema
-									.asuConstruccion((AhoSethiUllman) problema, numero);
-						main.añadeAhoSethiUllman(p);
-						ultimoProblema = p;
-					} else if (problema instanceof ConstruccionSubconjuntos) {
-						Problema<ConstruccionSubconjuntos> p;
-						if (csModoConstruccionButton.isSelected())
-							p = Problema
-									.CSConstruccion((ConstruccionSubconjuntos) problema, numero);
-						else if (csModoExpresionButton.isSelected())
-							p = Problema
-									.CSExpresion((ConstruccionSubconjuntos) problema, numero);
-						else
-							p = Problema
-									.CSAutomata((ConstruccionSubconjuntos) problema, numero);
-						main.añadeConstruccionSubconjuntos(p);
-						ultimoProblema = p;
-					} else
-						log.error("Generado problema de tipo desconocido."); //$NON-NLS-1$
-					numero++;
-					main.actualizaVistaPrevia(ultimoProblema);
-				}
-
+				get();
 			} catch (InterruptedException | ExecutionException
 					| CancellationException e) {
 				log.error("Error generando bloque de problemas", e); //$NON-NLS-1$
@@ -506,9 +508,7 @@ public class BloquePreguntas extends JDialog {
 		}
 
 		public void cancel() {
-			generando = false;
-			asuGenerador.cancelar();
-			csGenerador.cancelar();
+			bloque.cancelar();
 		}
 	}
 }
@@ -5,6 +5,7 @@ import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 
@@ -169,21 +170,21 @@ public class ConstruccionSubconjuntosPanel extends
 	void problema(Problema<ConstruccionSubconjuntos> problema) {
 		if (problemaActual != null) {
 			if (!problema.getProblema().equals(problemaActual)) {
-				main.eliminaImagen(problemaActual.getProblema().automata());
+				eliminaImagenes(problemaActual.getProblema());
 			}
 		}
 
 		switch (problema.getTipo()) {
 		case "ConstruccionSubconjuntosConstruccion": //$NON-NLS-1$
 			modoA.setSelected(true);
-			for (BufferedImage imagen : problema.getProblema().alternativas())
-				main.añadeImagen(imagen);
+			añadeAlternativas(problema.getProblema());
 			break;
 		case "ConstruccionSubconjuntosExpresion": //$NON-NLS-1$
 			modoB.setSelected(true);
 			break;
 		case "ConstruccionSubconjuntosAutomata": //$NON-NLS-1$
-			main.añadeImagen(problema.getProblema().automata());
+			main.añadeImagen(problema.getProblema().nombreAutomata(),
+					problema.getProblema().automata());
 			modoC.setSelected(true);
 			break;
 		default:
@@ -196,6 +197,28 @@ public class ConstruccionSubconjuntosPanel extends
 		expresionText.setText(problema.getProblema().problema());
 	}
 
+	/**
+	 * Añade a la vista previa las imágenes del problema, con los nombres con
+	 * los que las referencia su traducción a HTML.
+	 */
+	private void añadeImagenes(ConstruccionSubconjuntos problema) {
+		main.añadeImagen(problema.nombreAutomata(), problema.automata());
+		añadeAlternativas(problema);
+	}
+
+	private void añadeAlternativas(ConstruccionSubconjuntos problema) {
+		List<String> nombres = problema.nombresAlternativas();
+		List<BufferedImage> imagenes = problema.alternativas();
+		for (int i = 0; i < nombres.size(); i++)
+			main.añadeImagen(nombres.get(i), imagenes.get(i));
+	}
+
+	private void eliminaImagenes(ConstruccionSubconjuntos problema) {
+		main.eliminaImagen(problema.nombreAutomata());
+		for (String nombre : problema.nombresAlternativas())
+			main.eliminaImagen(nombre);
+	}
+
 	private class BotonGenerarActionListener implements ActionListener {
 		public void actionPerformed(ActionEvent event) {
 			if (!generando) {
@@ -225,14 +248,8 @@ public class ConstruccionSubconjuntosPanel extends
 								csProblema = Problema.CSAutomata(problema, numero);
 							else
 								csProblema = Problema.CSExpresion(problema, numero);
-							for (BufferedImage imagen : problemaActual
-									.getProblema().alternativas())
-								main.eliminaImagen(imagen);
-							main.eliminaImagen(problemaActual.getProblema()
-									.automata());
-							for (BufferedImage imagen : problema.alternativas())
-								main.añadeImagen(imagen);
-							main.añadeImagen(problema.automata());
+							eliminaImagenes(problemaActual.getProblema());
+							añadeImagenes(problema);
 							problemaActual = csProblema;
 						}
 					} else {
@@ -245,9 +262,7 @@ public class ConstruccionSubconjuntosPanel extends
 							csProblema = Problema.CSAutomata(problema, numero);
 						else
 							csProblema = Problema.CSExpresion(problema, numero);
-						main.añadeImagen(problema.automata());
-						for (BufferedImage imagen : problema.alternativas())
-							main.añadeImagen(imagen);
+						añadeImagenes(problema);
 						problemaActual = csProblema;
 					}
 					mostrarVista();
@@ -304,15 +319,9 @@ public class ConstruccionSubconjuntosPanel extends
 				else
 					csProblema = Problema.CSExpresion(problema, numero);
 
-				if (problemaActual != null) {
-					main.eliminaImagen(problemaActual.getProblema().automata());
-					for (BufferedImage imagen : problemaActual.getProblema()
-							.alternativas())
-						main.eliminaImagen(imagen);
-				}
-				main.añadeImagen(problema.automata());
-				for (BufferedImage imagen : problema.alternativas())
-					main.añadeImagen(imagen);
+				if (problemaActual != null)
+					eliminaImagenes(problemaActual.getProblema());
+				añadeImagenes(problema);
 
 				problemaActual = csProblema;
 				expresionText.setText(problema.problema());
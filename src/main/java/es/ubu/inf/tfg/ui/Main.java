@@ -49,6 +49,7 @@ import es.ubu.inf.tfg.doc.Documento;
 import es.ubu.inf.tfg.doc.Problema;
 //import es.ubu.inf.tfg.doc.datos.Plantilla; // commented as now it nos used
 import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas;
 import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
 
 public class Main {
@@ -126,6 +127,7 @@ public class Main {
 	
 	public static void main(String[] args) {
 		//test_I18N();
+		IndiceProblemas.cargaPredeterminado();
 		EventQueue.invokeLater(new Runnable() {
 			public void run() {
 				try {
@@ -407,9 +409,9 @@ public class Main {
 	}
 
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	void añadeImagen(BufferedImage imagen) {
+	void añadeImagen(String nombre, BufferedImage imagen) {
 		try {
-			String url = "http:\\" + Math.abs(imagen.hashCode()) + ".jpg"; //$NON-NLS-1$ //$NON-NLS-2$
+			String url = "http:\\" + nombre + ".jpg"; //$NON-NLS-1$ //$NON-NLS-2$
 			log.debug("Añadiendo imagen {}.", url); //$NON-NLS-1$
 			Dictionary cache = (Dictionary) vistaPreviaText.getDocument()
 					.getProperty("imageCache"); //$NON-NLS-1$
@@ -424,9 +426,9 @@ public class Main {
 	}
 
 	@SuppressWarnings("rawtypes")
-	void eliminaImagen(BufferedImage imagen) {
+	void eliminaImagen(String nombre) {
 		try {
-			String url = "http:\\" + Math.abs(imagen.hashCode()) + ".jpg"; //$NON-NLS-1$ //$NON-NLS-2$
+			String url = "http:\\" + nombre + ".jpg"; //$NON-NLS-1$ //$NON-NLS-2$
 			Dictionary cache = (Dictionary) vistaPreviaText.getDocument()
 					.getProperty("imageCache"); //$NON-NLS-1$
 			if (cache != null) {
@@ -0,0 +1,122 @@
+package es.ubu.inf.tfg.consola;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConsolaTest {
+
+	private File fichero;
+
+	@Before
+	public void setUp() throws Exception {
+		fichero = File.createTempFile("plquiz-consola", ".tex");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		fichero.delete();
+		fichero = null;
+	}
+
+	/**
+	 * Comprueba que se genera y exporta un bloque de problemas, informando del
+	 * tiempo de cada uno de ellos.
+	 */
+	@Test
+	public void testEjecuta() throws Exception {
+		Consola consola = new Consola();
+		consola.argumentos(new String[] { "--asu", "2", "--asu-simbolos", "2",
+				"--asu-estados", "3", "--cs", "2", "--cs-simbolos", "2",
+				"--cs-estados", "3", "--cs-modo", "expresion", "--formato",
+				"tikz", "--hilos", "2", "--salida", fichero.toString() });
+
+		ByteArrayOutputStream informe = new ByteArrayOutputStream();
+		consola.ejecuta(new PrintStream(informe, true, "UTF-8"));
+
+		String texto = new String(informe.toByteArray(), StandardCharsets.UTF_8);
+		assertTrue("Informe de tiempos incorrecto.",
+				texto.contains("4 problemas generados"));
+		assertTrue("Documento no exportado.", fichero.length() > 0);
+		assertTrue("Documento exportado incorrecto.", new String(
+				Files.readAllBytes(fichero.toPath()), StandardCharsets.UTF_8)
+				.contains("\\begin{tikzpicture}"));
+	}
+
+	/**
+	 * Comprueba que se añaden al bloque los problemas resueltos desde fichero,
+	 * informando de las líneas no válidas.
+	 */
+	@Test
+	public void testFichero() throws Exception {
+		File expresiones = File.createTempFile("plquiz-expresiones", ".txt");
+		try {
+			Files.write(expresiones.toPath(),
+					Arrays.asList("(a|b)*abb", "a|", "ab*"),
+					StandardCharsets.UTF_8);
+
+			Consola consola = new Consola();
+			consola.argumentos(new String[] { "--asu-fichero",
+					expresiones.toString(), "--formato", "tikz", "--salida",
+					fichero.toString() });
+
+			ByteArrayOutputStream informe = new ByteArrayOutputStream();
+			consola.ejecuta(new PrintStream(informe, true, "UTF-8"));
+
+			String texto = new String(informe.toByteArray(),
+					StandardCharsets.UTF_8);
+			assertTrue("Informe de problemas resueltos incorrecto.",
+					texto.contains("2 problemas resueltos desde fichero"));
+			assertTrue("Error de línea no informado.",
+					texto.contains(expresiones.getName() + ":2: "));
+			assertTrue("Documento no exportado.", fichero.length() > 0);
+		} finally {
+			expresiones.delete();
+		}
+	}
+
+	/**
+	 * Comprueba que se exportan las tablas de problemas con más estados de los
+	 * que se pueden etiquetar con una sola letra.
+	 */
+	@Test
+	public void testMuchosEstados() throws Exception {
+		Consola consola = new Consola();
+		consola.argumentos(new String[] { "--asu", "1", "--asu-modo",
+				"tablas", "--asu-estados", "40", "--formato", "latex",
+				"--semilla", "3", "--salida", fichero.toString() });
+
+		consola.ejecuta(new PrintStream(new ByteArrayOutputStream(), true,
+				"UTF-8"));
+
+		assertTrue("Documento exportado incorrecto.", new String(
+				Files.readAllBytes(fichero.toPath()), StandardCharsets.UTF_8)
+				.contains("\\h{AA}"));
+	}
+
+	/**
+	 * Comprueba que se rechazan los argumentos no válidos.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testArgumentoNoValido() {
+		new Consola().argumentos(new String[] { "--formato", "pdf",
+				"--salida", "x" });
+	}
+
+	/**
+	 * Comprueba que se exige un fichero de salida.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testSinSalida() {
+		new Consola().argumentos(new String[] { "--asu", "1" });
+	}
+}
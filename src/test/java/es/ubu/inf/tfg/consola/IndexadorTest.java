@@ -0,0 +1,83 @@
+package es.ubu.inf.tfg.consola;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas.Tipo;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
+
+public class IndexadorTest {
+
+	private File fichero;
+
+	@Before
+	public void setUp() throws Exception {
+		fichero = File.createTempFile("plquiz-indexador", ".idx");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		fichero.delete();
+		fichero = null;
+	}
+
+	/**
+	 * Comprueba que cada expresión del índice generado produce un problema con
+	 * exactamente los parámetros de su cubeta.
+	 */
+	@Test
+	public void testEjecuta() throws Exception {
+		Indexador indexador = new Indexador();
+		indexador.argumentos(new String[] { "--expresiones", "1000",
+				"--max-simbolos", "3", "--max-estados", "6", "--semilla", "5",
+				"--salida", fichero.toString() });
+
+		ByteArrayOutputStream informe = new ByteArrayOutputStream();
+		indexador.ejecuta(new PrintStream(informe, true, "UTF-8"));
+		assertTrue("Informe incorrecto.", new String(informe.toByteArray(),
+				StandardCharsets.UTF_8).contains("expresiones indexadas"));
+
+		IndiceProblemas indice = IndiceProblemas.abre(fichero);
+		SplittableRandom random = new SplittableRandom(5);
+		int comprobadas = 0;
+		for (int simbolos = 1; simbolos <= 3; simbolos++) {
+			for (int estados = 1; estados <= 6; estados++) {
+				String expresion;
+				while ((expresion = indice.extrae(Tipo.AHO_SETHI_ULLMAN,
+						simbolos, estados, false, random)) != null) {
+					AhoSethiUllman problema = new AhoSethiUllman(expresion);
+					assertEquals("Símbolos incorrectos: " + expresion,
+							simbolos, problema.simbolos().size() - 1);
+					assertEquals("Estados incorrectos: " + expresion, estados,
+							problema.nEstados());
+					comprobadas++;
+				}
+				while ((expresion = indice.extrae(
+						Tipo.CONSTRUCCION_SUBCONJUNTOS, simbolos, estados,
+						false, random)) != null) {
+					ConstruccionSubconjuntos problema = new ConstruccionSubconjuntos(
+							expresion);
+					assertEquals("Símbolos incorrectos: " + expresion,
+							simbolos, problema.simbolos().size());
+					assertEquals("Estados incorrectos: " + expresion, estados,
+							problema.nEstados());
+					comprobadas++;
+				}
+			}
+		}
+
+		assertTrue("Índice vacío.", comprobadas > 0);
+	}
+}
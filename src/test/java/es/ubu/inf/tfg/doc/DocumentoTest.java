@@ -1,6 +1,7 @@
 package es.ubu.inf.tfg.doc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.BufferedReader;
@@ -15,6 +16,11 @@ import java.io.Writer;
 import java.io.BufferedWriter;
 import java.io.FileOutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.junit.After;
 import org.junit.Before;
@@ -24,6 +30,7 @@ import org.junit.rules.TemporaryFolder;
 
 import es.ubu.inf.tfg.doc.datos.Messages;
 import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
+import es.ubu.inf.tfg.regex.datos.CacheAlternativas;
 import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
 
 @SuppressWarnings("unused")
@@ -87,6 +94,8 @@ public class DocumentoTest {
 
 		assertEquals("Vista previa de documento vacío errónea.", esperado,
 				encontrado);
+		assertEquals("Vista previa sin problema errónea.", esperado,
+				Documento.vistaPrevia(null));
 
 		// Fichero XML
 		esperado = toString("vacio.xml");
@@ -1428,6 +1437,50 @@ public class DocumentoTest {
 				esperado, encontrado);
 	}
 
+	/**
+	 * Comprueba que la exportación a un flujo de salida produce el mismo
+	 * documento que la exportación a fichero.
+	 * 
+	 * @throws IOException
+	 *             Error operando con archivos.
+	 */
+	@Test
+	public void testExportaFlujo() throws IOException {
+		File ficheroTemporal;
+		StringWriter salida;
+
+		// Documento vacío
+		salida = new StringWriter();
+		documento.exportaXML(salida);
+		assertEquals("Exportación a flujo de documento XML vacío errónea.",
+				toString("vacio.xml"), salida.toString());
+
+		documento.añadirProblema(Problema.asuTablas(asuProblemaA, 1));
+		documento.añadirProblema(Problema.asuEtiquetado(asuProblemaB, 2));
+		documento.añadirProblema(Problema.asuEtiquetado(asuProblemaC, 3));
+
+		// Documento XML, con las opciones de cada pregunta barajadas
+		salida = new StringWriter();
+		documento.exportaXML(salida);
+
+		assertTrue("Exportación a flujo de documento XML errónea.", salida
+				.toString().startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<quiz>"));
+		assertTrue("Exportación a flujo de documento XML errónea.", salida
+				.toString().endsWith("</quiz>"));
+		for (int i = 1; i <= 3; i++)
+			assertTrue("Problema no exportado a flujo de documento XML.",
+					salida.toString().contains("<!-- question: " + i + " "));
+
+		// Fichero Latex TikZ
+		ficheroTemporal = ficheroTemporal("flujo.tex");
+		documento.exportaTikZLatex(ficheroTemporal);
+		salida = new StringWriter();
+		documento.exportaTikZLatex(salida);
+
+		assertEquals("Exportación a flujo de documento Latex TikZ errónea.",
+				toString(ficheroTemporal), salida.toString());
+	}
+
 	/**
 	 * Genera un fichero temporal con el nombre dado. Los ficheros temporales
 	 * desaparecen al finalizar los test.
@@ -1515,4 +1568,71 @@ public class DocumentoTest {
 			return "";
 		}
 	}
+
+	/**
+	 * Comprueba que dos documentos con la misma semilla exportan el mismo
+	 * Moodle XML, y que la exportación puede repetirse.
+	 * 
+	 * @throws IOException
+	 *             Error de escritura.
+	 */
+	@Test
+	public void testSemilla() throws IOException {
+		Documento documentoA = new Documento(11L);
+		Documento documentoB = new Documento(11L);
+		for (Documento actual : new Documento[] { documentoA, documentoB }) {
+			actual.añadirProblema(Problema.asuEtiquetado(asuProblemaA, 1));
+			actual.añadirProblema(Problema.asuTablas(asuProblemaB, 2));
+			actual.añadirProblema(Problema.CSConstruccion(csProblemaC, 3));
+		}
+
+		StringWriter xmlA = new StringWriter();
+		StringWriter xmlA2 = new StringWriter();
+		StringWriter xmlB = new StringWriter();
+		documentoA.exportaXML(xmlA);
+		documentoA.exportaXML(xmlA2);
+		documentoB.exportaXML(xmlB);
+
+		assertEquals("Exportación distinta con la misma semilla.",
+				xmlA.toString(), xmlB.toString());
+		assertEquals("Exportación no repetible.", xmlA.toString(),
+				xmlA2.toString());
+	}
+
+	/**
+	 * Comprueba que al exportar a Latex más problemas de los que caben en la
+	 * caché de alternativas, todas las imágenes que referencia el documento
+	 * se guardan en disco con el nombre referenciado.
+	 * 
+	 * @throws IOException
+	 *             Error operando con archivos.
+	 */
+	@Test
+	public void testExportaLatexImagenes() throws IOException {
+		String simbolos = "abcde";
+		int total = CacheAlternativas.CAPACIDAD + 16;
+		for (int i = 0; i < total; i++) {
+			String expresion = "(" + simbolos.charAt(i % 5) + "|"
+					+ simbolos.charAt(i / 5 % 5) + ")*" + simbolos.charAt(i / 25);
+			documento.añadirProblema(Problema.asuConstruccion(
+					new AhoSethiUllman(expresion), i + 1));
+		}
+
+		File fichero = ficheroTemporal("imagenes.tex");
+		documento.exportaLatex(fichero);
+
+		String contenido = new String(Files.readAllBytes(fichero.toPath()),
+				StandardCharsets.UTF_8);
+		Matcher referencia = Pattern.compile(
+				"\\\\myincludegraphicssol\\{([^}]*)\\}").matcher(contenido);
+		int referencias = 0;
+		while (referencia.find()) {
+			referencias++;
+			assertTrue("Imagen referenciada no guardada: " + referencia.group(1),
+					new File(fichero.getParentFile(), referencia.group(1)
+							+ ".jpg").exists());
+		}
+		assertEquals("Número de imágenes referenciadas erróneo.", total,
+				referencias);
+	}
 }
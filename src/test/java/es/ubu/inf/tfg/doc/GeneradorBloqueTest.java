@@ -0,0 +1,184 @@
+package es.ubu.inf.tfg.doc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas.Tipo;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
+
+public class GeneradorBloqueTest {
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() throws Exception {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+		executor = null;
+	}
+
+	/**
+	 * Comprueba que los problemas del bloque se entregan completos y en el
+	 * mismo orden en que se pidieron.
+	 */
+	@Test
+	public void testOrden() throws InterruptedException {
+		GeneradorBloque generador = new GeneradorBloque(executor);
+		for (int i = 0; i < 3; i++) {
+			generador.añadeAhoSethiUllman(2, 3, false);
+			generador.añadeConstruccionSubconjuntos(2, 3, false);
+		}
+
+		List<Object> recibidos = new ArrayList<>();
+		List<Object> problemas = generador.genera(p -> recibidos.add(p));
+
+		assertEquals("Número de problemas generados incorrecto.", 6,
+				problemas.size());
+		assertEquals("Problemas entregados en orden incorrecto.", problemas,
+				recibidos);
+		for (int i = 0; i < problemas.size(); i += 2) {
+			assertTrue("Problema de tipo incorrecto.",
+					problemas.get(i) instanceof AhoSethiUllman);
+			assertTrue("Problema de tipo incorrecto.",
+					problemas.get(i + 1) instanceof ConstruccionSubconjuntos);
+		}
+	}
+
+	/**
+	 * Comprueba que un bloque cancelado antes de comenzar no genera problemas.
+	 */
+	@Test
+	public void testCancelar() throws InterruptedException {
+		GeneradorBloque generador = new GeneradorBloque(executor);
+		for (int i = 0; i < 5; i++)
+			generador.añadeAhoSethiUllman(3, 6, true);
+
+		generador.cancelar();
+
+		assertTrue("Generados problemas tras cancelar.",
+				generador.genera(p -> {
+				}).isEmpty());
+	}
+
+	/**
+	 * Comprueba que un bloque cancelado antes de comenzar no reserva
+	 * expresiones del índice.
+	 */
+	@Test
+	public void testCancelarIndice() throws Exception {
+		File fichero = File.createTempFile("plquiz-indice", ".idx");
+		try {
+			IndiceProblemas.Escritor escritor = new IndiceProblemas.Escritor(
+					10);
+			for (String expresion : Arrays.asList("a*b", "(a|b)*", "ab"))
+				escritor.añade(Tipo.AHO_SETHI_ULLMAN, 2, 3, false, expresion);
+			escritor.escribe(fichero);
+			IndiceProblemas indice = IndiceProblemas.abre(fichero);
+			IndiceProblemas.instala(indice);
+
+			GeneradorBloque generador = new GeneradorBloque(executor, 7L);
+			for (int i = 0; i < 3; i++)
+				generador.añadeAhoSethiUllman(2, 3, false);
+			generador.cancelar();
+			generador.genera(p -> {
+			});
+
+			assertEquals("Expresiones del índice reservadas tras cancelar.", 3,
+					indice.disponibles(Tipo.AHO_SETHI_ULLMAN, 2, 3, false));
+		} finally {
+			IndiceProblemas.instala(null);
+			fichero.delete();
+		}
+	}
+
+	/**
+	 * Comprueba que dos bloques con la misma semilla generan los mismos
+	 * problemas, aunque utilicen distinto número de hilos.
+	 */
+	@Test
+	public void testSemilla() throws InterruptedException {
+		List<String> problemasA = new ArrayList<>();
+		List<String> problemasB = new ArrayList<>();
+
+		GeneradorBloque generadorA = new GeneradorBloque(executor, 7L);
+		GeneradorBloque generadorB = new GeneradorBloque(1, 7L);
+		for (GeneradorBloque generador : Arrays.asList(generadorA, generadorB)) {
+			for (int i = 0; i < 3; i++) {
+				generador.añadeAhoSethiUllman(2, 3, true);
+				generador.añadeConstruccionSubconjuntos(2, 3, true);
+			}
+		}
+
+		for (Object problema : generadorA.genera(p -> {
+		}))
+			problemasA.add(problema(problema));
+		for (Object problema : generadorB.genera(p -> {
+		}))
+			problemasB.add(problema(problema));
+
+		assertEquals("Problemas distintos con la misma semilla.", problemasA,
+				problemasB);
+	}
+
+	/**
+	 * Comprueba que dos bloques con la misma semilla reciben las mismas
+	 * expresiones de un mismo índice, aunque utilicen distinto número de
+	 * hilos.
+	 */
+	@Test
+	public void testSemillaIndice() throws Exception {
+		File fichero = File.createTempFile("plquiz-indice", ".idx");
+		try {
+			IndiceProblemas.Escritor escritor = new IndiceProblemas.Escritor(
+					10);
+			for (String expresion : Arrays.asList("a*b", "(a|b)*", "ab",
+					"a|b", "b*a", "(ab)*", "a*b*", "ba"))
+				escritor.añade(Tipo.AHO_SETHI_ULLMAN, 2, 3, false, expresion);
+			escritor.escribe(fichero);
+
+			List<List<String>> bloques = new ArrayList<>();
+			for (GeneradorBloque generador : Arrays.asList(
+					new GeneradorBloque(executor, 7L), new GeneradorBloque(1,
+							7L))) {
+				IndiceProblemas.instala(IndiceProblemas.abre(fichero));
+				for (int i = 0; i < 6; i++)
+					generador.añadeAhoSethiUllman(2, 3, false);
+
+				List<String> problemas = new ArrayList<>();
+				for (Object problema : generador.genera(p -> {
+				}))
+					problemas.add(problema(problema));
+				bloques.add(problemas);
+			}
+
+			assertEquals("Expresiones del índice distintas con la misma semilla.",
+					bloques.get(0), bloques.get(1));
+		} finally {
+			IndiceProblemas.instala(null);
+			fichero.delete();
+		}
+	}
+
+	private static String problema(Object problema) {
+		if (problema instanceof AhoSethiUllman)
+			return ((AhoSethiUllman) problema).problema();
+		return ((ConstruccionSubconjuntos) problema).problema();
+	}
+}
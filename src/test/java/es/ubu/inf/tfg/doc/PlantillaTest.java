@@ -1,6 +1,10 @@
 package es.ubu.inf.tfg.doc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
 
 import org.junit.Test;
 
@@ -44,4 +48,42 @@ public class PlantillaTest {
 		//assertEquals("Incorrecto modificado de plantilla.", esperado, plantilla.toString()); //$NON-NLS-1$
 		assert(true); // SKIP this for now
 	}
+
+	/**
+	 * Comprueba que escribir la plantilla en un flujo produce el mismo texto
+	 * que su representación como cadena, y que los atributos sin valor se
+	 * mantienen entre llaves.
+	 */
+	@Test
+	public void testEscribe() throws IOException {
+		Plantilla plantilla = new Plantilla("Plantilla.txt"); //$NON-NLS-1$
+		StringWriter salida = new StringWriter();
+
+		plantilla.set("1", "uno"); //$NON-NLS-1$ //$NON-NLS-2$
+		plantilla.set("3", "{2}"); //$NON-NLS-1$ //$NON-NLS-2$
+		plantilla.escribe(salida);
+
+		assertTrue("Incorrecto modificado de plantilla.", plantilla //$NON-NLS-1$
+				.toString().endsWith("uno{2}{2}{4}")); //$NON-NLS-1$
+		assertEquals("Escritura de plantilla en flujo errónea.", //$NON-NLS-1$
+				plantilla.toString(), salida.toString());
+	}
+
+	/**
+	 * Comprueba que las plantillas construidas a partir del mismo fichero son
+	 * independientes entre sí, y que un atributo ya asignado no cambia.
+	 */
+	@Test
+	public void testIndependientes() {
+		Plantilla a = new Plantilla("Plantilla.txt"); //$NON-NLS-1$
+		Plantilla b = new Plantilla("Plantilla.txt"); //$NON-NLS-1$
+
+		a.set("4", "a"); //$NON-NLS-1$ //$NON-NLS-2$
+		a.set("4", "b"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		assertTrue("Incorrecto modificado de plantilla.", a.toString() //$NON-NLS-1$
+				.endsWith("{1}{2}{3}a")); //$NON-NLS-1$
+		assertTrue("Plantillas del mismo fichero no independientes.", b //$NON-NLS-1$
+				.toString().endsWith("{1}{2}{3}{4}")); //$NON-NLS-1$
+	}
 }
@@ -0,0 +1,127 @@
+package es.ubu.inf.tfg.doc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
+
+public class ResolutorBloqueTest {
+
+	private ExecutorService executor;
+	private File fichero;
+
+	@Before
+	public void setUp() throws Exception {
+		executor = Executors.newFixedThreadPool(4);
+		fichero = File.createTempFile("plquiz-expresiones", ".txt");
+		Files.write(fichero.toPath(), Arrays.asList("(a|b)*abb", "", "a|",
+				"  ab*c  ", "a(b", "((a|E)b)*", "a|b|c"), StandardCharsets.UTF_8);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+		executor = null;
+		fichero.delete();
+		fichero = null;
+	}
+
+	/**
+	 * Comprueba que los problemas se resuelven y entregan en el orden del
+	 * fichero, ignorando las líneas en blanco.
+	 */
+	@Test
+	public void testAhoSethiUllman() throws Exception {
+		ResolutorBloque resolutor = new ResolutorBloque(executor);
+		List<AhoSethiUllman> problemas = new ArrayList<>();
+		int resueltos = resolutor.resuelveAhoSethiUllman(fichero,
+				p -> problemas.add(p));
+
+		assertEquals("Número de problemas resueltos incorrecto.", 4,
+				resueltos);
+		assertEquals("Número de problemas entregados incorrecto.", 4,
+				problemas.size());
+		assertEquals("Problema resuelto incorrecto.",
+				new AhoSethiUllman("(a|b)*abb").problema(), problemas.get(0)
+						.problema());
+		assertEquals("Problema resuelto incorrecto.", "ab*c", problemas.get(1)
+				.problema());
+		assertEquals("Problema resuelto incorrecto.", "a|b|c", problemas
+				.get(3).problema());
+	}
+
+	/**
+	 * Comprueba que las expresiones no válidas se registran con su número de
+	 * línea y la columna del error sin detener la resolución.
+	 */
+	@Test
+	public void testErrores() throws Exception {
+		ResolutorBloque resolutor = new ResolutorBloque(executor);
+		int resueltos = resolutor.resuelveConstruccionSubconjuntos(fichero,
+				p -> {
+				});
+
+		assertEquals("Número de problemas resueltos incorrecto.", 4,
+				resueltos);
+		assertEquals("Líneas con errores incorrectas.", Arrays.asList(3, 5),
+				new ArrayList<>(resolutor.errores().keySet()));
+		assertTrue("Descripción de error incorrecta.", resolutor.errores()
+				.get(3).contains("no válida"));
+		assertTrue("Descripción de error sin columna.", resolutor.errores()
+				.get(5).contains("columna 4"));
+	}
+
+	/**
+	 * Comprueba que se entregan en orden ficheros con más líneas que tareas
+	 * pendientes admitidas.
+	 */
+	@Test
+	public void testFicheroLargo() throws Exception {
+		List<String> lineas = new ArrayList<>();
+		for (int i = 0; i < 100; i++)
+			lineas.add(i % 2 == 0 ? "a*b" : "(a|b)*c");
+		Files.write(fichero.toPath(), lineas, StandardCharsets.UTF_8);
+
+		ResolutorBloque resolutor = new ResolutorBloque(2);
+		List<AhoSethiUllman> problemas = new ArrayList<>();
+		resolutor.resuelveAhoSethiUllman(fichero, p -> problemas.add(p));
+
+		assertEquals("Número de problemas resueltos incorrecto.", 100,
+				problemas.size());
+		for (int i = 0; i < problemas.size(); i++)
+			assertEquals("Problemas entregados en orden incorrecto.",
+					lineas.get(i), problemas.get(i).problema());
+	}
+
+	/**
+	 * Comprueba que un resolutor con su propio ejecutor puede utilizarse para
+	 * varias resoluciones seguidas.
+	 */
+	@Test
+	public void testReutiliza() throws Exception {
+		ResolutorBloque resolutor = new ResolutorBloque(2);
+
+		assertEquals("Número de problemas resueltos incorrecto.", 4,
+				resolutor.resuelveAhoSethiUllman(fichero, p -> {
+				}));
+		assertEquals("Número de problemas resueltos incorrecto.", 4,
+				resolutor.resuelveConstruccionSubconjuntos(fichero, p -> {
+				}));
+		assertEquals("Líneas con errores incorrectas.", Arrays.asList(3, 5),
+				new ArrayList<>(resolutor.errores().keySet()));
+	}
+}
@@ -11,9 +11,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
-import java.util.ArrayList;
 import java.util.Locale;
 
 import org.junit.After;
@@ -41,15 +41,18 @@ public class TraductorHTMLTest {
 	}
 
 	/**
-	 * Comprueba la correcta generación de un documento que contenga los datos
-	 * dados.
+	 * Comprueba la correcta generación de un documento vacío a partir de la
+	 * cabecera y el pie de la plantilla de documento.
+	 * 
+	 * @throws IOException
+	 *             Error de escritura.
 	 */
 	@Test
-	public void testDocumento() {
+	public void testDocumento() throws IOException {
 		String esperado = toString("TraductorVacio.html"); //$NON-NLS-1$
 
 		assertEquals("Generación incorrecta de documento HTML.", esperado, //$NON-NLS-1$
-				traductor.documento(new ArrayList<Plantilla>()));
+				documentoVacio());
 	}
 
 	/**
@@ -206,4 +209,11 @@ public class TraductorHTMLTest {
 			return ""; //$NON-NLS-1$
 		}
 	}
+
+	private String documentoVacio() throws IOException {
+		StringWriter documento = new StringWriter();
+		traductor.escribeCabecera(documento);
+		traductor.escribePie(documento);
+		return documento.toString();
+	}
 }
@@ -1,6 +1,7 @@
 package es.ubu.inf.tfg.doc.datos;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.BufferedReader;
@@ -11,9 +12,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
-import java.util.ArrayList;
 
 import org.junit.After;
 import org.junit.Before;
@@ -40,13 +41,16 @@ public class TraductorLatexTest {
 	}
 
 	/**
-	 * Comprueba la correcta generación de un documento que contenga los datos
-	 * dados.
+	 * Comprueba la correcta generación de un documento vacío a partir de la
+	 * cabecera y el pie de la plantilla de documento.
+	 * 
+	 * @throws IOException
+	 *             Error de escritura.
 	 */
 	@Test
-	public void testDocumento() {
+	public void testDocumento() throws IOException {
 		String esperado = toString("TraductorVacio.tex"); //$NON-NLS-1$
-		String encontrado = traductor.documento(new ArrayList<Plantilla>());
+		String encontrado = documentoVacio();
 
 		assertEquals("Generación incorrecta de documento Latex.", esperado, encontrado); //$NON-NLS-1$
 	}
@@ -130,6 +134,25 @@ public class TraductorLatexTest {
 				esperado, encontrado);
 	}
 
+	/**
+	 * Comprueba que se traducen las tablas de problemas con más estados de los
+	 * que se pueden etiquetar con una sola letra.
+	 */
+	@Test
+	public void testTraduceMuchosEstados() {
+		AhoSethiUllman asu = new AhoSethiUllman(
+				"(a|b)*a(a|b)(a|b)(a|b)(a|b)(a|b)"); //$NON-NLS-1$
+		String encontrado = traductor.traduceASUTablas(asu).toString();
+		assertTrue("Traducción Latex incorrecta de un estado de dos letras.", //$NON-NLS-1$
+				encontrado.contains("\\h{AA}")); //$NON-NLS-1$
+
+		ConstruccionSubconjuntos cs = new ConstruccionSubconjuntos(
+				"(a|b)*a(a|b)(a|b)(a|b)(a|b)(a|b)"); //$NON-NLS-1$
+		encontrado = traductor.traduceCSExpresion(cs).toString();
+		assertTrue("Traducción Latex incorrecta de un estado de dos letras.", //$NON-NLS-1$
+				encontrado.contains("\\h{AA}")); //$NON-NLS-1$
+	}
+
 	/**
 	 * Comprueba la correcta traducción de un problema de construcción de
 	 * subconjuntos subtipo construcción.
@@ -248,4 +271,11 @@ public class TraductorLatexTest {
 			return ""; //$NON-NLS-1$
 		}
 	}
+
+	private String documentoVacio() throws IOException {
+		StringWriter documento = new StringWriter();
+		traductor.escribeCabecera(documento);
+		traductor.escribePie(documento);
+		return documento.toString();
+	}
 }
@@ -0,0 +1,130 @@
+package es.ubu.inf.tfg.regex;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+import es.ubu.inf.tfg.regex.datos.Generador;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
+
+public class ConcurrenciaTest {
+
+	private static final int HILOS = 8;
+	private static final int EXPRESIONES = 100;
+	private static final int REPETICIONES = 4;
+
+	private ExecutorService executor;
+	private List<ExpresionRegular> expresiones;
+
+	@Before
+	public void setUp() throws Exception {
+		executor = Executors.newFixedThreadPool(HILOS);
+
+		Generador generador = new Generador(3, true, true,
+				new SplittableRandom(3));
+		expresiones = new ArrayList<>();
+		for (int i = 0; i < EXPRESIONES; i++)
+			expresiones.add(generador.arbol(2 + i % 3));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+		executor = null;
+		expresiones = null;
+	}
+
+	/**
+	 * Comprueba que resolver y dibujar problemas Aho-Sethi-Ullman en paralelo
+	 * produce los mismos resultados que hacerlo en serie.
+	 */
+	@Test
+	public void testAhoSethiUllmanParalelo() throws Exception {
+		List<String> serie = new ArrayList<>();
+		for (ExpresionRegular expresion : expresiones)
+			serie.add(firma(new AhoSethiUllman(expresion)));
+
+		for (int i = 0; i < REPETICIONES; i++) {
+			List<Future<String>> paralelo = new ArrayList<>();
+			for (ExpresionRegular expresion : expresiones)
+				paralelo.add(executor.submit(() -> firma(new AhoSethiUllman(
+						expresion))));
+
+			for (int j = 0; j < serie.size(); j++)
+				assertEquals("Resultado paralelo distinto del resultado en serie.",
+						serie.get(j), paralelo.get(j).get());
+		}
+	}
+
+	/**
+	 * Comprueba que resolver y dibujar problemas de construcción de
+	 * subconjuntos en paralelo produce los mismos resultados que hacerlo en
+	 * serie.
+	 */
+	@Test
+	public void testConstruccionSubconjuntosParalelo() throws Exception {
+		List<String> serie = new ArrayList<>();
+		for (ExpresionRegular expresion : expresiones)
+			serie.add(firma(new ConstruccionSubconjuntos(expresion)));
+
+		for (int i = 0; i < REPETICIONES; i++) {
+			List<Future<String>> paralelo = new ArrayList<>();
+			for (ExpresionRegular expresion : expresiones)
+				paralelo.add(executor.submit(() -> firma(new ConstruccionSubconjuntos(
+						expresion))));
+
+			for (int j = 0; j < serie.size(); j++)
+				assertEquals("Resultado paralelo distinto del resultado en serie.",
+						serie.get(j), paralelo.get(j).get());
+		}
+	}
+
+	/**
+	 * Resume en una cadena la solución de un problema Aho-Sethi-Ullman: tabla
+	 * de transición, estados finales y árbol en formato TikZ.
+	 *
+	 * @param problema
+	 *            Problema a resumir.
+	 * @return Resumen del problema.
+	 */
+	private static String firma(AhoSethiUllman problema) {
+		StringBuilder firma = new StringBuilder(problema.problema());
+		for (int estado = 0; estado < problema.nEstados(); estado++) {
+			firma.append('\n').append(estado).append(problema.esFinal(estado) ? "*" : "");
+			for (char simbolo : problema.simbolos())
+				if (simbolo != '$')
+					firma.append(' ').append(problema.mueve(estado, simbolo));
+		}
+		return firma.append('\n').append(problema.arbolVacioTikZ()).toString();
+	}
+
+	/**
+	 * Resume en una cadena la solución de un problema de construcción de
+	 * subconjuntos: tabla de transición, estados finales y autómata en formato
+	 * TikZ.
+	 *
+	 * @param problema
+	 *            Problema a resumir.
+	 * @return Resumen del problema.
+	 */
+	private static String firma(ConstruccionSubconjuntos problema) {
+		StringBuilder firma = new StringBuilder(problema.problema());
+		for (int estado = 0; estado < problema.nEstados(); estado++) {
+			firma.append('\n').append(estado).append(problema.esFinal(estado) ? "*" : "");
+			for (char simbolo : problema.simbolos())
+				firma.append(' ').append(problema.mueve(estado, simbolo));
+		}
+		return firma.append('\n').append(problema.automataTikZ()).toString();
+	}
+}
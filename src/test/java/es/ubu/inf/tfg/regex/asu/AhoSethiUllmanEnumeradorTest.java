@@ -0,0 +1,123 @@
+package es.ubu.inf.tfg.regex.asu;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+
+public class AhoSethiUllmanEnumeradorTest {
+
+	/**
+	 * Comprueba que la búsqueda encuentra un problema exacto para objetivos
+	 * pequeños, con y sin nodos vacíos, y que sus posiciones están bien
+	 * numeradas.
+	 */
+	@Test
+	public void testBusca() {
+		for (boolean usaVacio : new boolean[] { false, true }) {
+			for (int nSimbolos = 1; nSimbolos <= 3; nSimbolos++) {
+				for (int nEstados = 1; nEstados <= 6; nEstados++) {
+					AhoSethiUllmanEnumerador enumerador = new AhoSethiUllmanEnumerador(
+							nSimbolos, nEstados, usaVacio, 7);
+					ExpresionRegular expresion = enumerador.busca(() -> false);
+					assertNotNull("Problema exacto no encontrado.", expresion);
+
+					AhoSethiUllman problema = new AhoSethiUllman(expresion);
+					assertEquals("Número de símbolos incorrecto: " + expresion,
+							nSimbolos, problema.simbolos().size() - 1);
+					assertEquals("Número de estados incorrecto: " + expresion,
+							nEstados, problema.nEstados());
+
+					Set<Integer> posiciones = new HashSet<>();
+					for (ExpresionRegular nodo : expresion.nodos())
+						if (nodo.esSimbolo())
+							assertEquals("Posición repetida: " + expresion,
+									true, posiciones.add(nodo.posicion()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Comprueba que la búsqueda devuelve siempre la misma expresión para los
+	 * mismos parámetros.
+	 */
+	@Test
+	public void testDeterminista() {
+		ExpresionRegular primera = new AhoSethiUllmanEnumerador(3, 6, false, 7)
+				.busca(() -> false);
+		ExpresionRegular segunda = new AhoSethiUllmanEnumerador(3, 6, false, 7)
+				.busca(() -> false);
+
+		assertEquals("Búsqueda no determinista.", primera.toString(),
+				segunda.toString());
+	}
+
+	/**
+	 * Comprueba que las expresiones encontradas se asocian por la izquierda y
+	 * usan los símbolos por primera vez en orden alfabético, leyendo de
+	 * izquierda a derecha.
+	 */
+	@Test
+	public void testCanonica() {
+		for (int nSimbolos = 2; nSimbolos <= 3; nSimbolos++) {
+			for (int nEstados = 3; nEstados <= 6; nEstados++) {
+				ExpresionRegular expresion = new AhoSethiUllmanEnumerador(
+						nSimbolos, nEstados, false, 7).busca(() -> false);
+
+				for (ExpresionRegular nodo : expresion.nodos()) {
+					if (nodo.esConcat())
+						assertFalse("Concatenación asociada por la derecha: "
+								+ expresion, nodo.hijoDerecho().esConcat());
+					if (nodo.esUnion())
+						assertFalse("Unión asociada por la derecha: "
+								+ expresion, nodo.hijoDerecho().esUnion());
+				}
+
+				char siguiente = 'a';
+				for (char simbolo : expresion.toString().toCharArray()) {
+					if (simbolo >= 'a' && simbolo <= 'z') {
+						assertTrue("Símbolos desordenados: " + expresion,
+								simbolo <= siguiente);
+						if (simbolo == siguiente)
+							siguiente++;
+					}
+				}
+			}
+		}
+
+		assertEquals("Expresión mal asociada.", "a|b·c", new AhoSethiUllman(
+				new AhoSethiUllmanEnumerador(3, 4, false, 7)
+						.busca(() -> false)).problema());
+	}
+
+	/**
+	 * Comprueba que la búsqueda no devuelve nada cuando ningún árbol del
+	 * tamaño permitido cumple los parámetros, o cuando se detiene.
+	 */
+	@Test
+	public void testSinSolucion() {
+		assertNull("Encontrado problema con más símbolos que hojas.",
+				new AhoSethiUllmanEnumerador(3, 4, false, 2).busca(() -> false));
+		assertNull("Encontrado problema con demasiados estados.",
+				new AhoSethiUllmanEnumerador(1, 40, false, 3).busca(() -> false));
+		assertNull("Búsqueda no detenida.", new AhoSethiUllmanEnumerador(2, 6,
+				false, 7).busca(() -> true));
+	}
+
+	/**
+	 * Comprueba que se rechazan parámetros no válidos.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParametrosNoValidos() {
+		new AhoSethiUllmanEnumerador(0, 4, false, 7);
+	}
+}
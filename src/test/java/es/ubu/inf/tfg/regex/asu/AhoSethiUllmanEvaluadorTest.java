@@ -0,0 +1,72 @@
+package es.ubu.inf.tfg.regex.asu;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+import es.ubu.inf.tfg.regex.datos.ExpresionesAleatorias;
+import es.ubu.inf.tfg.regex.parser.ExpresionRegularParserRapido;
+import es.ubu.inf.tfg.regex.parser.ParseException;
+
+public class AhoSethiUllmanEvaluadorTest {
+
+	/**
+	 * Comprueba que el evaluador obtiene el mismo número de estados y de
+	 * símbolos que el problema completo para expresiones conocidas, con
+	 * símbolos repetidos en varias posiciones y subexpresiones anulables que
+	 * propagan siguiente-pos.
+	 * 
+	 * @throws ParseException
+	 *             Error del parser.
+	 */
+	@Test
+	public void testEquivalencia() throws ParseException {
+		String[] expresiones = { "a|E", "(a|E)*", "a*b*a*", "(ab|a)*b",
+				"aa*|bb*", "(E|a)(E|b)c", "(a|b)*abb", "(a|b)*a(a|b)(a|b)" };
+
+		for (String expresion : expresiones)
+			compara(ExpresionRegularParserRapido.analiza(expresion),
+					new AhoSethiUllman(expresion));
+	}
+
+	/**
+	 * Comprueba que el evaluador obtiene el mismo número de estados y de
+	 * símbolos que el problema completo para expresiones aleatorias.
+	 */
+	@Test
+	public void testEquivalenciaAleatoria() {
+		for (ExpresionRegular expresion : ExpresionesAleatorias.genera(7, 300,
+				5, 6, true))
+			compara(expresion, new AhoSethiUllman(expresion));
+	}
+
+	/**
+	 * Comprueba que el recuento de estados se detiene al superar el límite.
+	 * 
+	 * @throws ParseException
+	 *             Error del parser.
+	 */
+	@Test
+	public void testLimite() throws ParseException {
+		AhoSethiUllmanEvaluador evaluador = new AhoSethiUllmanEvaluador(
+				ExpresionRegularParserRapido.analiza("(a|b)*abb"));
+
+		assertEquals("Número de estados incorrecto.", 4, evaluador.nEstados());
+		assertEquals("Límite de estados no respetado.", 3,
+				evaluador.nEstados(2));
+		assertEquals("Límite de estados no respetado.", 4,
+				evaluador.nEstados(4));
+	}
+
+	private static void compara(ExpresionRegular expresion,
+			AhoSethiUllman problema) {
+		AhoSethiUllmanEvaluador evaluador = new AhoSethiUllmanEvaluador(
+				expresion);
+
+		assertEquals("Número de estados incorrecto: " + expresion,
+				problema.nEstados(), evaluador.nEstados());
+		assertEquals("Número de símbolos incorrecto: " + expresion, problema
+				.simbolos().size() - 1, evaluador.nSimbolos());
+	}
+}
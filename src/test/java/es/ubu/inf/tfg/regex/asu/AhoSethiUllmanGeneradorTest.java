@@ -1,9 +1,15 @@
 package es.ubu.inf.tfg.regex.asu;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Date;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.After;
 import org.junit.Before;
@@ -12,6 +18,9 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import es.ubu.inf.tfg.regex.datos.EstadisticasGeneracion;
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas;
+
 public class AhoSethiUllmanGeneradorTest {
 
 	private static final Logger log = LoggerFactory
@@ -51,7 +60,7 @@ public class AhoSethiUllmanGeneradorTest {
 
 				assertTrue("Fallo en e" + estados + "s" + simbolos, (problema
 						.simbolos().size() == simbolos + 1)
-						&& (problema.estados().size() == estados));
+						&& (problema.nEstados() == estados));
 			}
 		}
 
@@ -65,7 +74,7 @@ public class AhoSethiUllmanGeneradorTest {
 
 				assertTrue("Fallo en e" + estados + "s" + simbolos, (problema
 						.simbolos().size() == simbolos + 1)
-						&& (problema.estados().size() == estados));
+						&& (problema.nEstados() == estados));
 			}
 		}
 	}
@@ -91,7 +100,7 @@ public class AhoSethiUllmanGeneradorTest {
 			problema = generador.nuevo(simbolos, estados, false);
 
 			simbolosCorrectos = problema.simbolos().size() == simbolos + 1;
-			estadosCorrectos = problema.estados().size() == estados;
+			estadosCorrectos = problema.nEstados() == estados;
 
 			if (estadosCorrectos && simbolosCorrectos)
 				correctos++;
@@ -123,7 +132,7 @@ public class AhoSethiUllmanGeneradorTest {
 			problema = generador.nuevo(simbolos, estados, true);
 
 			simbolosCorrectos = problema.simbolos().size() == simbolos + 1;
-			estadosCorrectos = problema.estados().size() == estados;
+			estadosCorrectos = problema.nEstados() == estados;
 
 			if (estadosCorrectos && simbolosCorrectos)
 				correctos++;
@@ -133,4 +142,120 @@ public class AhoSethiUllmanGeneradorTest {
 				+ (correctos * 100 / N_ITERACIONES) + "%",
 				(correctos * 100 / N_ITERACIONES) >= MIN_CORRECTOS);
 	}
+
+	/**
+	 * Comprueba que la generación con plazo termina al agotarse este,
+	 * devolviendo el mejor problema encontrado, aunque no se alcancen los
+	 * parámetros pedidos. Solo puede terminar antes si encuentra una solución
+	 * exacta.
+	 */
+	@Test
+	public void testPlazo() {
+		long inicio = System.nanoTime();
+		AhoSethiUllman problema = generador.nuevo(2, 500, false,
+				Duration.ofMillis(200), null);
+		long total = System.nanoTime() - inicio;
+
+		assertNotNull("No se devuelve el mejor problema.", problema);
+		assertTrue("Plazo no respetado: " + total / 1000000 + " ms",
+				total < 5000000000L);
+
+		// El plazo limita la búsqueda, no la resolución del problema elegido.
+		EstadisticasGeneracion estadisticas = generador.estadisticas();
+		assertTrue("Plazo no respetado: " + estadisticas.tiempo() / 1000000
+				+ " ms", estadisticas.tiempo() < 2000000000L);
+		assertTrue("Búsqueda detenida antes de tiempo sin solución exacta.",
+				estadisticas.evaluacion() == 0
+						|| estadisticas.tiempo() >= 200000000L);
+		assertTrue("Iteraciones no registradas.",
+				estadisticas.iteraciones() > 1);
+		assertTrue("Iteraciones por segundo no registradas.",
+				estadisticas.iteracionesPorSegundo() > 0);
+	}
+
+	/**
+	 * Comprueba que la generación se detiene tras una única iteración si el
+	 * indicador de cancelación externo ya está activo.
+	 */
+	@Test
+	public void testCancelacion() {
+		AhoSethiUllman problema = generador.nuevo(2, 500, false, null,
+				new AtomicBoolean(true));
+
+		assertNotNull("No se devuelve el mejor problema.", problema);
+		assertEquals("Generación no cancelada.", 1, generador.estadisticas()
+				.iteraciones());
+	}
+
+	/**
+	 * Comprueba que una cancelación no afecta a las generaciones posteriores
+	 * del mismo generador.
+	 */
+	@Test
+	public void testCancelacionPosterior() {
+		generador.cancelar();
+		generador.nuevo(2, 500, false, Duration.ofMillis(50), null);
+
+		assertTrue("Cancelación aplicada a una generación posterior.",
+				generador.estadisticas().iteraciones() > 1);
+	}
+
+	/**
+	 * Comprueba que el modo exacto devuelve problemas que se ajustan
+	 * exactamente a los parámetros, y siempre el mismo para los mismos
+	 * parámetros.
+	 */
+	@Test
+	public void testExacto() {
+		for (int nSimbolos = 2; nSimbolos <= 3; nSimbolos++) {
+			for (int nEstados = 3; nEstados <= 6; nEstados++) {
+				AhoSethiUllman problema = generador.exacto(nSimbolos,
+						nEstados, false);
+				assertEquals("Número de símbolos incorrecto.", nSimbolos,
+						problema.simbolos().size() - 1);
+				assertEquals("Número de estados incorrecto.", nEstados,
+						problema.nEstados());
+				assertEquals("Evaluación incorrecta.", 0, generador
+						.estadisticas().evaluacion());
+				assertEquals("Modo exacto no determinista.",
+						problema.problema(),
+						generador.exacto(nSimbolos, nEstados, false).problema());
+			}
+		}
+	}
+
+	/**
+	 * Comprueba que se sirve sin búsqueda un problema exacto del índice
+	 * instalado, y que se recurre a la búsqueda cuando la cubeta se agota.
+	 * 
+	 * @throws IOException
+	 *             Error de lectura o escritura del índice.
+	 */
+	@Test
+	public void testIndice() throws IOException {
+		AhoSethiUllman indexado = new AhoSethiUllman("(a|b)*abb");
+		int estados = indexado.nEstados();
+
+		File fichero = File.createTempFile("plquiz-indice", ".idx");
+		try {
+			IndiceProblemas.Escritor escritor = new IndiceProblemas.Escritor(1);
+			escritor.añade(IndiceProblemas.Tipo.AHO_SETHI_ULLMAN, 2, estados,
+					false, "(a|b)*abb");
+			escritor.escribe(fichero);
+			IndiceProblemas.instala(IndiceProblemas.abre(fichero));
+
+			AhoSethiUllman problema = generador.nuevo(2, estados, false);
+			assertEquals("Problema del índice no servido.", "(a|b)*abb",
+					problema.problema());
+			assertEquals("Búsqueda realizada con problema en el índice.", 0,
+					generador.estadisticas().iteraciones());
+
+			generador.nuevo(2, estados, false);
+			assertTrue("Búsqueda no realizada con la cubeta agotada.",
+					generador.estadisticas().iteraciones() > 0);
+		} finally {
+			IndiceProblemas.instala(null);
+			fichero.delete();
+		}
+	}
 }
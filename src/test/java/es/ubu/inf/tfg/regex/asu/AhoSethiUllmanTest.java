@@ -4,6 +4,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -11,6 +13,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import es.ubu.inf.tfg.regex.datos.MapaEstados;
+
 public class AhoSethiUllmanTest {
 
 	private AhoSethiUllman asu;
@@ -129,8 +133,41 @@ public class AhoSethiUllmanTest {
 	 */
 	@Test
 	public void testEstados() {
-		assertEquals("Conjunto de estados incorrecto.", set('A', 'B', 'C', 'D'),
-				asu.estados());
+		assertEquals("Conjunto de estados incorrecto.",
+				Arrays.asList("A", "B", "C", "D"), asu.estados());
+	}
+
+	/**
+	 * Comprueba que se resuelven correctamente problemas con más estados de
+	 * los que se pueden etiquetar con letras.
+	 */
+	@Test
+	public void testMuchosEstados() {
+		AhoSethiUllman grande = new AhoSethiUllman(
+				"(a|b)*a(a|b)(a|b)(a|b)(a|b)(a|b)");
+
+		assertEquals("Número de estados incorrecto.", 64, grande.nEstados());
+
+		int finales = 0;
+		for (int estado = 0; estado < grande.nEstados(); estado++) {
+			assertTrue("Transición fuera de la tabla.",
+					grande.mueve(estado, 'a') < grande.nEstados());
+			assertTrue("Transición fuera de la tabla.",
+					grande.mueve(estado, 'b') < grande.nEstados());
+			if (grande.esFinal(estado))
+				finales++;
+		}
+		assertEquals("Número de estados finales incorrecto.", 32, finales);
+
+		List<String> estados = grande.estados();
+		assertEquals("Número de etiquetas incorrecto.", 64, estados.size());
+		assertEquals("Etiqueta de estado incorrecta.", "Z", estados.get(25));
+		assertEquals("Etiqueta de estado incorrecta.", "AA", estados.get(26));
+		assertEquals("Etiqueta de estado incorrecta.", "BL", estados.get(63));
+		for (String estado : estados)
+			assertEquals("Transición etiquetada incorrectamente.",
+					MapaEstados.etiqueta(grande.mueve(MapaEstados.indice(estado), 'a')),
+					grande.mueve(estado, 'a'));
 	}
 
 	/**
@@ -140,13 +177,13 @@ public class AhoSethiUllmanTest {
 	@Test
 	public void testEstado() {
 		assertEquals("Incorrecto conjunto de posiciones para un estado dado.",
-				set(1, 2, 3, 4, 5), asu.estado('A'));
+				set(1, 2, 3, 4, 5), asu.estado("A"));
 		assertEquals("Incorrecto conjunto de posiciones para un estado dado.",
-				set(3, 4), asu.estado('B'));
+				set(3, 4), asu.estado("B"));
 		assertEquals("Incorrecto conjunto de posiciones para un estado dado.",
-				set(2, 3, 4), asu.estado('C'));
+				set(2, 3, 4), asu.estado("C"));
 		assertEquals("Incorrecto conjunto de posiciones para un estado dado.",
-				new TreeSet<Integer>(), asu.estado('D'));
+				new TreeSet<Integer>(), asu.estado("D"));
 	}
 
 	/**
@@ -155,30 +192,30 @@ public class AhoSethiUllmanTest {
 	 */
 	@Test
 	public void testMueve() {
-		assertEquals("Función de transición incorrecta.", 'B',
-				asu.mueve('A', 'a'));
-		assertEquals("Función de transición incorrecta.", 'C',
-				asu.mueve('A', 'b'));
-		assertEquals("Función de transición incorrecta.", 'A',
-				asu.mueve('A', 'c'));
-		assertEquals("Función de transición incorrecta.", 'B',
-				asu.mueve('B', 'a'));
-		assertEquals("Función de transición incorrecta.", 'D',
-				asu.mueve('B', 'b'));
-		assertEquals("Función de transición incorrecta.", 'A',
-				asu.mueve('B', 'c'));
-		assertEquals("Función de transición incorrecta.", 'B',
-				asu.mueve('C', 'a'));
-		assertEquals("Función de transición incorrecta.", 'C',
-				asu.mueve('C', 'b'));
-		assertEquals("Función de transición incorrecta.", 'A',
-				asu.mueve('C', 'c'));
-		assertEquals("Función de transición incorrecta.", 'D',
-				asu.mueve('D', 'a'));
-		assertEquals("Función de transición incorrecta.", 'D',
-				asu.mueve('D', 'b'));
-		assertEquals("Función de transición incorrecta.", 'D',
-				asu.mueve('D', 'c'));
+		assertEquals("Función de transición incorrecta.", "B",
+				asu.mueve("A", 'a'));
+		assertEquals("Función de transición incorrecta.", "C",
+				asu.mueve("A", 'b'));
+		assertEquals("Función de transición incorrecta.", "A",
+				asu.mueve("A", 'c'));
+		assertEquals("Función de transición incorrecta.", "B",
+				asu.mueve("B", 'a'));
+		assertEquals("Función de transición incorrecta.", "D",
+				asu.mueve("B", 'b'));
+		assertEquals("Función de transición incorrecta.", "A",
+				asu.mueve("B", 'c'));
+		assertEquals("Función de transición incorrecta.", "B",
+				asu.mueve("C", 'a'));
+		assertEquals("Función de transición incorrecta.", "C",
+				asu.mueve("C", 'b'));
+		assertEquals("Función de transición incorrecta.", "A",
+				asu.mueve("C", 'c'));
+		assertEquals("Función de transición incorrecta.", "D",
+				asu.mueve("D", 'a'));
+		assertEquals("Función de transición incorrecta.", "D",
+				asu.mueve("D", 'b'));
+		assertEquals("Función de transición incorrecta.", "D",
+				asu.mueve("D", 'c'));
 	}
 
 	/**
@@ -187,13 +224,13 @@ public class AhoSethiUllmanTest {
 	 */
 	@Test
 	public void testEsFinal() {
-		assertTrue("Estado final identificado como no final.", asu.esFinal('A'));
+		assertTrue("Estado final identificado como no final.", asu.esFinal("A"));
 		assertFalse("Estado no final identificado como final.",
-				asu.esFinal('B'));
+				asu.esFinal("B"));
 		assertFalse("Estado no final identificado como final.",
-				asu.esFinal('C'));
+				asu.esFinal("C"));
 		assertFalse("Estado no final identificado como final.",
-				asu.esFinal('D'));
+				asu.esFinal("D"));
 	}
 
 	/**
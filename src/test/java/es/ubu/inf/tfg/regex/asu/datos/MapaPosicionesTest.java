@@ -2,7 +2,9 @@ package es.ubu.inf.tfg.regex.asu.datos;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.util.BitSet;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -232,6 +234,27 @@ public class MapaPosicionesTest {
 				mapaCharacter, mapaCharacterB);
 	}
 
+	/**
+	 * Comprueba que la representación interna de las posiciones coincide con
+	 * el conjunto público, y que la conversión entre ambas es reversible.
+	 */
+	@Test
+	public void testPosiciones() {
+		mapaInteger.add(1, set(1, 3, 70));
+		BitSet bits = mapaInteger.posiciones(1);
+
+		assertEquals("Error recuperando las posiciones internas.", set(1, 3, 70),
+				MapaPosiciones.conjunto(bits));
+		assertEquals("Error convirtiendo el conjunto de posiciones.", bits,
+				MapaPosiciones.bits(set(1, 3, 70)));
+		assertTrue("Una clave inexistente no devuelve el conjunto vacío.",
+				mapaInteger.posiciones(2).isEmpty());
+		assertTrue("Error comprobando la existencia de una clave.",
+				mapaInteger.contiene(1));
+		assertFalse("Error comprobando la existencia de una clave.",
+				mapaInteger.contiene(2));
+	}
+
 	/**
 	 * Genera un set a partir de una lista de enteros de longitud variable.
 	 * 
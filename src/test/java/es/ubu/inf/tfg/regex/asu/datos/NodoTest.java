@@ -269,6 +269,34 @@ public class NodoTest {
 	}
 	*/
 
+	/**
+	 * Comprueba que los árboles de más de 26 nodos se dibujan en TikZ y en dot
+	 * con etiquetas distintas para cada nodo.
+	 */
+	@Test
+	public void testImagenGrande() {
+		ExpresionRegular grande = ExpresionRegular.nodoSimbolo(1, 'a');
+		for (int i = 2; i <= 20; i++)
+			grande = ExpresionRegular.nodoConcat(grande,
+					ExpresionRegular.nodoSimbolo(i, 'a'));
+		grande = ExpresionRegular.nodoConcat(grande,
+				ExpresionRegular.nodoAumentado(21));
+
+		String imagen = new Nodo(grande).imagenTikZ();
+
+		assertTrue("Etiqueta Z no generada.", imagen.contains("(Z)"));
+		assertTrue("Etiqueta AA no generada.", imagen.contains("(AA)"));
+		assertTrue("Etiqueta AO no generada.", imagen.contains("(AO)"));
+		assertFalse("Etiqueta AP sobrante.", imagen.contains("(AP)"));
+
+		String dot = new Nodo(grande).imagenDot();
+
+		assertTrue("Etiqueta AA no generada en dot.",
+				dot.contains("\n\tAA [label=\"AA\n"));
+		assertTrue("Etiqueta AO no generada en dot.", dot.contains("-> AO"));
+		assertFalse("Etiqueta fuera del alfabeto en dot.", dot.contains("\n\t["));
+	}
+
 	/**
 	 * Genera un set a partir de una lista de enteros de longitud variable.
 	 * 
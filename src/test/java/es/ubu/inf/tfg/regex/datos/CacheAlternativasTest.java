@@ -0,0 +1,127 @@
+package es.ubu.inf.tfg.regex.datos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import es.ubu.inf.tfg.regex.asu.AhoSethiUllman;
+import es.ubu.inf.tfg.regex.thompson.ConstruccionSubconjuntos;
+
+public class CacheAlternativasTest {
+
+	@Before
+	public void setUp() throws Exception {
+		CacheAlternativas.vacia();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		CacheAlternativas.vacia();
+	}
+
+	/**
+	 * Comprueba que una representación solo se calcula la primera vez que se
+	 * pide para un problema y formato.
+	 */
+	@Test
+	public void testObtiene() {
+		Object problema = new Object();
+		AtomicInteger calculos = new AtomicInteger();
+
+		List<String> primera = CacheAlternativas.obtiene(problema, "dot",
+				() -> {
+					calculos.incrementAndGet();
+					return Arrays.asList("a", "b");
+				});
+		List<String> segunda = CacheAlternativas.obtiene(problema, "dot",
+				() -> {
+					calculos.incrementAndGet();
+					return Arrays.asList("c", "d");
+				});
+
+		assertEquals("Representación recalculada.", 1, calculos.get());
+		assertEquals("Representación en caché errónea.", primera, segunda);
+	}
+
+	/**
+	 * Comprueba que al superar la capacidad se descartan las representaciones
+	 * del problema utilizado hace más tiempo.
+	 */
+	@Test
+	public void testDescarte() {
+		List<Object> problemas = new ArrayList<>();
+		for (int i = 0; i <= CacheAlternativas.CAPACIDAD; i++)
+			problemas.add(new Object());
+
+		for (int i = 0; i < CacheAlternativas.CAPACIDAD; i++)
+			CacheAlternativas.obtiene(problemas.get(i), "dot",
+					() -> Arrays.asList("original"));
+		// El primero pasa a ser el más reciente.
+		CacheAlternativas.obtiene(problemas.get(0), "dot",
+				() -> Arrays.asList("recalculado"));
+		CacheAlternativas.obtiene(problemas.get(CacheAlternativas.CAPACIDAD),
+				"dot", () -> Arrays.asList("nuevo"));
+
+		assertEquals("Número de problemas en caché erróneo.",
+				CacheAlternativas.CAPACIDAD, CacheAlternativas.tamaño());
+		assertEquals("Descartado el problema más reciente.", "original",
+				CacheAlternativas.obtiene(problemas.get(0), "dot",
+						() -> Arrays.asList("recalculado")).get(0));
+		assertEquals("No descartado el problema más antiguo.", "recalculado",
+				CacheAlternativas.obtiene(problemas.get(1), "dot",
+						() -> Arrays.asList("recalculado")).get(0));
+	}
+
+	/**
+	 * Comprueba que las alternativas de un problema Aho-Sethi-Ullman son las
+	 * mismas en todas las peticiones y formatos.
+	 */
+	@Test
+	public void testAhoSethiUllman() {
+		AhoSethiUllman problema = new AhoSethiUllman("(a|b)*abb");
+
+		List<BufferedImage> imagenes = problema.alternativas();
+		List<String> dot = problema.alternativasDot();
+
+		assertEquals("Alternativas distintas entre peticiones.",
+				problema.expresionesAlternativas(),
+				problema.expresionesAlternativas());
+		for (int i = 0; i < imagenes.size(); i++)
+			assertSame("Imagen alternativa recalculada.", imagenes.get(i),
+					problema.alternativas().get(i));
+		assertEquals("Programa DOT alternativo distinto entre peticiones.",
+				dot, problema.alternativasDot());
+		assertEquals("Número de alternativas distinto entre formatos.",
+				imagenes.size(), dot.size());
+	}
+
+	/**
+	 * Comprueba que las alternativas de un problema de construcción de
+	 * subconjuntos son las mismas en todas las peticiones y formatos.
+	 */
+	@Test
+	public void testConstruccionSubconjuntos() {
+		ConstruccionSubconjuntos problema = new ConstruccionSubconjuntos(
+				"(a|b)*abb");
+
+		List<BufferedImage> imagenes = problema.alternativas();
+		List<String> dot = problema.alternativasDot();
+
+		for (int i = 0; i < imagenes.size(); i++)
+			assertSame("Imagen alternativa recalculada.", imagenes.get(i),
+					problema.alternativas().get(i));
+		assertEquals("Programa DOT alternativo distinto entre peticiones.",
+				dot, problema.alternativasDot());
+		assertEquals("Número de alternativas distinto entre formatos.",
+				imagenes.size(), dot.size());
+	}
+}
@@ -2,6 +2,7 @@ package es.ubu.inf.tfg.regex.datos;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -597,4 +598,82 @@ public class ExpresionRegularTest {
 		assertEquals("Problemas en la parentización de la expresión regular.", nodoABCDE.toString2(), "a·(b·c)·(d|e)*");
 	}
 
+	/**
+	 * Comprueba que los métodos builder devuelven el mismo nodo para los mismos
+	 * atributos, compartiendo los subárboles comunes.
+	 */
+	@Test
+	public void testInternado() {
+		ExpresionRegular nodoA = ExpresionRegular.nodoSimbolo(1, 'a');
+		ExpresionRegular nodoB = ExpresionRegular.nodoSimbolo(2, 'b');
+		ExpresionRegular nodoAB = ExpresionRegular.nodoUnion(nodoA, nodoB);
+
+		assertSame("Nodo símbolo duplicado.", nodoA,
+				ExpresionRegular.nodoSimbolo(1, 'a'));
+		assertSame("Nodo vacío duplicado.", ExpresionRegular.nodoVacio(),
+				ExpresionRegular.nodoVacio());
+		assertSame("Nodo unión duplicado.", nodoAB, ExpresionRegular
+				.nodoUnion(ExpresionRegular.nodoSimbolo(1, 'a'),
+						ExpresionRegular.nodoSimbolo(2, 'b')));
+		assertSame("Nodo cierre duplicado.", ExpresionRegular.nodoCierre(nodoAB),
+				ExpresionRegular.nodoCierre(nodoAB));
+		assertFalse("Nodos con distinta posición compartidos.",
+				nodoA == ExpresionRegular.nodoSimbolo(2, 'a'));
+	}
+
+	/**
+	 * Comprueba que dos expresiones son iguales si y solo si se escriben igual,
+	 * independientemente de las posiciones de sus símbolos.
+	 */
+	@Test
+	public void testIgualdad() {
+		ExpresionRegular nodoAB = ExpresionRegular.nodoConcat(
+				ExpresionRegular.nodoSimbolo(1, 'a'),
+				ExpresionRegular.nodoSimbolo(2, 'b'));
+		ExpresionRegular nodoAB2 = ExpresionRegular.nodoConcat(
+				ExpresionRegular.nodoSimbolo(3, 'a'),
+				ExpresionRegular.nodoSimbolo(7, 'b'));
+
+		assertEquals("Expresiones con distinta posición diferentes.", nodoAB,
+				nodoAB2);
+		assertEquals("Código hash distinto en expresiones iguales.",
+				nodoAB.hashCode(), nodoAB2.hashCode());
+
+		List<ExpresionRegular> expresiones = ExpresionesAleatorias.genera(13,
+				200, 3, 4, false);
+
+		for (ExpresionRegular a : expresiones) {
+			for (ExpresionRegular b : expresiones) {
+				assertEquals("Igualdad distinta de la escritura: " + a + ", "
+						+ b, a.toString().equals(b.toString()), a.equals(b));
+				if (a.equals(b))
+					assertEquals("Código hash distinto en expresiones iguales.",
+							a.hashCode(), b.hashCode());
+			}
+		}
+	}
+
+	/**
+	 * Comprueba que la numeración asigna las posiciones de izquierda a derecha,
+	 * y que devuelve la misma expresión si ya estaba numerada.
+	 */
+	@Test
+	public void testNumera() {
+		ExpresionRegular desordenada = ExpresionRegular.nodoConcat(
+				ExpresionRegular.nodoUnion(ExpresionRegular.nodoSimbolo(4, 'a'),
+						ExpresionRegular.nodoVacio()), ExpresionRegular
+						.nodoConcat(ExpresionRegular.nodoCierre(ExpresionRegular
+								.nodoSimbolo(1, 'b')), ExpresionRegular
+								.nodoAumentado(1)));
+		ExpresionRegular numerada = ExpresionRegular.nodoConcat(
+				ExpresionRegular.nodoUnion(ExpresionRegular.nodoSimbolo(1, 'a'),
+						ExpresionRegular.nodoVacio()), ExpresionRegular
+						.nodoConcat(ExpresionRegular.nodoCierre(ExpresionRegular
+								.nodoSimbolo(2, 'b')), ExpresionRegular
+								.nodoAumentado(3)));
+
+		assertSame("Expresión mal numerada.", numerada, desordenada.numera());
+		assertSame("Expresión numerada modificada.", numerada,
+				numerada.numera());
+	}
 }
@@ -0,0 +1,49 @@
+package es.ubu.inf.tfg.regex.datos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Genera listas de expresiones regulares aleatorias con las que comparar dos
+ * implementaciones de un mismo cálculo. Cada expresión se obtiene con un
+ * generador distinto, variando el número de símbolos y la profundidad del
+ * árbol, y alternando el uso del símbolo vacío. La misma semilla produce
+ * siempre las mismas expresiones.
+ */
+public class ExpresionesAleatorias {
+
+	private ExpresionesAleatorias() {
+	}
+
+	/**
+	 * Genera una lista de expresiones aleatorias. La expresión i-ésima utiliza
+	 * 1 + i % simbolos símbolos, tiene profundidad 1 + i % profundidades, y
+	 * admite el símbolo vacío si i es par.
+	 *
+	 * @param semilla
+	 *            Semilla de la que se obtienen los generadores.
+	 * @param cantidad
+	 *            Número de expresiones a generar.
+	 * @param simbolos
+	 *            Número de valores distintos del número de símbolos.
+	 * @param profundidades
+	 *            Número de valores distintos de la profundidad.
+	 * @param esAumentada
+	 *            Si las expresiones deben estar aumentadas.
+	 * @return Lista de expresiones generadas.
+	 */
+	public static List<ExpresionRegular> genera(long semilla, int cantidad,
+			int simbolos, int profundidades, boolean esAumentada) {
+		SplittableRandom random = new SplittableRandom(semilla);
+		List<ExpresionRegular> expresiones = new ArrayList<>(cantidad);
+
+		for (int i = 0; i < cantidad; i++) {
+			Generador generador = new Generador(1 + i % simbolos, i % 2 == 0,
+					esAumentada, random.split());
+			expresiones.add(generador.arbol(1 + i % profundidades));
+		}
+
+		return expresiones;
+	}
+}
@@ -2,6 +2,10 @@ package es.ubu.inf.tfg.regex.datos;
 
 import static org.junit.Assert.*;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
 import org.junit.Ignore;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -65,6 +69,46 @@ public class GeneradorTest {
 				Math.abs(8 - mutante.profundidad()) <= 1);
 	}
 
+	/**
+	 * Comprueba que la mutación comparte con la expresión original los
+	 * subárboles no modificados, conserva el nodo aumentado, y que la expresión
+	 * mutada queda bien numerada al numerarla.
+	 */
+	@Test
+	public void testMutacionCompartida() {
+		Generador generador = new Generador(3, false, true,
+				new SplittableRandom(11));
+
+		for (int i = 0; i < 100; i++) {
+			ExpresionRegular expresion = generador.arbol(6);
+			ExpresionRegular mutante = generador.mutacion(expresion);
+
+			assertSame("Nodo aumentado no compartido.",
+					expresion.hijoDerecho(), mutante.hijoDerecho());
+
+			// Algún subárbol del original aparece intacto en el mutante,
+			// salvo que se reemplace la raíz.
+			ExpresionRegular original = expresion.hijoIzquierdo();
+			ExpresionRegular mutado = mutante.hijoIzquierdo();
+			if (original.tipo == mutado.tipo && !original.esCierre())
+				assertTrue("Subárboles no compartidos.",
+						original.hijoIzquierdo() == mutado.hijoIzquierdo()
+								|| original.hijoDerecho() == mutado
+										.hijoDerecho());
+
+			ExpresionRegular numerada = mutante.numera();
+			assertEquals("Numeración modificando la expresión.",
+					mutante.toString(), numerada.toString());
+			Set<Integer> posiciones = new HashSet<>();
+			for (ExpresionRegular nodo : numerada.nodos())
+				if (nodo.esSimbolo())
+					assertTrue("Posición repetida.",
+							posiciones.add(nodo.posicion()));
+			assertEquals("Posición del nodo aumentado incorrecta.",
+					posiciones.size(), numerada.hijoDerecho().posicion());
+		}
+	}
+
 	/**
 	 * Genera una serie de problemas Aho-Sethi-Ullman a partir de expresiones
 	 * regulares aleatorias y almacena sus características.
@@ -137,8 +181,7 @@ public class GeneradorTest {
 					expresion = generador.arbol(profundidad);
 					asu = new AhoSethiUllman(expresion);
 
-					log.info("{} {}", asu.simbolos().size(), asu.estados()
-							.size());
+					log.info("{} {}", asu.simbolos().size(), asu.nEstados());
 
 					it--;
 				}
@@ -156,7 +199,7 @@ public class GeneradorTest {
 					expresion = generador.arbol(profundidad);
 					cs = new ConstruccionSubconjuntos(expresion);
 
-					log.info("{} {}", cs.simbolos().size(), cs.estados().size());
+					log.info("{} {}", cs.simbolos().size(), cs.nEstados());
 
 					it--;
 				}
@@ -192,4 +235,26 @@ public class GeneradorTest {
 			log.info("profundidad {}, {}", p, t);
 		}
 	}
+
+	/**
+	 * Comprueba que dos generadores con la misma semilla producen los mismos
+	 * árboles y las mismas mutaciones.
+	 */
+	@Test
+	public void testSemilla() {
+		Generador generadorA = new Generador(3, true, true,
+				new SplittableRandom(42));
+		Generador generadorB = new Generador(3, true, true,
+				new SplittableRandom(42));
+
+		for (int i = 0; i < 20; i++) {
+			ExpresionRegular expresionA = generadorA.arbol(5);
+			ExpresionRegular expresionB = generadorB.arbol(5);
+			assertEquals("Árboles distintos con la misma semilla.",
+					expresionA.toString(), expresionB.toString());
+			assertEquals("Mutaciones distintas con la misma semilla.",
+					generadorA.mutacion(expresionA).toString(), generadorB
+							.mutacion(expresionB).toString());
+		}
+	}
 }
@@ -0,0 +1,74 @@
+package es.ubu.inf.tfg.regex.datos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ImagenExpresionTest {
+
+	@Before
+	public void setUp() throws Exception {
+		ImagenExpresion.vacia();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		ImagenExpresion.vacia();
+	}
+
+	/**
+	 * Comprueba que las expresiones iguales comparten imagen, aunque sus
+	 * símbolos ocupen posiciones distintas.
+	 */
+	@Test
+	public void testImagen() {
+		ExpresionRegular expresion = ExpresionRegular.nodoUnion(
+				ExpresionRegular.nodoSimbolo(1, 'a'),
+				ExpresionRegular.nodoSimbolo(2, 'b'));
+		ExpresionRegular igual = ExpresionRegular.nodoUnion(
+				ExpresionRegular.nodoSimbolo(5, 'a'),
+				ExpresionRegular.nodoSimbolo(6, 'b'));
+		ExpresionRegular distinta = ExpresionRegular
+				.nodoCierre(ExpresionRegular.nodoSimbolo(1, 'a'));
+
+		BufferedImage imagen = ImagenExpresion.imagen(expresion);
+
+		assertTrue("Imagen vacía.", imagen.getWidth() > 0
+				&& imagen.getHeight() > 0);
+		assertSame("Imagen recalculada.", imagen,
+				ImagenExpresion.imagen(expresion));
+		assertSame("Imagen no compartida entre expresiones iguales.", imagen,
+				ImagenExpresion.imagen(igual));
+		assertNotSame("Imagen compartida entre expresiones distintas.",
+				imagen, ImagenExpresion.imagen(distinta));
+		assertEquals("Número de imágenes en caché incorrecto.", 2,
+				ImagenExpresion.tamaño());
+	}
+
+	/**
+	 * Comprueba que la caché no supera su capacidad aunque las expresiones
+	 * sigan en uso.
+	 */
+	@Test
+	public void testCapacidad() {
+		List<ExpresionRegular> expresiones = new ArrayList<>();
+		ExpresionRegular expresion = ExpresionRegular.nodoSimbolo(1, 'a');
+		for (int i = 0; i < ImagenExpresion.CAPACIDAD + 4; i++) {
+			expresion = ExpresionRegular.nodoCierre(expresion);
+			expresiones.add(expresion);
+			ImagenExpresion.imagen(expresion);
+		}
+
+		assertEquals("Capacidad de la caché superada.",
+				ImagenExpresion.CAPACIDAD, ImagenExpresion.tamaño());
+	}
+}
@@ -0,0 +1,157 @@
+package es.ubu.inf.tfg.regex.datos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import es.ubu.inf.tfg.regex.datos.IndiceProblemas.Tipo;
+
+public class IndiceProblemasTest {
+
+	private File fichero;
+
+	@Before
+	public void setUp() throws Exception {
+		fichero = File.createTempFile("plquiz-indice", ".idx");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		fichero.delete();
+		fichero = null;
+	}
+
+	/**
+	 * Comprueba que las expresiones escritas se recuperan de su cubeta, sin
+	 * repetirse, y que una cubeta agotada no devuelve nada.
+	 * 
+	 * @throws IOException
+	 *             Error de lectura o escritura del índice.
+	 */
+	@Test
+	public void testExtrae() throws IOException {
+		IndiceProblemas.Escritor escritor = new IndiceProblemas.Escritor(10);
+		escritor.añade(Tipo.AHO_SETHI_ULLMAN, 2, 4, false, "(a|b)*abb");
+		escritor.añade(Tipo.AHO_SETHI_ULLMAN, 2, 4, false, "a*b·(ab)");
+		escritor.añade(Tipo.AHO_SETHI_ULLMAN, 2, 4, false, "(ε|a)b");
+		escritor.añade(Tipo.CONSTRUCCION_SUBCONJUNTOS, 2, 4, false, "ab|ba");
+		escritor.escribe(fichero);
+
+		IndiceProblemas indice = IndiceProblemas.abre(fichero);
+		SplittableRandom random = new SplittableRandom(3);
+		assertEquals("Tamaño incorrecto.", 4, indice.tamaño());
+		assertEquals("Cubeta incorrecta.", 3,
+				indice.disponibles(Tipo.AHO_SETHI_ULLMAN, 2, 4, false));
+
+		Set<String> extraidas = new HashSet<>();
+		for (int i = 0; i < 3; i++)
+			extraidas.add(indice.extrae(Tipo.AHO_SETHI_ULLMAN, 2, 4, false,
+					random));
+		assertEquals("Expresiones repetidas o incorrectas.", 3,
+				extraidas.size());
+		assertTrue("Expresión no recuperada.", extraidas.contains("(ε|a)b"));
+		assertNull("Cubeta agotada devuelve expresión.", indice.extrae(
+				Tipo.AHO_SETHI_ULLMAN, 2, 4, false, random));
+
+		assertNull("Cubeta inexistente devuelve expresión.", indice.extrae(
+				Tipo.AHO_SETHI_ULLMAN, 3, 4, false, random));
+		assertEquals("Cubeta de otro tipo afectada.", "ab|ba", indice.extrae(
+				Tipo.CONSTRUCCION_SUBCONJUNTOS, 2, 4, true, random));
+	}
+
+	/**
+	 * Comprueba que el escritor descarta expresiones repetidas y respeta la
+	 * capacidad de cada cubeta.
+	 */
+	@Test
+	public void testCapacidad() {
+		IndiceProblemas.Escritor escritor = new IndiceProblemas.Escritor(2);
+
+		assertTrue("Expresión no añadida.", escritor.añade(
+				Tipo.AHO_SETHI_ULLMAN, 1, 2, false, "a"));
+		assertFalse("Expresión repetida añadida.", escritor.añade(
+				Tipo.AHO_SETHI_ULLMAN, 1, 2, false, "a"));
+		assertTrue("Expresión no añadida.", escritor.añade(
+				Tipo.AHO_SETHI_ULLMAN, 1, 2, false, "aa"));
+		assertFalse("Capacidad no respetada.", escritor.añade(
+				Tipo.AHO_SETHI_ULLMAN, 1, 2, false, "aaa"));
+		assertTrue("Expresión no añadida.", escritor.añade(
+				Tipo.AHO_SETHI_ULLMAN, 1, 2, true, "aaa"));
+		assertEquals("Tamaño incorrecto.", 3, escritor.tamaño());
+	}
+
+	/**
+	 * Comprueba que se rechazan los ficheros que no son índices.
+	 * 
+	 * @throws IOException
+	 *             Esperado.
+	 */
+	@Test(expected = IOException.class)
+	public void testFicheroNoValido() throws IOException {
+		Files.write(fichero.toPath(), "(a|b)*abb\n".getBytes("UTF-8"));
+		IndiceProblemas.abre(fichero);
+	}
+
+	/**
+	 * Comprueba que se rechazan al abrirse los índices truncados en cualquier
+	 * punto, y los que tienen posiciones o longitudes fuera del fichero.
+	 * 
+	 * @throws IOException
+	 *             Error de lectura o escritura del índice.
+	 */
+	@Test
+	public void testFicheroCorrupto() throws IOException {
+		IndiceProblemas.Escritor escritor = new IndiceProblemas.Escritor(10);
+		escritor.añade(Tipo.AHO_SETHI_ULLMAN, 2, 4, false, "(a|b)*abb");
+		escritor.añade(Tipo.CONSTRUCCION_SUBCONJUNTOS, 2, 4, false, "ab|ba");
+		escritor.escribe(fichero);
+		long longitud = fichero.length();
+
+		// Número de cubetas, posición de la primera tabla, posición de la
+		// primera expresión y longitud de la primera expresión.
+		int[] campos = { 8, 16, 36, 40 };
+		for (int campo : campos) {
+			escritor.escribe(fichero);
+			try (RandomAccessFile acceso = new RandomAccessFile(fichero, "rw")) {
+				acceso.seek(campo);
+				if (campo == 40)
+					acceso.writeShort(0x7FFF);
+				else
+					acceso.writeInt(0x7FFFFFF0);
+			}
+			compruebaRechazo("Campo " + campo + " fuera del fichero aceptado.");
+		}
+
+		for (long truncado = longitud - 1; truncado > 0; truncado--) {
+			escritor.escribe(fichero);
+			try (RandomAccessFile acceso = new RandomAccessFile(fichero, "rw")) {
+				acceso.setLength(truncado);
+			}
+			compruebaRechazo("Índice truncado a " + truncado
+					+ " bytes aceptado.");
+		}
+	}
+
+	private void compruebaRechazo(String mensaje) {
+		try {
+			IndiceProblemas.abre(fichero);
+			fail(mensaje);
+		} catch (IOException e) {
+			// Esperado.
+		}
+	}
+}
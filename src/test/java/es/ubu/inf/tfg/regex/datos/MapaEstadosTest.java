@@ -2,8 +2,7 @@ package es.ubu.inf.tfg.regex.datos;
 
 import static org.junit.Assert.assertEquals;
 
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Arrays;
 
 import org.junit.After;
 import org.junit.Before;
@@ -32,19 +31,19 @@ public class MapaEstadosTest {
 	 */
 	@Test
 	public void testAddTransicionGetTransicion() {
-		mapaEstados.add('A', 'a', 'B');
-		mapaEstados.add('A', 'b', 'A');
-		mapaEstados.add('B', 'a', 'A');
-		mapaEstados.add('B', 'b', 'B');
-
-		assertEquals("Obtenida transición incorrecta.", 'B',
-				mapaEstados.get('A', 'a'));
-		assertEquals("Obtenida transición incorrecta.", 'A',
-				mapaEstados.get('A', 'b'));
-		assertEquals("Obtenida transición incorrecta.", 'A',
-				mapaEstados.get('B', 'a'));
-		assertEquals("Obtenida transición incorrecta.", 'B',
-				mapaEstados.get('B', 'b'));
+		mapaEstados.add("A", 'a', "B");
+		mapaEstados.add("A", 'b', "A");
+		mapaEstados.add("B", 'a', "A");
+		mapaEstados.add("B", 'b', "B");
+
+		assertEquals("Obtenida transición incorrecta.", "B",
+				mapaEstados.get("A", 'a'));
+		assertEquals("Obtenida transición incorrecta.", "A",
+				mapaEstados.get("A", 'b'));
+		assertEquals("Obtenida transición incorrecta.", "A",
+				mapaEstados.get("B", 'a'));
+		assertEquals("Obtenida transición incorrecta.", "B",
+				mapaEstados.get("B", 'b'));
 	}
 
 	/**
@@ -52,26 +51,88 @@ public class MapaEstadosTest {
 	 */
 	@Test
 	public void testEstados() {
-		mapaEstados.add('A', 'a', 'B');
-		mapaEstados.add('A', 'b', 'A');
-		mapaEstados.add('B', 'a', 'A');
-		mapaEstados.add('B', 'b', 'B');
+		mapaEstados.add("A", 'a', "B");
+		mapaEstados.add("A", 'b', "A");
+		mapaEstados.add("B", 'a', "A");
+		mapaEstados.add("B", 'b', "B");
+
+		assertEquals("Obtenida lista de estados incorrecta.",
+				Arrays.asList("A", "B"), mapaEstados.estados());
+	}
+
+	/**
+	 * Comprueba que la tabla de transición admite estados identificados por
+	 * entero más allá de los que se pueden etiquetar con letras.
+	 */
+	@Test
+	public void testTablaDensa() {
+		mapaEstados = new MapaEstados(new char[] { 'a', 'b' });
+
+		for (int i = 0; i < 100; i++)
+			assertEquals("Identificador de estado incorrecto.", i,
+					mapaEstados.nuevoEstado());
+		for (int i = 0; i < 100; i++) {
+			mapaEstados.add(i, 0, (i + 1) % 100);
+			mapaEstados.add(i, 1, i);
+		}
+
+		assertEquals("Número de estados incorrecto.", 100,
+				mapaEstados.nEstados());
+		assertEquals("Columna de símbolo incorrecta.", 1,
+				mapaEstados.columna('b'));
+		assertEquals("Obtenida transición incorrecta.", 0,
+				mapaEstados.get(99, 0));
+		assertEquals("Obtenida transición incorrecta.", 42,
+				mapaEstados.get(42, 1));
+	}
+
+	/**
+	 * Comprueba la conversión entre identificadores de estado y etiquetas,
+	 * incluidas las de varias letras a partir del vigésimo séptimo estado.
+	 */
+	@Test
+	public void testEtiquetas() {
+		assertEquals("Etiqueta de estado incorrecta.", "A",
+				MapaEstados.etiqueta(0));
+		assertEquals("Etiqueta de estado incorrecta.", "Z",
+				MapaEstados.etiqueta(25));
+		assertEquals("Etiqueta de estado incorrecta.", "AA",
+				MapaEstados.etiqueta(26));
+		assertEquals("Etiqueta de estado incorrecta.", "AB",
+				MapaEstados.etiqueta(27));
+		assertEquals("Etiqueta de estado incorrecta.", "ZZ",
+				MapaEstados.etiqueta(701));
+		assertEquals("Etiqueta de estado incorrecta.", "AAA",
+				MapaEstados.etiqueta(702));
+
+		for (int i = 0; i < 1000; i++)
+			assertEquals("Índice de estado incorrecto.", i,
+					MapaEstados.indice(MapaEstados.etiqueta(i)));
+	}
+
+	/**
+	 * Comprueba que las transiciones entre estados de varias letras se
+	 * etiquetan correctamente.
+	 */
+	@Test
+	public void testEtiquetasLargas() {
+		mapaEstados.add("Z", 'a', "AA");
+		mapaEstados.add("AA", 'a', "AB");
 
-		assertEquals("Obtenida lista de estados incorrecta.", set('A', 'B'),
-				mapaEstados.estados());
+		assertEquals("Número de estados incorrecto.", 28,
+				mapaEstados.nEstados());
+		assertEquals("Obtenida transición incorrecta.", "AB",
+				mapaEstados.get("AA", 'a'));
+		assertEquals("Obtenida lista de estados incorrecta.", "AB",
+				mapaEstados.estados().get(27));
 	}
 
 	/**
-	 * Genera un set a partir de una lista de caracteres de longitud variable.
-	 * 
-	 * @param ns
-	 *            Lista de caracteres de longitud variable.
-	 * @return Set de caracteres.
+	 * Comprueba que se rechazan las etiquetas que no están formadas por letras
+	 * mayúsculas.
 	 */
-	private static Set<Character> set(char... ns) {
-		Set<Character> set = new TreeSet<>();
-		for (char n : ns)
-			set.add(n);
-		return set;
+	@Test(expected = IllegalArgumentException.class)
+	public void testEtiquetaNoValida() {
+		MapaEstados.indice("[");
 	}
 }
@@ -0,0 +1,119 @@
+package es.ubu.inf.tfg.regex.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+import es.ubu.inf.tfg.regex.datos.ExpresionesAleatorias;
+
+public class ExpresionRegularParserRapidoTest {
+
+	/**
+	 * Comprueba que el analizador produce los mismos árboles que el generado
+	 * por JavaCC para distintas formas de escribir las expresiones.
+	 *
+	 * @throws ParseException
+	 *             Error del parser.
+	 */
+	@Test
+	public void testEquivalencia() throws ParseException {
+		String[] expresiones = { "a", "E", "ε", "ab", "a.b", "a·b",
+				"a‧b", "a\uFFFDb", "a***", "(a|b)*abb", "((a|E)b*)*|c.d",
+				" a \t| b\r", "$a", "a|b|c", "(a)(b)(c)", "\\u0061\\u002Ab" };
+
+		for (String expresion : expresiones)
+			compara(expresion);
+	}
+
+	/**
+	 * Comprueba que el analizador produce los mismos árboles que el generado
+	 * por JavaCC para expresiones aleatorias.
+	 *
+	 * @throws ParseException
+	 *             Error del parser.
+	 */
+	@Test
+	public void testEquivalenciaAleatoria() throws ParseException {
+		for (ExpresionRegular expresion : ExpresionesAleatorias.genera(3, 200,
+				5, 8, false))
+			compara(expresion.toString());
+	}
+
+	/**
+	 * Comprueba que el final de la entrada equivale a un salto de línea, y que
+	 * lo que sigue al primer salto de línea se ignora.
+	 *
+	 * @throws ParseException
+	 *             Error del parser.
+	 */
+	@Test
+	public void testFinal() throws ParseException {
+		assertEquals("Parser produce expresión incorrecta.", "a·b*·$",
+				ExpresionRegularParserRapido.analiza("a.b*").toString());
+		assertEquals("Parser produce expresión incorrecta.", "a·b*·$",
+				ExpresionRegularParserRapido.analiza("a.b*\n(((").toString());
+	}
+
+	/**
+	 * Comprueba que el analizador rechaza las mismas expresiones que el
+	 * generado por JavaCC.
+	 */
+	@Test
+	public void testErrores() {
+		String[] expresiones = { "", "a|", "|a", "(a", "a)", "()", "*a", "a..b",
+				"A", "a+b", "a\\u00", "a\\u00zz" };
+
+		for (String expresion : expresiones) {
+			try {
+				ExpresionRegularParserRapido.analiza(expresion);
+				fail("Aceptada expresión no válida: " + expresion);
+			} catch (ParseException e) {
+				// Esperado
+			}
+
+			boolean rechazada = false;
+			try {
+				original(expresion);
+			} catch (ParseException | Error e) {
+				// JavaCharStream lanza Error ante escapes unicode no válidos
+				rechazada = true;
+			}
+			assertTrue("Parser JavaCC acepta expresión no válida: "
+					+ expresion, rechazada);
+		}
+	}
+
+	private static ExpresionRegular original(String expresion)
+			throws ParseException {
+		CharStream input = new JavaCharStream(new StringReader(expresion
+				+ "\n"));
+		return new ExpresionRegularParser(input).expresion();
+	}
+
+	private static void compara(String expresion) throws ParseException {
+		ExpresionRegular esperada = original(expresion);
+		ExpresionRegular obtenida = ExpresionRegularParserRapido
+				.analiza(expresion);
+
+		assertEquals("Parser produce expresión incorrecta: " + expresion,
+				esperada.toString(), obtenida.toString());
+		assertTrue("Parser produce árbol incorrecto: " + expresion,
+				iguales(esperada, obtenida));
+	}
+
+	private static boolean iguales(ExpresionRegular a, ExpresionRegular b) {
+		if (a == null || b == null)
+			return a == b;
+		if (a.tipo != b.tipo)
+			return false;
+		if (a.esSimbolo())
+			return a.simbolo() == b.simbolo() && a.posicion() == b.posicion();
+		return iguales(a.hijoIzquierdo, b.hijoIzquierdo)
+				&& iguales(a.hijoDerecho, b.hijoDerecho);
+	}
+}
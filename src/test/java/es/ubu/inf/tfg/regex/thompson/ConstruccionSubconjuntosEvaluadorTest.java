@@ -0,0 +1,89 @@
+package es.ubu.inf.tfg.regex.thompson;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+import es.ubu.inf.tfg.regex.datos.ExpresionesAleatorias;
+import es.ubu.inf.tfg.regex.datos.Generador;
+import es.ubu.inf.tfg.regex.parser.ExpresionRegularParserRapido;
+import es.ubu.inf.tfg.regex.parser.ParseException;
+
+public class ConstruccionSubconjuntosEvaluadorTest {
+
+	/**
+	 * Comprueba que el evaluador obtiene el mismo número de estados y de
+	 * símbolos que el problema completo para expresiones conocidas, con
+	 * cadenas de transiciones vacías que ponen a prueba el cálculo de los
+	 * cierres.
+	 * 
+	 * @throws ParseException
+	 *             Error del parser.
+	 */
+	@Test
+	public void testEquivalencia() throws ParseException {
+		String[] expresiones = { "E", "E*", "(a*)*", "(E|a)*(E|b)*",
+				"((a|E)b*)*|c.d", "a(b|c)*d", "(ab)*|(ba)*",
+				"(a|b)*a(a|b)(a|b)" };
+
+		for (String expresion : expresiones)
+			compara(ExpresionRegularParserRapido.analiza(expresion),
+					new ConstruccionSubconjuntos(expresion));
+	}
+
+	/**
+	 * Comprueba que el evaluador obtiene el mismo número de estados y de
+	 * símbolos que el problema completo para expresiones aleatorias y para sus
+	 * mutaciones, que son las que evalúa el generador de problemas de
+	 * construcción de subconjuntos.
+	 */
+	@Test
+	public void testEquivalenciaAleatoria() {
+		Generador generador = new Generador(3, true, true,
+				new SplittableRandom(11));
+
+		// Expresiones aumentadas, para que el hijo izquierdo sea la
+		// expresión completa
+		for (ExpresionRegular expresion : ExpresionesAleatorias.genera(7, 300,
+				5, 6, true)) {
+			compara(expresion, new ConstruccionSubconjuntos(expresion));
+			if (expresion.hijoIzquierdo().nodos().stream()
+					.filter(e -> !e.esSimbolo() && !e.esVacio()).count() > 1) {
+				ExpresionRegular mutante = generador.mutacion(expresion);
+				compara(mutante, new ConstruccionSubconjuntos(mutante));
+			}
+		}
+	}
+
+	/**
+	 * Comprueba que el recuento de estados se detiene al superar el límite.
+	 * 
+	 * @throws ParseException
+	 *             Error del parser.
+	 */
+	@Test
+	public void testLimite() throws ParseException {
+		ConstruccionSubconjuntosEvaluador evaluador = new ConstruccionSubconjuntosEvaluador(
+				ExpresionRegularParserRapido.analiza("(a|b)*a(a|b)(a|b)"));
+
+		assertEquals("Número de estados incorrecto.", 9, evaluador.nEstados());
+		assertEquals("Límite de estados no respetado.", 4,
+				evaluador.nEstados(3));
+		assertEquals("Límite de estados no respetado.", 9,
+				evaluador.nEstados(9));
+	}
+
+	private static void compara(ExpresionRegular expresion,
+			ConstruccionSubconjuntos problema) {
+		ConstruccionSubconjuntosEvaluador evaluador = new ConstruccionSubconjuntosEvaluador(
+				expresion);
+
+		assertEquals("Número de estados incorrecto: " + expresion,
+				problema.nEstados(), evaluador.nEstados());
+		assertEquals("Número de símbolos incorrecto: " + expresion, problema
+				.simbolos().size(), evaluador.nSimbolos());
+	}
+}
@@ -1,15 +1,25 @@
 package es.ubu.inf.tfg.regex.thompson;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.time.Duration;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import es.ubu.inf.tfg.regex.datos.EstadisticasGeneracion;
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+
 public class ConstruccionSubconjuntosGeneradorTest {
 
 	private final int MIN_CORRECTOS = 80; // Mínimo porcentaje de correctos
@@ -50,7 +60,7 @@ public class ConstruccionSubconjuntosGeneradorTest {
 			problema = generador.nuevo(simbolos, estados, false);
 
 			dif = Math.abs(problema.simbolos().size() - simbolos)
-					+ Math.abs(problema.estados().size() - estados);
+					+ Math.abs(problema.nEstados() - estados);
 
 			if (dif <= 1)
 				correctos++;
@@ -82,7 +92,37 @@ public class ConstruccionSubconjuntosGeneradorTest {
 			problema = generador.nuevo(simbolos, estados, true);
 
 			dif = Math.abs(problema.simbolos().size() - simbolos)
-					+ Math.abs(problema.estados().size() - estados);
+					+ Math.abs(problema.nEstados() - estados);
+
+			if (dif <= 1)
+				correctos++;
+		}
+
+		assertTrue("Probabilidad insuficiente de generar problemas válidos: "
+				+ (correctos * 100 / N_ITERACIONES) + "%",
+				(correctos * 100 / N_ITERACIONES) >= MIN_CORRECTOS);
+	}
+
+	/**
+	 * Comprueba que la generación por islas obtiene el problema pedido o uno
+	 * que difiere en uno en como máximo uno de los parámetros en al menos un
+	 * 80% de los casos.
+	 */
+	@Test
+	public void testNuevoIslas() {
+		ConstruccionSubconjuntos problema;
+		int correctos = 0;
+		int estados, simbolos;
+		int dif;
+
+		for (int i = 0; i < N_ITERACIONES; i++) {
+			estados = random.nextInt(13) + 3;
+			simbolos = random.nextInt(5) + 2;
+
+			problema = generador.nuevo(simbolos, estados, i % 2 == 0, 4);
+
+			dif = Math.abs(problema.simbolos().size() - simbolos)
+					+ Math.abs(problema.nEstados() - estados);
 
 			if (dif <= 1)
 				correctos++;
@@ -92,4 +132,95 @@ public class ConstruccionSubconjuntosGeneradorTest {
 				+ (correctos * 100 / N_ITERACIONES) + "%",
 				(correctos * 100 / N_ITERACIONES) >= MIN_CORRECTOS);
 	}
+
+	/**
+	 * Comprueba que se rechaza un número de islas no positivo.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testIslasNoValidas() {
+		generador.nuevo(2, 3, false, 0);
+	}
+
+	/**
+	 * Comprueba que la generación con plazo termina al agotarse este,
+	 * devolviendo el mejor problema encontrado, aunque no se alcancen los
+	 * parámetros pedidos. Solo puede terminar antes si encuentra una solución
+	 * exacta.
+	 */
+	@Test
+	public void testPlazo() {
+		long inicio = System.nanoTime();
+		ConstruccionSubconjuntos problema = generador.nuevo(2, 500, false, 2,
+				Duration.ofMillis(200), null);
+		long total = System.nanoTime() - inicio;
+
+		assertNotNull("No se devuelve el mejor problema.", problema);
+		assertTrue("Plazo no respetado: " + total / 1000000 + " ms",
+				total < 5000000000L);
+
+		// El plazo limita la búsqueda, no la resolución del problema elegido.
+		EstadisticasGeneracion estadisticas = generador.estadisticas();
+		assertTrue("Plazo no respetado: " + estadisticas.tiempo() / 1000000
+				+ " ms", estadisticas.tiempo() < 2000000000L);
+		assertTrue("Búsqueda detenida antes de tiempo sin solución exacta.",
+				estadisticas.evaluacion() == 0
+						|| estadisticas.tiempo() >= 200000000L);
+		assertTrue("Iteraciones no registradas.",
+				estadisticas.iteraciones() > 1);
+	}
+
+	/**
+	 * Comprueba que la generación se detiene tras una única generación si el
+	 * indicador de cancelación externo ya está activo.
+	 */
+	@Test
+	public void testCancelacion() {
+		ConstruccionSubconjuntos problema = generador.nuevo(2, 500, false,
+				null, new AtomicBoolean(true));
+
+		assertNotNull("No se devuelve el mejor problema.", problema);
+		assertEquals("Generación no cancelada.", 1, generador.estadisticas()
+				.iteraciones());
+	}
+
+	/**
+	 * Comprueba que una cancelación no afecta a las generaciones posteriores
+	 * del mismo generador.
+	 */
+	@Test
+	public void testCancelacionPosterior() {
+		generador.cancelar();
+		generador.nuevo(2, 500, false, 1, Duration.ofMillis(50), null);
+
+		assertTrue("Cancelación aplicada a una generación posterior.",
+				generador.estadisticas().iteraciones() > 1);
+	}
+
+	/**
+	 * Comprueba que, durante toda la búsqueda de un problema, cada individuo
+	 * se evalúa una única vez, aunque aparezca en varias generaciones.
+	 */
+	@Test
+	public void testEvaluacionUnica() {
+		Map<ExpresionRegular, Integer> evaluaciones = new HashMap<>();
+		ConstruccionSubconjuntosGenerador contador = new ConstruccionSubconjuntosGenerador(
+				new SplittableRandom(7)) {
+			@Override
+			int evalua(ExpresionRegular expresion, int nEstados, int nSimbolos) {
+				evaluaciones.merge(expresion, 1, Integer::sum);
+				return super.evalua(expresion, nEstados, nSimbolos);
+			}
+		};
+
+		contador.nuevo(3, 500, false);
+
+		assertTrue("Búsqueda demasiado corta.", contador.estadisticas()
+				.iteraciones() > 1);
+		assertTrue("Memoria de evaluaciones superada.",
+				evaluaciones.size() <= ConstruccionSubconjuntosGenerador.MAX_MEMORIA);
+		for (Map.Entry<ExpresionRegular, Integer> evaluacion : evaluaciones
+				.entrySet())
+			assertEquals("Individuo evaluado varias veces: "
+					+ evaluacion.getKey(), 1, (int) evaluacion.getValue());
+	}
 }
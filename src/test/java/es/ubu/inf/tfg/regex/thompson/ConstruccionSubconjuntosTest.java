@@ -2,6 +2,7 @@ package es.ubu.inf.tfg.regex.thompson;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -48,7 +49,7 @@ public class ConstruccionSubconjuntosTest {
 	@Test
 	public void testEstados() {
 		assertEquals("Conjunto de estados incorrecto.",
-				set('A', 'B', 'C', 'D', 'E'), th.estados());
+				Arrays.asList("A", "B", "C", "D", "E"), th.estados());
 	}
 
 	/**
@@ -58,15 +59,15 @@ public class ConstruccionSubconjuntosTest {
 	@Test
 	public void testPosicionesEstado() {
 		assertEquals("Incorrecto conjunto de posiciones para un estado dado.",
-				set(0, 1, 2, 4, 7), th.posiciones('A'));
+				set(0, 1, 2, 4, 7), th.posiciones("A"));
 		assertEquals("Incorrecto conjunto de posiciones para un estado dado.",
-				set(1, 2, 3, 4, 6, 7, 8), th.posiciones('B'));
+				set(1, 2, 3, 4, 6, 7, 8), th.posiciones("B"));
 		assertEquals("Incorrecto conjunto de posiciones para un estado dado.",
-				set(1, 2, 4, 5, 6, 7), th.posiciones('C'));
+				set(1, 2, 4, 5, 6, 7), th.posiciones("C"));
 		assertEquals("Incorrecto conjunto de posiciones para un estado dado.",
-				set(1, 2, 4, 5, 6, 7, 9), th.posiciones('D'));
+				set(1, 2, 4, 5, 6, 7, 9), th.posiciones("D"));
 		assertEquals("Incorrecto conjunto de posiciones para un estado dado.",
-				set(1, 2, 4, 5, 6, 7, 10), th.posiciones('E'));
+				set(1, 2, 4, 5, 6, 7, 10), th.posiciones("E"));
 	}
 
 	/**
@@ -75,26 +76,26 @@ public class ConstruccionSubconjuntosTest {
 	 */
 	@Test
 	public void testMueve() {
-		assertEquals("Función de transición incorrecta.", 'B',
-				th.mueve('A', 'a'));
-		assertEquals("Función de transición incorrecta.", 'C',
-				th.mueve('A', 'b'));
-		assertEquals("Función de transición incorrecta.", 'B',
-				th.mueve('B', 'a'));
-		assertEquals("Función de transición incorrecta.", 'D',
-				th.mueve('B', 'b'));
-		assertEquals("Función de transición incorrecta.", 'B',
-				th.mueve('C', 'a'));
-		assertEquals("Función de transición incorrecta.", 'C',
-				th.mueve('C', 'b'));
-		assertEquals("Función de transición incorrecta.", 'B',
-				th.mueve('D', 'a'));
-		assertEquals("Función de transición incorrecta.", 'E',
-				th.mueve('D', 'b'));
-		assertEquals("Función de transición incorrecta.", 'B',
-				th.mueve('E', 'a'));
-		assertEquals("Función de transición incorrecta.", 'C',
-				th.mueve('E', 'b'));
+		assertEquals("Función de transición incorrecta.", "B",
+				th.mueve("A", 'a'));
+		assertEquals("Función de transición incorrecta.", "C",
+				th.mueve("A", 'b'));
+		assertEquals("Función de transición incorrecta.", "B",
+				th.mueve("B", 'a'));
+		assertEquals("Función de transición incorrecta.", "D",
+				th.mueve("B", 'b'));
+		assertEquals("Función de transición incorrecta.", "B",
+				th.mueve("C", 'a'));
+		assertEquals("Función de transición incorrecta.", "C",
+				th.mueve("C", 'b'));
+		assertEquals("Función de transición incorrecta.", "B",
+				th.mueve("D", 'a'));
+		assertEquals("Función de transición incorrecta.", "E",
+				th.mueve("D", 'b'));
+		assertEquals("Función de transición incorrecta.", "B",
+				th.mueve("E", 'a'));
+		assertEquals("Función de transición incorrecta.", "C",
+				th.mueve("E", 'b'));
 	}
 
 	/**
@@ -103,11 +104,11 @@ public class ConstruccionSubconjuntosTest {
 	 */
 	@Test
 	public void testEsFinal() {
-		assertFalse("Estado no final identificado como final.", th.esFinal('A'));
-		assertFalse("Estado no final identificado como final.", th.esFinal('B'));
-		assertFalse("Estado no final identificado como final.", th.esFinal('C'));
-		assertFalse("Estado no final identificado como final.", th.esFinal('D'));
-		assertTrue("Estado final identificado como no final.", th.esFinal('E'));
+		assertFalse("Estado no final identificado como final.", th.esFinal("A"));
+		assertFalse("Estado no final identificado como final.", th.esFinal("B"));
+		assertFalse("Estado no final identificado como final.", th.esFinal("C"));
+		assertFalse("Estado no final identificado como final.", th.esFinal("D"));
+		assertTrue("Estado final identificado como no final.", th.esFinal("E"));
 	}
 
 	/**
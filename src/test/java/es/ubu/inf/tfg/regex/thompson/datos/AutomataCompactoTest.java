@@ -0,0 +1,195 @@
+package es.ubu.inf.tfg.regex.thompson.datos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import es.ubu.inf.tfg.regex.datos.ExpresionRegular;
+import es.ubu.inf.tfg.regex.datos.ExpresionesAleatorias;
+
+public class AutomataCompactoTest {
+
+	/**
+	 * Comprueba la numeración y las transiciones del autómata de la expresión
+	 * (a|b)*abb.
+	 */
+	@Test
+	public void testTransiciones() {
+		AutomataCompacto automata = new AutomataCompacto(abb());
+
+		assertEquals("Error contando los nodos.", 11, automata.nodos());
+		assertEquals("Error identificando el nodo inicial.", 0,
+				automata.nodoInicial());
+		assertEquals("Error identificando el nodo final.", 10,
+				automata.nodoFinal());
+		assertEquals("Error obteniendo el alfabeto.", 2, automata.nSimbolos());
+		assertEquals("Error obteniendo el alfabeto.", 'a', automata.simbolo(0));
+		assertEquals("Error obteniendo el alfabeto.", 'b', automata.simbolo(1));
+
+		assertEquals("Error identificando transiciones vacías del nodo inicial.",
+				new TreeSet<>(Arrays.asList(1, 7)),
+				vacias(automata, 0));
+		assertEquals("Error identificando transiciones del nodo 7.",
+				transiciones('a', 8), transiciones(automata, 7));
+		assertEquals("Error identificando transiciones del nodo 9.",
+				transiciones('b', 10), transiciones(automata, 9));
+		assertEquals("Error identificando transiciones del nodo final.",
+				new TreeMap<>(), transiciones(automata, 10));
+		assertEquals("Error identificando transiciones vacías del nodo final.",
+				new TreeSet<>(), vacias(automata, 10));
+	}
+
+	/**
+	 * Comprueba las clausuras vacías y el movimiento de conjuntos de nodos en
+	 * el autómata de la expresión (a|b)*abb.
+	 */
+	@Test
+	public void testMueve() {
+		AutomataCompacto automata = new AutomataCompacto(abb());
+		long[] inicial = new long[automata.palabras()];
+		long[] destino = new long[automata.palabras()];
+
+		automata.uneClausura(automata.nodoInicial(), inicial);
+		assertEquals("Error calculando la clausura del nodo inicial.",
+				conjunto(0, 1, 2, 4, 7), inicial[0]);
+
+		automata.mueve(inicial, 0, destino);
+		assertEquals("Error moviendo con el símbolo a.",
+				conjunto(1, 2, 3, 4, 6, 7, 8), destino[0]);
+
+		automata.mueve(inicial, 1, destino);
+		assertEquals("Error moviendo con el símbolo b.",
+				conjunto(1, 2, 4, 5, 6, 7), destino[0]);
+
+		automata.mueve(new long[automata.palabras()], 0, destino);
+		assertEquals("Error moviendo el conjunto vacío.", 0L, destino[0]);
+	}
+
+	/**
+	 * Comprueba que el autómata compacto coincide, nodo a nodo, con el
+	 * autómata de nodos para expresiones aleatorias.
+	 */
+	@Test
+	public void testEquivalencia() {
+		for (ExpresionRegular aumentada : ExpresionesAleatorias.genera(5, 200,
+				5, 6, true)) {
+			ExpresionRegular expresion = aumentada.hijoIzquierdo();
+
+			AutomataCompacto compacto = new AutomataCompacto(expresion);
+			Automata automata = new Automata(expresion, 0);
+
+			assertEquals("Error identificando el nodo final: " + expresion,
+					automata.nodoFinal().posicion(), compacto.nodoFinal());
+			assertEquals("Error obteniendo el alfabeto: " + expresion,
+					automata.simbolos(), compacto.simbolos());
+
+			Map<Integer, Nodo> nodos = nodos(automata);
+			assertEquals("Error contando los nodos: " + expresion,
+					nodos.size(), compacto.nodos());
+			for (Nodo nodo : nodos.values()) {
+				TreeSet<Integer> vacias = new TreeSet<>();
+				for (Nodo destino : nodo.transicionVacia())
+					vacias.add(destino.posicion());
+				assertEquals("Error en las transiciones vacías: " + expresion,
+						vacias, vacias(compacto, nodo.posicion()));
+
+				TreeMap<Character, Integer> transiciones = new TreeMap<>();
+				for (char simbolo : automata.simbolos())
+					if (nodo.transicion(simbolo) != null)
+						transiciones.put(simbolo, nodo.transicion(simbolo)
+								.posicion());
+				assertEquals("Error en las transiciones: " + expresion,
+						transiciones, transiciones(compacto, nodo.posicion()));
+				assertTrue("Error identificando nodos finales: " + expresion,
+						nodo.esFinal() == (nodo.posicion() == compacto
+								.nodoFinal()));
+			}
+		}
+	}
+
+	/**
+	 * Construye el árbol de la expresión (a|b)*abb.
+	 */
+	private static ExpresionRegular abb() {
+		ExpresionRegular expresion;
+
+		expresion = ExpresionRegular.nodoSimbolo(1, 'a');   // a
+		expresion = ExpresionRegular.nodoUnion(expresion,
+				ExpresionRegular.nodoSimbolo(2, 'b'));      // (a|b)
+		expresion = ExpresionRegular.nodoCierre(expresion); // (a|b)*
+		expresion = ExpresionRegular.nodoConcat(expresion,
+				ExpresionRegular.nodoSimbolo(3, 'a'));      // (a|b)*a
+		expresion = ExpresionRegular.nodoConcat(expresion,
+				ExpresionRegular.nodoSimbolo(4, 'b'));      // (a|b)*ab
+		expresion = ExpresionRegular.nodoConcat(expresion,
+				ExpresionRegular.nodoSimbolo(5, 'b'));      // (a|b)*abb
+
+
+		return expresion;
+	}
+
+	private static long conjunto(int... nodos) {
+		long conjunto = 0;
+		for (int nodo : nodos)
+			conjunto |= 1L << nodo;
+		return conjunto;
+	}
+
+	private static TreeSet<Integer> vacias(AutomataCompacto automata,
+			int nodo) {
+		TreeSet<Integer> vacias = new TreeSet<>();
+		for (int i = automata.inicioVacias(nodo); i < automata.finVacias(nodo); i++)
+			vacias.add(automata.destinoVacia(i));
+		return vacias;
+	}
+
+	private static TreeMap<Character, Integer> transiciones(
+			AutomataCompacto automata, int nodo) {
+		TreeMap<Character, Integer> transiciones = new TreeMap<>();
+		for (int i = automata.inicioTransiciones(nodo); i < automata
+				.finTransiciones(nodo); i++)
+			transiciones.put(automata.simbolo(automata.columna(i)),
+					automata.destino(i));
+		return transiciones;
+	}
+
+	private static TreeMap<Character, Integer> transiciones(char simbolo,
+			int destino) {
+		TreeMap<Character, Integer> transiciones = new TreeMap<>();
+		transiciones.put(simbolo, destino);
+		return transiciones;
+	}
+
+	/**
+	 * Recorre el autómata de nodos desde su nodo inicial, indexando los nodos
+	 * alcanzados por su posición.
+	 */
+	private static Map<Integer, Nodo> nodos(Automata automata) {
+		Map<Integer, Nodo> nodos = new HashMap<>();
+		Deque<Nodo> pendientes = new ArrayDeque<>();
+		pendientes.add(automata.nodoInicial());
+
+		while (!pendientes.isEmpty()) {
+			Nodo nodo = pendientes.pop();
+			if (nodos.containsKey(nodo.posicion()))
+				continue;
+			nodos.put(nodo.posicion(), nodo);
+
+			pendientes.addAll(nodo.transicionVacia());
+			for (char simbolo : automata.simbolos())
+				if (nodo.transicion(simbolo) != null)
+					pendientes.add(nodo.transicion(simbolo));
+		}
+
+		return nodos;
+	}
+}